@@ -20,6 +20,7 @@ dependencies {
     implementation(platform("software.amazon.awssdk:bom:2.25.67"))
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.6.0")
     implementation("software.amazon.awssdk:dynamodb-enhanced")
     implementation("org.apache.commons:commons-lang3:3.16.0")
@@ -132,16 +132,72 @@ Ensure-TableJson -TableName "records" `
 
 # audit_events: PK = subject_id (S), SK = ts_ulid (S)
 # Attributes: event_type (S), request_id (S), item_key (S, optional), purpose (S, optional),
-#   timestamp (N), details (M), prev_hash (S), hash (S)
+#   timestamp (N), details (M), prev_hash (S), hash (S), expires_at (N), expiry_bucket (S), pruned (BOOL)
+# GSI audit_events_by_expiry: PK = expiry_bucket (S), SK = expires_at (N), Projection: ALL
+$auditEventsGsi = @(
+  @{
+    IndexName = "audit_events_by_expiry"
+    KeySchema = @(
+      @{ AttributeName = "expiry_bucket"; KeyType = "HASH"  },
+      @{ AttributeName = "expires_at";    KeyType = "RANGE" }
+    )
+    Projection = @{
+      ProjectionType = "ALL"
+    }
+  }
+)
+
 Ensure-TableJson -TableName "audit_events" `
   -AttributeDefinitions @(
-    @{ AttributeName = "subject_id"; AttributeType = "S" },
-    @{ AttributeName = "ts_ulid";    AttributeType = "S" }
+    @{ AttributeName = "subject_id";    AttributeType = "S" },
+    @{ AttributeName = "ts_ulid";       AttributeType = "S" },
+    @{ AttributeName = "expiry_bucket"; AttributeType = "S" }, # for GSI PK
+    @{ AttributeName = "expires_at";    AttributeType = "N" }  # for GSI SK
   ) `
   -KeySchema @(
     @{ AttributeName = "subject_id"; KeyType = "HASH"  },
     @{ AttributeName = "ts_ulid";    KeyType = "RANGE" }
+  ) `
+  -GlobalSecondaryIndexes $auditEventsGsi
+
+# audit_pages: PK = subject_id (S), SK = page_no (N) — only used with audit.storage.layout=paged
+# Attributes: events (L of S), event_count (N), size_bytes (N), first_ts_ulid (S), first_timestamp (N),
+#   last_ts_ulid (S), last_timestamp (N), last_hash (S), min_expires_at (N), sealed (BOOL)
+Ensure-TableJson -TableName "audit_pages" `
+  -AttributeDefinitions @(
+    @{ AttributeName = "subject_id"; AttributeType = "S" },
+    @{ AttributeName = "page_no";    AttributeType = "N" }
+  ) `
+  -KeySchema @(
+    @{ AttributeName = "subject_id"; KeyType = "HASH"  },
+    @{ AttributeName = "page_no";    KeyType = "RANGE" }
+  )
+
+# audit_chain_anchors: PK = subject_id (S)
+# Attributes: anchor_ts_ulid (S), anchor_hash (S), anchor_timestamp (N), truncated_count (N)
+Ensure-TableJson -TableName "audit_chain_anchors" `
+  -AttributeDefinitions @(
+    @{ AttributeName = "subject_id"; AttributeType = "S" }
+  ) `
+  -KeySchema @(
+    @{ AttributeName = "subject_id"; KeyType = "HASH" }
   )
 
+# idempotency_keys: PK = idempotency_key (S), TTL on expires_at (epoch seconds)
+# Attributes: request_id (S), operation (S), subject_id (S), record_key (S), version (N), response (S), created_at (N)
+Ensure-TableJson -TableName "idempotency_keys" `
+  -AttributeDefinitions @(
+    @{ AttributeName = "idempotency_key"; AttributeType = "S" }
+  ) `
+  -KeySchema @(
+    @{ AttributeName = "idempotency_key"; KeyType = "HASH" }
+  )
+try {
+  awsLocal dynamodb update-time-to-live --table-name idempotency_keys `
+    --time-to-live-specification "Enabled=true,AttributeName=expires_at" 1>$null 2>$null
+} catch {
+  # TTL is already enabled
+}
+
 Write-Host "All tables created / verified."
 
@@ -141,14 +141,74 @@ ensure_table "audit_events" "$(cat <<'JSON'
   "BillingMode": "PAY_PER_REQUEST",
   "AttributeDefinitions": [
     { "AttributeName": "subject_id", "AttributeType": "S" },
-    { "AttributeName": "ts_ulid", "AttributeType": "S" }
+    { "AttributeName": "ts_ulid", "AttributeType": "S" },
+    { "AttributeName": "expiry_bucket", "AttributeType": "S" },
+    { "AttributeName": "expires_at", "AttributeType": "N" }
   ],
   "KeySchema": [
     { "AttributeName": "subject_id", "KeyType": "HASH" },
     { "AttributeName": "ts_ulid", "KeyType": "RANGE" }
+  ],
+  "GlobalSecondaryIndexes": [
+    {
+      "IndexName": "audit_events_by_expiry",
+      "KeySchema": [
+        { "AttributeName": "expiry_bucket", "KeyType": "HASH" },
+        { "AttributeName": "expires_at", "KeyType": "RANGE" }
+      ],
+      "Projection": {
+        "ProjectionType": "ALL"
+      }
+    }
+  ]
+}
+JSON
+)"
+
+ensure_table "audit_pages" "$(cat <<'JSON'
+{
+  "TableName": "audit_pages",
+  "BillingMode": "PAY_PER_REQUEST",
+  "AttributeDefinitions": [
+    { "AttributeName": "subject_id", "AttributeType": "S" },
+    { "AttributeName": "page_no", "AttributeType": "N" }
+  ],
+  "KeySchema": [
+    { "AttributeName": "subject_id", "KeyType": "HASH" },
+    { "AttributeName": "page_no", "KeyType": "RANGE" }
+  ]
+}
+JSON
+)"
+
+ensure_table "audit_chain_anchors" "$(cat <<'JSON'
+{
+  "TableName": "audit_chain_anchors",
+  "BillingMode": "PAY_PER_REQUEST",
+  "AttributeDefinitions": [
+    { "AttributeName": "subject_id", "AttributeType": "S" }
+  ],
+  "KeySchema": [
+    { "AttributeName": "subject_id", "KeyType": "HASH" }
+  ]
+}
+JSON
+)"
+
+ensure_table "idempotency_keys" "$(cat <<'JSON'
+{
+  "TableName": "idempotency_keys",
+  "BillingMode": "PAY_PER_REQUEST",
+  "AttributeDefinitions": [
+    { "AttributeName": "idempotency_key", "AttributeType": "S" }
+  ],
+  "KeySchema": [
+    { "AttributeName": "idempotency_key", "KeyType": "HASH" }
   ]
 }
 JSON
 )"
+aws_local dynamodb update-time-to-live --table-name idempotency_keys \
+  --time-to-live-specification "Enabled=true,AttributeName=expires_at" >/dev/null 2>&1 || true
 
 printf 'All tables created / verified.\n'
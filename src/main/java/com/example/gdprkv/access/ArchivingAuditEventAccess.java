@@ -0,0 +1,125 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.AuditChainAnchor;
+import com.example.gdprkv.models.AuditEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * {@link AuditEventAccess} that layers the cold-tier {@link AuditArchive} under the hot
+ * {@code audit_events} table. Writes always go to the hot table; reads fall through to the
+ * archive so callers see one continuous history regardless of where an event currently lives.
+ */
+public class ArchivingAuditEventAccess implements AuditEventAccess {
+
+    private final AuditEventAccess hot;
+    private final AuditArchive archive;
+
+    public ArchivingAuditEventAccess(AuditEventAccess hot, AuditArchive archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public void put(AuditEvent event) {
+        hot.put(event);
+    }
+
+    @Override
+    public void putAll(List<AuditEvent> events) {
+        hot.putAll(events);
+    }
+
+    @Override
+    public Optional<AuditEvent> findLatest(String subjectId) {
+        return hot.findLatest(subjectId).or(() -> archive.findLatest(subjectId));
+    }
+
+    @Override
+    public List<AuditEvent> findAllBySubjectId(String subjectId) {
+        // An event can briefly exist in both tiers while the tiering job runs; the hot copy wins.
+        Map<String, AuditEvent> merged = new LinkedHashMap<>();
+        archive.read(subjectId).forEach(e -> merged.put(e.getTsUlid(), e));
+        hot.findAllBySubjectId(subjectId).forEach(e -> merged.put(e.getTsUlid(), e));
+        return merged.values().stream()
+                .sorted(Comparator.comparing(AuditEvent::getTsUlid))
+                .toList();
+    }
+
+    @Override
+    public List<AuditEvent> findEventsOlderThan(long cutoffTimestamp) {
+        Map<String, AuditEvent> merged = new LinkedHashMap<>();
+        archive.findEventsOlderThan(cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        hot.findEventsOlderThan(cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    public List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp) {
+        Map<String, AuditEvent> merged = new LinkedHashMap<>();
+        archive.findEventsDueForExpiry(expiryBucket, cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        hot.findEventsDueForExpiry(expiryBucket, cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    public List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp) {
+        Map<String, AuditEvent> merged = new LinkedHashMap<>();
+        archive.findEventsExpiredBefore(cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        hot.findEventsExpiredBefore(cutoffTimestamp).forEach(e -> merged.put(key(e), e));
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    public void prune(AuditEvent stub) {
+        if (archive.contains(stub.getSubjectId(), stub.getTsUlid())) {
+            archive.replace(stub.getSubjectId(), List.of(stub));
+        } else {
+            hot.prune(stub);
+        }
+    }
+
+    @Override
+    public void delete(AuditEvent event) {
+        hot.delete(event);
+        if (archive.contains(event.getSubjectId(), event.getTsUlid())) {
+            archive.remove(event.getSubjectId(), List.of(event.getTsUlid()));
+        }
+    }
+
+    @Override
+    public void deleteAll(List<AuditEvent> events) {
+        hot.deleteAll(events);
+        events.stream()
+                .filter(e -> archive.contains(e.getSubjectId(), e.getTsUlid()))
+                .collect(Collectors.groupingBy(AuditEvent::getSubjectId,
+                        Collectors.mapping(AuditEvent::getTsUlid, Collectors.toList())))
+                .forEach(archive::remove);
+    }
+
+    /**
+     * Truncates across both tiers. The hot table advances the anchor first (deleting archived
+     * keys there is a no-op), so a failure before the archive is rewritten only leaves events
+     * that chain verification already skips as older than the anchor.
+     */
+    @Override
+    public AuditChainAnchor truncate(String subjectId, List<AuditEvent> oldestEvents) {
+        AuditChainAnchor anchor = hot.truncate(subjectId, oldestEvents);
+        archive.remove(subjectId, oldestEvents.stream().map(AuditEvent::getTsUlid).toList());
+        return anchor;
+    }
+
+    @Override
+    public Optional<AuditChainAnchor> findAnchor(String subjectId) {
+        return hot.findAnchor(subjectId);
+    }
+
+    private static String key(AuditEvent event) {
+        return event.getSubjectId() + "|" + event.getTsUlid();
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.AuditEvent;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cold tier for aged audit events. Each subject's archived events live in immutable segments
+ * made of independently Deflate-compressed blocks of NDJSON. Segments are named by the SHA-256
+ * of their bytes, and a per-subject index lists every segment together with a sparse
+ * {@code ts_ulid} entry per block, so a reader only inflates the blocks it needs.
+ */
+public class AuditArchive {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ROOT = "audit/";
+
+    private final BlobStore blobStore;
+    private final int eventsPerBlock;
+
+    public AuditArchive(BlobStore blobStore, int eventsPerBlock) {
+        if (eventsPerBlock < 1) {
+            throw new IllegalArgumentException("eventsPerBlock must be >= 1");
+        }
+        this.blobStore = blobStore;
+        this.eventsPerBlock = eventsPerBlock;
+    }
+
+    /**
+     * Appends events, in chain order, to the subject's archive as one new segment. Events that
+     * are already archived are skipped, so a tiering run that stopped before deleting from the
+     * hot table can safely be repeated.
+     */
+    public synchronized void append(String subjectId, List<AuditEvent> events) {
+        Index index = loadIndex(subjectId);
+        Set<String> archived = new HashSet<>();
+        for (Segment segment : index.segments()) {
+            boolean overlaps = events.stream().anyMatch(e -> segment.covers(e.getTsUlid()));
+            if (overlaps) {
+                segment.blocks().forEach(b -> readBlock(subjectId, segment, b).forEach(e -> archived.add(e.getTsUlid())));
+            }
+        }
+        List<AuditEvent> fresh = events.stream()
+                .filter(e -> !archived.contains(e.getTsUlid()))
+                .toList();
+        if (fresh.isEmpty()) {
+            return;
+        }
+        List<Segment> segments = new ArrayList<>(index.segments());
+        segments.add(writeSegment(subjectId, fresh));
+        saveIndex(subjectId, new Index(segments));
+    }
+
+    /**
+     * Reads every archived event of the subject, oldest first.
+     */
+    public List<AuditEvent> read(String subjectId) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (Segment segment : loadIndex(subjectId).segments()) {
+            for (Block block : segment.blocks()) {
+                events.addAll(readBlock(subjectId, segment, block));
+            }
+        }
+        return events;
+    }
+
+    public Optional<AuditEvent> findLatest(String subjectId) {
+        List<Segment> segments = loadIndex(subjectId).segments();
+        if (segments.isEmpty()) {
+            return Optional.empty();
+        }
+        Segment last = segments.getLast();
+        List<AuditEvent> events = readBlock(subjectId, last, last.blocks().getLast());
+        return events.isEmpty() ? Optional.empty() : Optional.of(events.getLast());
+    }
+
+    /**
+     * Finds archived events, across all subjects, with timestamp older than the cutoff. Only
+     * blocks whose first {@code ts_ulid} precedes the cutoff are inflated.
+     */
+    public List<AuditEvent> findEventsOlderThan(long cutoffTimestamp) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (String subjectId : subjectIds()) {
+            for (Segment segment : loadIndex(subjectId).segments()) {
+                if (segment.firstTimestamp() >= cutoffTimestamp) {
+                    continue;
+                }
+                for (Block block : segment.blocks()) {
+                    if (timestampOf(block.firstTsUlid()) >= cutoffTimestamp) {
+                        continue;
+                    }
+                    readBlock(subjectId, segment, block).stream()
+                            .filter(e -> e.getTimestamp() < cutoffTimestamp)
+                            .forEach(events::add);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Returns true when the event falls inside the subject's archived range.
+     */
+    public boolean contains(String subjectId, String tsUlid) {
+        return loadIndex(subjectId).segments().stream().anyMatch(s -> s.covers(tsUlid));
+    }
+
+    /**
+     * Finds archived events, across all subjects, in the expiry bucket and expiring at or before
+     * the cutoff. Segments whose earliest {@code expires_at} is after the cutoff are skipped.
+     */
+    public List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp) {
+        return findEventsExpiredBefore(cutoffTimestamp).stream()
+                .filter(e -> expiryBucket.equals(e.getExpiryBucket()))
+                .toList();
+    }
+
+    /**
+     * Finds archived events, across all subjects, expiring at or before the cutoff in any expiry
+     * bucket. Segments whose earliest {@code expires_at} is after the cutoff are skipped.
+     */
+    public List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (String subjectId : subjectIds()) {
+            for (Segment segment : loadIndex(subjectId).segments()) {
+                if (segment.minExpiresAt() == null || segment.minExpiresAt() > cutoffTimestamp) {
+                    continue;
+                }
+                for (Block block : segment.blocks()) {
+                    readBlock(subjectId, segment, block).stream()
+                            .filter(e -> e.getExpiresAt() != null && e.getExpiresAt() <= cutoffTimestamp)
+                            .forEach(events::add);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Removes events from the archive. Segments are immutable, so a segment that loses only some
+     * of its events is rewritten as a new segment and the old one deleted after the index swap.
+     */
+    public synchronized void remove(String subjectId, Collection<String> tsUlids) {
+        Set<String> doomed = Set.copyOf(tsUlids);
+        rewrite(subjectId, doomed, e -> doomed.contains(e.getTsUlid()) ? null : e);
+    }
+
+    /**
+     * Replaces archived events with the given versions, matched by {@code ts_ulid}. Used to store
+     * pruned stubs in place of expired events.
+     */
+    public synchronized void replace(String subjectId, Collection<AuditEvent> replacements) {
+        Map<String, AuditEvent> byTsUlid = new HashMap<>();
+        replacements.forEach(e -> byTsUlid.put(e.getTsUlid(), e));
+        rewrite(subjectId, byTsUlid.keySet(), e -> byTsUlid.getOrDefault(e.getTsUlid(), e));
+    }
+
+    private void rewrite(String subjectId, Set<String> tsUlids, UnaryOperator<AuditEvent> mapper) {
+        if (tsUlids.isEmpty()) {
+            return;
+        }
+        Index index = loadIndex(subjectId);
+        List<Segment> kept = new ArrayList<>();
+        List<Segment> replaced = new ArrayList<>();
+        for (Segment segment : index.segments()) {
+            if (tsUlids.stream().noneMatch(segment::covers)) {
+                kept.add(segment);
+                continue;
+            }
+            List<AuditEvent> survivors = new ArrayList<>();
+            for (Block block : segment.blocks()) {
+                readBlock(subjectId, segment, block).stream()
+                        .map(mapper)
+                        .filter(Objects::nonNull)
+                        .forEach(survivors::add);
+            }
+            if (!survivors.isEmpty()) {
+                kept.add(writeSegment(subjectId, survivors));
+            }
+            replaced.add(segment);
+        }
+        if (replaced.isEmpty()) {
+            return;
+        }
+        saveIndex(subjectId, new Index(kept));
+        replaced.stream()
+                .filter(s -> kept.stream().noneMatch(k -> k.hash().equals(s.hash())))
+                .forEach(s -> blobStore.delete(segmentName(subjectId, s.hash())));
+    }
+
+    /**
+     * Lists subjects that have archived events.
+     */
+    public List<String> subjectIds() {
+        return blobStore.list(ROOT).stream()
+                .filter(n -> n.endsWith("/index.json"))
+                .map(n -> n.substring(ROOT.length(), n.length() - "/index.json".length()))
+                .map(AuditArchive::decodeSubject)
+                .toList();
+    }
+
+    private Segment writeSegment(String subjectId, List<AuditEvent> events) {
+        ByteArrayOutputStream segmentBytes = new ByteArrayOutputStream();
+        List<Block> blocks = new ArrayList<>();
+        for (int start = 0; start < events.size(); start += eventsPerBlock) {
+            List<AuditEvent> chunk = events.subList(start, Math.min(start + eventsPerBlock, events.size()));
+            byte[] compressed = deflate(toNdjson(chunk));
+            blocks.add(new Block(chunk.getFirst().getTsUlid(), segmentBytes.size(), compressed.length,
+                    chunk.size(), sha256(compressed)));
+            segmentBytes.writeBytes(compressed);
+        }
+        byte[] bytes = segmentBytes.toByteArray();
+        String hash = sha256(bytes);
+        blobStore.put(segmentName(subjectId, hash), bytes);
+        // Chain order can differ from key order within a millisecond, so record the full key range.
+        return new Segment(hash,
+                events.stream().map(AuditEvent::getTsUlid).min(Comparator.naturalOrder()).orElseThrow(),
+                events.stream().map(AuditEvent::getTsUlid).max(Comparator.naturalOrder()).orElseThrow(),
+                events.stream().mapToLong(AuditEvent::getTimestamp).min().orElseThrow(),
+                events.stream().mapToLong(AuditEvent::getTimestamp).max().orElseThrow(),
+                events.size(),
+                events.stream().map(AuditEvent::getExpiresAt).filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null),
+                blocks);
+    }
+
+    private List<AuditEvent> readBlock(String subjectId, Segment segment, Block block) {
+        byte[] compressed = blobStore.read(segmentName(subjectId, segment.hash()), block.offset(), block.length())
+                .orElseThrow(() -> new IllegalStateException("Missing audit archive segment " + segment.hash()));
+        if (!sha256(compressed).equals(block.hash())) {
+            throw new IllegalStateException("Audit archive block hash mismatch in segment " + segment.hash());
+        }
+        List<AuditEvent> events = new ArrayList<>(block.eventCount());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    events.add(AuditEventJson.read(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit archive segment " + segment.hash(), e);
+        }
+        return events;
+    }
+
+    private Index loadIndex(String subjectId) {
+        return blobStore.get(indexName(subjectId))
+                .map(bytes -> {
+                    try {
+                        return MAPPER.readValue(bytes, Index.class);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Invalid audit archive index for " + subjectId, e);
+                    }
+                })
+                .orElseGet(() -> new Index(List.of()));
+    }
+
+    private void saveIndex(String subjectId, Index index) {
+        if (index.segments().isEmpty()) {
+            blobStore.delete(indexName(subjectId));
+            return;
+        }
+        try {
+            blobStore.put(indexName(subjectId), MAPPER.writeValueAsBytes(index));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write audit archive index for " + subjectId, e);
+        }
+    }
+
+    private static byte[] toNdjson(List<AuditEvent> events) {
+        StringBuilder out = new StringBuilder();
+        for (AuditEvent event : events) {
+            out.append(AuditEventJson.write(event)).append('\n');
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress audit block", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long timestampOf(String tsUlid) {
+        int separator = tsUlid.indexOf('_');
+        return Long.parseLong(separator < 0 ? tsUlid : tsUlid.substring(0, separator));
+    }
+
+    // Subject IDs are caller-defined, so encode them before using them as path segments.
+    private static String encodeSubject(String subjectId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(subjectId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeSubject(String encoded) {
+        return new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+    }
+
+    private static String indexName(String subjectId) {
+        return ROOT + encodeSubject(subjectId) + "/index.json";
+    }
+
+    private static String segmentName(String subjectId, String hash) {
+        return ROOT + encodeSubject(subjectId) + "/" + hash + ".seg";
+    }
+
+    record Index(@JsonProperty("segments") List<Segment> segments) { }
+
+    record Segment(
+            @JsonProperty("hash") String hash,
+            @JsonProperty("first_ts_ulid") String firstTsUlid,
+            @JsonProperty("last_ts_ulid") String lastTsUlid,
+            @JsonProperty("first_timestamp") long firstTimestamp,
+            @JsonProperty("last_timestamp") long lastTimestamp,
+            @JsonProperty("event_count") int eventCount,
+            @JsonProperty("min_expires_at") Long minExpiresAt,
+            @JsonProperty("blocks") List<Block> blocks
+    ) {
+        boolean covers(String tsUlid) {
+            return tsUlid.compareTo(firstTsUlid) >= 0 && tsUlid.compareTo(lastTsUlid) <= 0;
+        }
+    }
+
+    record Block(
+            @JsonProperty("first_ts_ulid") String firstTsUlid,
+            @JsonProperty("offset") long offset,
+            @JsonProperty("length") int length,
+            @JsonProperty("event_count") int eventCount,
+            @JsonProperty("hash") String hash
+    ) { }
+}
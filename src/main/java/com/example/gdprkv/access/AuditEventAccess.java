@@ -1,5 +1,6 @@
 package com.example.gdprkv.access;
 
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +12,16 @@ import java.util.Optional;
  */
 public interface AuditEventAccess {
     void put(AuditEvent event);
+
+    /**
+     * Writes several events of one subject, ordered by their position in the chain. Layouts that
+     * can write several items per request override this; the default writes them one by one.
+     *
+     * @param events the events to write, oldest first
+     */
+    default void putAll(List<AuditEvent> events) {
+        events.forEach(this::put);
+    }
     Optional<AuditEvent> findLatest(String subjectId);
 
     /**
@@ -31,10 +42,67 @@ public interface AuditEventAccess {
      */
     List<AuditEvent> findEventsOlderThan(long cutoffTimestamp);
 
+    /**
+     * Finds audit events in the given expiry bucket whose {@code expires_at} is at or before
+     * the cutoff. Used for per-event-type retention without scanning the table.
+     *
+     * @param expiryBucket bucket key in format "{retentionDays}d#yyyyMMdd"
+     * @param cutoffTimestamp events expiring at or before this are returned
+     * @return list of expired audit events in the bucket
+     */
+    List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp);
+
+    /**
+     * Finds all audit events whose {@code expires_at} is at or before the cutoff, whatever their
+     * expiry bucket. Scans the table; used by retention as a fallback for events in buckets the
+     * bucket queries no longer reach.
+     *
+     * @param cutoffTimestamp events expiring at or before this are returned
+     * @return list of expired audit events
+     */
+    List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp);
+
+    /**
+     * Replaces an expired event with its payload-free stub (see {@link AuditEvent#toPrunedStub()}).
+     * Used when later, longer-retained events still chain from the expired one.
+     *
+     * @param stub the stub to store in place of the original event
+     */
+    void prune(AuditEvent stub);
+
     /**
      * Deletes the specified audit event.
      *
      * @param event the event to delete
      */
     void delete(AuditEvent event);
+
+    /**
+     * Deletes the specified audit events. Layouts that pack several events per item override
+     * this to rewrite each item once.
+     *
+     * @param events the events to delete
+     */
+    default void deleteAll(List<AuditEvent> events) {
+        events.forEach(this::delete);
+    }
+
+    /**
+     * Deletes the oldest events of a subject and advances the subject's truncation anchor to the
+     * last of them. The anchor is written in the same transactional batch as the deletes, so the
+     * chain stays verifiable from the anchor even if the job stops part way through.
+     *
+     * @param subjectId the subject whose chain is being truncated
+     * @param oldestEvents contiguous prefix of the subject's chain, ordered by {@code ts_ulid}
+     * @return the anchor after truncation
+     */
+    AuditChainAnchor truncate(String subjectId, List<AuditEvent> oldestEvents);
+
+    /**
+     * Finds the truncation anchor for a subject, if retention has removed any of its events.
+     *
+     * @param subjectId the subject ID to query
+     * @return the anchor recording the hash of the last deleted event
+     */
+    Optional<AuditChainAnchor> findAnchor(String subjectId);
 }
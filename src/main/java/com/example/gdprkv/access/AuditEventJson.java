@@ -0,0 +1,34 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.AuditEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+/**
+ * JSON form of an {@link AuditEvent} for storage layouts that pack several events together
+ * (archive segments, audit pages). Uses the same attribute names as the {@code audit_events} table.
+ */
+final class AuditEventJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private AuditEventJson() { }
+
+    static String write(AuditEvent event) {
+        try {
+            return MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize audit event " + event.getTsUlid(), e);
+        }
+    }
+
+    static AuditEvent read(String json) {
+        try {
+            return MAPPER.readValue(json, AuditEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid stored audit event", e);
+        }
+    }
+}
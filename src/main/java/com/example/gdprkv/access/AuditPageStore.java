@@ -0,0 +1,326 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.AuditEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+/**
+ * Paged layout for the audit log. Events are appended as JSON strings to per-subject page items
+ * in {@code audit_pages} (PK {@code subject_id}, SK {@code page_no}); when the open page would
+ * exceed the size limit it is sealed and the next page is opened. A trail read fetches whole
+ * pages, and the head page's {@code last_hash} is the chain head.
+ *
+ * Pages are only ever rewritten under an {@code event_count} condition, so a rewrite that races
+ * with an append fails instead of losing the appended event.
+ */
+class AuditPageStore {
+
+    static final String TABLE = "audit_pages";
+
+    private static final int MAX_APPEND_ATTEMPTS = 5;
+    private static final Map<String, String> NAMES = Map.ofEntries(
+            Map.entry("#events", "events"),
+            Map.entry("#count", "event_count"),
+            Map.entry("#size", "size_bytes"),
+            Map.entry("#lastHash", "last_hash"),
+            Map.entry("#lastTs", "last_ts_ulid"),
+            Map.entry("#lastTimestamp", "last_timestamp"),
+            Map.entry("#minExpires", "min_expires_at"),
+            Map.entry("#sealed", "sealed"));
+
+    private final DynamoDbClient dynamo;
+    private final int pageMaxBytes;
+
+    AuditPageStore(DynamoDbClient dynamo, int pageMaxBytes) {
+        this.dynamo = dynamo;
+        this.pageMaxBytes = pageMaxBytes;
+    }
+
+    void append(AuditEvent event) {
+        String json = AuditEventJson.write(event);
+        int size = json.getBytes(StandardCharsets.UTF_8).length;
+        if (size > pageMaxBytes) {
+            throw new IllegalArgumentException("Audit event " + event.getTsUlid() + " exceeds the page size limit");
+        }
+        for (int attempt = 0; attempt < MAX_APPEND_ATTEMPTS; attempt++) {
+            Optional<Page> head = findHead(event.getSubjectId());
+            if (head.isPresent() && !head.get().sealed() && head.get().sizeBytes() + size <= pageMaxBytes) {
+                if (appendToPage(head.get(), event, json, size)) {
+                    return;
+                }
+                continue;
+            }
+            head.ifPresent(this::seal);
+            long pageNo = head.map(p -> p.pageNo() + 1).orElse(0L);
+            if (openPage(event, pageNo)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Could not append audit event for subject " + event.getSubjectId()
+                + " after " + MAX_APPEND_ATTEMPTS + " attempts");
+    }
+
+    Optional<AuditEvent> findLatest(String subjectId) {
+        return findHead(subjectId)
+                .filter(p -> !p.events().isEmpty())
+                .map(p -> AuditEventJson.read(p.events().getLast()));
+    }
+
+    List<AuditEvent> findAllBySubjectId(String subjectId) {
+        return pages(subjectId)
+                .flatMap(p -> p.events().stream())
+                .map(AuditEventJson::read)
+                .sorted(Comparator.comparing(AuditEvent::getTsUlid))
+                .toList();
+    }
+
+    List<AuditEvent> findEventsOlderThan(long cutoffTimestamp) {
+        return scan("first_timestamp < :cutoff", cutoffTimestamp)
+                .filter(e -> e.getTimestamp() < cutoffTimestamp)
+                .toList();
+    }
+
+    List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp) {
+        return findEventsExpiredBefore(cutoffTimestamp).stream()
+                .filter(e -> expiryBucket.equals(e.getExpiryBucket()))
+                .toList();
+    }
+
+    List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp) {
+        return scan("min_expires_at <= :cutoff", cutoffTimestamp)
+                .filter(e -> e.getExpiresAt() != null && e.getExpiresAt() <= cutoffTimestamp)
+                .toList();
+    }
+
+    /**
+     * Plans the page writes that apply {@code mapper} to the given events: pages left empty are
+     * deleted, other touched pages are rewritten. Returns nothing for pages without those events.
+     */
+    List<PageChange> planRewrite(String subjectId, Set<String> tsUlids, UnaryOperator<AuditEvent> mapper) {
+        List<PageChange> changes = new ArrayList<>();
+        pages(subjectId).forEach(page -> {
+            List<AuditEvent> events = page.events().stream().map(AuditEventJson::read).toList();
+            List<AuditEvent> touched = events.stream().filter(e -> tsUlids.contains(e.getTsUlid())).toList();
+            if (touched.isEmpty()) {
+                return;
+            }
+            List<AuditEvent> rewritten = events.stream().map(mapper).filter(Objects::nonNull).toList();
+            Map<String, AttributeValue> values = Map.of(
+                    ":count", number(page.eventCount()),
+                    ":lastHash", AttributeValue.builder().s(page.lastHash()).build());
+            String condition = "#count = :count AND #lastHash = :lastHash";
+            TransactWriteItem write = rewritten.isEmpty()
+                    ? TransactWriteItem.builder().delete(Delete.builder()
+                            .tableName(TABLE)
+                            .key(key(subjectId, page.pageNo()))
+                            .conditionExpression(condition)
+                            .expressionAttributeNames(Map.of("#count", "event_count", "#lastHash", "last_hash"))
+                            .expressionAttributeValues(values)
+                            .build()).build()
+                    : TransactWriteItem.builder().put(Put.builder()
+                            .tableName(TABLE)
+                            .item(pageItem(subjectId, page.pageNo(), rewritten, page.sealed()))
+                            .conditionExpression(condition)
+                            .expressionAttributeNames(Map.of("#count", "event_count", "#lastHash", "last_hash"))
+                            .expressionAttributeValues(values)
+                            .build()).build();
+            changes.add(new PageChange(write, touched));
+        });
+        return changes;
+    }
+
+    /**
+     * Applies planned page writes, at most 100 per transaction.
+     */
+    void apply(List<PageChange> changes) {
+        for (int start = 0; start < changes.size(); start += 100) {
+            List<TransactWriteItem> items = changes.subList(start, Math.min(start + 100, changes.size())).stream()
+                    .map(PageChange::write)
+                    .toList();
+            dynamo.transactWriteItems(r -> r.transactItems(items));
+        }
+    }
+
+    void transact(List<TransactWriteItem> items) {
+        dynamo.transactWriteItems(r -> r.transactItems(items));
+    }
+
+    private boolean appendToPage(Page page, AuditEvent event, String json, int size) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":event", AttributeValue.builder().l(AttributeValue.builder().s(json).build()).build());
+        values.put(":size", number(size));
+        values.put(":one", number(1));
+        values.put(":count", number(page.eventCount()));
+        values.put(":hash", AttributeValue.builder().s(event.getHash()).build());
+        values.put(":ts", AttributeValue.builder().s(event.getTsUlid()).build());
+        values.put(":timestamp", number(event.getTimestamp()));
+        StringBuilder update = new StringBuilder("SET #events = list_append(#events, :event), #size = #size + :size, "
+                + "#count = #count + :one, #lastHash = :hash, #lastTs = :ts, #lastTimestamp = :timestamp");
+        // DynamoDB rejects unused expression names, so #minExpires is only passed when it is set.
+        Map<String, String> names = new HashMap<>(NAMES);
+        Long minExpires = min(page.minExpiresAt(), event.getExpiresAt());
+        if (minExpires != null) {
+            update.append(", #minExpires = :minExpires");
+            values.put(":minExpires", number(minExpires));
+        } else {
+            names.remove("#minExpires");
+        }
+        try {
+            dynamo.updateItem(r -> r.tableName(TABLE)
+                    .key(key(page.subjectId(), page.pageNo()))
+                    .updateExpression(update.toString())
+                    .conditionExpression("#count = :count AND attribute_not_exists(#sealed)")
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException ex) {
+            return false;
+        }
+    }
+
+    private boolean openPage(AuditEvent event, long pageNo) {
+        try {
+            // Two writers may race to open the same page; the loser retries against the new head.
+            dynamo.putItem(r -> r.tableName(TABLE)
+                    .item(pageItem(event.getSubjectId(), pageNo, List.of(event), false))
+                    .conditionExpression("attribute_not_exists(page_no)"));
+            return true;
+        } catch (ConditionalCheckFailedException ex) {
+            return false;
+        }
+    }
+
+    private void seal(Page page) {
+        if (page.sealed()) {
+            return;
+        }
+        try {
+            dynamo.updateItem(r -> r.tableName(TABLE)
+                    .key(key(page.subjectId(), page.pageNo()))
+                    .updateExpression("SET #sealed = :true")
+                    .conditionExpression("attribute_exists(subject_id)")
+                    .expressionAttributeNames(Map.of("#sealed", "sealed"))
+                    .expressionAttributeValues(Map.of(":true", AttributeValue.builder().bool(true).build())));
+        } catch (ConditionalCheckFailedException ex) {
+            // Page was removed by retention in the meantime; nothing to seal.
+        }
+    }
+
+    private Optional<Page> findHead(String subjectId) {
+        return dynamo.query(QueryRequest.builder()
+                        .tableName(TABLE)
+                        .keyConditionExpression("subject_id = :s")
+                        .expressionAttributeValues(Map.of(":s", AttributeValue.builder().s(subjectId).build()))
+                        .scanIndexForward(false)
+                        .limit(1)
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .stream()
+                .findFirst()
+                .map(Page::from);
+    }
+
+    private Stream<Page> pages(String subjectId) {
+        return dynamo.queryPaginator(QueryRequest.builder()
+                        .tableName(TABLE)
+                        .keyConditionExpression("subject_id = :s")
+                        .expressionAttributeValues(Map.of(":s", AttributeValue.builder().s(subjectId).build()))
+                        .scanIndexForward(true)
+                        .build())
+                .items()
+                .stream()
+                .map(Page::from);
+    }
+
+    private Stream<AuditEvent> scan(String filter, long cutoffTimestamp) {
+        return dynamo.scanPaginator(ScanRequest.builder()
+                        .tableName(TABLE)
+                        .filterExpression(filter)
+                        .expressionAttributeValues(Map.of(":cutoff", number(cutoffTimestamp)))
+                        .build())
+                .items()
+                .stream()
+                .map(Page::from)
+                .flatMap(p -> p.events().stream())
+                .map(AuditEventJson::read);
+    }
+
+    private static Map<String, AttributeValue> pageItem(String subjectId, long pageNo, List<AuditEvent> events, boolean sealed) {
+        List<String> json = events.stream().map(AuditEventJson::write).toList();
+        AuditEvent first = events.getFirst();
+        AuditEvent last = events.getLast();
+        Map<String, AttributeValue> item = new HashMap<>(key(subjectId, pageNo));
+        item.put("events", AttributeValue.builder()
+                .l(json.stream().map(s -> AttributeValue.builder().s(s).build()).toList())
+                .build());
+        item.put("event_count", number(events.size()));
+        item.put("size_bytes", number(json.stream().mapToLong(s -> s.getBytes(StandardCharsets.UTF_8).length).sum()));
+        item.put("first_ts_ulid", AttributeValue.builder().s(first.getTsUlid()).build());
+        item.put("first_timestamp", number(first.getTimestamp()));
+        item.put("last_ts_ulid", AttributeValue.builder().s(last.getTsUlid()).build());
+        item.put("last_timestamp", number(last.getTimestamp()));
+        item.put("last_hash", AttributeValue.builder().s(last.getHash()).build());
+        events.stream().map(AuditEvent::getExpiresAt).filter(Objects::nonNull).min(Comparator.naturalOrder())
+                .ifPresent(min -> item.put("min_expires_at", number(min)));
+        if (sealed) {
+            item.put("sealed", AttributeValue.builder().bool(true).build());
+        }
+        return item;
+    }
+
+    private static Map<String, AttributeValue> key(String subjectId, long pageNo) {
+        return Map.of(
+                "subject_id", AttributeValue.builder().s(subjectId).build(),
+                "page_no", number(pageNo));
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+
+    private static Long min(Long a, Long b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : Math.min(a, b);
+    }
+
+    /**
+     * A planned page write and the events it touches.
+     */
+    record PageChange(TransactWriteItem write, List<AuditEvent> touched) { }
+
+    private record Page(String subjectId, long pageNo, List<String> events, long eventCount, long sizeBytes,
+                        String lastHash, Long minExpiresAt, boolean sealed) {
+
+        static Page from(Map<String, AttributeValue> item) {
+            return new Page(
+                    item.get("subject_id").s(),
+                    Long.parseLong(item.get("page_no").n()),
+                    item.get("events").l().stream().map(AttributeValue::s).toList(),
+                    Long.parseLong(item.get("event_count").n()),
+                    Long.parseLong(item.get("size_bytes").n()),
+                    item.get("last_hash").s(),
+                    item.containsKey("min_expires_at") ? Long.valueOf(item.get("min_expires_at").n()) : null,
+                    item.containsKey("sealed") && Boolean.TRUE.equals(item.get("sealed").bool()));
+        }
+    }
+}
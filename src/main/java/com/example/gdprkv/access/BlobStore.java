@@ -0,0 +1,31 @@
+package com.example.gdprkv.access;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Minimal object storage abstraction used by the audit archive. Names are '/'-separated paths;
+ * implementations may map them to files, object keys, or anything else that supports ranged reads.
+ */
+public interface BlobStore {
+
+    /**
+     * Writes a blob, replacing any existing blob with the same name. Writes must be atomic so a
+     * reader never observes a partially written blob.
+     */
+    void put(String name, byte[] data);
+
+    Optional<byte[]> get(String name);
+
+    /**
+     * Reads {@code length} bytes starting at {@code offset} without loading the rest of the blob.
+     */
+    Optional<byte[]> read(String name, long offset, int length);
+
+    void delete(String name);
+
+    /**
+     * Lists blob names starting with the given prefix.
+     */
+    List<String> list(String prefix);
+}
@@ -0,0 +1,77 @@
+package com.example.gdprkv.access;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. Bits are set with {@code AtomicLongArray} so one thread can
+ * add while others query. Hashing uses two 64-bit FNV-1a variants combined with the
+ * Kirsch-Mitzenmacher scheme.
+ */
+final class BloomFilter {
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    }
+
+    /**
+     * Sizes a filter for the expected number of entries at the given false-positive rate.
+     */
+    static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1, expectedEntries);
+        long bitCount = Math.max(64, (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+        return new BloomFilter(bitCount, hashCount);
+    }
+
+    void put(String value) {
+        long[] hashes = hashes(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hashes, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Returns false only if the value was definitely never added.
+     */
+    boolean mightContain(String value) {
+        long[] hashes = hashes(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hashes, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+    }
+
+    private static long[] hashes(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = FNV_OFFSET;
+        long h2 = FNV_OFFSET ^ 0x5bd1e995L;
+        for (byte b : bytes) {
+            h1 = (h1 ^ (b & 0xff)) * FNV_PRIME;
+            h2 = (h2 * FNV_PRIME) ^ (b & 0xff);
+        }
+        return new long[] {h1, h2 | 1};
+    }
+}
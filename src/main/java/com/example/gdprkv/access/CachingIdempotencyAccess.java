@@ -0,0 +1,59 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.IdempotencyEntry;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link IdempotencyAccess} decorator that keeps outcomes in memory until they expire, so a retry
+ * that reaches the instance which ran the original write is answered without a DynamoDB read.
+ * Outcomes are kept locally before they are written through, which means a retry is still
+ * recognised here when the table write fails.
+ *
+ * <p>The cache is bounded by {@code maxEntries} and is cleared when it grows past it.
+ */
+public class CachingIdempotencyAccess implements IdempotencyAccess {
+
+    private final IdempotencyAccess delegate;
+    private final Clock clock;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, IdempotencyEntry> entries = new ConcurrentHashMap<>();
+
+    public CachingIdempotencyAccess(IdempotencyAccess delegate, Clock clock, int maxEntries) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Optional<IdempotencyEntry> find(String idempotencyKey) {
+        IdempotencyEntry entry = entries.get(idempotencyKey);
+        if (entry != null) {
+            if (isLive(entry)) {
+                return Optional.of(entry);
+            }
+            entries.remove(idempotencyKey, entry);
+        }
+        Optional<IdempotencyEntry> loaded = delegate.find(idempotencyKey);
+        loaded.ifPresent(this::remember);
+        return loaded;
+    }
+
+    @Override
+    public void save(IdempotencyEntry entry) {
+        remember(entry);
+        delegate.save(entry);
+    }
+
+    private void remember(IdempotencyEntry entry) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(entry.getIdempotencyKey(), entry);
+    }
+
+    private boolean isLive(IdempotencyEntry entry) {
+        return entry.getExpiresAt() > clock.instant().getEpochSecond();
+    }
+}
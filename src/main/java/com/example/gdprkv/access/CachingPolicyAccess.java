@@ -0,0 +1,104 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Policy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link PolicyAccess} decorator that keeps policies in memory. Entries live for {@code ttl};
+ * a lookup in the last {@code refreshAhead} of that window returns the cached policy and reloads it
+ * on the refresh executor, so hot purposes never wait on DynamoDB. Unknown purposes are cached as
+ * missing for {@code negativeTtl} so that bad callers cannot turn every write into a read.
+ */
+@Slf4j
+public class CachingPolicyAccess implements PolicyAccess {
+
+    private final PolicyAccess delegate;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final long negativeTtlMillis;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public CachingPolicyAccess(PolicyAccess delegate,
+                               Clock clock,
+                               Duration ttl,
+                               Duration refreshAhead,
+                               Duration negativeTtl,
+                               Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAheadMillis = Math.min(refreshAhead.toMillis(), ttlMillis);
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Optional<Policy> findByPurpose(String purpose) {
+        long now = clock.millis();
+        Entry entry = entries.get(purpose);
+        if (entry == null || now >= entry.expiresAt()) {
+            return load(purpose).policy();
+        }
+        if (now >= entry.refreshAt() && refreshing.add(purpose)) {
+            try {
+                refreshExecutor.execute(() -> refresh(purpose));
+            } catch (RejectedExecutionException ex) {
+                refreshing.remove(purpose);
+            }
+        }
+        return entry.policy();
+    }
+
+    @Override
+    public List<Policy> findAll() {
+        return delegate.findAll();
+    }
+
+    /**
+     * Drops the cached entry for a purpose; the next lookup reads through.
+     */
+    public void invalidate(String purpose) {
+        entries.remove(purpose);
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private Entry load(String purpose) {
+        Optional<Policy> policy = delegate.findByPurpose(purpose);
+        long now = clock.millis();
+        Entry entry = policy.isPresent()
+                ? new Entry(policy, now + ttlMillis - refreshAheadMillis, now + ttlMillis)
+                : new Entry(policy, Long.MAX_VALUE, now + negativeTtlMillis);
+        entries.put(purpose, entry);
+        return entry;
+    }
+
+    private void refresh(String purpose) {
+        try {
+            load(purpose);
+        } catch (RuntimeException ex) {
+            // Keep serving the current entry until it expires; the next lookup retries.
+            log.warn("Failed to refresh policy {}: {}", purpose, ex.getMessage());
+        } finally {
+            refreshing.remove(purpose);
+        }
+    }
+
+    private record Entry(Optional<Policy> policy, long refreshAt, long expiresAt) { }
+}
@@ -0,0 +1,151 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Record;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RecordAccess} decorator with a read-through cache for
+ * {@link #findCachedBySubjectIdAndRecordKey}, the read behind single-record GETs. Every other
+ * read goes to the delegate, so writes keep comparing against strongly consistent reads.
+ *
+ * <p>A cached record is served without reading DynamoDB until it expires after {@code ttl}.
+ * Records written, tombstoned or purged through this instance replace or evict their entry right
+ * away; changes made through another instance are seen once the entry expires, so {@code ttl}
+ * bounds how stale a GET can be. Loaded records only replace an entry of a lower version (or an
+ * expired one), so a read that started before a write cannot put the older record back.
+ */
+public class CachingRecordAccess implements RecordAccess {
+
+    private final RecordAccess delegate;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<List<String>, Entry> entries = new ConcurrentHashMap<>();
+
+    public CachingRecordAccess(RecordAccess delegate, Clock clock, Duration ttl, int maxEntries) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Optional<Record> findCachedBySubjectIdAndRecordKey(String subjectId, String recordKey) {
+        List<String> key = List.of(subjectId, recordKey);
+        Entry entry = entries.get(key);
+        if (entry != null && clock.millis() < entry.expiresAt()) {
+            return Optional.of(entry.record());
+        }
+        return findBySubjectIdAndRecordKey(subjectId, recordKey);
+    }
+
+    @Override
+    public Optional<Record> findBySubjectIdAndRecordKey(String subjectId, String recordKey) {
+        Optional<Record> record = delegate.findBySubjectIdAndRecordKey(subjectId, recordKey);
+        record.ifPresent(this::rememberLoaded);
+        return record;
+    }
+
+    @Override
+    public List<Record> findAllBySubjectId(String subjectId) {
+        return delegate.findAllBySubjectId(subjectId);
+    }
+
+    @Override
+    public List<Record> findRecordsDueForPurge(String purgeBucket, long cutoffTimestamp) {
+        return delegate.findRecordsDueForPurge(purgeBucket, cutoffTimestamp);
+    }
+
+    @Override
+    public Record save(Record record) {
+        return rememberWritten(delegate.save(record));
+    }
+
+    @Override
+    public Record save(Record record, long expectedVersion) {
+        return rememberWritten(delegate.save(record, expectedVersion));
+    }
+
+    @Override
+    public Record upsert(Record record, Long expectedVersion) {
+        return rememberWritten(delegate.upsert(record, expectedVersion));
+    }
+
+    @Override
+    public Upsert upsertIfChanged(Record record, Long expectedVersion) {
+        Upsert upsert = delegate.upsertIfChanged(record, expectedVersion);
+        rememberWritten(upsert.record());
+        return upsert;
+    }
+
+    @Override
+    public List<Record> upsertAll(List<Record> records) {
+        List<Record> stored = delegate.upsertAll(records);
+        stored.forEach(this::rememberWritten);
+        return stored;
+    }
+
+    @Override
+    public WriteSize writeSize(Record record) {
+        return delegate.writeSize(record);
+    }
+
+    @Override
+    public List<Record> findAllByKeys(List<Record> keys) {
+        return delegate.findAllByKeys(keys);
+    }
+
+    @Override
+    public Record create(Record record) {
+        return rememberWritten(delegate.create(record));
+    }
+
+    @Override
+    public Record patch(Record current, Record patched, JsonNode mergePatch) {
+        return rememberWritten(delegate.patch(current, patched, mergePatch));
+    }
+
+    @Override
+    public void delete(Record record) {
+        delegate.delete(record);
+        evict(record);
+    }
+
+    private Record rememberWritten(Record record) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(keyOf(record), new Entry(record, clock.millis() + ttlMillis));
+        return record;
+    }
+
+    private void rememberLoaded(Record record) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        long now = clock.millis();
+        Entry loaded = new Entry(record, now + ttlMillis);
+        entries.merge(keyOf(record), loaded, (cached, fresh) ->
+                cached.expiresAt() <= now || fresh.version() >= cached.version() ? fresh : cached);
+    }
+
+    private void evict(Record record) {
+        entries.remove(keyOf(record));
+    }
+
+    private static List<String> keyOf(Record record) {
+        return List.of(record.getSubjectId(), record.getRecordKey());
+    }
+
+    private record Entry(Record record, long expiresAt) {
+
+        long version() {
+            return record.getVersion() == null ? 0 : record.getVersion();
+        }
+    }
+}
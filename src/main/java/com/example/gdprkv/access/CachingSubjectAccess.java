@@ -0,0 +1,143 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Subject;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SubjectAccess} decorator for the existence checks on every record write.
+ *
+ * <p>Found subjects are cached for {@code ttl}. Every write through this class (including the
+ * {@code erasureInProgress} update made by subject deletion) bumps a fence counter and evicts the
+ * subject; a read that started before the write sees the fence moved and does not cache its now
+ * stale result.
+ *
+ * <p>When a Bloom filter of known subject IDs has been built with {@link #rebuildBloomFilter()},
+ * IDs that are definitely not in it are answered as missing without a read. Subjects created
+ * through this instance are added to the live filter immediately; subjects created by other
+ * instances are only picked up by the next rebuild.
+ */
+@Slf4j
+public class CachingSubjectAccess implements SubjectAccess {
+
+    private final SubjectAccess delegate;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final double bloomFalsePositiveRate;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong fence = new AtomicLong();
+    private final Object bloomLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private Set<String> savedDuringRebuild;  // guarded by bloomLock
+
+    public CachingSubjectAccess(SubjectAccess delegate,
+                                Clock clock,
+                                Duration ttl,
+                                int maxEntries,
+                                double bloomFalsePositiveRate) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+    }
+
+    @Override
+    public Optional<Subject> findBySubjectId(String subjectId) {
+        Entry entry = entries.get(subjectId);
+        if (entry != null && clock.millis() < entry.expiresAt()) {
+            return Optional.of(entry.subject());
+        }
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(subjectId)) {
+            return Optional.empty();
+        }
+
+        long observedFence = fence.get();
+        Optional<Subject> subject = delegate.findBySubjectId(subjectId);
+        if (subject.isPresent()) {
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+            Entry loaded = new Entry(subject.get(), clock.millis() + ttlMillis);
+            entries.compute(subjectId, (k, current) -> fence.get() == observedFence ? loaded : current);
+        }
+        return subject;
+    }
+
+    @Override
+    public Subject save(Subject subject) {
+        Subject saved = delegate.save(subject);
+        rememberSubjectId(saved.getSubjectId());
+        evict(saved.getSubjectId());
+        return saved;
+    }
+
+    @Override
+    public Subject update(Subject subject) {
+        Subject updated = delegate.update(subject);
+        evict(updated.getSubjectId());
+        return updated;
+    }
+
+    @Override
+    public List<String> findAllSubjectIds() {
+        return delegate.findAllSubjectIds();
+    }
+
+    /**
+     * Rebuilds the Bloom filter from a scan of all subject IDs and swaps it in. Subjects saved
+     * while the scan runs are carried over so they are never answered as missing.
+     */
+    public void rebuildBloomFilter() {
+        synchronized (bloomLock) {
+            savedDuringRebuild = new HashSet<>();
+        }
+        try {
+            List<String> subjectIds = delegate.findAllSubjectIds();
+            BloomFilter rebuilt = BloomFilter.create(Math.max(1024, subjectIds.size() * 2L), bloomFalsePositiveRate);
+            subjectIds.forEach(rebuilt::put);
+            synchronized (bloomLock) {
+                savedDuringRebuild.forEach(rebuilt::put);
+                bloomFilter = rebuilt;
+            }
+            log.info("Rebuilt subject Bloom filter with {} subject IDs", subjectIds.size());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to rebuild subject Bloom filter: {}", ex.getMessage());
+        } finally {
+            synchronized (bloomLock) {
+                savedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Drops the cached entry for a subject; the next lookup reads through.
+     */
+    public void evict(String subjectId) {
+        fence.incrementAndGet();
+        entries.remove(subjectId);
+    }
+
+    private void rememberSubjectId(String subjectId) {
+        synchronized (bloomLock) {
+            BloomFilter filter = bloomFilter;
+            if (filter != null) {
+                filter.put(subjectId);
+            }
+            if (savedDuringRebuild != null) {
+                savedDuringRebuild.add(subjectId);
+            }
+        }
+    }
+
+    private record Entry(Subject subject, long expiresAt) { }
+}
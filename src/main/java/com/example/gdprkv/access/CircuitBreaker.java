@@ -0,0 +1,125 @@
+package com.example.gdprkv.access;
+
+import java.time.Clock;
+
+/**
+ * Count-based circuit breaker for one operation. While closed, the outcomes of the last
+ * {@code windowSize} calls are kept; once at least {@code minimumCalls} were seen and the share of
+ * failures reaches the threshold, the breaker opens and rejects calls for {@code openMillis}.
+ * After that a single trial call is let through (half-open): its success closes the breaker,
+ * its failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final Clock clock;
+    private final boolean[] outcomes;  // true = failure; guarded by this
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, Clock clock) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Admits a call unless the breaker is open, or half-open with its trial call still running.
+     * An admitted call must report {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (clock.millis() < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            }
+            default -> {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            }
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return milliseconds until an open breaker lets a trial call through, or 0 if it is not open
+     */
+    synchronized long retryAfterMillis() {
+        return state == State.OPEN ? Math.max(0, openUntil - clock.millis()) : 0;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = clock.millis() + openMillis;
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
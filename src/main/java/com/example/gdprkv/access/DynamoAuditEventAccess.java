@@ -1,35 +1,106 @@
 package com.example.gdprkv.access;
 
+import com.example.gdprkv.config.AuditStorageProperties;
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 
+/**
+ * DynamoDB-backed audit log. With the default item layout each event is its own item in
+ * {@code audit_events}; with {@code audit.storage.layout=paged} events are packed into page items
+ * by {@link AuditPageStore}. Truncation anchors live in {@code audit_chain_anchors} either way.
+ */
 @Component
 public class DynamoAuditEventAccess implements AuditEventAccess {
 
+    // TransactWriteItems accepts at most 100 actions; one slot is reserved for the anchor put.
+    // In the paged layout the same limit applies to page rewrites.
+    private static final int MAX_DELETES_PER_TRANSACTION = 99;
+    private static final int MAX_PUTS_PER_TRANSACTION = 100;
+
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<AuditEvent> table;
+    private final DynamoDbTable<AuditChainAnchor> anchorTable;
+    private final AuditPageStore pages;  // null for the item layout
+
+    @Autowired
+    public DynamoAuditEventAccess(DynamoDbEnhancedClient enhancedClient,
+                                  DynamoDbClient dynamoDbClient,
+                                  AuditStorageProperties storageProperties) {
+        this(enhancedClient, storageProperties.getLayout() == AuditStorageProperties.Layout.PAGED
+                ? new AuditPageStore(dynamoDbClient, storageProperties.getPageMaxBytes())
+                : null);
+    }
 
+    /**
+     * Constructor for the item layout (e.g., tests).
+     */
     public DynamoAuditEventAccess(DynamoDbEnhancedClient enhancedClient) {
+        this(enhancedClient, (AuditPageStore) null);
+    }
+
+    DynamoAuditEventAccess(DynamoDbEnhancedClient enhancedClient, AuditPageStore pages) {
+        this.enhancedClient = enhancedClient;
         this.table = enhancedClient.table("audit_events", TableSchema.fromBean(AuditEvent.class));
+        this.anchorTable = enhancedClient.table("audit_chain_anchors", TableSchema.fromBean(AuditChainAnchor.class));
+        this.pages = pages;
     }
 
     @Override
     public void put(AuditEvent event) {
+        if (pages != null) {
+            pages.append(event);
+            return;
+        }
         table.putItem(event);
     }
 
+    /**
+     * Writes the events in transactions of up to 100 puts, oldest first, so a failure leaves at
+     * most a gap-free prefix of the batch in the chain.
+     */
+    @Override
+    public void putAll(List<AuditEvent> events) {
+        if (pages != null) {
+            events.forEach(pages::append);
+            return;
+        }
+        for (int start = 0; start < events.size(); start += MAX_PUTS_PER_TRANSACTION) {
+            TransactWriteItemsEnhancedRequest.Builder request = TransactWriteItemsEnhancedRequest.builder();
+            events.subList(start, Math.min(start + MAX_PUTS_PER_TRANSACTION, events.size()))
+                    .forEach(event -> request.addPutItem(table, event));
+            enhancedClient.transactWriteItems(request.build());
+        }
+    }
+
     @Override
     public Optional<AuditEvent> findLatest(String subjectId) {
+        if (pages != null) {
+            return pages.findLatest(subjectId);
+        }
         // Query the partition in reverse chronological order so the first item is the most recent.
         return table.query(r -> r.queryConditional(QueryConditional.keyEqualTo(buildKey(subjectId)))
                         .limit(1)
@@ -41,6 +112,9 @@ public class DynamoAuditEventAccess implements AuditEventAccess {
 
     @Override
     public List<AuditEvent> findAllBySubjectId(String subjectId) {
+        if (pages != null) {
+            return pages.findAllBySubjectId(subjectId);
+        }
         return table.query(r -> r.queryConditional(QueryConditional.keyEqualTo(buildKey(subjectId)))
                         .scanIndexForward(true))
                 .items()
@@ -50,6 +124,9 @@ public class DynamoAuditEventAccess implements AuditEventAccess {
 
     @Override
     public List<AuditEvent> findEventsOlderThan(long cutoffTimestamp) {
+        if (pages != null) {
+            return pages.findEventsOlderThan(cutoffTimestamp);
+        }
         Expression filterExpression = Expression.builder()
                 .expression("#ts < :cutoff")
                 .putExpressionName("#ts", "timestamp")
@@ -66,8 +143,63 @@ public class DynamoAuditEventAccess implements AuditEventAccess {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp) {
+        if (pages != null) {
+            // Pages are not indexed by expiry bucket; the scan skips pages whose min_expires_at is later.
+            return pages.findEventsDueForExpiry(expiryBucket, cutoffTimestamp);
+        }
+        return table.index("audit_events_by_expiry")
+                .query(r -> r.queryConditional(
+                        QueryConditional.sortLessThanOrEqualTo(
+                                Key.builder()
+                                        .partitionValue(expiryBucket)
+                                        .sortValue(cutoffTimestamp)
+                                        .build())))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp) {
+        if (pages != null) {
+            return pages.findEventsExpiredBefore(cutoffTimestamp);
+        }
+        Expression filterExpression = Expression.builder()
+                .expression("#expiresAt <= :cutoff")
+                .putExpressionName("#expiresAt", "expires_at")
+                .putExpressionValue(":cutoff", AttributeValue.builder().n(String.valueOf(cutoffTimestamp)).build())
+                .build();
+
+        return table.scan(ScanEnhancedRequest.builder().filterExpression(filterExpression).build())
+                .items()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void prune(AuditEvent stub) {
+        if (pages != null) {
+            pages.apply(pages.planRewrite(stub.getSubjectId(), Set.of(stub.getTsUlid()),
+                    e -> e.getTsUlid().equals(stub.getTsUlid()) ? stub : e));
+            return;
+        }
+        // Only overwrite an event that still exists; a concurrent truncation may have removed it.
+        table.putItem(PutItemEnhancedRequest.builder(AuditEvent.class)
+                .item(stub)
+                .conditionExpression(Expression.builder()
+                        .expression("attribute_exists(subject_id)")
+                        .build())
+                .build());
+    }
+
     @Override
     public void delete(AuditEvent event) {
+        if (pages != null) {
+            deleteAll(List.of(event));
+            return;
+        }
         Key key = Key.builder()
                 .partitionValue(event.getSubjectId())
                 .sortValue(event.getTsUlid())
@@ -75,6 +207,124 @@ public class DynamoAuditEventAccess implements AuditEventAccess {
         table.deleteItem(key);
     }
 
+    @Override
+    public void deleteAll(List<AuditEvent> events) {
+        if (pages == null) {
+            events.forEach(this::delete);
+            return;
+        }
+        events.stream()
+                .collect(Collectors.groupingBy(AuditEvent::getSubjectId,
+                        Collectors.mapping(AuditEvent::getTsUlid, Collectors.toSet())))
+                .forEach((subjectId, tsUlids) ->
+                        pages.apply(pages.planRewrite(subjectId, tsUlids, e -> tsUlids.contains(e.getTsUlid()) ? null : e)));
+    }
+
+    @Override
+    public AuditChainAnchor truncate(String subjectId, List<AuditEvent> oldestEvents) {
+        if (oldestEvents.isEmpty()) {
+            throw new IllegalArgumentException("oldestEvents must be non-empty");
+        }
+        if (pages != null) {
+            return truncatePages(subjectId, oldestEvents);
+        }
+        AuditChainAnchor anchor = findAnchor(subjectId).orElse(null);
+        for (int start = 0; start < oldestEvents.size(); start += MAX_DELETES_PER_TRANSACTION) {
+            List<AuditEvent> chunk = oldestEvents.subList(
+                    start, Math.min(start + MAX_DELETES_PER_TRANSACTION, oldestEvents.size()));
+            AuditEvent last = chunk.getLast();
+            AuditChainAnchor next = AuditChainAnchor.builder()
+                    .subjectId(subjectId)
+                    .anchorTsUlid(last.getTsUlid())
+                    .anchorHash(last.getHash())
+                    .anchorTimestamp(last.getTimestamp())
+                    .truncatedCount((anchor == null ? 0L : anchor.getTruncatedCount()) + chunk.size())
+                    .build();
+
+            TransactWriteItemsEnhancedRequest.Builder request = TransactWriteItemsEnhancedRequest.builder();
+            for (AuditEvent event : chunk) {
+                request.addDeleteItem(table, Key.builder()
+                        .partitionValue(event.getSubjectId())
+                        .sortValue(event.getTsUlid())
+                        .build());
+            }
+            // Anchors only ever move forward; a concurrent run that already advanced further wins.
+            request.addPutItem(anchorTable, TransactPutItemEnhancedRequest.builder(AuditChainAnchor.class)
+                    .item(next)
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(subject_id) OR anchor_timestamp <= :ts")
+                            .putExpressionValue(":ts", AttributeValue.builder()
+                                    .n(String.valueOf(next.getAnchorTimestamp()))
+                                    .build())
+                            .build())
+                    .build());
+
+            enhancedClient.transactWriteItems(request.build());
+            anchor = next;
+        }
+        return anchor;
+    }
+
+    /**
+     * Paged-layout truncation: every transaction rewrites up to 99 pages and advances the anchor
+     * to the last prefix event it removed. Prefix events that are not in any page (for example
+     * because they were archived) count as already removed; the final anchor always covers the
+     * whole prefix.
+     */
+    private AuditChainAnchor truncatePages(String subjectId, List<AuditEvent> oldestEvents) {
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < oldestEvents.size(); i++) {
+            position.put(oldestEvents.get(i).getTsUlid(), i);
+        }
+        List<AuditPageStore.PageChange> changes = pages.planRewrite(subjectId, position.keySet(),
+                e -> position.containsKey(e.getTsUlid()) ? null : e);
+
+        AuditChainAnchor anchor = findAnchor(subjectId).orElse(null);
+        long removed = 0;
+        int start = 0;
+        do {
+            List<AuditPageStore.PageChange> chunk = changes.subList(
+                    start, Math.min(start + MAX_DELETES_PER_TRANSACTION, changes.size()));
+            start += MAX_DELETES_PER_TRANSACTION;
+            boolean lastChunk = start >= changes.size();
+            AuditEvent last = lastChunk
+                    ? oldestEvents.getLast()
+                    : chunk.stream().flatMap(c -> c.touched().stream())
+                            .max(Comparator.comparing((AuditEvent e) -> position.get(e.getTsUlid())))
+                            .orElseThrow();
+            long chunkCount = lastChunk
+                    ? oldestEvents.size() - removed
+                    : chunk.stream().mapToLong(c -> c.touched().size()).sum();
+            AuditChainAnchor next = AuditChainAnchor.builder()
+                    .subjectId(subjectId)
+                    .anchorTsUlid(last.getTsUlid())
+                    .anchorHash(last.getHash())
+                    .anchorTimestamp(last.getTimestamp())
+                    .truncatedCount((anchor == null ? 0L : anchor.getTruncatedCount()) + chunkCount)
+                    .build();
+
+            List<TransactWriteItem> items = new ArrayList<>();
+            chunk.forEach(c -> items.add(c.write()));
+            items.add(TransactWriteItem.builder().put(Put.builder()
+                    .tableName(anchorTable.tableName())
+                    .item(anchorTable.tableSchema().itemToMap(next, true))
+                    .conditionExpression("attribute_not_exists(subject_id) OR anchor_timestamp <= :ts")
+                    .expressionAttributeValues(Map.of(":ts", AttributeValue.builder()
+                            .n(String.valueOf(next.getAnchorTimestamp()))
+                            .build()))
+                    .build()).build());
+            pages.transact(items);
+            anchor = next;
+            removed += chunkCount;
+        } while (start < changes.size());
+        return anchor;
+    }
+
+    @Override
+    public Optional<AuditChainAnchor> findAnchor(String subjectId) {
+        return Optional.ofNullable(anchorTable.getItem(r -> r.key(buildKey(subjectId)).consistentRead(true)));
+    }
+
     private Key buildKey(String subjectId) {
         return Key.builder().partitionValue(subjectId).build();
     }
@@ -0,0 +1,40 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.IdempotencyEntry;
+import java.time.Clock;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+
+/**
+ * Stores write outcomes in the {@code idempotency_keys} table. DynamoDB's TTL sweep removes
+ * expired items only eventually, so expired items that are still present are treated as missing.
+ */
+@Component
+public class DynamoIdempotencyAccess implements IdempotencyAccess {
+
+    private final DynamoDbTable<IdempotencyEntry> table;
+    private final Clock clock;
+
+    public DynamoIdempotencyAccess(DynamoDbEnhancedClient enhancedClient, Clock clock) {
+        this.table = enhancedClient.table("idempotency_keys", TableSchema.fromBean(IdempotencyEntry.class));
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<IdempotencyEntry> find(String idempotencyKey) {
+        // Eventually consistent: a retry follows its original by at least a client timeout.
+        return Optional.ofNullable(table.getItem(r -> r.key(Key.builder()
+                        .partitionValue(idempotencyKey)
+                        .build())))
+                .filter(entry -> entry.getExpiresAt() > clock.instant().getEpochSecond());
+    }
+
+    @Override
+    public void save(IdempotencyEntry entry) {
+        table.putItem(entry);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.gdprkv.access;
 
 import com.example.gdprkv.models.Policy;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
@@ -21,4 +22,9 @@ public class DynamoPolicyAccess implements PolicyAccess {
     public Optional<Policy> findByPurpose(String purpose) {
         return Optional.ofNullable(table.getItem(r -> r.key(Key.builder().partitionValue(purpose).build())));
     }
+
+    @Override
+    public List<Policy> findAll() {
+        return table.scan().items().stream().toList();
+    }
 }
@@ -1,40 +1,112 @@
 package com.example.gdprkv.access;
 
+import com.example.gdprkv.models.JsonAttributeValues;
+import com.example.gdprkv.models.JsonMergePatch;
+import com.example.gdprkv.models.RawJsonValueAttributeConverter;
 import com.example.gdprkv.models.Record;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 @Component
 public class DynamoRecordAccess implements RecordAccess {
 
+    private static final String TABLE_NAME = "records";
+    private static final String CREATED_AT = "created_at";
+    private static final String VERSION = "version";
+    private static final String VALUE = "value";
+    private static final String UPDATED_AT = "updated_at";
+    private static final String REQUEST_ID = "request_id";
+    private static final String CONTENT_HASH = "content_hash";
+    private static final Expression NOT_A_CHUNK = Expression.builder()
+            .expression("attribute_not_exists(#chunk_of)")
+            .putExpressionName("#chunk_of", RecordValueChunks.CHUNK_OF)
+            .build();
+    private static final int MAX_BATCH_GET_ITEMS = 100;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final int MAX_UPDATE_EXPRESSION_LENGTH = 4096;
+
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Record> table;
+    private final DynamoDbClient dynamoDbClient;
+    private final RecordValueChunks chunks;
+    private final RawJsonValueAttributeConverter valueConverter;
+
+    @Autowired
+    public DynamoRecordAccess(DynamoDbEnhancedClient enhancedClient,
+                              DynamoDbClient dynamoDbClient,
+                              RawJsonValueAttributeConverter valueConverter) {
+        this.enhancedClient = enhancedClient;
+        this.table = enhancedClient.table(TABLE_NAME, new RecordTableSchema(valueConverter));
+        this.dynamoDbClient = dynamoDbClient;
+        this.chunks = new RecordValueChunks(dynamoDbClient, TABLE_NAME, valueConverter);
+        this.valueConverter = valueConverter;
+    }
 
-    public DynamoRecordAccess(DynamoDbEnhancedClient enhancedClient) {
-        this.table = enhancedClient.table("records", TableSchema.fromBean(Record.class));
+    /**
+     * Constructor using the default value storage settings (e.g., tests).
+     */
+    public DynamoRecordAccess(DynamoDbEnhancedClient enhancedClient, DynamoDbClient dynamoDbClient) {
+        this(enhancedClient, dynamoDbClient, new RawJsonValueAttributeConverter());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        chunks.shutdown();
     }
 
     @Override
     public Optional<Record> findBySubjectIdAndRecordKey(String subjectId, String recordKey) {
+        if (Record.isReservedKey(recordKey)) {
+            // A chunk item is not a record.
+            return Optional.empty();
+        }
+        // Strongly consistent: writes compare against this read to detect no-op puts and versions.
         return Optional.ofNullable(table.getItem(r -> r.key(Key.builder()
                 .partitionValue(subjectId)
                 .sortValue(recordKey)
-                .build())));
+                .build())
+                .consistentRead(true)))
+                .map(chunks::load);
     }
 
     @Override
     public List<Record> findAllBySubjectId(String subjectId) {
         return table.query(r -> r.queryConditional(QueryConditional.keyEqualTo(
                         Key.builder().partitionValue(subjectId).build()))
+                        .filterExpression(NOT_A_CHUNK)
                         .scanIndexForward(true))
                 .items()
                 .stream()
+                .map(chunks::load)
                 .collect(Collectors.toList());
     }
 
@@ -54,15 +126,568 @@ public class DynamoRecordAccess implements RecordAccess {
 
     @Override
     public Record save(Record record) {
-        table.putItem(record);
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        write(List.of(prepared), List.of(TransactWriteItem.builder().put(put(prepared.record(), null)).build()));
         return record;
     }
 
     @Override
-    public void delete(Record record) {
-        table.deleteItem(Key.builder()
+    public Record save(Record record, long expectedVersion) {
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        write(List.of(prepared), List.of(TransactWriteItem.builder().put(put(prepared.record(), expectedVersion)).build()));
+        return record;
+    }
+
+    @Override
+    public Record create(Record record) {
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        Put put = put(prepared.record(), null).toBuilder()
+                .conditionExpression("attribute_not_exists(#version)")
+                .expressionAttributeNames(Map.of("#version", VERSION))
+                .build();
+        write(List.of(prepared), List.of(TransactWriteItem.builder().put(put).build()));
+        return record;
+    }
+
+    /**
+     * Issues one {@code UpdateItem} built from the bean schema (see {@link #upsertUpdate}). The
+     * stored item comes back via {@code ALL_NEW}.
+     */
+    @Override
+    public Record upsert(Record record, Long expectedVersion) {
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        return written(record, write(List.of(prepared),
+                List.of(TransactWriteItem.builder().update(upsertUpdate(prepared.record(), expectedVersion)).build())));
+    }
+
+    /**
+     * Issues the update of {@link #upsert} with the unchanged check added to its condition, so an
+     * unchanged PUT costs one conditional write and no read. When the condition fails, the stored
+     * item comes back via {@code ALL_OLD} and tells an unchanged record from a version mismatch.
+     */
+    @Override
+    public Upsert upsertIfChanged(Record record, Long expectedVersion) {
+        if (record.getContentHash() == null) {
+            return new Upsert(upsert(record, expectedVersion), true);
+        }
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        Update update = changedUpdate(upsertUpdate(prepared.record(), expectedVersion));
+        try {
+            return new Upsert(written(record, write(List.of(prepared),
+                    List.of(TransactWriteItem.builder().update(update).build()))), true);
+        } catch (ConditionalCheckFailedException ex) {
+            if (!ex.hasItem() || ex.item().isEmpty()) {
+                throw ex;
+            }
+            Record stored = table.tableSchema().mapToItem(ex.item());
+            if (!RecordAccess.isUnchanged(stored, record)
+                    || (expectedVersion != null && !expectedVersion.equals(stored.getVersion()))) {
+                throw ex;
+            }
+            return new Upsert(chunks.load(stored), false);
+        }
+    }
+
+    /**
+     * Maps the stored item a lone update returned. Transactions return no attributes, so the
+     * stored manifest is read back and given the value written by this call.
+     */
+    private Record written(Record record, Map<String, AttributeValue> attributes) {
+        if (attributes != null) {
+            return table.tableSchema().mapToItem(attributes);
+        }
+        return withValue(table.getItem(r -> r.key(keyOf(record)).consistentRead(true)), record);
+    }
+
+    /**
+     * Adds "the stored record is missing, tombstoned, unhashed or has other content or retention"
+     * to an upsert's condition; see {@link RecordAccess#isUnchanged}.
+     */
+    private static Update changedUpdate(Update update) {
+        String changed = "(attribute_not_exists(#version) OR #tombstoned = :true OR attribute_not_exists(#content_hash)"
+                + " OR #content_hash <> :content_hash OR #retention_days <> :retention_days)";
+        Map<String, AttributeValue> values = new HashMap<>(update.expressionAttributeValues());
+        values.put(":true", AttributeValue.fromBool(true));
+        return update.toBuilder()
+                .conditionExpression(update.conditionExpression() == null
+                        ? changed
+                        : changed + " AND " + update.conditionExpression())
+                .expressionAttributeValues(values)
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+    }
+
+    /**
+     * Writes every record with the same update as {@link #upsert} in one {@code TransactWriteItems}
+     * call, then reads the stored items back with a strongly consistent {@code BatchGetItem} since
+     * transactions return no item attributes.
+     */
+    @Override
+    public List<Record> upsertAll(List<Record> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        List<RecordValueChunks.Prepared> prepared = new ArrayList<>();
+        List<TransactWriteItem> updates = new ArrayList<>();
+        for (Record record : records) {
+            RecordValueChunks.Prepared next = chunks.prepare(record);
+            prepared.add(next);
+            updates.add(TransactWriteItem.builder().update(upsertUpdate(next.record(), null)).build());
+        }
+        write(prepared, updates);
+
+        ReadBatch.Builder<Record> batch = ReadBatch.builder(Record.class)
+                .mappedTableResource(table);
+        records.forEach(record -> batch.addGetItem(r -> r.key(keyOf(record)).consistentRead(true)));
+        Map<String, Record> stored = new HashMap<>();
+        enhancedClient.batchGetItem(r -> r.readBatches(batch.build()))
+                .resultsForTable(table)
+                .forEach(record -> stored.put(record.getRecordKey(), record));
+        return records.stream()
+                .map(record -> withValue(stored.getOrDefault(record.getRecordKey(), record), record))
+                .toList();
+    }
+
+    /**
+     * Counts the record update and its chunk puts, sized as DynamoDB sizes items: attribute name
+     * lengths plus value sizes (numbers are counted by their digits).
+     */
+    @Override
+    public WriteSize writeSize(Record record) {
+        RecordValueChunks.Prepared prepared = chunks.prepare(record);
+        long bytes = itemSize(table.tableSchema().itemToMap(prepared.record(), true));
+        for (TransactWriteItem chunk : prepared.chunkWrites()) {
+            bytes += itemSize(chunk.put().item());
+        }
+        return new WriteSize(1 + prepared.chunkWrites().size(), bytes);
+    }
+
+    private static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += attribute.getKey().getBytes(StandardCharsets.UTF_8).length + valueSize(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static long valueSize(AttributeValue value) {
+        return switch (value.type()) {
+            case S -> value.s().getBytes(StandardCharsets.UTF_8).length;
+            case N -> value.n().length();
+            case B -> value.b().asByteBuffer().remaining();
+            case SS -> value.ss().stream().mapToLong(element -> element.getBytes(StandardCharsets.UTF_8).length).sum();
+            case NS -> value.ns().stream().mapToLong(String::length).sum();
+            case BS -> value.bs().stream().mapToLong(element -> element.asByteBuffer().remaining()).sum();
+            case M -> 3 + value.m().size() + itemSize(value.m());
+            case L -> 3 + value.l().size() + value.l().stream().mapToLong(DynamoRecordAccess::valueSize).sum();
+            default -> 1;
+        };
+    }
+
+    @Override
+    public List<Record> findAllByKeys(List<Record> keys) {
+        // Chunk items are not records, so their keys find nothing.
+        List<Record> recordKeys = keys.stream().filter(key -> !Record.isReservedKey(key.getRecordKey())).toList();
+        List<Record> found = new ArrayList<>();
+        for (int start = 0; start < recordKeys.size(); start += MAX_BATCH_GET_ITEMS) {
+            ReadBatch.Builder<Record> batch = ReadBatch.builder(Record.class)
+                    .mappedTableResource(table);
+            recordKeys.subList(start, Math.min(start + MAX_BATCH_GET_ITEMS, recordKeys.size()))
+                    .forEach(key -> batch.addGetItem(r -> r.key(keyOf(key)).consistentRead(true)));
+            // The result pages re-request unprocessed keys until every key has been read.
+            enhancedClient.batchGetItem(r -> r.readBatches(batch.build()))
+                    .resultsForTable(table)
+                    .forEach(record -> found.add(chunks.load(record)));
+        }
+        return found;
+    }
+
+    /**
+     * Builds the upsert from the bean schema: every attribute is SET (or REMOVEd when null) except
+     * {@code created_at}, which uses {@code if_not_exists}, and {@code version}, which is
+     * incremented with {@code ADD}. An expected version adds a {@code version = :expected} condition.
+     */
+    private Update upsertUpdate(Record record, Long expectedVersion) {
+        TableSchema<Record> schema = table.tableSchema();
+        List<String> keyAttributes = schema.tableMetadata().primaryKeys().stream().toList();
+        Map<String, AttributeValue> item = schema.itemToMap(record, true);
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringBuilder set = new StringBuilder();
+        StringBuilder remove = new StringBuilder();
+
+        for (String attribute : schema.attributeNames()) {
+            if (keyAttributes.contains(attribute) || attribute.equals(CREATED_AT) || attribute.equals(VERSION)) {
+                continue;
+            }
+            String name = "#" + attribute;
+            names.put(name, attribute);
+            AttributeValue value = item.get(attribute);
+            if (value == null) {
+                remove.append(remove.isEmpty() ? "" : ", ").append(name);
+            } else {
+                values.put(":" + attribute, value);
+                set.append(set.isEmpty() ? "" : ", ").append(name).append(" = :").append(attribute);
+            }
+        }
+        names.put("#created_at", CREATED_AT);
+        names.put("#version", VERSION);
+        values.put(":created_at", item.get(CREATED_AT));
+        values.put(":one", AttributeValue.builder().n("1").build());
+        set.append(set.isEmpty() ? "" : ", ").append("#created_at = if_not_exists(#created_at, :created_at)");
+
+        StringBuilder expression = new StringBuilder("SET ").append(set).append(" ADD #version :one");
+        if (!remove.isEmpty()) {
+            expression.append(" REMOVE ").append(remove);
+        }
+
+        if (expectedVersion != null) {
+            values.put(":expected", AttributeValue.builder().n(expectedVersion.toString()).build());
+        }
+
+        Map<String, AttributeValue> key = new HashMap<>();
+        keyAttributes.forEach(attribute -> key.put(attribute, item.get(attribute)));
+
+        return Update.builder()
+                .tableName(TABLE_NAME)
+                .key(key)
+                .updateExpression(expression.toString())
+                .conditionExpression(expectedVersion != null ? "#version = :expected" : null)
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build();
+    }
+
+    /**
+     * Sends values stored as native maps as one {@code UpdateItem} that SETs and REMOVEs only the
+     * document paths the merge patch touches, plus the version and write metadata. The update is
+     * conditioned on the version and on the stored value being a map; when the version still
+     * matches but the value is a string (written before native maps were enabled), the whole
+     * record is rewritten instead. Patches that cannot be expressed as paths are rewritten too.
+     */
+    @Override
+    public Record patch(Record current, Record patched, JsonNode mergePatch) {
+        Optional<Update> update = patchUpdate(current, patched, mergePatch);
+        if (update.isEmpty()) {
+            return save(patched, current.getVersion());
+        }
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(r -> r.tableName(TABLE_NAME)
+                    .key(update.get().key())
+                    .updateExpression(update.get().updateExpression())
+                    .conditionExpression(update.get().conditionExpression())
+                    .expressionAttributeNames(update.get().expressionAttributeNames())
+                    .expressionAttributeValues(update.get().expressionAttributeValues())
+                    .returnValues(ReturnValue.ALL_NEW));
+            return table.tableSchema().mapToItem(response.attributes());
+        } catch (ConditionalCheckFailedException ex) {
+            Record stored = table.getItem(r -> r.key(keyOf(current)).consistentRead(true));
+            if (stored == null || !current.getVersion().equals(stored.getVersion())) {
+                throw ex;
+            }
+            return save(patched, current.getVersion());
+        }
+    }
+
+    private Optional<Update> patchUpdate(Record current, Record patched, JsonNode mergePatch) {
+        if (!valueConverter.nativeMapValues() || current.getValueChunks() != null
+                || current.getRawValue() == null || patched.getRawValue() == null || !mergePatch.isObject()
+                || patched.getRawValue().toBytes().length > RecordValueChunks.INLINE_LIMIT_BYTES) {
+            return Optional.empty();
+        }
+        JsonNode target = current.getValue();
+        PatchExpression expression = new PatchExpression();
+        if (!target.isObject() || !expression.collect(target, mergePatch, "#" + VALUE, 1)) {
+            return Optional.empty();
+        }
+
+        expression.names.put("#" + VALUE, VALUE);
+        expression.values.put(":map", AttributeValue.fromS("M"));
+        expression.values.put(":expected", AttributeValue.fromN(current.getVersion().toString()));
+        Map<String, AttributeValue> metadata = Map.of(
+                VERSION, AttributeValue.fromN(patched.getVersion().toString()),
+                UPDATED_AT, AttributeValue.fromN(patched.getUpdatedAt().toString()),
+                REQUEST_ID, AttributeValue.fromS(patched.getRequestId()),
+                CONTENT_HASH, AttributeValue.fromS(patched.getContentHash()));
+        metadata.forEach((attribute, value) -> {
+            expression.names.put("#" + attribute, attribute);
+            expression.values.put(":" + attribute, value);
+            expression.sets.add("#" + attribute + " = :" + attribute);
+        });
+        String updateExpression = "SET " + String.join(", ", expression.sets)
+                + (expression.removes.isEmpty() ? "" : " REMOVE " + String.join(", ", expression.removes));
+        if (updateExpression.length() > MAX_UPDATE_EXPRESSION_LENGTH) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Update.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(
+                        "subject_id", AttributeValue.fromS(current.getSubjectId()),
+                        "record_key", AttributeValue.fromS(current.getRecordKey())))
+                .updateExpression(updateExpression)
+                .conditionExpression("#version = :expected AND attribute_type(#value, :map)")
+                .expressionAttributeNames(expression.names)
+                .expressionAttributeValues(expression.values)
+                .build());
+    }
+
+    /**
+     * Update expression parts for one merge patch, with a name placeholder per distinct object key.
+     */
+    private static final class PatchExpression {
+        private final Map<String, String> names = new HashMap<>();
+        private final Map<String, String> aliases = new HashMap<>();
+        private final Map<String, AttributeValue> values = new HashMap<>();
+        private final List<String> sets = new ArrayList<>();
+        private final List<String> removes = new ArrayList<>();
+
+        /**
+         * Adds the changes of {@code patch} against {@code target}, the document at {@code path}.
+         * Objects patched into objects are descended into; other members are SET to their merged
+         * value, and null members REMOVE existing ones.
+         *
+         * @return false if a change cannot be expressed as a document path update
+         */
+        boolean collect(JsonNode target, JsonNode patch, String path, int depth) {
+            Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+            while (members.hasNext()) {
+                Map.Entry<String, JsonNode> member = members.next();
+                if (member.getKey().isEmpty() || depth >= JsonAttributeValues.MAX_DEPTH) {
+                    return false;
+                }
+                String memberPath = path + "." + alias(member.getKey());
+                JsonNode existing = target.get(member.getKey());
+                JsonNode change = member.getValue();
+                if (change.isNull()) {
+                    if (existing != null) {
+                        removes.add(memberPath);
+                    }
+                } else if (change.isObject() && existing != null && existing.isObject()) {
+                    if (!collect(existing, change, memberPath, depth + 1)) {
+                        return false;
+                    }
+                } else {
+                    Optional<AttributeValue> value = JsonAttributeValues.fromJsonNode(
+                            JsonMergePatch.apply(existing, change), depth + 1);
+                    if (value.isEmpty()) {
+                        return false;
+                    }
+                    String placeholder = ":v" + values.size();
+                    values.put(placeholder, value.get());
+                    sets.add(memberPath + " = " + placeholder);
+                }
+            }
+            return true;
+        }
+
+        private String alias(String name) {
+            return aliases.computeIfAbsent(name, key -> {
+                String alias = "#p" + aliases.size();
+                names.put(alias, key);
+                return alias;
+            });
+        }
+    }
+
+    private static Key keyOf(Record record) {
+        return Key.builder()
                 .partitionValue(record.getSubjectId())
                 .sortValue(record.getRecordKey())
-                .build());
+                .build();
+    }
+
+    /**
+     * Deletes the record's chunk items first, so a failed purge leaves the record in place to be
+     * retried rather than orphaned chunks.
+     */
+    @Override
+    public void delete(Record record) {
+        chunks.deleteAll(record.getSubjectId(), record.getRecordKey());
+        table.deleteItem(keyOf(record));
+    }
+
+    private Put put(Record record, Long expectedVersion) {
+        Put.Builder put = Put.builder()
+                .tableName(TABLE_NAME)
+                .item(table.tableSchema().itemToMap(record, true));
+        if (expectedVersion != null) {
+            put.conditionExpression("#version = :expected")
+                    .expressionAttributeNames(Map.of("#version", VERSION))
+                    .expressionAttributeValues(Map.of(":expected", AttributeValue.fromN(expectedVersion.toString())));
+        }
+        return put.build();
+    }
+
+    /**
+     * Writes records together with their chunk puts, and deletes the chunks a longer stored value
+     * left behind in the same call. Each record write is conditioned on the stored value having no
+     * more chunks than the new one. When it has more, the stored item comes back via
+     * {@code ALL_OLD} and the write is retried with deletes for the extra chunk indexes, conditioned
+     * on the stored chunk count instead, so a concurrent write in between fails it again.
+     *
+     * <p>A lone record write without chunks is sent as a single {@code PutItem} or
+     * {@code UpdateItem}; anything else runs as one transaction, whose failed conditions are
+     * reported the same way as a single conditional write's, with the stored item.
+     *
+     * @return the stored item of a lone update ({@code ALL_NEW}), or null
+     */
+    private Map<String, AttributeValue> write(List<RecordValueChunks.Prepared> prepared, List<TransactWriteItem> recordWrites) {
+        Integer[] storedChunks = new Integer[prepared.size()];
+        for (int attempt = 1; ; attempt++) {
+            List<TransactWriteItem> writes = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int i = 0; i < prepared.size(); i++) {
+                Record record = prepared.get(i).record();
+                int count = prepared.get(i).chunkWrites().size();
+                writes.add(chunkGuarded(recordWrites.get(i), count, storedChunks[i]));
+                owners.add(i);
+                List<TransactWriteItem> chunkWrites = new ArrayList<>(prepared.get(i).chunkWrites());
+                if (storedChunks[i] != null) {
+                    chunkWrites.addAll(chunks.deletes(record.getSubjectId(), record.getRecordKey(), count, storedChunks[i]));
+                }
+                writes.addAll(chunkWrites);
+                chunkWrites.forEach(chunk -> owners.add(-1));
+            }
+            try {
+                if (writes.size() == 1) {
+                    return writeItem(writes.get(0));
+                }
+                dynamoDbClient.transactWriteItems(r -> r.transactItems(writes));
+                return null;
+            } catch (ConditionalCheckFailedException ex) {
+                if (!retryWithChunkDeletes(ex.hasItem() ? ex.item() : null, prepared.get(0), storedChunks, 0)
+                        || attempt == MAX_WRITE_ATTEMPTS) {
+                    throw ex;
+                }
+            } catch (TransactionCanceledException ex) {
+                List<CancellationReason> reasons = ex.hasCancellationReasons() ? ex.cancellationReasons() : List.of();
+                boolean retry = false;
+                for (int j = 0; j < reasons.size() && j < owners.size(); j++) {
+                    CancellationReason reason = reasons.get(j);
+                    int owner = owners.get(j);
+                    if (owner >= 0 && "ConditionalCheckFailed".equals(reason.code())) {
+                        retry |= retryWithChunkDeletes(reason.hasItem() ? reason.item() : null, prepared.get(owner),
+                                storedChunks, owner);
+                    }
+                }
+                if (!retry || attempt == MAX_WRITE_ATTEMPTS) {
+                    throw conditionFailure(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decides from a failed record write's stored item whether its chunk condition failed, and if
+     * so records the stored chunk count the next attempt deletes down from and conditions on.
+     */
+    private static boolean retryWithChunkDeletes(Map<String, AttributeValue> item, RecordValueChunks.Prepared prepared,
+                                                 Integer[] storedChunks, int index) {
+        if (item == null) {
+            return false;
+        }
+        int stored = RecordValueChunks.storedChunks(item);
+        Integer next = stored > prepared.chunkWrites().size() ? stored : null;
+        if (Objects.equals(next, storedChunks[index])) {
+            // The chunk condition held, so another part of the condition failed.
+            return false;
+        }
+        storedChunks[index] = next;
+        return true;
+    }
+
+    /**
+     * Adds the chunk count condition of {@link #write} to a record put or update, and asks for the
+     * stored item when the condition fails.
+     */
+    private static TransactWriteItem chunkGuarded(TransactWriteItem write, int chunks, Integer storedChunks) {
+        String guard = storedChunks == null
+                ? "(attribute_not_exists(#value_chunks) OR #value_chunks <= :chunk_limit)"
+                : "#value_chunks = :chunk_limit";
+        AttributeValue limit = AttributeValue.fromN(Integer.toString(storedChunks == null ? chunks : storedChunks));
+        if (write.put() != null) {
+            Put put = write.put();
+            return TransactWriteItem.builder().put(put.toBuilder()
+                    .conditionExpression(guarded(put.conditionExpression(), guard))
+                    .expressionAttributeNames(withName(put.expressionAttributeNames()))
+                    .expressionAttributeValues(withLimit(put.expressionAttributeValues(), limit))
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build()).build();
+        }
+        Update update = write.update();
+        return TransactWriteItem.builder().update(update.toBuilder()
+                .conditionExpression(guarded(update.conditionExpression(), guard))
+                .expressionAttributeNames(withName(update.expressionAttributeNames()))
+                .expressionAttributeValues(withLimit(update.expressionAttributeValues(), limit))
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build()).build();
+    }
+
+    private static String guarded(String condition, String guard) {
+        return condition == null ? guard : "(" + condition + ") AND " + guard;
+    }
+
+    private static Map<String, String> withName(Map<String, String> names) {
+        Map<String, String> merged = new HashMap<>(names);
+        merged.put("#value_chunks", RecordValueChunks.VALUE_CHUNKS);
+        return merged;
+    }
+
+    private static Map<String, AttributeValue> withLimit(Map<String, AttributeValue> values, AttributeValue limit) {
+        Map<String, AttributeValue> merged = new HashMap<>(values);
+        merged.put(":chunk_limit", limit);
+        return merged;
+    }
+
+    private Map<String, AttributeValue> writeItem(TransactWriteItem write) {
+        if (write.put() != null) {
+            Put put = write.put();
+            dynamoDbClient.putItem(r -> r.tableName(put.tableName())
+                    .item(put.item())
+                    .conditionExpression(put.conditionExpression())
+                    .expressionAttributeNames(put.expressionAttributeNames())
+                    .expressionAttributeValues(put.expressionAttributeValues())
+                    .returnValuesOnConditionCheckFailure(put.returnValuesOnConditionCheckFailure()));
+            return null;
+        }
+        Update update = write.update();
+        return dynamoDbClient.updateItem(r -> r.tableName(update.tableName())
+                .key(update.key())
+                .updateExpression(update.updateExpression())
+                .conditionExpression(update.conditionExpression())
+                .expressionAttributeNames(update.expressionAttributeNames())
+                .expressionAttributeValues(update.expressionAttributeValues())
+                .returnValues(ReturnValue.ALL_NEW)
+                .returnValuesOnConditionCheckFailure(update.returnValuesOnConditionCheckFailure()))
+                .attributes();
+    }
+
+    /**
+     * Reports a transaction's failed condition the same way as a single conditional write does,
+     * with the stored item if the write asked for it.
+     */
+    private static RuntimeException conditionFailure(TransactionCanceledException ex) {
+        Optional<CancellationReason> failed = ex.hasCancellationReasons()
+                ? ex.cancellationReasons().stream()
+                        .filter(reason -> "ConditionalCheckFailed".equals(reason.code()))
+                        .findFirst()
+                : Optional.empty();
+        if (failed.isPresent()) {
+            return ConditionalCheckFailedException.builder()
+                    .message(ex.getMessage())
+                    .item(failed.get().hasItem() ? failed.get().item() : null)
+                    .cause(ex)
+                    .build();
+        }
+        return ex;
+    }
+
+    /**
+     * Restores the value written by this call onto a stored record that only carries a manifest.
+     */
+    private static Record withValue(Record stored, Record written) {
+        return stored.getValueChunks() == null ? stored : stored.toBuilder().rawValue(written.getRawValue()).build();
     }
 }
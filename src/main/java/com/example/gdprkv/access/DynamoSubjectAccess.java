@@ -1,6 +1,7 @@
 package com.example.gdprkv.access;
 
 import com.example.gdprkv.models.Subject;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
@@ -43,4 +44,13 @@ public class DynamoSubjectAccess implements SubjectAccess {
                         .build()));
         return subject;
     }
+
+    @Override
+    public List<String> findAllSubjectIds() {
+        return table.scan(r -> r.attributesToProject("subject_id"))
+                .items()
+                .stream()
+                .map(Subject::getSubjectId)
+                .toList();
+    }
 }
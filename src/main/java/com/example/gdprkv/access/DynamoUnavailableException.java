@@ -0,0 +1,20 @@
+package com.example.gdprkv.access;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of calling DynamoDB while the circuit breaker of an operation is open.
+ */
+public class DynamoUnavailableException extends RuntimeException {
+
+    @Getter
+    private final String operation;
+    @Getter
+    private final long retryAfterMillis;
+
+    public DynamoUnavailableException(String operation, long retryAfterMillis) {
+        super("DynamoDB operation " + operation + " is temporarily unavailable");
+        this.operation = operation;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
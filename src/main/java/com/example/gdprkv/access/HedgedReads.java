@@ -0,0 +1,183 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.config.DynamoHedgingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedges latency-sensitive point reads: if a read has not answered after the given percentile
+ * of recent read latencies for its operation, an identical second read is sent and whichever
+ * answers first wins. The slower read is left to finish; its result is discarded.
+ *
+ * <p>Each read earns {@code budgetPercent} hundredths of a hedge, and a hedge is only sent while
+ * a whole one has been earned, so hedging adds at most that share of extra reads (with a small
+ * burst allowance). Operations are not hedged until {@code minSamples} reads were observed.
+ *
+ * <p>Metrics: {@code gdprkv.dynamo.hedges} and {@code gdprkv.dynamo.hedge.wins} (hedges that
+ * answered first) per operation.
+ */
+@Component
+public class HedgedReads {
+
+    private static final int SAMPLE_WINDOW = 1000;
+    private static final int RECOMPUTE_EVERY = 100;
+    private static final int HEDGE_COST = 100;
+    private static final int MAX_BURST_HEDGES = 10;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final int budgetPercent;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger budget = new AtomicInteger();
+    private final ConcurrentHashMap<String, Latencies> latencies = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    @Autowired
+    public HedgedReads(DynamoHedgingProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.percentile = properties.getPercentile();
+        this.budgetPercent = properties.getBudgetPercent();
+        this.minSamples = Math.min(properties.getMinSamples(), SAMPLE_WINDOW);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMinDelayMs());
+        this.meterRegistry = meterRegistry;
+        this.executor = enabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public <T> T read(String operation, Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        Latencies stats = latencies.computeIfAbsent(operation, op -> new Latencies());
+        budget.getAndUpdate(credit -> Math.min(MAX_BURST_HEDGES * HEDGE_COST, credit + budgetPercent));
+        long observed = stats.threshold;
+
+        long startedAt = System.nanoTime();
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> {
+            try {
+                return read.get();
+            } finally {
+                stats.record(System.nanoTime() - startedAt);
+            }
+        }, executor);
+        if (observed == Long.MAX_VALUE) {
+            return await(primary);  // Not enough samples yet
+        }
+        try {
+            return unwrap(() -> primary.get(Math.max(minDelayNanos, observed), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException ex) {
+            if (!takeHedge()) {
+                return await(primary);
+            }
+        }
+
+        meterRegistry.counter("gdprkv.dynamo.hedges", "operation", operation).increment();
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(read, executor);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        primary.whenComplete((result, ex) -> settle(first, pending, result, ex));
+        hedge.whenComplete((result, ex) -> {
+            if (ex == null && first.complete(result)) {
+                meterRegistry.counter("gdprkv.dynamo.hedge.wins", "operation", operation).increment();
+            } else {
+                settle(first, pending, result, ex);
+            }
+        });
+        return await(first);
+    }
+
+    private boolean takeHedge() {
+        while (true) {
+            int credit = budget.get();
+            if (credit < HEDGE_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(credit, credit - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes {@code first} with the first successful result, or with the last failure once
+     * both reads failed.
+     */
+    private static <T> void settle(CompletableFuture<T> first, AtomicInteger pending, T result, Throwable ex) {
+        if (ex == null) {
+            first.complete(result);
+        } else if (pending.decrementAndGet() == 0) {
+            first.completeExceptionally(ex);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return unwrap(future::get);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static <T> T unwrap(TimedGet<T> get) throws TimeoutException {
+        try {
+            return get.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a read", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TimedGet<T> {
+        T get() throws InterruptedException, ExecutionException, TimeoutException;
+    }
+
+    /**
+     * Recent latencies of one operation. The hedging threshold is recomputed from them every
+     * hundred samples rather than on every read.
+     */
+    private final class Latencies {
+        private final long[] samples = new long[SAMPLE_WINDOW];  // guarded by this
+        private long count;
+        private volatile long threshold = Long.MAX_VALUE;
+
+        synchronized void record(long nanos) {
+            samples[(int) (count % SAMPLE_WINDOW)] = nanos;
+            count++;
+            if (count >= minSamples && (count == minSamples || count % RECOMPUTE_EVERY == 0)) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLE_WINDOW));
+                Arrays.sort(sorted);
+                threshold = sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.IdempotencyEntry;
+import java.util.Optional;
+
+public interface IdempotencyAccess {
+
+    /**
+     * Returns the stored outcome for an idempotency key, or empty if there is none or it has
+     * expired.
+     */
+    Optional<IdempotencyEntry> find(String idempotencyKey);
+
+    /**
+     * Stores an outcome, replacing any earlier one for the same key.
+     */
+    void save(IdempotencyEntry entry);
+}
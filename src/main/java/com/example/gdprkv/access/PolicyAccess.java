@@ -1,8 +1,15 @@
 package com.example.gdprkv.access;
 
 import com.example.gdprkv.models.Policy;
+import java.util.List;
 import java.util.Optional;
 
 public interface PolicyAccess {
     Optional<Policy> findByPurpose(String purpose);
+
+    /**
+     * Returns every configured policy. The policies table is small and admin-maintained, so this
+     * is a full scan and is meant for snapshotting rather than the request path.
+     */
+    List<Policy> findAll();
 }
@@ -1,12 +1,24 @@
 package com.example.gdprkv.access;
 
 import com.example.gdprkv.models.Record;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 public interface RecordAccess {
     Optional<Record> findBySubjectIdAndRecordKey(String subjectId, String recordKey);
 
+    /**
+     * Reads a record for returning it to a client. Implementations may serve it from a cache that
+     * is a bounded time behind changes made elsewhere, so writes must not compare against it. By
+     * default this is the strongly consistent read.
+     */
+    default Optional<Record> findCachedBySubjectIdAndRecordKey(String subjectId, String recordKey) {
+        return findBySubjectIdAndRecordKey(subjectId, recordKey);
+    }
+
     /**
      * Finds all records for a specific subject, ordered by record key ascending.
      * Used for subject access requests and data export.
@@ -28,6 +40,111 @@ public interface RecordAccess {
 
     Record save(Record record);
 
+    /**
+     * Saves a record only if the stored record is currently at {@code expectedVersion}.
+     *
+     * @throws software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException if the
+     *         record is missing or at another version
+     */
+    Record save(Record record, long expectedVersion);
+
+    /**
+     * Writes a record without reading it first. The record's {@code createdAt} is kept only when the
+     * item does not exist yet and the stored version is incremented by one, so concurrent writers
+     * never lose an increment. All other attributes are overwritten, and null ones are removed.
+     *
+     * @param record the record to write; its {@code version} is ignored
+     * @return the record as stored after the write
+     */
+    default Record upsert(Record record) {
+        return upsert(record, null);
+    }
+
+    /**
+     * Same as {@link #upsert(Record)}, but when {@code expectedVersion} is non-null the write only
+     * happens if the stored record is at that version.
+     *
+     * @throws software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException if the
+     *         record is missing or at another version
+     */
+    Record upsert(Record record, Long expectedVersion);
+
+    /**
+     * Same as {@link #upsert(Record, Long)}, unless the stored record is live with the same content
+     * hash and retention as {@code record} (see {@link #isUnchanged}); then nothing is written and
+     * the stored record is returned. Stores with conditional writes check this in the write itself,
+     * so no read is needed first; by default the record is read.
+     *
+     * @return the stored record, and whether this call wrote it
+     * @throws software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException if
+     *         {@code expectedVersion} is non-null and the record is missing or at another version
+     */
+    default Upsert upsertIfChanged(Record record, Long expectedVersion) {
+        Optional<Record> unchanged = findBySubjectIdAndRecordKey(record.getSubjectId(), record.getRecordKey())
+                .filter(stored -> isUnchanged(stored, record));
+        if (unchanged.isEmpty()) {
+            return new Upsert(upsert(record, expectedVersion), true);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(unchanged.get().getVersion())) {
+            throw ConditionalCheckFailedException.builder().message("version mismatch").build();
+        }
+        return new Upsert(unchanged.get(), false);
+    }
+
+    /**
+     * Upserts several records of one subject all-or-nothing, with the same semantics per record
+     * as {@link #upsert(Record)}. Record keys must be distinct.
+     *
+     * @param records the records to write; their {@code version} is ignored
+     * @return the records as stored, in the order given
+     */
+    List<Record> upsertAll(List<Record> records);
+
+    /**
+     * Write actions and item bytes that {@link #upsertAll} sends for {@code record}, so a batch can
+     * be checked against the store's transaction limits before it is written. By default one
+     * action the size of the value.
+     */
+    default WriteSize writeSize(Record record) {
+        return new WriteSize(1, record.getRawValue() == null ? 0 : record.getRawValue().toBytes().length);
+    }
+
+    /**
+     * Reads several records by key with strongly consistent batch reads. Keys without a stored
+     * record are skipped.
+     *
+     * @param keys records carrying the subject ID and record key to look up
+     * @return the stored records that were found, in no particular order
+     */
+    List<Record> findAllByKeys(List<Record> keys);
+
+    /**
+     * Writes a new record only if no record is stored under its key yet. The caller sets
+     * {@code createdAt} and {@code version}.
+     *
+     * @return the record as written
+     * @throws software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException if a
+     *         record is already stored under the key
+     */
+    Record create(Record record);
+
+    /**
+     * Writes {@code patched}, the result of applying {@code mergePatch} to the value of
+     * {@code current}, only if the stored record is still at {@code current}'s version. Stores that
+     * hold values as native documents can send just the changed paths; by default the whole
+     * record is rewritten.
+     *
+     * @param current the record as read before patching
+     * @param patched the record to store, with its version already incremented
+     * @param mergePatch the JSON Merge Patch that turned {@code current}'s value into {@code patched}'s
+     * @return the record as stored
+     * @throws software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException if the
+     *         record is missing or at another version
+     */
+    default Record patch(Record current, Record patched, JsonNode mergePatch) {
+        return save(patched, current.getVersion());
+    }
+
     /**
      * Permanently deletes a record from the database.
      * Used by the purge sweeper to physically remove tombstoned records.
@@ -35,4 +152,35 @@ public interface RecordAccess {
      * @param record the record to delete
      */
     void delete(Record record);
+
+    /**
+     * Write actions and item bytes of a transactional write.
+     */
+    record WriteSize(int actions, long bytes) {
+
+        public WriteSize plus(WriteSize other) {
+            return new WriteSize(actions + other.actions, bytes + other.bytes);
+        }
+    }
+
+    /**
+     * Whether writing {@code candidate} would leave {@code stored} as it is apart from the version,
+     * timestamps and request id. Records written before content hashes existed never match.
+     */
+    static boolean isUnchanged(Record stored, Record candidate) {
+        return !Boolean.TRUE.equals(stored.getTombstoned())
+                && !Boolean.TRUE.equals(candidate.getTombstoned())
+                && stored.getContentHash() != null
+                && stored.getContentHash().equals(candidate.getContentHash())
+                && Objects.equals(stored.getRetentionDays(), candidate.getRetentionDays());
+    }
+
+    /**
+     * Outcome of {@link #upsertIfChanged}.
+     *
+     * @param record the record as stored
+     * @param written false when the stored record was unchanged and nothing was written
+     */
+    record Upsert(Record record, boolean written) {
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.RawJsonValueAttributeConverter;
+import com.example.gdprkv.models.Record;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.BeanTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.WrappedTableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * The bean schema of {@link Record} with the {@code value} attribute written by a configured
+ * {@link RawJsonValueAttributeConverter}. The bean schema creates the converter named on the bean
+ * itself, with default settings, so writes go around it; reads keep using it since every stored
+ * form is read back by any converter instance.
+ */
+class RecordTableSchema extends WrappedTableSchema<Record, BeanTableSchema<Record>> {
+
+    private static final String VALUE = "value";
+
+    private final RawJsonValueAttributeConverter valueConverter;
+
+    RecordTableSchema(RawJsonValueAttributeConverter valueConverter) {
+        super(TableSchema.fromBean(Record.class));
+        this.valueConverter = valueConverter;
+    }
+
+    @Override
+    public Map<String, AttributeValue> itemToMap(Record item, boolean ignoreNulls) {
+        Map<String, AttributeValue> map = new HashMap<>(super.itemToMap(withoutValue(item), ignoreNulls));
+        if (item.getRawValue() != null || !ignoreNulls) {
+            map.put(VALUE, valueConverter.transformFrom(item.getRawValue()));
+        }
+        return map;
+    }
+
+    @Override
+    public Map<String, AttributeValue> itemToMap(Record item, Collection<String> attributes) {
+        Map<String, AttributeValue> map = new HashMap<>(super.itemToMap(withoutValue(item), attributes));
+        if (attributes.contains(VALUE)) {
+            map.put(VALUE, valueConverter.transformFrom(item.getRawValue()));
+        }
+        return map;
+    }
+
+    @Override
+    public AttributeValue attributeValue(Record item, String attributeName) {
+        return VALUE.equals(attributeName)
+                ? valueConverter.transformFrom(item.getRawValue())
+                : super.attributeValue(item, attributeName);
+    }
+
+    private static Record withoutValue(Record item) {
+        return item.getRawValue() == null ? item : item.toBuilder().rawValue(null).build();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.RawJsonValue;
+import com.example.gdprkv.models.RawJsonValueAttributeConverter;
+import com.example.gdprkv.models.Record;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+/**
+ * Stores record values that do not fit in one DynamoDB item as chunk items in the record's
+ * partition. A chunked value is compressed (see {@link RawJsonValueAttributeConverter#compress}) and
+ * split into {@value #CHUNK_BYTES}-byte chunk items keyed {@code <record_key>#chunk#<index>}; the
+ * record itself keeps no value and carries the manifest ({@code value_chunks}, {@code value_checksum}).
+ *
+ * <p>Chunk items are written in the same transaction as their record, so the whole value is limited
+ * to {@value #MAX_CHUNKS} chunks. When a value shrinks, the chunks past the new count are deleted in
+ * that transaction too (see {@link #deletes}); a tombstone keeps no chunked value, so tombstoning
+ * deletes the chunks instead of rewriting them.
+ */
+class RecordValueChunks {
+
+    static final String KEY_MARKER = Record.CHUNK_KEY_MARKER;
+    static final String CHUNK_OF = "chunk_of";
+    static final String VALUE_CHUNKS = "value_chunks";
+    static final int INLINE_LIMIT_BYTES = 350_000;
+    static final int CHUNK_BYTES = 350_000;
+    static final int MAX_CHUNKS = 10;
+
+    private static final String SUBJECT_ID = "subject_id";
+    private static final String RECORD_KEY = "record_key";
+    private static final String CHUNK_INDEX = "chunk_index";
+    private static final String DATA = "data";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final RawJsonValueAttributeConverter converter;
+    // Chunk reads are blocking SDK calls, so each gets its own virtual thread.
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    RecordValueChunks(DynamoDbClient dynamoDbClient, String tableName, RawJsonValueAttributeConverter converter) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.converter = converter;
+    }
+
+    /**
+     * A record ready to write: the record as stored (value or manifest) plus the chunk item puts.
+     */
+    record Prepared(Record record, List<TransactWriteItem> chunkWrites) {
+
+        boolean chunked() {
+            return !chunkWrites.isEmpty();
+        }
+    }
+
+    /**
+     * Decides how the record's value is stored. Values that fit inline keep the record as it is,
+     * with any earlier manifest cleared; larger values are replaced by a manifest and chunk puts.
+     * A tombstone is never read for its value, so a value that needs chunks is dropped from it.
+     *
+     * @throws IllegalArgumentException if the record key is reserved for chunks or the compressed
+     *         value needs more than {@value #MAX_CHUNKS} chunks
+     */
+    Prepared prepare(Record record) {
+        if (record.getRecordKey().contains(KEY_MARKER)) {
+            throw new IllegalArgumentException("record key must not contain " + KEY_MARKER);
+        }
+        Record inline = record.toBuilder().valueChunks(null).valueChecksum(null).build();
+        RawJsonValue value = record.getRawValue();
+        if (value == null || inlineSize(converter.transformFrom(value), value) <= INLINE_LIMIT_BYTES) {
+            return new Prepared(inline, List.of());
+        }
+        if (Boolean.TRUE.equals(record.getTombstoned())) {
+            return new Prepared(inline.toBuilder().rawValue(null).build(), List.of());
+        }
+
+        byte[] compressed = RawJsonValueAttributeConverter.compress(value);
+        int count = (compressed.length + CHUNK_BYTES - 1) / CHUNK_BYTES;
+        if (count > MAX_CHUNKS) {
+            throw new IllegalArgumentException("record value exceeds " + (MAX_CHUNKS * CHUNK_BYTES)
+                    + " bytes after compression");
+        }
+        List<TransactWriteItem> writes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] chunk = Arrays.copyOfRange(compressed, i * CHUNK_BYTES, Math.min((i + 1) * CHUNK_BYTES, compressed.length));
+            writes.add(TransactWriteItem.builder().put(Put.builder()
+                    .tableName(tableName)
+                    .item(Map.of(
+                            SUBJECT_ID, AttributeValue.fromS(record.getSubjectId()),
+                            RECORD_KEY, AttributeValue.fromS(chunkKey(record.getRecordKey(), i)),
+                            CHUNK_OF, AttributeValue.fromS(record.getRecordKey()),
+                            CHUNK_INDEX, AttributeValue.fromN(Integer.toString(i)),
+                            DATA, AttributeValue.fromB(SdkBytes.fromByteArray(chunk))))
+                    .build()).build());
+        }
+        Record manifest = inline.toBuilder()
+                .rawValue(null)
+                .valueChunks(count)
+                .valueChecksum(sha256(List.of(compressed)))
+                .build();
+        return new Prepared(manifest, writes);
+    }
+
+    /**
+     * Returns the record with its value reassembled when it carries a manifest. Chunks are fetched
+     * in parallel and decompressed as a stream in chunk order, then checked against the checksum.
+     */
+    Record load(Record record) {
+        if (record == null || record.getValueChunks() == null) {
+            return record;
+        }
+        List<CompletableFuture<byte[]>> fetches = new ArrayList<>(record.getValueChunks());
+        for (int i = 0; i < record.getValueChunks(); i++) {
+            String key = chunkKey(record.getRecordKey(), i);
+            fetches.add(CompletableFuture.supplyAsync(() -> fetch(record.getSubjectId(), key), fetchExecutor));
+        }
+
+        ChunkStream chunks = new ChunkStream(fetches);
+        RawJsonValue value = RawJsonValueAttributeConverter.decompress(new SequenceInputStream(chunks));
+        String checksum = sha256(chunks.all());
+        if (!checksum.equals(record.getValueChecksum())) {
+            throw new IllegalStateException("Checksum mismatch for chunked value of "
+                    + record.getSubjectId() + "/" + record.getRecordKey());
+        }
+        return record.toBuilder().rawValue(value).build();
+    }
+
+    /**
+     * Deletes of the chunk items {@code from} (inclusive) to {@code to} (exclusive) of a record,
+     * for the transaction that writes a shorter value over a chunked one.
+     */
+    List<TransactWriteItem> deletes(String subjectId, String recordKey, int from, int to) {
+        List<TransactWriteItem> deletes = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            deletes.add(TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(tableName)
+                    .key(Map.of(
+                            SUBJECT_ID, AttributeValue.fromS(subjectId),
+                            RECORD_KEY, AttributeValue.fromS(chunkKey(recordKey, i))))
+                    .build()).build());
+        }
+        return deletes;
+    }
+
+    /**
+     * Returns the chunk count of a stored record item, 0 for an inline value or a missing item.
+     */
+    static int storedChunks(Map<String, AttributeValue> item) {
+        AttributeValue chunks = item == null ? null : item.get(VALUE_CHUNKS);
+        return chunks == null || chunks.n() == null ? 0 : Integer.parseInt(chunks.n());
+    }
+
+    /**
+     * Deletes every chunk item of a record, found by key prefix rather than by the manifest.
+     */
+    void deleteAll(String subjectId, String recordKey) {
+        QueryRequest query = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("#pk = :pk AND begins_with(#sk, :prefix)")
+                .expressionAttributeNames(Map.of("#pk", SUBJECT_ID, "#sk", RECORD_KEY))
+                .expressionAttributeValues(Map.of(
+                        ":pk", AttributeValue.fromS(subjectId),
+                        ":prefix", AttributeValue.fromS(recordKey + KEY_MARKER)))
+                .projectionExpression("#pk, #sk")
+                .consistentRead(true)
+                .build();
+        dynamoDbClient.queryPaginator(query).items()
+                .forEach(item -> dynamoDbClient.deleteItem(r -> r.tableName(tableName).key(item)));
+    }
+
+    void shutdown() {
+        fetchExecutor.shutdown();
+    }
+
+    private byte[] fetch(String subjectId, String chunkKey) {
+        Map<String, AttributeValue> item = dynamoDbClient.getItem(r -> r.tableName(tableName)
+                .key(Map.of(SUBJECT_ID, AttributeValue.fromS(subjectId), RECORD_KEY, AttributeValue.fromS(chunkKey)))
+                .consistentRead(true)).item();
+        if (item == null || !item.containsKey(DATA)) {
+            throw new IllegalStateException("Missing value chunk " + subjectId + "/" + chunkKey);
+        }
+        return item.get(DATA).b().asByteArray();
+    }
+
+    static String chunkKey(String recordKey, int index) {
+        return recordKey + KEY_MARKER + String.format("%04d", index);
+    }
+
+    private static int inlineSize(AttributeValue value, RawJsonValue raw) {
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+        // A native map is sized by its JSON text, which is close to DynamoDB's own item size count.
+        return value.s() != null ? value.s().getBytes(StandardCharsets.UTF_8).length : raw.toBytes().length;
+    }
+
+    private static String sha256(List<byte[]> parts) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            parts.forEach(md::update);
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Hands chunk fetches to a {@link SequenceInputStream} in order, waiting for each one only
+     * when the decompressor reaches it.
+     */
+    private static final class ChunkStream implements Enumeration<InputStream> {
+        private final List<CompletableFuture<byte[]>> fetches;
+        private int next;
+
+        ChunkStream(List<CompletableFuture<byte[]>> fetches) {
+            this.fetches = fetches;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return next < fetches.size();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            return new ByteArrayInputStream(join(fetches.get(next++)));
+        }
+
+        List<byte[]> all() {
+            return fetches.stream().map(ChunkStream::join).toList();
+        }
+
+        private static byte[] join(CompletableFuture<byte[]> fetch) {
+            try {
+                return fetch.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.AuditChainAnchor;
+import com.example.gdprkv.models.AuditEvent;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link AuditEventAccess} decorator that runs every call through {@link ResilientCalls}.
+ */
+public class ResilientAuditEventAccess implements AuditEventAccess {
+
+    private final AuditEventAccess delegate;
+    private final ResilientCalls calls;
+
+    public ResilientAuditEventAccess(AuditEventAccess delegate, ResilientCalls calls) {
+        this.delegate = delegate;
+        this.calls = calls;
+    }
+
+    @Override
+    public void put(AuditEvent event) {
+        calls.run("AuditEventAccess.put", () -> delegate.put(event));
+    }
+
+    @Override
+    public void putAll(List<AuditEvent> events) {
+        calls.run("AuditEventAccess.putAll", () -> delegate.putAll(events));
+    }
+
+    @Override
+    public Optional<AuditEvent> findLatest(String subjectId) {
+        return calls.call("AuditEventAccess.findLatest", () -> delegate.findLatest(subjectId));
+    }
+
+    @Override
+    public List<AuditEvent> findAllBySubjectId(String subjectId) {
+        return calls.call("AuditEventAccess.findAllBySubjectId", () -> delegate.findAllBySubjectId(subjectId));
+    }
+
+    @Override
+    public List<AuditEvent> findEventsOlderThan(long cutoffTimestamp) {
+        return calls.call("AuditEventAccess.findEventsOlderThan", () -> delegate.findEventsOlderThan(cutoffTimestamp));
+    }
+
+    @Override
+    public List<AuditEvent> findEventsDueForExpiry(String expiryBucket, long cutoffTimestamp) {
+        return calls.call("AuditEventAccess.findEventsDueForExpiry",
+                () -> delegate.findEventsDueForExpiry(expiryBucket, cutoffTimestamp));
+    }
+
+    @Override
+    public List<AuditEvent> findEventsExpiredBefore(long cutoffTimestamp) {
+        return calls.call("AuditEventAccess.findEventsExpiredBefore", () -> delegate.findEventsExpiredBefore(cutoffTimestamp));
+    }
+
+    @Override
+    public void prune(AuditEvent stub) {
+        calls.run("AuditEventAccess.prune", () -> delegate.prune(stub));
+    }
+
+    @Override
+    public void delete(AuditEvent event) {
+        calls.run("AuditEventAccess.delete", () -> delegate.delete(event));
+    }
+
+    @Override
+    public void deleteAll(List<AuditEvent> events) {
+        calls.run("AuditEventAccess.deleteAll", () -> delegate.deleteAll(events));
+    }
+
+    @Override
+    public AuditChainAnchor truncate(String subjectId, List<AuditEvent> oldestEvents) {
+        return calls.call("AuditEventAccess.truncate", () -> delegate.truncate(subjectId, oldestEvents));
+    }
+
+    @Override
+    public Optional<AuditChainAnchor> findAnchor(String subjectId) {
+        return calls.call("AuditEventAccess.findAnchor", () -> delegate.findAnchor(subjectId));
+    }
+}
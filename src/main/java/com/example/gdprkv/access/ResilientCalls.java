@@ -0,0 +1,176 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.config.DynamoResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Runs DynamoDB calls with retries and a circuit breaker per operation; the Resilient* access
+ * decorators route every call through here.
+ *
+ * <p>Only transient failures are retried: throttling, 5xx responses and client-side errors such
+ * as timeouts. Backoff uses full jitter, a random delay between 0 and {@code base * 2^(n-1)}.
+ * Every retry takes tokens from a bucket shared by all calls, and a successful call puts its
+ * tokens back (or one token if it needed no retry), so while DynamoDB is failing broadly the
+ * bucket drains and calls fail after their first attempt instead of multiplying the load.
+ *
+ * <p>Calls that still fail with a transient error count against the operation's breaker; other
+ * errors, like a failed condition, are answers from DynamoDB and count as successes. While a
+ * breaker is open, calls fail fast with {@link DynamoUnavailableException}.
+ *
+ * <p>Metrics: {@code gdprkv.dynamo.circuit.state} (0 closed, 1 open, 2 half-open) per operation,
+ * {@code gdprkv.dynamo.retries} and {@code gdprkv.dynamo.circuit.rejected} per operation, and
+ * {@code gdprkv.dynamo.retry.tokens}.
+ */
+@Component
+public class ResilientCalls {
+
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int retryTokenCapacity;
+    private final int retryTokenCost;
+    private final int breakerWindowSize;
+    private final int breakerMinimumCalls;
+    private final double breakerFailureRateThreshold;
+    private final long breakerOpenMillis;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger retryTokens;
+    private final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResilientCalls(DynamoResilienceProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+        this.baseBackoffMillis = properties.getBaseBackoffMs();
+        this.maxBackoffMillis = properties.getMaxBackoffMs();
+        this.retryTokenCapacity = properties.getRetryTokenCapacity();
+        this.retryTokenCost = properties.getRetryTokenCost();
+        this.breakerWindowSize = properties.getBreakerWindowSize();
+        this.breakerMinimumCalls = properties.getBreakerMinimumCalls();
+        this.breakerFailureRateThreshold = properties.getBreakerFailureRateThreshold();
+        this.breakerOpenMillis = properties.getBreakerOpenMs();
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.retryTokens = new AtomicInteger(retryTokenCapacity);
+        Gauge.builder("gdprkv.dynamo.retry.tokens", retryTokens, AtomicInteger::get)
+                .description("Tokens left in the DynamoDB retry bucket")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(String operation, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Operation op = operations.computeIfAbsent(operation, this::newOperation);
+        if (!op.breaker.tryAcquire()) {
+            op.rejected.increment();
+            throw new DynamoUnavailableException(operation, op.breaker.retryAfterMillis());
+        }
+
+        int tokensTaken = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.get();
+                op.breaker.onSuccess();
+                int refund = Math.max(1, tokensTaken);
+                retryTokens.getAndUpdate(tokens -> Math.min(retryTokenCapacity, tokens + refund));
+                return result;
+            } catch (RuntimeException ex) {
+                if (!isTransient(ex)) {
+                    op.breaker.onSuccess();
+                    throw ex;
+                }
+                if (attempt >= maxAttempts || !takeRetryTokens()) {
+                    op.breaker.onFailure();
+                    throw ex;
+                }
+                tokensTaken += retryTokenCost;
+                op.retries.increment();
+                if (!backOff(attempt)) {
+                    op.breaker.onFailure();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    public void run(String operation, Runnable call) {
+        call(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    CircuitBreaker.State state(String operation) {
+        Operation op = operations.get(operation);
+        return op == null ? CircuitBreaker.State.CLOSED : op.breaker.state();
+    }
+
+    int retryTokens() {
+        return retryTokens.get();
+    }
+
+    static boolean isTransient(RuntimeException ex) {
+        if (ex instanceof SdkServiceException service) {
+            return service.isThrottlingException() || service.statusCode() >= 500;
+        }
+        return ex instanceof SdkClientException;
+    }
+
+    private boolean takeRetryTokens() {
+        while (true) {
+            int tokens = retryTokens.get();
+            if (tokens < retryTokenCost) {
+                return false;
+            }
+            if (retryTokens.compareAndSet(tokens, tokens - retryTokenCost)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return false if the thread was interrupted while backing off
+     */
+    private boolean backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Operation newOperation(String operation) {
+        CircuitBreaker breaker = new CircuitBreaker(breakerWindowSize, breakerMinimumCalls,
+                breakerFailureRateThreshold, breakerOpenMillis, clock);
+        Gauge.builder("gdprkv.dynamo.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return new Operation(breaker,
+                Counter.builder("gdprkv.dynamo.retries").tag("operation", operation).register(meterRegistry),
+                Counter.builder("gdprkv.dynamo.circuit.rejected").tag("operation", operation).register(meterRegistry));
+    }
+
+    private record Operation(CircuitBreaker breaker, Counter retries, Counter rejected) {
+    }
+}
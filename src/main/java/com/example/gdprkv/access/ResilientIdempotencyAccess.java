@@ -0,0 +1,28 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.IdempotencyEntry;
+import java.util.Optional;
+
+/**
+ * {@link IdempotencyAccess} decorator that runs every call through {@link ResilientCalls}.
+ */
+public class ResilientIdempotencyAccess implements IdempotencyAccess {
+
+    private final IdempotencyAccess delegate;
+    private final ResilientCalls calls;
+
+    public ResilientIdempotencyAccess(IdempotencyAccess delegate, ResilientCalls calls) {
+        this.delegate = delegate;
+        this.calls = calls;
+    }
+
+    @Override
+    public Optional<IdempotencyEntry> find(String idempotencyKey) {
+        return calls.call("IdempotencyAccess.find", () -> delegate.find(idempotencyKey));
+    }
+
+    @Override
+    public void save(IdempotencyEntry entry) {
+        calls.run("IdempotencyAccess.save", () -> delegate.save(entry));
+    }
+}
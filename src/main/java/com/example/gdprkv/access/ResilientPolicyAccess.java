@@ -0,0 +1,30 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Policy;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link PolicyAccess} decorator that runs every call through {@link ResilientCalls}. It sits
+ * below the policy caches, so cache hits are not counted by the breakers.
+ */
+public class ResilientPolicyAccess implements PolicyAccess {
+
+    private final PolicyAccess delegate;
+    private final ResilientCalls calls;
+
+    public ResilientPolicyAccess(PolicyAccess delegate, ResilientCalls calls) {
+        this.delegate = delegate;
+        this.calls = calls;
+    }
+
+    @Override
+    public Optional<Policy> findByPurpose(String purpose) {
+        return calls.call("PolicyAccess.findByPurpose", () -> delegate.findByPurpose(purpose));
+    }
+
+    @Override
+    public List<Policy> findAll() {
+        return calls.call("PolicyAccess.findAll", delegate::findAll);
+    }
+}
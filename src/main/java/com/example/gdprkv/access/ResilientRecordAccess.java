@@ -0,0 +1,91 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Record;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link RecordAccess} decorator that runs every call through {@link ResilientCalls}. Point reads
+ * are also hedged by {@link HedgedReads}; each attempt of a retried read is hedged on its own.
+ */
+public class ResilientRecordAccess implements RecordAccess {
+
+    private final RecordAccess delegate;
+    private final ResilientCalls calls;
+    private final HedgedReads hedgedReads;
+
+    public ResilientRecordAccess(RecordAccess delegate, ResilientCalls calls, HedgedReads hedgedReads) {
+        this.delegate = delegate;
+        this.calls = calls;
+        this.hedgedReads = hedgedReads;
+    }
+
+    @Override
+    public Optional<Record> findBySubjectIdAndRecordKey(String subjectId, String recordKey) {
+        String operation = "RecordAccess.findBySubjectIdAndRecordKey";
+        return calls.call(operation, () -> hedgedReads.read(operation,
+                () -> delegate.findBySubjectIdAndRecordKey(subjectId, recordKey)));
+    }
+
+    @Override
+    public List<Record> findAllBySubjectId(String subjectId) {
+        return calls.call("RecordAccess.findAllBySubjectId", () -> delegate.findAllBySubjectId(subjectId));
+    }
+
+    @Override
+    public List<Record> findRecordsDueForPurge(String purgeBucket, long cutoffTimestamp) {
+        return calls.call("RecordAccess.findRecordsDueForPurge",
+                () -> delegate.findRecordsDueForPurge(purgeBucket, cutoffTimestamp));
+    }
+
+    @Override
+    public Record save(Record record) {
+        return calls.call("RecordAccess.save", () -> delegate.save(record));
+    }
+
+    @Override
+    public Record save(Record record, long expectedVersion) {
+        return calls.call("RecordAccess.save", () -> delegate.save(record, expectedVersion));
+    }
+
+    @Override
+    public Record upsert(Record record, Long expectedVersion) {
+        return calls.call("RecordAccess.upsert", () -> delegate.upsert(record, expectedVersion));
+    }
+
+    @Override
+    public Upsert upsertIfChanged(Record record, Long expectedVersion) {
+        return calls.call("RecordAccess.upsertIfChanged", () -> delegate.upsertIfChanged(record, expectedVersion));
+    }
+
+    @Override
+    public List<Record> upsertAll(List<Record> records) {
+        return calls.call("RecordAccess.upsertAll", () -> delegate.upsertAll(records));
+    }
+
+    @Override
+    public WriteSize writeSize(Record record) {
+        return delegate.writeSize(record);
+    }
+
+    @Override
+    public List<Record> findAllByKeys(List<Record> keys) {
+        return calls.call("RecordAccess.findAllByKeys", () -> delegate.findAllByKeys(keys));
+    }
+
+    @Override
+    public Record create(Record record) {
+        return calls.call("RecordAccess.create", () -> delegate.create(record));
+    }
+
+    @Override
+    public Record patch(Record current, Record patched, JsonNode mergePatch) {
+        return calls.call("RecordAccess.patch", () -> delegate.patch(current, patched, mergePatch));
+    }
+
+    @Override
+    public void delete(Record record) {
+        calls.run("RecordAccess.delete", () -> delegate.delete(record));
+    }
+}
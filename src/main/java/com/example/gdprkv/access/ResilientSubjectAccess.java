@@ -0,0 +1,43 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Subject;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SubjectAccess} decorator that runs every call through {@link ResilientCalls}. Point reads
+ * are also hedged by {@link HedgedReads}.
+ */
+public class ResilientSubjectAccess implements SubjectAccess {
+
+    private final SubjectAccess delegate;
+    private final ResilientCalls calls;
+    private final HedgedReads hedgedReads;
+
+    public ResilientSubjectAccess(SubjectAccess delegate, ResilientCalls calls, HedgedReads hedgedReads) {
+        this.delegate = delegate;
+        this.calls = calls;
+        this.hedgedReads = hedgedReads;
+    }
+
+    @Override
+    public Optional<Subject> findBySubjectId(String subjectId) {
+        String operation = "SubjectAccess.findBySubjectId";
+        return calls.call(operation, () -> hedgedReads.read(operation, () -> delegate.findBySubjectId(subjectId)));
+    }
+
+    @Override
+    public Subject save(Subject subject) {
+        return calls.call("SubjectAccess.save", () -> delegate.save(subject));
+    }
+
+    @Override
+    public Subject update(Subject subject) {
+        return calls.call("SubjectAccess.update", () -> delegate.update(subject));
+    }
+
+    @Override
+    public List<String> findAllSubjectIds() {
+        return calls.call("SubjectAccess.findAllSubjectIds", delegate::findAllSubjectIds);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.gdprkv.access;
+
+import com.example.gdprkv.models.Policy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * {@link PolicyAccess} that serves lookups from an immutable snapshot of the whole policies table.
+ * The first snapshot is loaded in the constructor, so the application does not finish starting
+ * (and is never ready) without one. {@link #poll()} rescans the table and swaps the snapshot
+ * atomically when the {@code last_updated_at} high-water mark or the row count changes; lookups
+ * are a plain read of a volatile reference and an immutable map.
+ */
+@Slf4j
+public class SnapshotPolicyAccess implements PolicyAccess {
+
+    private final PolicyAccess source;
+    private volatile Snapshot snapshot;
+
+    public SnapshotPolicyAccess(PolicyAccess source) {
+        this.source = source;
+        this.snapshot = Snapshot.of(source.findAll());
+        log.info("Loaded policy snapshot with {} policies", snapshot.policies().size());
+    }
+
+    @Override
+    public Optional<Policy> findByPurpose(String purpose) {
+        return Optional.ofNullable(snapshot.policies().get(purpose));
+    }
+
+    @Override
+    public List<Policy> findAll() {
+        return List.copyOf(snapshot.policies().values());
+    }
+
+    @Scheduled(fixedDelayString = "${policies.cache.snapshot-poll-interval-ms:30000}")
+    public void poll() {
+        Snapshot current = snapshot;
+        Snapshot latest;
+        try {
+            latest = Snapshot.of(source.findAll());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to poll policies; keeping snapshot from high-water mark {}: {}",
+                    current.highWaterMark(), ex.getMessage());
+            return;
+        }
+        if (latest.highWaterMark() != current.highWaterMark() || latest.policies().size() != current.policies().size()) {
+            snapshot = latest;
+            log.info("Swapped policy snapshot: {} policies, high-water mark {}",
+                    latest.policies().size(), latest.highWaterMark());
+        }
+    }
+
+    private record Snapshot(Map<String, Policy> policies, long highWaterMark) {
+
+        static Snapshot of(List<Policy> policies) {
+            long highWaterMark = policies.stream()
+                    .map(Policy::getLastUpdatedAt)
+                    .filter(lastUpdatedAt -> lastUpdatedAt != null)
+                    .mapToLong(Long::longValue)
+                    .max()
+                    .orElse(0L);
+            return new Snapshot(policies.stream()
+                    .collect(Collectors.toUnmodifiableMap(Policy::getPurpose, Function.identity())), highWaterMark);
+        }
+    }
+}
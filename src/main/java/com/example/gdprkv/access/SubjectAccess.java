@@ -1,6 +1,7 @@
 package com.example.gdprkv.access;
 
 import com.example.gdprkv.models.Subject;
+import java.util.List;
 import java.util.Optional;
 
 public interface SubjectAccess {
@@ -16,4 +17,10 @@ public interface SubjectAccess {
      * Updates an existing subject. Will fail if subject does not exist.
      */
     Subject update(Subject subject);
+
+    /**
+     * Returns the IDs of all subjects. This is a full scan and is only used to rebuild the
+     * subject Bloom filter in the background.
+     */
+    List<String> findAllSubjectIds();
 }
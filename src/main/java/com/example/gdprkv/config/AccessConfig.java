@@ -0,0 +1,167 @@
+package com.example.gdprkv.config;
+
+import com.example.gdprkv.access.ArchivingAuditEventAccess;
+import com.example.gdprkv.access.AuditArchive;
+import com.example.gdprkv.access.AuditEventAccess;
+import com.example.gdprkv.access.BlobStore;
+import com.example.gdprkv.access.CachingIdempotencyAccess;
+import com.example.gdprkv.access.CachingPolicyAccess;
+import com.example.gdprkv.access.CachingRecordAccess;
+import com.example.gdprkv.access.CachingSubjectAccess;
+import com.example.gdprkv.access.DynamoAuditEventAccess;
+import com.example.gdprkv.access.DynamoIdempotencyAccess;
+import com.example.gdprkv.access.DynamoPolicyAccess;
+import com.example.gdprkv.access.DynamoRecordAccess;
+import com.example.gdprkv.access.DynamoSubjectAccess;
+import com.example.gdprkv.access.HedgedReads;
+import com.example.gdprkv.access.LocalFileBlobStore;
+import com.example.gdprkv.access.PolicyAccess;
+import com.example.gdprkv.access.RecordAccess;
+import com.example.gdprkv.access.ResilientAuditEventAccess;
+import com.example.gdprkv.access.ResilientCalls;
+import com.example.gdprkv.access.ResilientIdempotencyAccess;
+import com.example.gdprkv.access.ResilientPolicyAccess;
+import com.example.gdprkv.access.ResilientRecordAccess;
+import com.example.gdprkv.access.ResilientSubjectAccess;
+import com.example.gdprkv.access.SnapshotPolicyAccess;
+import com.example.gdprkv.access.SubjectAccess;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Composes the access layer. The Dynamo* components talk to a single table each; the beans
+ * here wrap them with cross-cutting behaviour and are what the services get injected with.
+ * Retries and circuit breaking ({@link ResilientCalls}) sit directly on the Dynamo* components,
+ * below the caches.
+ */
+@Configuration
+public class AccessConfig {
+
+    public static final String TTL_POLICY_CACHE =
+            "${policies.cache.enabled:true} and '${policies.cache.mode:ttl}'.equalsIgnoreCase('ttl')";
+    public static final String SNAPSHOT_POLICY_CACHE =
+            "${policies.cache.enabled:true} and '${policies.cache.mode:ttl}'.equalsIgnoreCase('snapshot')";
+    public static final String NO_POLICY_CACHE = "!(" + TTL_POLICY_CACHE + ") and !(" + SNAPSHOT_POLICY_CACHE + ")";
+
+    @Bean
+    public BlobStore auditBlobStore(AuditTieringProperties properties) {
+        String path = properties.getBlobStorePath();
+        if (path == null || !Path.of(path).isAbsolute()) {
+            throw new IllegalStateException("audit.tiering.blob-store-path must be an absolute path, got " + path);
+        }
+        if (properties.getInstances() > 1 && !properties.isSharedStore()) {
+            throw new IllegalStateException("audit.tiering.instances is " + properties.getInstances()
+                    + " but audit.tiering.blob-store-path is not a shared store; mount a filesystem shared by all"
+                    + " instances there and set audit.tiering.shared-store=true");
+        }
+        return new LocalFileBlobStore(Path.of(path));
+    }
+
+    @Bean
+    public AuditArchive auditArchive(BlobStore auditBlobStore, AuditTieringProperties properties) {
+        return new AuditArchive(auditBlobStore, properties.getEventsPerBlock());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnExpression(TTL_POLICY_CACHE)
+    public ExecutorService policyCacheRefreshExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "policy-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnExpression(TTL_POLICY_CACHE)
+    public CachingPolicyAccess cachingPolicyAccess(DynamoPolicyAccess dynamoPolicyAccess,
+                                                   PolicyCacheProperties properties,
+                                                   Clock clock,
+                                                   ExecutorService policyCacheRefreshExecutor,
+                                                   ResilientCalls resilientCalls) {
+        return new CachingPolicyAccess(new ResilientPolicyAccess(dynamoPolicyAccess, resilientCalls), clock,
+                Duration.ofSeconds(properties.getTtlSeconds()),
+                Duration.ofSeconds(properties.getRefreshAheadSeconds()),
+                Duration.ofSeconds(properties.getNegativeTtlSeconds()),
+                policyCacheRefreshExecutor);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnExpression(SNAPSHOT_POLICY_CACHE)
+    public SnapshotPolicyAccess snapshotPolicyAccess(DynamoPolicyAccess dynamoPolicyAccess, ResilientCalls resilientCalls) {
+        return new SnapshotPolicyAccess(new ResilientPolicyAccess(dynamoPolicyAccess, resilientCalls));
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnExpression(NO_POLICY_CACHE)
+    public PolicyAccess resilientPolicyAccess(DynamoPolicyAccess dynamoPolicyAccess, ResilientCalls resilientCalls) {
+        return new ResilientPolicyAccess(dynamoPolicyAccess, resilientCalls);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "subjects.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingSubjectAccess cachingSubjectAccess(DynamoSubjectAccess dynamoSubjectAccess,
+                                                     SubjectCacheProperties properties,
+                                                     Clock clock,
+                                                     ResilientCalls resilientCalls,
+                                                     HedgedReads hedgedReads) {
+        return new CachingSubjectAccess(new ResilientSubjectAccess(dynamoSubjectAccess, resilientCalls, hedgedReads), clock,
+                Duration.ofSeconds(properties.getTtlSeconds()),
+                properties.getMaxEntries(),
+                properties.getBloomFalsePositiveRate());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "subjects.cache.enabled", havingValue = "false")
+    public SubjectAccess resilientSubjectAccess(DynamoSubjectAccess dynamoSubjectAccess,
+                                                ResilientCalls resilientCalls,
+                                                HedgedReads hedgedReads) {
+        return new ResilientSubjectAccess(dynamoSubjectAccess, resilientCalls, hedgedReads);
+    }
+
+    @Bean
+    @Primary
+    public RecordAccess recordAccess(DynamoRecordAccess dynamoRecordAccess,
+                                     ResilientCalls resilientCalls,
+                                     HedgedReads hedgedReads,
+                                     RecordCacheProperties cacheProperties,
+                                     Clock clock) {
+        RecordAccess resilient = new ResilientRecordAccess(dynamoRecordAccess, resilientCalls, hedgedReads);
+        if (!cacheProperties.isEnabled()) {
+            return resilient;
+        }
+        return new CachingRecordAccess(resilient, clock,
+                Duration.ofSeconds(cacheProperties.getTtlSeconds()), cacheProperties.getMaxEntries());
+    }
+
+    @Bean
+    @Primary
+    public CachingIdempotencyAccess cachingIdempotencyAccess(DynamoIdempotencyAccess dynamoIdempotencyAccess,
+                                                             RecordIdempotencyProperties properties,
+                                                             Clock clock,
+                                                             ResilientCalls resilientCalls) {
+        return new CachingIdempotencyAccess(new ResilientIdempotencyAccess(dynamoIdempotencyAccess, resilientCalls), clock,
+                properties.getMaxCachedEntries());
+    }
+
+    @Bean
+    @Primary
+    public AuditEventAccess auditEventAccess(DynamoAuditEventAccess dynamoAuditEventAccess,
+                                             AuditArchive auditArchive,
+                                             ResilientCalls resilientCalls) {
+        return new ArchivingAuditEventAccess(new ResilientAuditEventAccess(dynamoAuditEventAccess, resilientCalls), auditArchive);
+    }
+}
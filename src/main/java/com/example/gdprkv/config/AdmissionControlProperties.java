@@ -0,0 +1,36 @@
+package com.example.gdprkv.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for adaptive admission control of the HTTP API.
+ * These values are bound from application.yml (http.admission.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Each endpoint class gets its own limit, moved between min-limit and max-limit: up by one
+ * while the average latency of the class's requests stays under its target, down by
+ * backoff-ratio at most once per decrease interval when it does not.
+ */
+@Component
+@ConfigurationProperties(prefix = "http.admission")
+@Data
+public class AdmissionControlProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 64;  // Concurrent requests admitted per endpoint class at startup
+    private int minLimit = 4;
+    private int maxLimit = 512;
+    // Average request latency above which a class's limit shrinks, keyed by endpoint class
+    private Map<String, Long> targetLatencyMs = new HashMap<>(Map.of(
+            "record-writes", 200L,
+            "reads", 100L,
+            "subjects", 2000L,
+            "ingest", 5000L));
+    private double backoffRatio = 0.9;  // Factor applied to a limit when latency is over the target
+    private long decreaseIntervalMs = 1000;  // A limit shrinks at most once per interval
+    private long retryAfterSeconds = 1;  // Sent in Retry-After on 429 responses
+}
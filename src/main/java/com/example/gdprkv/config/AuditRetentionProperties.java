@@ -1,5 +1,10 @@
 package com.example.gdprkv.config;
 
+import com.example.gdprkv.models.AuditEvent;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -9,6 +14,8 @@ import org.springframework.stereotype.Component;
  * These values are bound from application.yml (audit.retention.*).
  * The defaults below serve as fallbacks if properties are missing from YAML.
  * To enable retention, set audit.retention.enabled=true in application.yml.
+ *
+ * retentionDays is the default class; eventTypeRetentionDays overrides it per event type.
  */
 @Component
 @ConfigurationProperties(prefix = "audit.retention")
@@ -18,4 +25,21 @@ public class AuditRetentionProperties {
     private boolean enabled = false;
     private String schedule = "0 0 2 * * *";
     private int retentionDays = 730;
+    private Map<AuditEvent.EventType, Integer> eventTypeRetentionDays = new EnumMap<>(AuditEvent.EventType.class);
+    private int lookbackDays = 7;  // How many days worth of expiry buckets to check per run
+    private boolean expiredScanEnabled = false;  // One-off full scan for expired events in buckets the queries miss
+    private boolean legacyScanEnabled = false;  // One-off full scan for events written before expiry buckets existed
+
+    public int retentionDaysFor(AuditEvent.EventType eventType) {
+        return eventTypeRetentionDays.getOrDefault(eventType, retentionDays);
+    }
+
+    /**
+     * Distinct retention periods in use, i.e. the retention classes that have expiry buckets.
+     */
+    public SortedSet<Integer> retentionClasses() {
+        SortedSet<Integer> classes = new TreeSet<>(eventTypeRetentionDays.values());
+        classes.add(retentionDays);
+        return classes;
+    }
 }
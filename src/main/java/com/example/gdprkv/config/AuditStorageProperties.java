@@ -0,0 +1,27 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for how audit events are laid out in DynamoDB.
+ * These values are bound from application.yml (audit.storage.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * ITEM stores one item per event in audit_events; PAGED packs events into per-subject
+ * page items in audit_pages of up to pageMaxBytes each.
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.storage")
+@Data
+public class AuditStorageProperties {
+
+    private Layout layout = Layout.ITEM;
+    private int pageMaxBytes = 350_000;  // DynamoDB items are capped at 400 KB
+
+    public enum Layout {
+        ITEM,
+        PAGED
+    }
+}
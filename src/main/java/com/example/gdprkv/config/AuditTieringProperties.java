@@ -0,0 +1,30 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for moving aged audit events to the compressed cold tier.
+ * These values are bound from application.yml (audit.tiering.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ * The archive is always consulted on reads; enabled only controls the scheduled tiering job.
+ *
+ * The blob store is a local directory, so blobStorePath must be absolute and, when more than one
+ * instance runs, a filesystem mounted by all of them (sharedStore); otherwise an instance would not
+ * see events archived by another. Startup fails on a relative path or on several instances
+ * without a shared store.
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.tiering")
+@Data
+public class AuditTieringProperties {
+
+    private boolean enabled = false;
+    private String schedule = "0 30 3 * * *";
+    private int ageDays = 90;
+    private String blobStorePath;
+    private boolean sharedStore = false;
+    private int instances = 1;
+    private int eventsPerBlock = 256;
+}
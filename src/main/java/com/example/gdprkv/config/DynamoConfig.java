@@ -1,11 +1,13 @@
 package com.example.gdprkv.config;
 
+import com.example.gdprkv.models.RawJsonValueAttributeConverter;
 import java.net.URI;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
@@ -16,8 +18,18 @@ public class DynamoConfig {
     public DynamoDbClient dynamo(
             @Value("${server.aws.region}") String region,
             @Value("${server.aws.endpoint}") String endpoint,
-            @Value("${server.aws.use-localstack:true}") boolean useLocalstack) {
-        var builder = DynamoDbClient.builder().region(Region.of(region));
+            @Value("${server.aws.use-localstack:true}") boolean useLocalstack,
+            DynamoResilienceProperties resilience) {
+        var builder = DynamoDbClient.builder()
+                .region(Region.of(region))
+                .overrideConfiguration(c -> {
+                    if (resilience.isEnabled()) {
+                        // ResilientCalls retries with a shared budget; SDK retries would multiply its attempts.
+                        // Every caller of this client must therefore run through ResilientCalls, chunk
+                        // fetches included (they run inside the ResilientRecordAccess call that needs them).
+                        c.retryPolicy(RetryPolicy.none());
+                    }
+                });
         if (useLocalstack) {
             builder.endpointOverride(URI.create(endpoint))
                     .credentialsProvider(StaticCredentialsProvider.create(
@@ -32,4 +44,12 @@ public class DynamoConfig {
                 .dynamoDbClient(dynamoDbClient)
                 .build();
     }
+
+    @Bean
+    public RawJsonValueAttributeConverter recordValueConverter(RecordCompressionProperties compression,
+                                                               RecordStorageProperties storage) {
+        return new RawJsonValueAttributeConverter(
+                compression.isEnabled() ? compression.getThresholdBytes() : Integer.MAX_VALUE,
+                storage.isNativeMapValues());
+    }
 }
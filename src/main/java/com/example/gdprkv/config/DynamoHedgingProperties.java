@@ -0,0 +1,22 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for hedged point reads of records and subjects.
+ * These values are bound from application.yml (dynamo.hedging.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ */
+@Component
+@ConfigurationProperties(prefix = "dynamo.hedging")
+@Data
+public class DynamoHedgingProperties {
+
+    private boolean enabled = false;
+    private double percentile = 0.95;  // A second read is sent once the first is slower than this share of recent reads
+    private int budgetPercent = 5;  // Hedged reads may add at most this share of extra reads
+    private int minSamples = 100;  // Reads of an operation observed before it is hedged
+    private long minDelayMs = 2;  // Never hedge sooner than this, however fast recent reads were
+}
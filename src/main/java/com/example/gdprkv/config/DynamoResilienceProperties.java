@@ -0,0 +1,30 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for retries and circuit breaking around DynamoDB calls.
+ * These values are bound from application.yml (dynamo.resilience.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * When enabled, the SDK's own retries are turned off so that retries are not multiplied by
+ * both layers.
+ */
+@Component
+@ConfigurationProperties(prefix = "dynamo.resilience")
+@Data
+public class DynamoResilienceProperties {
+
+    private boolean enabled = true;
+    private int maxAttempts = 3;  // Attempts per call, including the first
+    private long baseBackoffMs = 25;  // Backoff before retry n is random between 0 and base * 2^(n-1)
+    private long maxBackoffMs = 1000;  // Upper bound of a single backoff
+    private int retryTokenCapacity = 500;  // Size of the retry token bucket shared by all calls
+    private int retryTokenCost = 5;  // Tokens taken by each retry; a successful call returns them
+    private int breakerWindowSize = 20;  // Outcomes of recent calls per operation considered by its breaker
+    private int breakerMinimumCalls = 10;  // The breaker does not open before this many calls were seen
+    private double breakerFailureRateThreshold = 0.5;  // Failure rate that opens the breaker
+    private long breakerOpenMs = 5000;  // How long an open breaker rejects calls before letting a trial call through
+}
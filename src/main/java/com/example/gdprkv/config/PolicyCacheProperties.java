@@ -0,0 +1,28 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the in-process policy cache.
+ * These values are bound from application.yml (policies.cache.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * In TTL mode policies are cached per purpose on first use. In SNAPSHOT mode the whole table is
+ * loaded at startup and re-polled every snapshotPollIntervalMs; the TTL settings are then unused.
+ */
+@Component
+@ConfigurationProperties(prefix = "policies.cache")
+@Data
+public class PolicyCacheProperties {
+
+    public enum Mode { TTL, SNAPSHOT }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.TTL;
+    private long ttlSeconds = 300;  // How long a loaded policy is served from memory
+    private long refreshAheadSeconds = 60;  // Reload in the background this long before the TTL runs out
+    private long negativeTtlSeconds = 10;  // How long an unknown purpose is remembered as missing
+    private long snapshotPollIntervalMs = 30000;  // How often SNAPSHOT mode rescans the policies table
+}
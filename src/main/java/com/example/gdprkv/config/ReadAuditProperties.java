@@ -0,0 +1,25 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for aggregated read auditing.
+ * These values are bound from application.yml (audit.reads.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Reads are counted in memory per (subject, record key, window) and flushed as one GET_SUCCESS
+ * summary event per window. On a crash at most windowSeconds plus flushIntervalMs of read
+ * accounting is lost.
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.reads")
+@Data
+public class ReadAuditProperties {
+
+    private boolean enabled = true;
+    private int windowSeconds = 60;
+    private long flushIntervalMs = 10000;
+    private int maxPendingKeys = 10000;  // Flush early in the background past this many open aggregates; failed ones are requeued up to it
+}
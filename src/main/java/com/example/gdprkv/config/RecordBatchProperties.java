@@ -0,0 +1,19 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for batch record writes.
+ * These values are bound from application.yml (records.batch.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ * Atomic batches are one TransactWriteItems call, so maxItems must not exceed 100.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.batch")
+@Data
+public class RecordBatchProperties {
+
+    private int maxItems = 25;  // Largest accepted batch
+}
@@ -0,0 +1,23 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the read-through cache behind single-record GETs.
+ * These values are bound from application.yml (records.cache.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Writes through this instance update or evict their entry; the TTL bounds how long a change made
+ * through another instance can go unseen by GETs here.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.cache")
+@Data
+public class RecordCacheProperties {
+
+    private boolean enabled = true;
+    private long ttlSeconds = 5;  // How long a record is served from memory
+    private int maxEntries = 100000;  // The cache is cleared when it grows past this
+}
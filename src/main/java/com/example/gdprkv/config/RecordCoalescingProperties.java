@@ -0,0 +1,24 @@
+package com.example.gdprkv.config;
+
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for coalescing concurrent PUTs to hot record keys.
+ * These values are bound from application.yml (records.coalescing.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Coalescing is opt-in per purpose: only records whose purpose is listed are merged, since
+ * every PUT but the last one in a window is never stored.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.coalescing")
+@Data
+public class RecordCoalescingProperties {
+
+    private Set<String> purposes = new HashSet<>();  // Purposes whose PUTs may be coalesced
+    private long windowMs = 20;  // How long the first PUT waits for others to the same record
+}
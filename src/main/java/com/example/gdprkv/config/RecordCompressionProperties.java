@@ -0,0 +1,19 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for compressing stored record values.
+ * These values are bound from application.yml (records.compression.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.compression")
+@Data
+public class RecordCompressionProperties {
+
+    private boolean enabled = true;  // Store large values Deflate-compressed
+    private int thresholdBytes = 4096;  // Values whose JSON is at least this size are compressed
+}
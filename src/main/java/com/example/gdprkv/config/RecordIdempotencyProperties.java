@@ -0,0 +1,23 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for replaying record writes retried with the same X-Request-Id.
+ * These values are bound from application.yml (records.idempotency.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Only the status and version of a response are stored, so the TTL only needs to cover client
+ * retries.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.idempotency")
+@Data
+public class RecordIdempotencyProperties {
+
+    private boolean enabled = true;
+    private long ttlSeconds = 900;  // How long a write's outcome is replayed for
+    private int maxCachedEntries = 10000;  // The local cache is cleared when it grows past this
+}
@@ -0,0 +1,19 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for NDJSON bulk ingest.
+ * These values are bound from application.yml (records.ingest.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.ingest")
+@Data
+public class RecordIngestProperties {
+
+    private int chunkSize = 25;  // Lines written together
+    private int maxInFlightChunks = 8;  // Reading the request body pauses while this many chunks are being written
+}
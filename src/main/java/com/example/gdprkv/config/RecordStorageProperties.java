@@ -0,0 +1,18 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for how record values are stored.
+ * These values are bound from application.yml (records.storage.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ */
+@Component
+@ConfigurationProperties(prefix = "records.storage")
+@Data
+public class RecordStorageProperties {
+
+    private boolean nativeMapValues = false;  // Store JSON object values as DynamoDB maps so PATCH can update single paths
+}
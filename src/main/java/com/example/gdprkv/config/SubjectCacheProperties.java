@@ -0,0 +1,26 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the subject existence cache.
+ * These values are bound from application.yml (subjects.cache.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * The Bloom filter is off by default: with several instances, a subject created on another
+ * instance is answered as missing here until the next rebuild.
+ */
+@Component
+@ConfigurationProperties(prefix = "subjects.cache")
+@Data
+public class SubjectCacheProperties {
+
+    private boolean enabled = true;
+    private long ttlSeconds = 30;  // How long a found subject is served from memory
+    private int maxEntries = 100000;  // The cache is cleared when it grows past this
+    private boolean bloomFilterEnabled = false;  // Answer unknown subject IDs from a Bloom filter
+    private long bloomRebuildIntervalMs = 300000;  // How often the filter is rebuilt from a scan
+    private double bloomFalsePositiveRate = 0.01;
+}
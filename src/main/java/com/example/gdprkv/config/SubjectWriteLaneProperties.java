@@ -0,0 +1,22 @@
+package com.example.gdprkv.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the per-subject write lanes.
+ * These values are bound from application.yml (subjects.write-lanes.*).
+ * The defaults below serve as fallbacks if properties are missing from YAML.
+ *
+ * Lanes run on virtual threads, so a lane blocked on DynamoDB costs little; more lanes means
+ * fewer unrelated subjects queued behind each other.
+ */
+@Component
+@ConfigurationProperties(prefix = "subjects.write-lanes")
+@Data
+public class SubjectWriteLaneProperties {
+
+    private boolean enabled = true;
+    private int laneCount = 256;  // Subjects are assigned to a lane by hashing their ID
+}
@@ -0,0 +1,107 @@
+package com.example.gdprkv.http;
+
+import com.example.gdprkv.config.AdmissionControlProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load before requests reach the controllers. Each endpoint class has its own
+ * {@link AimdConcurrencyLimit} sized by the latency of that class's own requests, so background
+ * jobs and slow requests of another class do not shrink it; a request over its class's limit is
+ * rejected at once with {@code 429 Too Many Requests} and {@code Retry-After} instead of holding
+ * a Tomcat thread while DynamoDB is slow. {@code /health} and the admin endpoints are never
+ * limited.
+ *
+ * <p>Registered in HttpConfig rather than as a component so that web slice tests do not pick it
+ * up.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        RECORD_WRITES,
+        READS,
+        SUBJECTS,
+        INGEST
+    }
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final Map<EndpointClass, AimdConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, Clock clock) {
+        this.enabled = properties.isEnabled();
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String name = endpointClass.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            Long targetLatencyMs = properties.getTargetLatencyMs().get(name);
+            if (targetLatencyMs == null) {
+                throw new IllegalArgumentException("http.admission.target-latency-ms." + name + " is not set");
+            }
+            limits.put(endpointClass, new AimdConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                    properties.getMaxLimit(), properties.getBackoffRatio(), targetLatencyMs,
+                    properties.getDecreaseIntervalMs(), clock));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        EndpointClass endpointClass = enabled ? classify(req.getMethod(), req.getServletPath()) : null;
+        if (endpointClass == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        AimdConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            log.debug("Rejected {} {}: {} limit of {} reached", req.getMethod(), req.getRequestURI(),
+                    endpointClass, limit.limit());
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write("{\"code\":\"OVERLOADED\",\"message\":\"Too many concurrent requests; retry later\"}");
+            return;
+        }
+        long admittedAt = System.nanoTime();
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            limit.release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    /**
+     * Maps a request to its endpoint class, or {@code null} for requests that are never limited.
+     *
+     * @param path the servlet path, i.e. without the context path
+     */
+    static EndpointClass classify(String method, String path) {
+        if (path.equals("/records:ingest")) {
+            return EndpointClass.INGEST;
+        }
+        if (!path.startsWith("/subjects/")) {
+            return null;
+        }
+        if (path.indexOf('/', "/subjects/".length()) < 0) {
+            return EndpointClass.SUBJECTS;
+        }
+        return "GET".equals(method) ? EndpointClass.READS : EndpointClass.RECORD_WRITES;
+    }
+
+    AimdConcurrencyLimit limit(EndpointClass endpointClass) {
+        return limits.get(endpointClass);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.gdprkv.http;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit with additive increase and multiplicative decrease, driven by the latency of
+ * the requests it admits. A request is admitted while fewer than {@link #limit()} are in flight.
+ * Completed requests feed an exponentially weighted moving average of latency. While the average
+ * is over the target, the limit is multiplied by the backoff ratio at most once per decrease
+ * interval, so a burst of slow completions shrinks it once rather than once per request. While
+ * the average is under the target and the limit was at least half used, each completion grows it
+ * by one.
+ */
+final class AimdConcurrencyLimit {
+
+    private static final double WEIGHT = 0.2;  // Weight of the newest sample
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double targetLatencyNanos;
+    private final long decreaseIntervalMillis;
+    private final Clock clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;  // guarded by this
+    private double averageLatencyNanos;  // guarded by this
+    private long nextDecreaseAt;  // guarded by this
+
+    AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long targetLatencyMillis,
+                         long decreaseIntervalMillis, Clock clock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.decreaseIntervalMillis = decreaseIntervalMillis;
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Admits a request if the limit allows; an admitted request must be {@link #release released}.
+     */
+    boolean tryAcquire() {
+        int max = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adjusts the limit to the average latency.
+     *
+     * @param latencyNanos how long the request took from admission to completion
+     */
+    void release(long latencyNanos) {
+        int wasInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : averageLatencyNanos + WEIGHT * (latencyNanos - averageLatencyNanos);
+            if (averageLatencyNanos > targetLatencyNanos) {
+                long now = clock.millis();
+                if (now >= nextDecreaseAt) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    nextDecreaseAt = now + decreaseIntervalMillis;
+                }
+            } else if (wasInFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.gdprkv.http;
 
+import com.example.gdprkv.access.DynamoUnavailableException;
 import com.example.gdprkv.service.GdprKvException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -22,9 +25,14 @@ public class ApiExceptionHandler {
         HttpStatus status;
         switch (ex.getCode()) {
             case INVALID_PURPOSE -> status = HttpStatus.BAD_REQUEST;
+            case INVALID_RECORD_KEY -> status = HttpStatus.BAD_REQUEST;
             case SUBJECT_NOT_FOUND -> status = HttpStatus.NOT_FOUND;
             case RECORD_NOT_FOUND -> status = HttpStatus.NOT_FOUND;
+            case READ_SUPPRESSED_TOMBSTONE -> status = HttpStatus.GONE;
             case SUBJECT_ALREADY_EXISTS -> status = HttpStatus.CONFLICT;
+            case VERSION_MISMATCH -> status = HttpStatus.PRECONDITION_FAILED;
+            case BATCH_TOO_LARGE -> status = HttpStatus.BAD_REQUEST;
+            case IDEMPOTENCY_KEY_REUSED -> status = HttpStatus.UNPROCESSABLE_ENTITY;
             default -> status = HttpStatus.INTERNAL_SERVER_ERROR;
         }
 
@@ -35,6 +43,14 @@ public class ApiExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(DynamoUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> unavailable(DynamoUnavailableException ex) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(ex.getRetryAfterMillis() + 999));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(Map.of("code", "UNAVAILABLE", "message", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> boom(Exception ex) {
         log.error("Unexpected error handling request", ex);
@@ -41,7 +41,8 @@ public class AuditEventController {
                 event.getHash(),
                 event.getItemKey(),
                 event.getPurpose(),
-                event.getDetails()
+                event.getDetails(),
+                event.getPruned()
         );
     }
 }
@@ -16,5 +16,6 @@ public record AuditEventResponse(
         @JsonProperty("hash") String hash,
         @JsonProperty("item_key") String itemKey,
         @JsonProperty("purpose") String purpose,
-        @JsonProperty("details") Map<String, Object> details
+        @JsonProperty("details") Map<String, Object> details,
+        @JsonProperty("pruned") Boolean pruned
 ) { }
@@ -0,0 +1,19 @@
+package com.example.gdprkv.http;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public record BatchPutRecordsResponse(
+        @JsonProperty("results") List<ItemResult> results
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemResult(
+            @JsonProperty("record_key") String recordKey,
+            @JsonProperty("status") String status,
+            @JsonProperty("record") RecordResponse record,
+            @JsonProperty("code") String code,
+            @JsonProperty("message") String message
+    ) { }
+}
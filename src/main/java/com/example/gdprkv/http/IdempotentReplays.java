@@ -0,0 +1,149 @@
+package com.example.gdprkv.http;
+
+import com.example.gdprkv.access.IdempotencyAccess;
+import com.example.gdprkv.config.RecordIdempotencyProperties;
+import com.example.gdprkv.models.IdempotencyEntry;
+import com.example.gdprkv.service.GdprKvException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays the outcome of a record write when a client retries it with the same
+ * {@code X-Request-Id}, so a retry after a timeout neither bumps the version again nor writes
+ * another audit pair. Only successful outcomes are stored; a failed write runs again on retry.
+ * An outcome is the status and version (the ETag) of the response, never its body, so the store
+ * keeps no personal data that erasure would have to chase. Each outcome is stored with a
+ * {@link #fingerprint} of the request, and a request that reuses an {@code X-Request-Id} with a
+ * different body or {@code If-Match} is rejected rather than answered with the other's outcome.
+ *
+ * <p>The store is an optimisation, not a lock: two copies of a request that arrive before
+ * either has finished both run. Lookups and saves that fail are logged and the write proceeds
+ * as if the request were new.
+ */
+@Slf4j
+@Component
+public class IdempotentReplays {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyAccess idempotencyAccess;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long ttlSeconds;
+
+    @Autowired
+    public IdempotentReplays(IdempotencyAccess idempotencyAccess,
+                             Clock clock,
+                             RecordIdempotencyProperties properties) {
+        this(idempotencyAccess, clock, properties.isEnabled(), properties.getTtlSeconds());
+    }
+
+    /**
+     * Constructor with explicit settings (e.g., tests).
+     */
+    public IdempotentReplays(IdempotencyAccess idempotencyAccess, Clock clock, boolean enabled, long ttlSeconds) {
+        this.idempotencyAccess = idempotencyAccess;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Whether a request with this client request ID can be replayed, i.e. whether its
+     * {@link #fingerprint} is needed at all.
+     */
+    public boolean applies(String clientRequestId) {
+        return enabled && clientRequestId != null && !clientRequestId.isBlank();
+    }
+
+    /**
+     * Hashes the parts of a request that decide what it writes, e.g. the canonical content hash
+     * of the body and the expected version. {@code null} parts are allowed.
+     */
+    public static String fingerprint(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            canonical.append(part).append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the stored outcome, as a response with the original status and ETag but no body, if
+     * this client request ID already completed the same operation on the same record.
+     *
+     * @param clientRequestId the {@code X-Request-Id} sent by the client; generated IDs are never
+     *                        replayed, so {@code null} skips the lookup
+     * @param requestHash the {@link #fingerprint} of this request
+     * @throws GdprKvException IDEMPOTENCY_KEY_REUSED if the stored response belongs to a request
+     *         with a different fingerprint
+     */
+    public Optional<ResponseEntity<RecordResponse>> find(String operation, String subjectId, String recordKey,
+                                                         String clientRequestId, String requestHash) {
+        if (!applies(clientRequestId)) {
+            return Optional.empty();
+        }
+        IdempotencyEntry entry;
+        try {
+            Optional<IdempotencyEntry> stored = idempotencyAccess.find(
+                    IdempotencyEntry.key(clientRequestId, operation, subjectId, recordKey));
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            entry = stored.get();
+        } catch (RuntimeException ex) {
+            log.warn("Idempotency lookup failed for request {}; running the write: {}", clientRequestId, ex.getMessage());
+            return Optional.empty();
+        }
+        if (entry.getRequestHash() != null && !entry.getRequestHash().equals(requestHash)) {
+            throw GdprKvException.idempotencyKeyReused(clientRequestId);
+        }
+        return Optional.of(ResponseEntity.status(entry.getStatus() != null ? entry.getStatus() : HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, entry.getVersion().toString())
+                .header(REPLAYED_HEADER, "true")
+                .build());
+    }
+
+    /**
+     * Stores the status and version of a successful response for replay to retries of the same
+     * client request.
+     */
+    public void remember(String operation, String subjectId, String recordKey, String clientRequestId,
+                         String requestHash, int status, long version) {
+        if (!applies(clientRequestId)) {
+            return;
+        }
+        try {
+            long now = clock.millis();
+            idempotencyAccess.save(IdempotencyEntry.builder()
+                    .idempotencyKey(IdempotencyEntry.key(clientRequestId, operation, subjectId, recordKey))
+                    .requestId(clientRequestId)
+                    .operation(operation)
+                    .subjectId(subjectId)
+                    .recordKey(recordKey)
+                    .version(version)
+                    .status(status)
+                    .requestHash(requestHash)
+                    .createdAt(now)
+                    .expiresAt(now / 1000 + ttlSeconds)
+                    .build());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to store idempotent response for request {}: {}", clientRequestId, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.gdprkv.http;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One NDJSON result line of POST /records:ingest. {@code line} is the 1-based line number of the
+ * request body; results are streamed as chunks complete, so they are not in line order.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IngestRecordResponse(
+        @JsonProperty("line") long line,
+        @JsonProperty("subject_id") String subjectId,
+        @JsonProperty("record_key") String recordKey,
+        @JsonProperty("status") String status,
+        @JsonProperty("version") Long version,
+        @JsonProperty("code") String code,
+        @JsonProperty("message") String message
+) { }
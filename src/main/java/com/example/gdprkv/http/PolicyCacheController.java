@@ -0,0 +1,37 @@
+package com.example.gdprkv.http;
+
+import com.example.gdprkv.access.CachingPolicyAccess;
+import com.example.gdprkv.config.AccessConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational hook for the policy cache. Policies are seeded out of band, so after changing a
+ * policy row call this to make the change visible before the cache TTL runs out. Snapshot mode
+ * picks up changes on its own poll and does not expose this endpoint.
+ */
+@RestController
+@ConditionalOnExpression(AccessConfig.TTL_POLICY_CACHE)
+public class PolicyCacheController {
+
+    private final CachingPolicyAccess cachingPolicyAccess;
+
+    public PolicyCacheController(CachingPolicyAccess cachingPolicyAccess) {
+        this.cachingPolicyAccess = cachingPolicyAccess;
+    }
+
+    @DeleteMapping("/policies/cache")
+    public ResponseEntity<Void> invalidateAll() {
+        cachingPolicyAccess.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/policies/cache/{purpose}")
+    public ResponseEntity<Void> invalidate(@PathVariable String purpose) {
+        cachingPolicyAccess.invalidate(purpose);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,21 +1,35 @@
 package com.example.gdprkv.http;
 
 import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.BatchPutRecordsHttpRequest;
+import com.example.gdprkv.requests.BatchPutRecordsServiceRequest;
 import com.example.gdprkv.requests.DeleteRecordServiceRequest;
+import com.example.gdprkv.requests.PatchRecordServiceRequest;
 import com.example.gdprkv.requests.PutRecordHttpRequest;
 import com.example.gdprkv.requests.PutRecordServiceRequest;
 import com.example.gdprkv.service.AuditLogService;
+import com.example.gdprkv.service.GdprKvException;
 import com.example.gdprkv.service.PolicyDrivenRecordService;
+import com.example.gdprkv.service.ReadAuditAggregator;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -26,64 +40,219 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class RecordController {
 
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+
     private final PolicyDrivenRecordService recordService;
     private final AuditLogService auditLogService;
+    private final ReadAuditAggregator readAuditAggregator;
+    private final IdempotentReplays idempotentReplays;
 
+    @Autowired
     public RecordController(PolicyDrivenRecordService recordService,
-                           AuditLogService auditLogService) {
+                           AuditLogService auditLogService,
+                           ReadAuditAggregator readAuditAggregator,
+                           IdempotentReplays idempotentReplays) {
         this.recordService = recordService;
         this.auditLogService = auditLogService;
+        this.readAuditAggregator = readAuditAggregator;
+        this.idempotentReplays = idempotentReplays;
+    }
+
+    /**
+     * Constructor without read auditing or idempotent replays (e.g., tests).
+     */
+    public RecordController(PolicyDrivenRecordService recordService,
+                           AuditLogService auditLogService) {
+        this(recordService, auditLogService, null, null);
     }
 
     @PutMapping("/subjects/{subjectId}/records/{recordKey}")
     public ResponseEntity<RecordResponse> putRecord(
             @PathVariable String subjectId,
             @PathVariable String recordKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = REQUEST_ID_HEADER, required = false) String clientRequestId,
             @Valid @RequestBody PutRecordHttpRequest request
     ) {
+        checkRecordKey(recordKey);
+        Long expectedVersion = parseIfMatch(ifMatch);
+        String requestHash = replayable(clientRequestId)
+                ? IdempotentReplays.fingerprint(Record.computeContentHash(request.purpose(), request.value()), expectedVersion)
+                : null;
+        Optional<ResponseEntity<RecordResponse>> replay = replay("PUT", subjectId, recordKey, clientRequestId, requestHash);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
 
         PutRecordServiceRequest writeRequest = new PutRecordServiceRequest(
                 subjectId,
                 recordKey,
                 request.purpose(),
-                request.value()
+                request.value(),
+                false,
+                null,
+                null,
+                expectedVersion
         );
 
         // Capture the client intent before we validate or attempt writes.
         auditLogService.recordPutRequested(subjectId, recordKey, request.purpose(), writeRequest.requestId());
 
-        Record record;
+        PolicyDrivenRecordService.PutOutcome outcome;
         try {
-            record = recordService.putRecord(writeRequest);
+            outcome = recordService.putRecordWithOutcome(writeRequest);
         } catch (RuntimeException ex) {
             // Persist a failure event so the audit log reflects the rejected write.
             auditLogService.recordPutFailure(subjectId, recordKey, request.purpose(), writeRequest.requestId(), ex.getMessage());
             throw ex;
         }
+        Record record = outcome.record();
+
+        // Final success audit indicates whether this was a new item, an update, a PUT merged into
+        // a concurrent one, or an unchanged value that was not written (the stored record then
+        // carries an earlier request id).
+        if (outcome.coalesced()) {
+            auditLogService.recordPutCoalesced(record, writeRequest.requestId(), outcome.coalescedInto());
+        } else if (record.getRequestId().equals(writeRequest.requestId())) {
+            auditLogService.recordPutSuccess(record);
+        } else {
+            auditLogService.recordPutNoop(record, writeRequest.requestId());
+        }
 
-        // Final success audit indicates whether this was a new item or an update.
-        auditLogService.recordPutSuccess(record);
+        return respond("PUT", clientRequestId, requestHash, record);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.ETAG, record.getVersion().toString())
-                .body(map(record));
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to the record's value. Audited like a PUT; the
+     * requested and failed events carry no purpose since the record has not been read yet.
+     */
+    @PatchMapping(value = "/subjects/{subjectId}/records/{recordKey}",
+            consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<RecordResponse> patchRecord(
+            @PathVariable String subjectId,
+            @PathVariable String recordKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = REQUEST_ID_HEADER, required = false) String clientRequestId,
+            @RequestBody JsonNode patch
+    ) {
+        checkRecordKey(recordKey);
+        Long expectedVersion = parseIfMatch(ifMatch);
+        String requestHash = replayable(clientRequestId)
+                ? IdempotentReplays.fingerprint(Record.computeContentHash("PATCH", patch), expectedVersion)
+                : null;
+        Optional<ResponseEntity<RecordResponse>> replay = replay("PATCH", subjectId, recordKey, clientRequestId, requestHash);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        PatchRecordServiceRequest patchRequest = new PatchRecordServiceRequest(
+                subjectId, recordKey, patch, null, expectedVersion);
+
+        auditLogService.recordPutRequested(subjectId, recordKey, null, patchRequest.requestId());
+
+        Record record;
+        try {
+            record = recordService.patchRecord(patchRequest);
+        } catch (RuntimeException ex) {
+            auditLogService.recordPutFailure(subjectId, recordKey, null, patchRequest.requestId(), ex.getMessage());
+            throw ex;
+        }
+
+        if (record.getRequestId().equals(patchRequest.requestId())) {
+            auditLogService.recordPutSuccess(record);
+        } else {
+            auditLogService.recordPutNoop(record, patchRequest.requestId());
+        }
+
+        return respond("PATCH", clientRequestId, requestHash, record);
+    }
+
+    @PostMapping("/subjects/{subjectId}/records:batchPut")
+    public ResponseEntity<BatchPutRecordsResponse> batchPutRecords(
+            @PathVariable String subjectId,
+            @Valid @RequestBody BatchPutRecordsHttpRequest request
+    ) {
+        request.items().forEach(item -> checkRecordKey(item.recordKey()));
+        String requestId = Optional.ofNullable(MDC.get("requestId")).orElseGet(() -> UUID.randomUUID().toString());
+        List<PutRecordServiceRequest> items = request.items().stream()
+                .map(item -> new PutRecordServiceRequest(
+                        subjectId, item.recordKey(), item.purpose(), item.value(), false, null, requestId))
+                .toList();
+        BatchPutRecordsServiceRequest batchRequest = new BatchPutRecordsServiceRequest(
+                subjectId, items, !Boolean.FALSE.equals(request.atomic()), requestId);
+
+        // Capture the client intent for every item in one audit batch before any write.
+        auditLogService.recordBatchPutRequested(batchRequest.items());
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results;
+        try {
+            results = recordService.putRecords(batchRequest);
+        } catch (RuntimeException ex) {
+            auditLogService.recordBatchPutFailure(batchRequest.items(), ex.getMessage());
+            throw ex;
+        }
+
+        auditLogService.recordBatchPutResults(results);
+
+        return ResponseEntity.ok(new BatchPutRecordsResponse(results.stream()
+                .map(result -> result.succeeded()
+                        ? new BatchPutRecordsResponse.ItemResult(
+                                result.item().recordKey(), "OK", map(result.record()), null, null)
+                        : new BatchPutRecordsResponse.ItemResult(
+                                result.item().recordKey(), "FAILED", null, result.errorCode(), result.errorMessage()))
+                .toList()));
     }
 
     @GetMapping("/subjects/{subjectId}/records")
     public ResponseEntity<List<RecordResponse>> getAllRecords(@PathVariable String subjectId) {
         List<Record> records = recordService.findAllBySubjectId(subjectId);
+        auditReads(records);
         List<RecordResponse> response = records.stream()
                 .map(this::map)
                 .toList();
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Returns one live record with its version as {@code ETag}. If {@code If-None-Match} names
+     * the current version, answers 304 without a body, and the read is not audited since no data
+     * is returned. Deleted records answer 410 {@code READ_SUPPRESSED_TOMBSTONE}.
+     */
+    @GetMapping("/subjects/{subjectId}/records/{recordKey}")
+    public ResponseEntity<RecordResponse> getRecord(
+            @PathVariable String subjectId,
+            @PathVariable String recordKey,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        Record record = recordService.getRecord(subjectId, recordKey);
+        String etag = record.getVersion().toString();
+        if (matchesIfNoneMatch(ifNoneMatch, record.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .header(HttpHeaders.ETAG, etag)
+                    .build();
+        }
+        auditReads(List.of(record));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.ETAG, etag)
+                .body(map(record));
+    }
+
     @DeleteMapping("/subjects/{subjectId}/records/{recordKey}")
     public ResponseEntity<RecordResponse> deleteRecord(
             @PathVariable String subjectId,
-            @PathVariable String recordKey
+            @PathVariable String recordKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = REQUEST_ID_HEADER, required = false) String clientRequestId
     ) {
-        DeleteRecordServiceRequest deleteRequest = new DeleteRecordServiceRequest(subjectId, recordKey);
+        checkRecordKey(recordKey);
+        Long expectedVersion = parseIfMatch(ifMatch);
+        String requestHash = replayable(clientRequestId) ? IdempotentReplays.fingerprint(expectedVersion) : null;
+        Optional<ResponseEntity<RecordResponse>> replay = replay("DELETE", subjectId, recordKey, clientRequestId, requestHash);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        DeleteRecordServiceRequest deleteRequest = new DeleteRecordServiceRequest(
+                subjectId, recordKey, null, expectedVersion);
 
         // Capture the client intent before we validate or attempt deletion.
         auditLogService.recordDeleteRequested(subjectId, recordKey, deleteRequest.requestId());
@@ -107,18 +276,121 @@ public class RecordController {
             auditLogService.recordDeleteSuccess(record);
         }
 
+        return respond("DELETE", clientRequestId, requestHash, record);
+    }
+
+    /**
+     * Whether requests with this client request ID are replayed, so their fingerprint (a hash of
+     * the whole body for PUT and PATCH) is only computed when it is used.
+     */
+    private boolean replayable(String clientRequestId) {
+        return idempotentReplays != null && idempotentReplays.applies(clientRequestId);
+    }
+
+    /**
+     * Looks up the stored outcome of an earlier write with the same client request ID. A replay
+     * is not audited again: the original request already wrote its audit events. A request ID
+     * reused for a different request is rejected with 422 before anything is audited, and a
+     * replay for a subject erased since answers 404 like any other request for it.
+     */
+    private Optional<ResponseEntity<RecordResponse>> replay(String operation, String subjectId, String recordKey,
+                                                            String clientRequestId, String requestHash) {
+        if (!replayable(clientRequestId)) {
+            return Optional.empty();
+        }
+        Optional<ResponseEntity<RecordResponse>> replay =
+                idempotentReplays.find(operation, subjectId, recordKey, clientRequestId, requestHash);
+        if (replay.isPresent()) {
+            recordService.requireSubject(subjectId);
+        }
+        return replay;
+    }
+
+    private ResponseEntity<RecordResponse> respond(String operation, String clientRequestId, String requestHash,
+                                                   Record record) {
+        RecordResponse body = map(record);
+        if (replayable(clientRequestId)) {
+            idempotentReplays.remember(operation, record.getSubjectId(), record.getRecordKey(), clientRequestId,
+                    requestHash, HttpStatus.OK.value(), record.getVersion());
+        }
         return ResponseEntity.ok()
                 .header(HttpHeaders.ETAG, record.getVersion().toString())
-                .body(map(record));
+                .body(body);
+    }
+
+    /**
+     * Counts the returned records as reads; the aggregator writes one summary event per record
+     * and window rather than an audit event per request.
+     */
+    private void auditReads(List<Record> records) {
+        if (readAuditAggregator == null) {
+            return;
+        }
+        String requestId = Optional.ofNullable(MDC.get("requestId")).orElseGet(() -> UUID.randomUUID().toString());
+        records.forEach(r -> readAuditAggregator.recordRead(r.getSubjectId(), r.getRecordKey(), r.getPurpose(), requestId));
+    }
+
+    /**
+     * Rejects writes to keys reserved for value chunk items with 400 before anything is audited.
+     */
+    private static void checkRecordKey(String recordKey) {
+        if (Record.isReservedKey(recordKey)) {
+            throw GdprKvException.invalidRecordKey(recordKey);
+        }
+    }
+
+    /**
+     * Parses an {@code If-Match} header into the expected record version. The ETag is the plain
+     * version number; quoted and weak forms are accepted, and {@code *} means no version check.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must be a single record version");
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code version}. The header may list several
+     * ETags in the forms {@link #parseIfMatch} accepts; {@code *} matches any existing record and
+     * tags that are not versions never match.
+     */
+    static boolean matchesIfNoneMatch(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            if (tag.trim().equals("*")) {
+                return true;
+            }
+            try {
+                if (Long.valueOf(version).equals(parseIfMatch(tag))) {
+                    return true;
+                }
+            } catch (IllegalArgumentException ex) {
+                // Not one of our ETags
+            }
+        }
+        return false;
     }
 
     private RecordResponse map(Record record) {
-        JsonNode value = record.getValue();
         return new RecordResponse(
                 record.getSubjectId(),
                 record.getRecordKey(),
                 record.getPurpose(),
-                value,
+                record.getRawValue(),
                 record.getVersion(),
                 record.getCreatedAt(),
                 record.getUpdatedAt(),
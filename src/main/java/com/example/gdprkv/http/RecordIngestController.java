@@ -0,0 +1,64 @@
+package com.example.gdprkv.http;
+
+import com.example.gdprkv.service.RecordIngestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.MDC;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk ingest for backfills and migrations. The request body is NDJSON with one
+ * {@code {"subject_id", "record_key", "purpose", "value"}} object per line; the response streams
+ * one {@link IngestRecordResponse} per line as NDJSON while the body is still being read.
+ */
+@RestController
+public class RecordIngestController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final RecordIngestService ingestService;
+    private final ObjectMapper objectMapper;
+
+    public RecordIngestController(RecordIngestService ingestService, ObjectMapper objectMapper) {
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/records:ingest", consumes = NDJSON, produces = NDJSON)
+    public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String requestId = Optional.ofNullable(MDC.get("requestId")).orElseGet(() -> UUID.randomUUID().toString());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        ServletOutputStream out = response.getOutputStream();
+
+        ingestService.ingest(request.getInputStream(), requestId, results -> {
+            try {
+                for (RecordIngestService.LineResult result : results) {
+                    out.write(objectMapper.writeValueAsBytes(map(result)));
+                    out.write('\n');
+                }
+                // Flush per chunk so clients see progress while the upload continues.
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        out.flush();
+    }
+
+    private IngestRecordResponse map(RecordIngestService.LineResult result) {
+        if (result.succeeded()) {
+            return new IngestRecordResponse(result.lineNumber(), result.subjectId(), result.recordKey(), "OK",
+                    result.record().getVersion(), null, null);
+        }
+        return new IngestRecordResponse(result.lineNumber(), result.subjectId(), result.recordKey(), "FAILED",
+                null, result.errorCode(), result.errorMessage());
+    }
+}
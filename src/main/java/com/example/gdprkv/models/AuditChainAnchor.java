@@ -0,0 +1,63 @@
+package com.example.gdprkv.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * Per-subject truncation anchor for the audit hash chain. When retention deletes the oldest
+ * events of a subject, the anchor remembers the {@code hash}, {@code ts_ulid} and
+ * {@code timestamp} of the last deleted event so the first retained event's {@code prev_hash}
+ * can still be verified without the deleted history.
+ */
+@JsonInclude(Include.NON_NULL)
+@DynamoDbBean
+@NoArgsConstructor                     // needed for DynamoDB Enhanced Client reflection
+@AllArgsConstructor(access = AccessLevel.PRIVATE) // used by Lombok @Builder
+@Builder(toBuilder = true)
+@Getter @Setter
+public class AuditChainAnchor {
+
+    // Required fields — Lombok @NonNull enforces runtime null checks in builder
+    @NonNull
+    private String subjectId;
+
+    @NonNull
+    private String anchorTsUlid;
+
+    @NonNull
+    private String anchorHash;
+
+    @NonNull
+    private Long truncatedCount;
+
+    @NonNull
+    private Long anchorTimestamp;
+
+    // ----- DynamoDB Enhanced annotations on getters -----
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("subject_id")
+    public String getSubjectId() { return subjectId; }
+
+    @DynamoDbAttribute("anchor_ts_ulid")
+    public String getAnchorTsUlid() { return anchorTsUlid; }
+
+    @DynamoDbAttribute("anchor_hash")
+    public String getAnchorHash() { return anchorHash; }
+
+    @DynamoDbAttribute("truncated_count")
+    public Long getTruncatedCount() { return truncatedCount; }
+
+    @DynamoDbAttribute("anchor_timestamp")
+    public Long getAnchorTimestamp() { return anchorTimestamp; }
+}
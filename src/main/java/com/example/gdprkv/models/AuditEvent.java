@@ -5,6 +5,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.Map;
 import lombok.AccessLevel;
@@ -18,6 +22,8 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttri
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
 @JsonInclude(Include.NON_NULL)
@@ -28,6 +34,10 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 @Getter @Setter
 public class AuditEvent {
 
+    private static final long MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
+    private static final DateTimeFormatter EXPIRY_BUCKET_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
     // Required fields — Lombok @NonNull enforces runtime null checks in builder
     @NonNull private String subjectId;   // PK
     @NonNull private String tsUlid;      // SK "{millis}_{ULID}"
@@ -44,6 +54,11 @@ public class AuditEvent {
     private String purpose;
     private Map<String, Object> details;
 
+    // Retention metadata — not covered by the hash, so expiry can be assigned per event type
+    private Long expiresAt;
+    private String expiryBucket;       // GSI PK "{retentionDays}d#yyyyMMdd", sparse once pruned
+    private Boolean pruned;            // payload stripped by retention; stored hash is trusted
+
     // ----- DynamoDB annotations on getters -----
     @DynamoDbPartitionKey
     @DynamoDbAttribute("subject_id")
@@ -78,6 +93,17 @@ public class AuditEvent {
     @DynamoDbAttribute("details")
     public Map<String, Object> getDetails() { return details; }
 
+    @DynamoDbAttribute("expires_at")
+    @DynamoDbSecondarySortKey(indexNames = "audit_events_by_expiry")
+    public Long getExpiresAt() { return expiresAt; }
+
+    @DynamoDbAttribute("expiry_bucket")
+    @DynamoDbSecondaryPartitionKey(indexNames = "audit_events_by_expiry")
+    public String getExpiryBucket() { return expiryBucket; }
+
+    @DynamoDbAttribute("pruned")
+    public Boolean getPruned() { return pruned; }
+
     public enum EventType {
         CREATE_SUBJECT,
         CREATE_SUBJECT_REQUESTED,
@@ -89,6 +115,8 @@ public class AuditEvent {
         PUT_SUCCESS,
         PUT_NEW_ITEM_SUCCESS,
         PUT_UPDATE_ITEM_SUCCESS,
+        PUT_NOOP,
+        PUT_COALESCED,
 
         GET_REQUESTED,
         GET_FAILURE,
@@ -124,6 +152,42 @@ public class AuditEvent {
         }
     }
 
+    // ----- Retention helpers -----
+
+    public static long calculateExpiresAt(long timestampMillis, int retentionDays) {
+        if (retentionDays < 0) {
+            throw new IllegalArgumentException("retentionDays must be >= 0");
+        }
+        return timestampMillis + MILLIS_PER_DAY * retentionDays;
+    }
+
+    /**
+     * Buckets are per retention class and expiry day, e.g. {@code "90d#20250827"}, so each class
+     * can be swept on its own without scanning the table.
+     */
+    public static String formatExpiryBucket(int retentionDays, long expiresAtMillis) {
+        return retentionDays + "d#" + EXPIRY_BUCKET_FORMATTER.format(Instant.ofEpochMilli(expiresAtMillis));
+    }
+
+    /**
+     * Returns a copy with the payload stripped, for expired events that cannot be deleted yet
+     * because later events still chain from them. The stored hash is kept as-is; the copy is no
+     * longer indexed for expiry.
+     */
+    public AuditEvent toPrunedStub() {
+        AuditEvent stub = new AuditEvent();
+        stub.subjectId = subjectId;
+        stub.tsUlid = tsUlid;
+        stub.eventType = eventType;
+        stub.requestId = requestId;
+        stub.timestamp = timestamp;
+        stub.prevHash = prevHash;
+        stub.hash = hash;
+        stub.expiresAt = expiresAt;
+        stub.pruned = Boolean.TRUE;
+        return stub;
+    }
+
     // hash chain helpers
     public static String computeHash(AuditEvent e) {
         try {
@@ -166,7 +230,7 @@ public class AuditEvent {
         public AuditEvent build() {
             AuditEvent e = new AuditEvent(
                     subjectId, tsUlid, eventType, requestId, timestamp, prevHash,
-                    null, itemKey, purpose, details
+                    null, itemKey, purpose, details, expiresAt, expiryBucket, pruned
             );
             e.hash = computeHash(e);
             return e;
@@ -0,0 +1,106 @@
+package com.example.gdprkv.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * The stored outcome of a record write, keyed by the client's {@code X-Request-Id} together with
+ * the operation and record it was sent for. A retry with the same key and the same
+ * {@code request_hash} is answered with the stored {@code status} and {@code version} (the ETag)
+ * without running the write again. No record data is stored, so nothing here outlives an erasure.
+ * {@code expires_at} (epoch seconds) is the table's TTL attribute.
+ */
+@DynamoDbBean
+@NoArgsConstructor                     // needed for DynamoDB Enhanced Client reflection
+@AllArgsConstructor(access = AccessLevel.PRIVATE) // used by Lombok @Builder
+@Builder(toBuilder = true)
+@Getter @Setter
+public class IdempotencyEntry {
+
+    // Required fields — Lombok @NonNull enforces runtime null checks in builder
+    @NonNull
+    private String idempotencyKey;
+
+    @NonNull
+    private String requestId;
+
+    @NonNull
+    private String operation;
+
+    @NonNull
+    private String subjectId;
+
+    @NonNull
+    private String recordKey;
+
+    @NonNull
+    private Long version;
+
+    private Integer status;  // HTTP status of the original response; missing on entries stored before it existed
+
+    private String requestHash;  // see IdempotentReplays.fingerprint; missing on entries stored before it existed
+
+    @NonNull
+    private Long createdAt;
+
+    @NonNull
+    private Long expiresAt;
+
+    // ----- DynamoDB Enhanced annotations on getters -----
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("idempotency_key")
+    public String getIdempotencyKey() { return idempotencyKey; }
+
+    @DynamoDbAttribute("request_id")
+    public String getRequestId() { return requestId; }
+
+    @DynamoDbAttribute("operation")
+    public String getOperation() { return operation; }
+
+    @DynamoDbAttribute("subject_id")
+    public String getSubjectId() { return subjectId; }
+
+    @DynamoDbAttribute("record_key")
+    public String getRecordKey() { return recordKey; }
+
+    @DynamoDbAttribute("version")
+    public Long getVersion() { return version; }
+
+    @DynamoDbAttribute("status")
+    public Integer getStatus() { return status; }
+
+    @DynamoDbAttribute("request_hash")
+    public String getRequestHash() { return requestHash; }
+
+    @DynamoDbAttribute("created_at")
+    public Long getCreatedAt() { return createdAt; }
+
+    @DynamoDbAttribute("expires_at")
+    public Long getExpiresAt() { return expiresAt; }
+
+    /**
+     * Builds the partition key. The parts are hashed so that long client request IDs and record
+     * keys stay within DynamoDB's key size limit.
+     */
+    public static String key(String requestId, String operation, String subjectId, String recordKey) {
+        byte[] parts = String.join("\n", requestId, operation, subjectId, recordKey).getBytes(StandardCharsets.UTF_8);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(parts));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
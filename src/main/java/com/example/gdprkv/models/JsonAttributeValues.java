@@ -0,0 +1,157 @@
+package com.example.gdprkv.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Converts JSON to native DynamoDB document attributes ({@code M}, {@code L}, {@code S},
+ * {@code N}, {@code BOOL}, {@code NULL}) and back, streaming tokens rather than building a tree.
+ * Documents DynamoDB cannot hold natively (empty object keys, nesting deeper than
+ * {@value #MAX_DEPTH} levels, numbers with more than {@value #MAX_NUMBER_PRECISION} significant
+ * digits) are reported as not representable so callers can keep the plain JSON form.
+ */
+public final class JsonAttributeValues {
+
+    public static final int MAX_DEPTH = 32;
+    static final int MAX_NUMBER_PRECISION = 38;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonAttributeValues() {
+    }
+
+    /**
+     * Converts a JSON object to an {@code M} attribute.
+     *
+     * @return empty if the text is not an object or cannot be stored natively
+     */
+    public static Optional<AttributeValue> toMap(String json) {
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(read(parser, 1));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON record value", e);
+        }
+    }
+
+    /**
+     * Converts a tree to an attribute, e.g. one value of a merge patch.
+     *
+     * @return empty if the value cannot be stored natively
+     */
+    public static Optional<AttributeValue> fromJsonNode(JsonNode node, int depth) {
+        try (JsonParser parser = MAPPER.treeAsTokens(node)) {
+            parser.nextToken();
+            return Optional.ofNullable(read(parser, depth));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to convert record value", e);
+        }
+    }
+
+    /**
+     * Writes a document attribute back as compact JSON text.
+     *
+     * @throws IllegalArgumentException for attribute types that JSON cannot express (sets, binary)
+     */
+    public static String toJson(AttributeValue value) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            write(value, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write record value", e);
+        }
+        return out.toString();
+    }
+
+    private static AttributeValue read(JsonParser parser, int depth) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case START_OBJECT -> {
+                if (depth > MAX_DEPTH) {
+                    return null;
+                }
+                Map<String, AttributeValue> members = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    AttributeValue member = read(parser, depth + 1);
+                    if (name.isEmpty() || member == null) {
+                        return null;
+                    }
+                    members.put(name, member);
+                }
+                return AttributeValue.fromM(members);
+            }
+            case START_ARRAY -> {
+                if (depth > MAX_DEPTH) {
+                    return null;
+                }
+                List<AttributeValue> elements = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    AttributeValue element = read(parser, depth + 1);
+                    if (element == null) {
+                        return null;
+                    }
+                    elements.add(element);
+                }
+                return AttributeValue.fromL(elements);
+            }
+            case VALUE_STRING -> {
+                return AttributeValue.fromS(parser.getText());
+            }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                String number = parser.getText();
+                return new BigDecimal(number).precision() > MAX_NUMBER_PRECISION ? null : AttributeValue.fromN(number);
+            }
+            case VALUE_TRUE, VALUE_FALSE -> {
+                return AttributeValue.fromBool(token == JsonToken.VALUE_TRUE);
+            }
+            case VALUE_NULL -> {
+                return AttributeValue.fromNul(true);
+            }
+            default -> throw new IllegalArgumentException("Unexpected JSON token " + token);
+        }
+    }
+
+    private static void write(AttributeValue value, JsonGenerator generator) throws IOException {
+        if (value.hasM()) {
+            generator.writeStartObject();
+            for (Map.Entry<String, AttributeValue> member : value.m().entrySet()) {
+                generator.writeFieldName(member.getKey());
+                write(member.getValue(), generator);
+            }
+            generator.writeEndObject();
+        } else if (value.hasL()) {
+            generator.writeStartArray();
+            for (AttributeValue element : value.l()) {
+                write(element, generator);
+            }
+            generator.writeEndArray();
+        } else if (value.s() != null) {
+            generator.writeString(value.s());
+        } else if (value.n() != null) {
+            generator.writeNumber(value.n());
+        } else if (value.bool() != null) {
+            generator.writeBoolean(value.bool());
+        } else if (Boolean.TRUE.equals(value.nul())) {
+            generator.writeNull();
+        } else {
+            throw new IllegalArgumentException("Record value holds an attribute type JSON cannot express");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.gdprkv.models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7396): object members of the patch are merged into the target
+ * recursively, {@code null} members remove the target's member, and any other patch value
+ * (including arrays) replaces the target's value.
+ */
+public final class JsonMergePatch {
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Applies {@code patch} to {@code target} without modifying either.
+     *
+     * @param target the current document; {@code null} is treated as JSON null
+     * @param patch the merge patch
+     * @return the patched document
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            return patch == null ? JsonNodeFactory.instance.nullNode() : patch.deepCopy();
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), apply(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+}
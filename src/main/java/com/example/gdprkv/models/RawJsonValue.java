@@ -0,0 +1,142 @@
+package com.example.gdprkv.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A record value kept as compact JSON text. Request bodies are validated by streaming their tokens
+ * into the text, which is stored as-is and written back into responses verbatim, so a value is
+ * never turned into a {@link JsonNode} tree on the PUT or GET path. {@link #toJsonNode()} parses
+ * it on demand for callers that need to look inside.
+ *
+ * <p>A JSON {@code null} value is represented by a {@code null} reference, not an instance.
+ */
+@JsonSerialize(using = RawJsonValue.Serializer.class)
+@JsonDeserialize(using = RawJsonValue.Deserializer.class)
+public final class RawJsonValue {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String json;
+
+    private RawJsonValue(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Serializes a tree into a value; returns {@code null} for {@code null} and JSON null.
+     */
+    public static RawJsonValue of(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        return new RawJsonValue(node.toString());
+    }
+
+    /**
+     * Validates and compacts JSON text; returns {@code null} for JSON null.
+     *
+     * @throws IllegalArgumentException if the text is not a single JSON value
+     */
+    public static RawJsonValue parse(String json) {
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            if (parser.nextToken() == null) {
+                throw new IllegalArgumentException("record value must not be empty");
+            }
+            RawJsonValue value = copy(parser);
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("record value must be a single JSON value");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON record value", e);
+        }
+    }
+
+    /**
+     * Wraps text that was validated when it was written, e.g. a stored attribute.
+     */
+    static RawJsonValue trusted(String json) {
+        return "null".equals(json) ? null : new RawJsonValue(json);
+    }
+
+    public String json() {
+        return json;
+    }
+
+    public byte[] toBytes() {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public JsonNode toJsonNode() {
+        try {
+            return MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JSON in record value", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RawJsonValue that && json.equals(that.json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    /**
+     * Copies the value at the parser's current token into compact text. The parser checks the
+     * syntax while the tokens are copied; no tree is built. Numbers are copied exactly rather than
+     * through {@code double}, so digits beyond double precision are kept.
+     */
+    private static RawJsonValue copy(JsonParser parser) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            int depth = 0;
+            do {
+                generator.copyCurrentEventExact(parser);
+                JsonToken token = parser.currentToken();
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            } while (depth > 0 && parser.nextToken() != null);
+        }
+        return trusted(out.toString());
+    }
+
+    public static final class Deserializer extends JsonDeserializer<RawJsonValue> {
+        @Override
+        public RawJsonValue deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return copy(parser);
+        }
+    }
+
+    public static final class Serializer extends JsonSerializer<RawJsonValue> {
+        @Override
+        public void serialize(RawJsonValue value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeRawValue(value.json);
+        }
+    }
+}
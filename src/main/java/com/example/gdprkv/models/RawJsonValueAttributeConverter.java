@@ -0,0 +1,146 @@
+package com.example.gdprkv.models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Stores a {@link RawJsonValue} as a JSON string attribute, moving the JSON text in and out as-is
+ * instead of parsing it. Values whose JSON is at least the compression threshold are stored as a
+ * binary attribute instead: one format marker byte ({@link #FORMAT_DEFLATE_JSON}) followed by the
+ * Deflate-compressed UTF-8 JSON.
+ *
+ * <p>With native map values enabled, JSON objects are stored as {@code M} attributes instead (see
+ * {@link JsonAttributeValues}) so that single fields can be updated in place. Maps are never
+ * compressed. Every form is read back regardless of the settings, so items written before
+ * compression or maps existed keep working.
+ *
+ * <p>The enhanced client creates the converter named on {@link Record} reflectively, with the
+ * default settings; the configured instance is built in {@code DynamoConfig} and applied by the
+ * records table schema.
+ */
+public class RawJsonValueAttributeConverter implements AttributeConverter<RawJsonValue> {
+
+    static final byte FORMAT_DEFLATE_JSON = 0x01;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 4096;
+
+    private final int compressionThresholdBytes;
+    private final boolean nativeMapValues;
+
+    /**
+     * Converter with the default settings: compression from 4096 bytes and no native maps.
+     */
+    public RawJsonValueAttributeConverter() {
+        this(DEFAULT_COMPRESSION_THRESHOLD_BYTES, false);
+    }
+
+    /**
+     * @param compressionThresholdBytes values at least this large in UTF-8 are compressed;
+     *                                  {@link Integer#MAX_VALUE} disables compression
+     * @param nativeMapValues whether JSON objects are stored as {@code M} attributes
+     */
+    public RawJsonValueAttributeConverter(int compressionThresholdBytes, boolean nativeMapValues) {
+        this.compressionThresholdBytes = compressionThresholdBytes;
+        this.nativeMapValues = nativeMapValues;
+    }
+
+    public boolean nativeMapValues() {
+        return nativeMapValues;
+    }
+
+    @Override
+    public AttributeValue transformFrom(RawJsonValue input) {
+        if (input == null) {
+            return AttributeValue.builder().nul(true).build();
+        }
+        if (nativeMapValues) {
+            Optional<AttributeValue> map = JsonAttributeValues.toMap(input.json());
+            if (map.isPresent()) {
+                return map.get();
+            }
+        }
+        byte[] json = input.toBytes();
+        if (json.length >= compressionThresholdBytes) {
+            byte[] compressed = compress(json);
+            // Incompressible values are cheaper to keep as plain JSON.
+            if (compressed.length < json.length) {
+                return AttributeValue.builder().b(SdkBytes.fromByteArray(compressed)).build();
+            }
+        }
+        return AttributeValue.builder().s(input.json()).build();
+    }
+
+    @Override
+    public RawJsonValue transformTo(AttributeValue attributeValue) {
+        if (attributeValue == null || Boolean.TRUE.equals(attributeValue.nul())) {
+            return null;
+        }
+        if (attributeValue.b() != null) {
+            return decompress(attributeValue.b().asInputStream());
+        }
+        if (attributeValue.hasM()) {
+            return RawJsonValue.trusted(JsonAttributeValues.toJson(attributeValue));
+        }
+        return attributeValue.s() == null ? null : RawJsonValue.trusted(attributeValue.s());
+    }
+
+    @Override
+    public EnhancedType<RawJsonValue> type() {
+        return EnhancedType.of(RawJsonValue.class);
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.S;
+    }
+
+    /**
+     * Serializes a value into the compressed binary form: the format marker followed by Deflate
+     * output. Used directly when a value is split into chunk items.
+     */
+    public static byte[] compress(RawJsonValue value) {
+        return compress(value.toBytes());
+    }
+
+    /**
+     * Reads a value in the compressed binary form from a stream, e.g. reassembled chunk items.
+     */
+    public static RawJsonValue decompress(InputStream stored) {
+        return RawJsonValue.trusted(new String(inflate(stored), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 16);
+        out.write(FORMAT_DEFLATE_JSON);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress record value", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(InputStream stored) {
+        try {
+            int marker = stored.read();
+            if (marker != FORMAT_DEFLATE_JSON) {
+                throw new IllegalArgumentException("Unknown binary format stored in record value");
+            }
+            try (InputStream in = new InflaterInputStream(stored)) {
+                return in.readAllBytes();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid compressed JSON stored in record value", e);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.gdprkv.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.constraints.NotBlank;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,6 +28,7 @@ import lombok.Setter;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbIgnore;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
@@ -33,10 +42,21 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 @Getter @Setter
 public class Record {
 
+    /**
+     * Record keys containing this are reserved for the chunk items of large values
+     * ({@code <record_key>#chunk#<n>}).
+     */
+    public static final String CHUNK_KEY_MARKER = "#chunk#";
+
     private static final long MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
     private static final DateTimeFormatter PURGE_BUCKET_FORMATTER =
             DateTimeFormatter.ofPattern("'h#'yyyyMMdd'T'HH").withZone(ZoneOffset.UTC);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // Numbers are read as BigDecimal/BigInteger so values that differ beyond double precision hash differently.
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+            .configure(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS, true);
 
     // Required fields — Lombok @NonNull enforces runtime null checks in builder
     @NonNull
@@ -59,7 +79,10 @@ public class Record {
     private String requestId;
 
     // Mutable fields
-    private JsonNode value;
+    private RawJsonValue rawValue;  // stored and returned as-is; see getValue for a parsed tree
+    private String contentHash;  // see computeContentHash; lets unchanged re-PUTs skip the write
+    private Integer valueChunks;    // set when the value is stored in chunk items instead of inline
+    private String valueChecksum;   // SHA-256 of the chunked (compressed) value bytes
 
     @NonNull
     @Default
@@ -85,9 +108,28 @@ public class Record {
     @DynamoDbAttribute("purpose")
     public String getPurpose() { return purpose; }
 
+    @JsonIgnore
     @DynamoDbAttribute("value")
-    @DynamoDbConvertedBy(JsonNodeAttributeConverter.class)
-    public JsonNode getValue() { return value; }
+    @DynamoDbConvertedBy(RawJsonValueAttributeConverter.class)
+    public RawJsonValue getRawValue() { return rawValue; }
+
+    /**
+     * The value parsed into a tree. Parses on every call, so the request paths use
+     * {@link #getRawValue()} instead.
+     */
+    @DynamoDbIgnore
+    public JsonNode getValue() { return rawValue == null ? null : rawValue.toJsonNode(); }
+
+    public void setValue(JsonNode node) { this.rawValue = RawJsonValue.of(node); }
+
+    @DynamoDbAttribute("content_hash")
+    public String getContentHash() { return contentHash; }
+
+    @DynamoDbAttribute("value_chunks")
+    public Integer getValueChunks() { return valueChunks; }
+
+    @DynamoDbAttribute("value_checksum")
+    public String getValueChecksum() { return valueChecksum; }
 
     @DynamoDbAttribute("created_at")
     public Long getCreatedAt() { return createdAt; }
@@ -138,10 +180,35 @@ public class Record {
     }
 
     public Record withValueObject(Object payload) {
-        this.value = payload == null ? null : OBJECT_MAPPER.valueToTree(payload);
+        this.rawValue = payload == null ? null : RawJsonValue.of(OBJECT_MAPPER.valueToTree(payload));
         return this;
     }
 
+    /**
+     * SHA-256 over the purpose and the value serialized with object keys sorted, so the same
+     * document sent with a different key order still matches. Numbers keep their exact digits.
+     */
+    public static String computeContentHash(String purpose, JsonNode value) {
+        return computeContentHash(purpose, RawJsonValue.of(value));
+    }
+
+    public static String computeContentHash(String purpose, RawJsonValue value) {
+        try {
+            String canonicalValue = value == null
+                    ? "null"
+                    : CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.readValue(value.json(), Object.class));
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest((purpose + "|" + canonicalValue).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to compute record content hash", ex);
+        }
+    }
+
+    public static boolean isReservedKey(String recordKey) {
+        return recordKey != null && recordKey.contains(CHUNK_KEY_MARKER);
+    }
+
     public static long calculatePurgeDueAt(long tombstonedAtMillis, int retentionDaysValue) {
         if (retentionDaysValue < 0) {
             throw new IllegalArgumentException("retentionDays must be >= 0");
@@ -155,12 +222,12 @@ public class Record {
 
     public static class RecordBuilder {
         public RecordBuilder value(JsonNode node) {
-            this.value = node;
+            this.rawValue = RawJsonValue.of(node);
             return this;
         }
 
         public RecordBuilder valueObject(Object payload) {
-            this.value = payload == null ? null : OBJECT_MAPPER.valueToTree(payload);
+            this.rawValue = payload == null ? null : RawJsonValue.of(OBJECT_MAPPER.valueToTree(payload));
             return this;
         }
     }
@@ -0,0 +1,26 @@
+package com.example.gdprkv.requests;
+
+import com.example.gdprkv.models.RawJsonValue;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * HTTP-layer payload for POST /subjects/{id}/records:batchPut. {@code atomic} (default true)
+ * writes all items in one transaction; when false each item succeeds or fails on its own.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchPutRecordsHttpRequest(
+        @JsonProperty("items") @NotEmpty List<@Valid Item> items,
+        @JsonProperty("atomic") Boolean atomic
+) {
+
+    public record Item(
+            @JsonProperty("record_key") @NotBlank String recordKey,
+            @JsonProperty("purpose") @NotBlank String purpose,
+            @JsonProperty("value") RawJsonValue value
+    ) { }
+}
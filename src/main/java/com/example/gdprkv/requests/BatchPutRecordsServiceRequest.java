@@ -0,0 +1,43 @@
+package com.example.gdprkv.requests;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service-layer command for writing several records of one subject. Every item is a
+ * {@link PutRecordServiceRequest} for the same subject and shares the batch's request id.
+ */
+public record BatchPutRecordsServiceRequest(
+        String subjectId,
+        List<PutRecordServiceRequest> items,
+        boolean atomic,
+        String requestId
+) {
+
+    public BatchPutRecordsServiceRequest {
+        Objects.requireNonNull(subjectId, "subjectId");
+        if (subjectId.isBlank()) {
+            throw new IllegalArgumentException("subjectId must be non-blank");
+        }
+
+        Objects.requireNonNull(items, "items");
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("items must be non-empty");
+        }
+        Set<String> recordKeys = new HashSet<>();
+        for (PutRecordServiceRequest item : items) {
+            if (!item.subjectId().equals(subjectId)) {
+                throw new IllegalArgumentException("items must all belong to subject " + subjectId);
+            }
+            if (!recordKeys.add(item.recordKey())) {
+                throw new IllegalArgumentException("duplicate record_key " + item.recordKey());
+            }
+        }
+        items = List.copyOf(items);
+
+        requestId = (requestId == null || requestId.isBlank()) ? UUID.randomUUID().toString() : requestId;
+    }
+}
@@ -5,15 +5,21 @@ import java.util.UUID;
 
 /**
  * Service-layer command for deleting a record (tombstoning it for eventual purge).
+ * {@code expectedVersion} is the version from the client's {@code If-Match} header, if any.
  */
 public record DeleteRecordServiceRequest(
         String subjectId,
         String recordKey,
-        String requestId
+        String requestId,
+        Long expectedVersion
 ) {
 
     public DeleteRecordServiceRequest(String subjectId, String recordKey) {
-        this(subjectId, recordKey, null);
+        this(subjectId, recordKey, null, null);
+    }
+
+    public DeleteRecordServiceRequest(String subjectId, String recordKey, String requestId) {
+        this(subjectId, recordKey, requestId, null);
     }
 
     public DeleteRecordServiceRequest {
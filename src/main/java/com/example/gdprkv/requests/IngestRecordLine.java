@@ -0,0 +1,14 @@
+package com.example.gdprkv.requests;
+
+import com.example.gdprkv.models.RawJsonValue;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One line of an NDJSON bulk ingest body for POST /records:ingest.
+ */
+public record IngestRecordLine(
+        @JsonProperty("subject_id") String subjectId,
+        @JsonProperty("record_key") String recordKey,
+        @JsonProperty("purpose") String purpose,
+        @JsonProperty("value") RawJsonValue value
+) { }
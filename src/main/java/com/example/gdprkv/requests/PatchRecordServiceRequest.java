@@ -0,0 +1,39 @@
+package com.example.gdprkv.requests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Service-layer command for PATCH /subjects/{id}/records/{key}: a JSON Merge Patch (RFC 7396)
+ * applied to the stored value. {@code expectedVersion} is the version from the client's
+ * {@code If-Match} header, if any.
+ */
+public record PatchRecordServiceRequest(
+        String subjectId,
+        String recordKey,
+        JsonNode patch,
+        String requestId,
+        Long expectedVersion
+) {
+
+    public PatchRecordServiceRequest(String subjectId, String recordKey, JsonNode patch) {
+        this(subjectId, recordKey, patch, null, null);
+    }
+
+    public PatchRecordServiceRequest {
+        Objects.requireNonNull(subjectId, "subjectId");
+        if (subjectId.isBlank()) {
+            throw new IllegalArgumentException("subjectId must be non-blank");
+        }
+
+        Objects.requireNonNull(recordKey, "recordKey");
+        if (recordKey.isBlank()) {
+            throw new IllegalArgumentException("recordKey must be non-blank");
+        }
+
+        Objects.requireNonNull(patch, "patch");
+
+        requestId = (requestId == null || requestId.isBlank()) ? UUID.randomUUID().toString() : requestId;
+    }
+}
@@ -1,28 +1,41 @@
 package com.example.gdprkv.requests;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.gdprkv.models.RawJsonValue;
 import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Service-layer command constructed from {@link PutRecordHttpRequest} plus server-side context
  * (subject, record key, request id, tombstone metadata) needed to execute the write.
+ * {@code expectedVersion} is the version from the client's {@code If-Match} header; when set the
+ * write only succeeds if the stored record still has that version.
  */
 public record PutRecordServiceRequest(
         String subjectId,
         String recordKey,
         String purpose,
-        JsonNode value,
+        RawJsonValue value,
         boolean tombstoned,
         Long tombstonedAt,
-        String requestId
+        String requestId,
+        Long expectedVersion
 ) {
 
     public PutRecordServiceRequest(String subjectId,
                                    String recordKey,
                                    String purpose,
-                                   JsonNode value) {
-        this(subjectId, recordKey, purpose, value, false, null, null);
+                                   RawJsonValue value) {
+        this(subjectId, recordKey, purpose, value, false, null, null, null);
+    }
+
+    public PutRecordServiceRequest(String subjectId,
+                                   String recordKey,
+                                   String purpose,
+                                   RawJsonValue value,
+                                   boolean tombstoned,
+                                   Long tombstonedAt,
+                                   String requestId) {
+        this(subjectId, recordKey, purpose, value, tombstoned, tombstonedAt, requestId, null);
     }
 
     public PutRecordServiceRequest {
@@ -0,0 +1,57 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.models.AuditEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders a subject's audit events by following {@code prev_hash} links rather than by
+ * {@code ts_ulid}. Events appended within the same millisecond share a timestamp prefix and
+ * sort by their random suffix, so key order alone can disagree with chain order.
+ */
+final class AuditChainOrdering {
+
+    private AuditChainOrdering() { }
+
+    /**
+     * Returns the events in chain order. Falls back to {@code ts_ulid} order when the events do
+     * not form a single unbroken run (for example when the chain forked under concurrent writes).
+     */
+    static List<AuditEvent> order(List<AuditEvent> events) {
+        List<AuditEvent> byKey = events.stream()
+                .sorted(Comparator.comparing(AuditEvent::getTsUlid))
+                .toList();
+        if (byKey.size() < 2) {
+            return byKey;
+        }
+
+        Map<String, AuditEvent> byPrevHash = new HashMap<>();
+        Set<String> hashes = new HashSet<>();
+        for (AuditEvent event : byKey) {
+            if (byPrevHash.putIfAbsent(event.getPrevHash(), event) != null) {
+                return byKey;
+            }
+            hashes.add(event.getHash());
+        }
+
+        List<AuditEvent> heads = byKey.stream()
+                .filter(e -> !hashes.contains(e.getPrevHash()))
+                .toList();
+        if (heads.size() != 1) {
+            return byKey;
+        }
+
+        List<AuditEvent> ordered = new ArrayList<>(byKey.size());
+        AuditEvent current = heads.getFirst();
+        while (current != null && ordered.size() < byKey.size()) {
+            ordered.add(current);
+            current = byPrevHash.get(current.getHash());
+        }
+        return ordered.size() == byKey.size() ? ordered : byKey;
+    }
+}
@@ -4,7 +4,13 @@ import com.example.gdprkv.access.AuditEventAccess;
 import com.example.gdprkv.config.AuditRetentionProperties;
 import com.example.gdprkv.models.AuditEvent;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,7 +19,19 @@ import org.springframework.stereotype.Service;
 
 /**
  * Scheduled job that enforces retention policy on audit events.
- * Runs periodically to delete audit events older than the configured retention period.
+ * Runs periodically to delete audit events whose retention class has expired.
+ *
+ * Each event type belongs to a retention class (audit.retention.event-type-retention-days,
+ * falling back to retention-days), and events are indexed by expiry bucket per class so the
+ * job queries each class separately instead of scanning the table. The bucket queries only reach
+ * the configured classes and the lookback window, so an optional scan on {@code expires_at}
+ * also picks up events stamped with a class that has since been removed or changed, or that
+ * expired before the lookback window (e.g. while the job was not running).
+ *
+ * Expired events are removed per subject as a contiguous prefix of the hash chain, and each
+ * deletion batch advances the subject's truncation anchor so the retained chain stays verifiable.
+ * Expired events that still have longer-retained events before them in the chain cannot be
+ * deleted yet; they are replaced by pruned stubs that keep only the chain linkage.
  */
 @Service
 @RequiredArgsConstructor
@@ -30,32 +48,99 @@ public class AuditLogRetentionJob {
     @Scheduled(cron = "${audit.retention.schedule:0 0 2 * * *}")
     public void enforceRetentionPolicy() {
         long startTime = clock.millis();
-        log.info("Starting audit log retention job at {} (retention period: {} days)",
-                startTime, properties.getRetentionDays());
+        log.info("Starting audit log retention job at {} (retention classes: {} days)",
+                startTime, properties.retentionClasses());
 
-        long cutoffTimestamp = startTime - (properties.getRetentionDays() * MILLIS_PER_DAY);
-        log.info("Deleting audit events older than {} (cutoff timestamp: {})",
-                new java.util.Date(cutoffTimestamp), cutoffTimestamp);
+        List<AuditEvent> expiredEvents = findExpiredEvents(startTime);
+        log.info("Found {} expired audit events", expiredEvents.size());
 
-        List<AuditEvent> oldEvents = auditEventAccess.findEventsOlderThan(cutoffTimestamp);
-        log.info("Found {} audit events to delete", oldEvents.size());
+        Map<String, List<AuditEvent>> eventsBySubject = expiredEvents.stream()
+                .collect(Collectors.groupingBy(AuditEvent::getSubjectId, TreeMap::new, Collectors.toList()));
 
         int deletedCount = 0;
+        int prunedCount = 0;
         int failedCount = 0;
 
-        for (AuditEvent event : oldEvents) {
+        for (Map.Entry<String, List<AuditEvent>> entry : eventsBySubject.entrySet()) {
+            Set<String> expired = entry.getValue().stream()
+                    .map(AuditEvent::getTsUlid)
+                    .collect(Collectors.toSet());
             try {
-                auditEventAccess.delete(event);
-                deletedCount++;
+                List<AuditEvent> chain = AuditChainOrdering.order(auditEventAccess.findAllBySubjectId(entry.getKey()));
+                int prefixLength = 0;
+                while (prefixLength < chain.size() && isRemovable(chain.get(prefixLength), expired)) {
+                    prefixLength++;
+                }
+                for (AuditEvent event : chain.subList(prefixLength, chain.size())) {
+                    if (expired.contains(event.getTsUlid()) && !Boolean.TRUE.equals(event.getPruned())) {
+                        auditEventAccess.prune(event.toPrunedStub());
+                        prunedCount++;
+                    }
+                }
+                if (prefixLength > 0) {
+                    List<AuditEvent> prefix = chain.subList(0, prefixLength);
+                    auditEventAccess.truncate(entry.getKey(), prefix);
+                    deletedCount += prefix.size();
+                }
             } catch (Exception ex) {
-                failedCount++;
-                log.warn("Failed to delete audit event for subject {} at {}: {}",
-                        event.getSubjectId(), event.getTsUlid(), ex.getMessage());
+                failedCount += expired.size();
+                log.warn("Failed to enforce audit retention for subject {} ({} events): {}",
+                        entry.getKey(), expired.size(), ex.getMessage());
             }
         }
 
         long duration = clock.millis() - startTime;
-        log.info("Completed audit log retention job in {}ms: deleted={}, failed={}",
-                duration, deletedCount, failedCount);
+        log.info("Completed audit log retention job in {}ms: deleted={}, pruned={}, failed={}",
+                duration, deletedCount, prunedCount, failedCount);
+    }
+
+    /**
+     * Collects expired events from each retention class's expiry buckets within the lookback
+     * window, plus (optionally) expired events in any bucket and events written before expiry
+     * buckets existed.
+     */
+    private List<AuditEvent> findExpiredEvents(long now) {
+        Map<String, AuditEvent> expired = new LinkedHashMap<>();
+        for (String bucket : generateExpiryBuckets(now)) {
+            auditEventAccess.findEventsDueForExpiry(bucket, now)
+                    .forEach(e -> expired.put(e.getSubjectId() + "|" + e.getTsUlid(), e));
+        }
+
+        if (properties.isExpiredScanEnabled()) {
+            int before = expired.size();
+            auditEventAccess.findEventsExpiredBefore(now)
+                    .forEach(e -> expired.put(e.getSubjectId() + "|" + e.getTsUlid(), e));
+            if (expired.size() > before) {
+                log.info("Found {} expired audit events outside the queried expiry buckets", expired.size() - before);
+            }
+        }
+
+        if (properties.isLegacyScanEnabled()) {
+            long cutoffTimestamp = now - (properties.retentionClasses().first() * MILLIS_PER_DAY);
+            auditEventAccess.findEventsOlderThan(cutoffTimestamp).stream()
+                    .filter(e -> e.getExpiresAt() == null)
+                    .filter(e -> e.getTimestamp() < now - (properties.retentionDaysFor(e.getEventType()) * MILLIS_PER_DAY))
+                    .forEach(e -> expired.put(e.getSubjectId() + "|" + e.getTsUlid(), e));
+        }
+        return new ArrayList<>(expired.values());
+    }
+
+    /**
+     * Generates expiry bucket strings for every retention class, for today and the lookback days.
+     * Example: "90d#20250827", "730d#20250827", "90d#20250826", etc.
+     */
+    private List<String> generateExpiryBuckets(long nowMillis) {
+        List<String> buckets = new ArrayList<>();
+        for (int retentionDays : properties.retentionClasses()) {
+            for (int i = 0; i <= properties.getLookbackDays(); i++) {
+                buckets.add(AuditEvent.formatExpiryBucket(retentionDays, nowMillis - (i * MILLIS_PER_DAY)));
+            }
+        }
+        return buckets;
+    }
+
+    // Pruned stubs have already expired; once they reach the head of the chain they can go too.
+    private static boolean isRemovable(AuditEvent event, Set<String> expired) {
+        return expired.contains(event.getTsUlid()) || Boolean.TRUE.equals(event.getPruned());
     }
 }
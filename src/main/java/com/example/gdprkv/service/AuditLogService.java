@@ -1,24 +1,57 @@
 package com.example.gdprkv.service;
 
 import com.example.gdprkv.access.AuditEventAccess;
+import com.example.gdprkv.config.AuditRetentionProperties;
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
 import com.example.gdprkv.models.Record;
 import com.example.gdprkv.models.Subject;
+import com.example.gdprkv.requests.PutRecordServiceRequest;
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class AuditLogService {
 
     private static final String ZERO_HASH = "0".repeat(64);
 
     private final AuditEventAccess auditEventAccess;
     private final Clock clock;
+    private final AuditRetentionProperties retentionProperties;
+    private final SubjectWriteLanes writeLanes;
+
+    @Autowired
+    public AuditLogService(AuditEventAccess auditEventAccess,
+                           Clock clock,
+                           AuditRetentionProperties retentionProperties,
+                           SubjectWriteLanes writeLanes) {
+        this.auditEventAccess = auditEventAccess;
+        this.clock = clock;
+        this.retentionProperties = retentionProperties;
+        this.writeLanes = writeLanes;
+    }
+
+    /**
+     * Constructor without write lanes (e.g., tests).
+     */
+    public AuditLogService(AuditEventAccess auditEventAccess,
+                           Clock clock,
+                           AuditRetentionProperties retentionProperties) {
+        this(auditEventAccess, clock, retentionProperties, SubjectWriteLanes.direct());
+    }
+
+    /**
+     * Constructor using default retention classes (e.g., tests).
+     */
+    public AuditLogService(AuditEventAccess auditEventAccess, Clock clock) {
+        this(auditEventAccess, clock, new AuditRetentionProperties());
+    }
 
     public void recordPutRequested(String subjectId,
                                    String recordKey,
@@ -28,9 +61,7 @@ public class AuditLogService {
     }
 
     public void recordPutSuccess(Record record) {
-        AuditEvent.EventType type = (record.getVersion() != null && record.getVersion() > 1)
-                ? AuditEvent.EventType.PUT_UPDATE_ITEM_SUCCESS
-                : AuditEvent.EventType.PUT_NEW_ITEM_SUCCESS;
+        AuditEvent.EventType type = putSuccessType(record);
         appendRecordEvent(
                 record.getSubjectId(),
                 record.getRecordKey(),
@@ -41,6 +72,24 @@ public class AuditLogService {
         );
     }
 
+    /**
+     * Records PUT_NOOP for a write that matched the stored record and was skipped. The stored
+     * record keeps the request id of the write that last changed it, so the caller passes its own.
+     */
+    public void recordPutNoop(Record current, String requestId) {
+        appendRecordEvent(current.getSubjectId(), current.getRecordKey(), current.getPurpose(), requestId,
+                AuditEvent.EventType.PUT_NOOP, Map.of("version", current.getVersion()));
+    }
+
+    /**
+     * Records PUT_COALESCED for a PUT that was merged into a concurrent PUT of the same record and
+     * not written itself.
+     */
+    public void recordPutCoalesced(Record stored, String requestId, String coalescedInto) {
+        appendRecordEvent(stored.getSubjectId(), stored.getRecordKey(), stored.getPurpose(), requestId,
+                AuditEvent.EventType.PUT_COALESCED, Map.of("version", stored.getVersion(), "coalesced_into", coalescedInto));
+    }
+
     public void recordPutFailure(String subjectId,
                                  String recordKey,
                                  String purpose,
@@ -51,6 +100,60 @@ public class AuditLogService {
                 errorMessage == null ? null : Map.of("error", errorMessage));
     }
 
+    /**
+     * Records PUT_REQUESTED for every item of a batch write in one batch of chained events.
+     */
+    public void recordBatchPutRequested(List<PutRecordServiceRequest> items) {
+        appendRecordEvents(items.getFirst().subjectId(), items.stream()
+                .map(item -> new PendingRecordEvent(item.recordKey(), item.purpose(), item.requestId(),
+                        AuditEvent.EventType.PUT_REQUESTED, null))
+                .toList());
+    }
+
+    /**
+     * Records PUT_FAILED for every item of a batch write that was rejected as a whole.
+     */
+    public void recordBatchPutFailure(List<PutRecordServiceRequest> items, String errorMessage) {
+        Map<String, Object> details = errorMessage == null ? null : Map.of("error", errorMessage);
+        appendRecordEvents(items.getFirst().subjectId(), items.stream()
+                .map(item -> new PendingRecordEvent(item.recordKey(), item.purpose(), item.requestId(),
+                        AuditEvent.EventType.PUT_FAILED, details))
+                .toList());
+    }
+
+    /**
+     * Records the per-item outcome of a batch write in one batch of chained events.
+     */
+    public void recordBatchPutResults(List<PolicyDrivenRecordService.BatchPutItemResult> results) {
+        appendRecordEvents(results.getFirst().item().subjectId(), results.stream()
+                .map(result -> {
+                    PutRecordServiceRequest item = result.item();
+                    if (!result.succeeded()) {
+                        return new PendingRecordEvent(item.recordKey(), item.purpose(), item.requestId(),
+                                AuditEvent.EventType.PUT_FAILED,
+                                result.errorMessage() == null ? null : Map.of("error", result.errorMessage()));
+                    }
+                    Record record = result.record();
+                    AuditEvent.EventType type = record.getRequestId().equals(item.requestId())
+                            ? putSuccessType(record)
+                            : AuditEvent.EventType.PUT_NOOP;
+                    return new PendingRecordEvent(record.getRecordKey(), record.getPurpose(), item.requestId(),
+                            type, Map.of("version", record.getVersion()));
+                })
+                .toList());
+    }
+
+    /**
+     * Records one aggregated GET_SUCCESS event summarising reads of a record within a window.
+     */
+    public void recordReadSummary(String subjectId,
+                                  String recordKey,
+                                  String purpose,
+                                  String requestId,
+                                  Map<String, Object> details) {
+        appendRecordEvent(subjectId, recordKey, purpose, requestId, AuditEvent.EventType.GET_SUCCESS, details);
+    }
+
     public void recordCreateSubjectRequested(String subjectId, String requestId) {
         appendSubjectEvent(subjectId, requestId, AuditEvent.EventType.CREATE_SUBJECT_REQUESTED, null);
     }
@@ -120,7 +223,9 @@ public class AuditLogService {
     }
 
     /**
-     * Appends an audit event for record operations, maintaining the per-subject hash chain.
+     * Appends an audit event for record operations, maintaining the per-subject hash chain. Like
+     * every append, it runs in the subject's write lane so that reading the latest hash and
+     * writing the next event cannot interleave with another append.
      */
     private void appendRecordEvent(String subjectId,
                                    String recordKey,
@@ -128,10 +233,17 @@ public class AuditLogService {
                                    String requestId,
                                    AuditEvent.EventType type,
                                    Map<String, Object> details) {
+        writeLanes.run(subjectId, () -> doAppendRecordEvent(subjectId, recordKey, purpose, requestId, type, details));
+    }
+
+    private void doAppendRecordEvent(String subjectId,
+                                     String recordKey,
+                                     String purpose,
+                                     String requestId,
+                                     AuditEvent.EventType type,
+                                     Map<String, Object> details) {
         long now = clock.millis();
-        String prevHash = auditEventAccess.findLatest(subjectId)
-                .map(AuditEvent::getHash)
-                .orElse(ZERO_HASH);
+        String prevHash = latestHash(subjectId);
 
         AuditEvent event = AuditEvent.builder()
                 .subjectId(subjectId)
@@ -143,11 +255,53 @@ public class AuditLogService {
                 .itemKey(recordKey)
                 .purpose(purpose)
                 .details(details)
+                .expiresAt(expiresAt(type, now))
+                .expiryBucket(expiryBucket(type, now))
                 .build();
 
         auditEventAccess.put(event);
     }
 
+    /**
+     * Appends several record events to the subject's chain with a single batched write. The
+     * events share one timestamp; their ts_ulid suffixes are sorted so ts_ulid order matches
+     * chain order.
+     */
+    private void appendRecordEvents(String subjectId, List<PendingRecordEvent> pending) {
+        writeLanes.run(subjectId, () -> doAppendRecordEvents(subjectId, pending));
+    }
+
+    private void doAppendRecordEvents(String subjectId, List<PendingRecordEvent> pending) {
+        long now = clock.millis();
+        String prevHash = latestHash(subjectId);
+        List<String> tsUlids = pending.stream()
+                .map(p -> generateTimestampUlid(now))
+                .sorted()
+                .toList();
+
+        List<AuditEvent> events = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            PendingRecordEvent p = pending.get(i);
+            AuditEvent event = AuditEvent.builder()
+                    .subjectId(subjectId)
+                    .tsUlid(tsUlids.get(i))
+                    .eventType(p.type())
+                    .requestId(p.requestId())
+                    .timestamp(now)
+                    .prevHash(prevHash)
+                    .itemKey(p.recordKey())
+                    .purpose(p.purpose())
+                    .details(p.details())
+                    .expiresAt(expiresAt(p.type(), now))
+                    .expiryBucket(expiryBucket(p.type(), now))
+                    .build();
+            events.add(event);
+            prevHash = event.getHash();
+        }
+
+        auditEventAccess.putAll(events);
+    }
+
     /**
      * Appends an audit event for subject operations, maintaining the per-subject hash chain.
      */
@@ -155,10 +309,15 @@ public class AuditLogService {
                                      String requestId,
                                      AuditEvent.EventType type,
                                      Map<String, Object> details) {
+        writeLanes.run(subjectId, () -> doAppendSubjectEvent(subjectId, requestId, type, details));
+    }
+
+    private void doAppendSubjectEvent(String subjectId,
+                                      String requestId,
+                                      AuditEvent.EventType type,
+                                      Map<String, Object> details) {
         long now = clock.millis();
-        String prevHash = auditEventAccess.findLatest(subjectId)
-                .map(AuditEvent::getHash)
-                .orElse(ZERO_HASH);
+        String prevHash = latestHash(subjectId);
 
         AuditEvent event = AuditEvent.builder()
                 .subjectId(subjectId)
@@ -168,6 +327,8 @@ public class AuditLogService {
                 .timestamp(now)
                 .prevHash(prevHash)
                 .details(details)
+                .expiresAt(expiresAt(type, now))
+                .expiryBucket(expiryBucket(type, now))
                 .build();
 
         auditEventAccess.put(event);
@@ -196,6 +357,86 @@ public class AuditLogService {
         appendRecordEvent(subjectId, recordKey, null, requestId, AuditEvent.EventType.PURGE_CANDIDATE_FAILED, details);
     }
 
+    /**
+     * Verifies the subject's hash chain. Verification starts from the truncation anchor when
+     * retention has removed older events, so only retained events are hashed.
+     *
+     * <p>Pruned stubs no longer carry the hashed payload and cannot be rehashed. A stub must have
+     * expired, and its stored hash must be the {@code prev_hash} of the next event, whose own hash
+     * covers that link. The newest event may be a stub; the next event written chains from it.
+     *
+     * @return true when every retained event hashes correctly and links to its predecessor
+     */
+    public boolean verifyChain(String subjectId) {
+        String expectedPrevHash = auditEventAccess.findAnchor(subjectId)
+                .map(AuditChainAnchor::getAnchorHash)
+                .orElse(ZERO_HASH);
+        List<AuditEvent> events = AuditChainOrdering.order(auditEventAccess.findAllBySubjectId(subjectId));
+        // Events up to the anchor may still be visible in the archive if truncation stopped
+        // between advancing the anchor and rewriting the archive; they are already accounted for.
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).getHash().equals(expectedPrevHash)) {
+                events = events.subList(i + 1, events.size());
+                break;
+            }
+        }
+        long now = clock.millis();
+        for (int i = 0; i < events.size(); i++) {
+            AuditEvent event = events.get(i);
+            if (!expectedPrevHash.equals(event.getPrevHash())) {
+                return false;
+            }
+            if (Boolean.TRUE.equals(event.getPruned())) {
+                if (!expiredBy(event, now)
+                        || (i + 1 < events.size() && !event.getHash().equals(events.get(i + 1).getPrevHash()))) {
+                    return false;
+                }
+            } else if (!AuditEvent.computeHash(event).equals(event.getHash())) {
+                return false;
+            }
+            expectedPrevHash = event.getHash();
+        }
+        return true;
+    }
+
+    /**
+     * Whether retention could have pruned the event by {@code now}: its stamped expiry has passed,
+     * or, for events written before expiry stamps, its event type's retention period has.
+     */
+    private boolean expiredBy(AuditEvent event, long now) {
+        if (event.getExpiresAt() != null) {
+            return event.getExpiresAt() <= now;
+        }
+        return event.getTimestamp() != null && AuditEvent.calculateExpiresAt(event.getTimestamp(),
+                retentionProperties.retentionDaysFor(event.getEventType())) <= now;
+    }
+
+    private static AuditEvent.EventType putSuccessType(Record record) {
+        return (record.getVersion() != null && record.getVersion() > 1)
+                ? AuditEvent.EventType.PUT_UPDATE_ITEM_SUCCESS
+                : AuditEvent.EventType.PUT_NEW_ITEM_SUCCESS;
+    }
+
+    /**
+     * Returns the hash the next event should chain from: the latest retained event, or the
+     * truncation anchor once retention has removed every event of the subject.
+     */
+    private String latestHash(String subjectId) {
+        return auditEventAccess.findLatest(subjectId)
+                .map(AuditEvent::getHash)
+                .or(() -> auditEventAccess.findAnchor(subjectId).map(AuditChainAnchor::getAnchorHash))
+                .orElse(ZERO_HASH);
+    }
+
+    private long expiresAt(AuditEvent.EventType type, long now) {
+        return AuditEvent.calculateExpiresAt(now, retentionProperties.retentionDaysFor(type));
+    }
+
+    private String expiryBucket(AuditEvent.EventType type, long now) {
+        int retentionDays = retentionProperties.retentionDaysFor(type);
+        return AuditEvent.formatExpiryBucket(retentionDays, AuditEvent.calculateExpiresAt(now, retentionDays));
+    }
+
     /**
      * Generates a ULID-like string combining the millisecond timestamp and
      * a random component so events retain a natural sort order per subject.
@@ -204,4 +445,10 @@ public class AuditLogService {
         String random = UUID.randomUUID().toString().replace("-", "").toUpperCase();
         return timestamp + "_" + random;
     }
+
+    private record PendingRecordEvent(String recordKey,
+                                      String purpose,
+                                      String requestId,
+                                      AuditEvent.EventType type,
+                                      Map<String, Object> details) { }
 }
@@ -0,0 +1,72 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.access.AuditArchive;
+import com.example.gdprkv.access.DynamoAuditEventAccess;
+import com.example.gdprkv.access.ResilientCalls;
+import com.example.gdprkv.config.AuditTieringProperties;
+import com.example.gdprkv.models.AuditEvent;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scheduled job that moves aged audit events from the hot {@code audit_events} table into the
+ * compressed {@link AuditArchive}. Events are archived per subject in chain order and only
+ * deleted from the hot table once their segment is written, so an interrupted run is repeated
+ * safely on the next schedule. The hot table is reached through {@link ResilientCalls}, like every
+ * other caller of the shared DynamoDB client.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "audit.tiering.enabled", havingValue = "true")
+public class AuditTieringJob {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private final Clock clock;
+    private final AuditTieringProperties properties;
+    private final DynamoAuditEventAccess hotAccess;
+    private final AuditArchive archive;
+    private final ResilientCalls resilientCalls;
+
+    @Scheduled(cron = "${audit.tiering.schedule:0 30 3 * * *}")
+    public void tierAgedEvents() {
+        long startTime = clock.millis();
+        long cutoffTimestamp = startTime - (properties.getAgeDays() * MILLIS_PER_DAY);
+        log.info("Starting audit tiering job at {} (archiving events older than {} days)",
+                startTime, properties.getAgeDays());
+
+        List<AuditEvent> aged = resilientCalls.call("AuditTiering.findEventsOlderThan",
+                () -> hotAccess.findEventsOlderThan(cutoffTimestamp));
+        Map<String, List<AuditEvent>> eventsBySubject = aged.stream()
+                .collect(Collectors.groupingBy(AuditEvent::getSubjectId, TreeMap::new, Collectors.toList()));
+
+        int archivedCount = 0;
+        int failedCount = 0;
+
+        for (Map.Entry<String, List<AuditEvent>> entry : eventsBySubject.entrySet()) {
+            List<AuditEvent> events = AuditChainOrdering.order(entry.getValue());
+            try {
+                archive.append(entry.getKey(), events);
+                resilientCalls.run("AuditTiering.deleteAll", () -> hotAccess.deleteAll(events));
+                archivedCount += events.size();
+            } catch (Exception ex) {
+                failedCount += events.size();
+                log.warn("Failed to archive audit events for subject {} ({} events): {}",
+                        entry.getKey(), events.size(), ex.getMessage());
+            }
+        }
+
+        long duration = clock.millis() - startTime;
+        log.info("Completed audit tiering job in {}ms: archived={}, failed={}",
+                duration, archivedCount, failedCount);
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.gdprkv.service;
 
+import com.example.gdprkv.models.Record;
 import lombok.Getter;
 
 public class GdprKvException extends RuntimeException {
 
     public enum Code {
         INVALID_PURPOSE,
+        INVALID_RECORD_KEY,
         SUBJECT_ALREADY_EXISTS,
         SUBJECT_NOT_FOUND,
         RECORD_NOT_FOUND,
+        READ_SUPPRESSED_TOMBSTONE,
+        VERSION_MISMATCH,
+        BATCH_TOO_LARGE,
+        IDEMPOTENCY_KEY_REUSED,
         UNKNOWN
     }
 
@@ -25,6 +31,11 @@ public class GdprKvException extends RuntimeException {
                 "Purpose " + purpose + " is not configured");
     }
 
+    public static GdprKvException invalidRecordKey(String recordKey) {
+        return new GdprKvException(Code.INVALID_RECORD_KEY,
+                "Record key " + recordKey + " must not contain " + Record.CHUNK_KEY_MARKER);
+    }
+
     public static GdprKvException subjectNotFound(String subjectId) {
         return new GdprKvException(Code.SUBJECT_NOT_FOUND,
                 "Subject " + subjectId + " does not exist");
@@ -39,4 +50,25 @@ public class GdprKvException extends RuntimeException {
         return new GdprKvException(Code.RECORD_NOT_FOUND,
                 "Record " + recordKey + " for subject " + subjectId + " does not exist");
     }
+
+    public static GdprKvException readSuppressedTombstone(String subjectId, String recordKey) {
+        return new GdprKvException(Code.READ_SUPPRESSED_TOMBSTONE,
+                "Record " + recordKey + " for subject " + subjectId + " has been deleted");
+    }
+
+    public static GdprKvException versionMismatch(String subjectId, String recordKey, long expectedVersion) {
+        return new GdprKvException(Code.VERSION_MISMATCH,
+                "Record " + recordKey + " for subject " + subjectId + " is not at version " + expectedVersion);
+    }
+
+    public static GdprKvException idempotencyKeyReused(String clientRequestId) {
+        return new GdprKvException(Code.IDEMPOTENCY_KEY_REUSED,
+                "X-Request-Id " + clientRequestId + " was already used for a different request");
+    }
+
+    public static GdprKvException batchTooLarge(int actions, long bytes, int maxActions, long maxBytes) {
+        return new GdprKvException(Code.BATCH_TOO_LARGE,
+                "Atomic batch needs " + actions + " writes and " + bytes + " bytes, but one transaction allows at most "
+                        + maxActions + " writes and " + maxBytes + " bytes");
+    }
 }
@@ -3,15 +3,34 @@ package com.example.gdprkv.service;
 import com.example.gdprkv.access.PolicyAccess;
 import com.example.gdprkv.access.RecordAccess;
 import com.example.gdprkv.access.SubjectAccess;
+import com.example.gdprkv.config.RecordBatchProperties;
+import com.example.gdprkv.models.JsonMergePatch;
 import com.example.gdprkv.models.Policy;
+import com.example.gdprkv.models.RawJsonValue;
 import com.example.gdprkv.models.Record;
+import com.example.gdprkv.models.Subject;
+import com.example.gdprkv.requests.BatchPutRecordsServiceRequest;
 import com.example.gdprkv.requests.DeleteRecordServiceRequest;
+import com.example.gdprkv.requests.PatchRecordServiceRequest;
 import com.example.gdprkv.requests.PutRecordServiceRequest;
+import jakarta.annotation.PreDestroy;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 /**
  * Applies policy constraints when writing records, handling versioning, tombstone metadata,
@@ -21,68 +40,319 @@ import org.springframework.stereotype.Service;
 @Service
 public class PolicyDrivenRecordService {
 
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+    private static final int MAX_TRANSACTION_ACTIONS = 100;
+    private static final long MAX_TRANSACTION_BYTES = 4L * 1024 * 1024;
+
     private final PolicyAccess policyAccess;
     private final RecordAccess recordAccess;
     private final SubjectAccess subjectAccess;
     private final Clock clock;
+    private final RecordBatchProperties batchProperties;
+    private final SubjectWriteLanes writeLanes;
+    private final RecordWriteCoalescer coalescer;
+    // Validation reads are blocking SDK calls, so each gets its own virtual thread.
+    private final ExecutorService readExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
+    @Autowired
     public PolicyDrivenRecordService(PolicyAccess policyAccess,
                                      RecordAccess recordAccess,
                                      SubjectAccess subjectAccess,
-                                     Clock clock) {
+                                     Clock clock,
+                                     RecordBatchProperties batchProperties,
+                                     SubjectWriteLanes writeLanes,
+                                     RecordWriteCoalescer coalescer) {
         this.policyAccess = policyAccess;
         this.recordAccess = recordAccess;
         this.subjectAccess = subjectAccess;
         this.clock = clock;
+        this.batchProperties = batchProperties;
+        this.writeLanes = writeLanes;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Constructor using default batch settings, no write lanes and no coalescing (e.g., tests).
+     */
+    public PolicyDrivenRecordService(PolicyAccess policyAccess,
+                                     RecordAccess recordAccess,
+                                     SubjectAccess subjectAccess,
+                                     Clock clock) {
+        this(policyAccess, recordAccess, subjectAccess, clock, new RecordBatchProperties(), SubjectWriteLanes.direct(),
+                RecordWriteCoalescer.disabled());
     }
 
+    /**
+     * Writes a record. When the stored record is live and has the same content hash (purpose and
+     * value) and retention, nothing is written and the stored record is returned unchanged; callers
+     * can tell by its request id differing from the request's. Runs in the subject's write lane.
+     */
     public Record putRecord(PutRecordServiceRequest request) {
+        return putRecordWithOutcome(request).record();
+    }
+
+    /**
+     * Like {@link #putRecord}, but PUTs of purposes configured for coalescing may be merged with
+     * concurrent PUTs to the same record; the outcome then names the request that was written.
+     */
+    public PutOutcome putRecordWithOutcome(PutRecordServiceRequest request) {
         Objects.requireNonNull(request, "request");
+        if (coalescer.accepts(request)) {
+            return coalescer.put(request, winner -> writeLanes.run(winner.subjectId(), () -> doPutRecord(winner)));
+        }
+        return new PutOutcome(writeLanes.run(request.subjectId(), () -> doPutRecord(request)), null);
+    }
 
-        subjectAccess.findBySubjectId(request.subjectId())
-                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+    private Record doPutRecord(PutRecordServiceRequest request) {
 
-        Policy policy = policyAccess.findByPurpose(request.purpose())
+        // Subject and policy reads run concurrently; they are joined subject first so that
+        // SUBJECT_NOT_FOUND still takes precedence over INVALID_PURPOSE.
+        CompletableFuture<Optional<Subject>> subject = readAsync(() -> subjectAccess.findBySubjectId(request.subjectId()));
+        CompletableFuture<Optional<Policy>> policyLookup = readAsync(() -> policyAccess.findByPurpose(request.purpose()));
+
+        join(subject, policyLookup)
+                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+        Policy policy = join(policyLookup)
                 .orElseThrow(() -> GdprKvException.invalidPurpose(request.purpose()));
 
+        Record record = toRecord(request, policy, clock.millis());
+
+        // One conditional write: an unchanged record is left alone (and returned as stored),
+        // createdAt is only kept for new items and the version is incremented in storage, so a
+        // concurrent writer cannot lose an update.
+        try {
+            return recordAccess.upsertIfChanged(record, request.expectedVersion()).record();
+        } catch (ConditionalCheckFailedException ex) {
+            throw GdprKvException.versionMismatch(request.subjectId(), request.recordKey(), request.expectedVersion());
+        }
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a live record's value, keeping its purpose and retention. A
+     * patch that leaves the value unchanged writes nothing and returns the stored record, as in
+     * {@link #putRecord}. The write is conditioned on the version that was read; without an
+     * expected version, a write that lost a race is retried on a fresh read up to
+     * {@value #MAX_PATCH_ATTEMPTS} times (only other nodes can cause that, since patches of one
+     * subject run one at a time in its write lane).
+     */
+    public Record patchRecord(PatchRecordServiceRequest request) {
+        Objects.requireNonNull(request, "request");
+        return writeLanes.run(request.subjectId(), () -> doPatchRecord(request));
+    }
+
+    private Record doPatchRecord(PatchRecordServiceRequest request) {
+
+        CompletableFuture<Optional<Subject>> subject = readAsync(() -> subjectAccess.findBySubjectId(request.subjectId()));
+        CompletableFuture<Optional<Record>> recordLookup = readAsync(() -> recordAccess
+                .findBySubjectIdAndRecordKey(request.subjectId(), request.recordKey()));
+
+        join(subject, recordLookup)
+                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+        Record current = liveRecord(join(recordLookup), request);
+
+        for (int attempt = 1; ; attempt++) {
+            if (request.expectedVersion() != null && !request.expectedVersion().equals(current.getVersion())) {
+                throw GdprKvException.versionMismatch(request.subjectId(), request.recordKey(), request.expectedVersion());
+            }
+            RawJsonValue value = RawJsonValue.of(JsonMergePatch.apply(current.getValue(), request.patch()));
+            String contentHash = Record.computeContentHash(current.getPurpose(), value);
+            if (contentHash.equals(current.getContentHash())) {
+                return current;
+            }
+
+            Record patched = current.toBuilder()
+                    .rawValue(value)
+                    .contentHash(contentHash)
+                    .updatedAt(clock.millis())
+                    .requestId(request.requestId())
+                    .version(current.getVersion() + 1)
+                    .build();
+            try {
+                return recordAccess.patch(current, patched, request.patch());
+            } catch (ConditionalCheckFailedException ex) {
+                if (request.expectedVersion() != null || attempt >= MAX_PATCH_ATTEMPTS) {
+                    throw GdprKvException.versionMismatch(request.subjectId(), request.recordKey(),
+                            request.expectedVersion() != null ? request.expectedVersion() : current.getVersion());
+                }
+                current = liveRecord(recordAccess.findBySubjectIdAndRecordKey(request.subjectId(), request.recordKey()),
+                        request);
+            }
+        }
+    }
+
+    private static Record liveRecord(Optional<Record> record, PatchRecordServiceRequest request) {
+        return record.filter(r -> !Boolean.TRUE.equals(r.getTombstoned()))
+                .orElseThrow(() -> GdprKvException.recordNotFound(request.subjectId(), request.recordKey()));
+    }
+
+    /**
+     * Writes several records of one subject. The subject and each distinct purpose are validated
+     * once, concurrently, and existing records are read with one batch read so unchanged records
+     * are skipped as in {@link #putRecord}. Atomic batches are rejected as a whole on any invalid
+     * purpose or when their changed records exceed the transaction limits (BATCH_TOO_LARGE), and
+     * the changed records are written in one transaction; otherwise items with an invalid purpose
+     * or a failed write are reported per item and the rest are written.
+     *
+     * @param request the batch, limited to {@code records.batch.max-items} items
+     * @return one result per item, in request order
+     */
+    public List<BatchPutItemResult> putRecords(BatchPutRecordsServiceRequest request) {
+        Objects.requireNonNull(request, "request");
+        if (request.items().size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("batch exceeds " + batchProperties.getMaxItems() + " items");
+        }
+        return writeLanes.run(request.subjectId(), () -> doPutRecords(request));
+    }
+
+    private List<BatchPutItemResult> doPutRecords(BatchPutRecordsServiceRequest request) {
+
+        CompletableFuture<Optional<Subject>> subject = readAsync(() -> subjectAccess.findBySubjectId(request.subjectId()));
+        Map<String, CompletableFuture<Optional<Policy>>> policyLookups = new LinkedHashMap<>();
+        request.items().forEach(item -> policyLookups.computeIfAbsent(item.purpose(),
+                purpose -> readAsync(() -> policyAccess.findByPurpose(purpose))));
+        CompletableFuture<List<Record>> existingLookup = readAsync(() -> recordAccess.findAllByKeys(request.items().stream()
+                .map(PutRecordServiceRequest::recordKey)
+                .distinct()
+                .map(recordKey -> Record.builder().subjectId(request.subjectId()).recordKey(recordKey).build())
+                .toList()));
+
+        join(subject, policyLookups.values().toArray(CompletableFuture<?>[]::new))
+                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+        Map<String, Policy> policies = new HashMap<>();
+        policyLookups.forEach((purpose, lookup) -> join(lookup).ifPresent(policy -> policies.put(purpose, policy)));
+
+        Map<List<String>, Record> existing = new HashMap<>();
+        join(existingLookup).forEach(record -> existing.put(keyOf(record), record));
+
         long now = clock.millis();
-        Optional<Record> existingRecord = recordAccess
-                .findBySubjectIdAndRecordKey(request.subjectId(), request.recordKey());
+        if (request.atomic()) {
+            List<Record> records = request.items().stream()
+                    .map(item -> toRecord(item, Optional.ofNullable(policies.get(item.purpose()))
+                            .orElseThrow(() -> GdprKvException.invalidPurpose(item.purpose())), now))
+                    .toList();
+            List<Record> changed = records.stream()
+                    .filter(record -> unchangedPrevious(existing, record) == null)
+                    .toList();
+            // Large values add chunk writes, so the transaction limits are checked per record.
+            RecordAccess.WriteSize size = changed.stream()
+                    .map(recordAccess::writeSize)
+                    .reduce(new RecordAccess.WriteSize(0, 0), RecordAccess.WriteSize::plus);
+            if (size.actions() > MAX_TRANSACTION_ACTIONS || size.bytes() > MAX_TRANSACTION_BYTES) {
+                throw GdprKvException.batchTooLarge(size.actions(), size.bytes(), MAX_TRANSACTION_ACTIONS,
+                        MAX_TRANSACTION_BYTES);
+            }
+            Iterator<Record> stored = recordAccess.upsertAll(changed).iterator();
+            List<BatchPutItemResult> results = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                Record previous = unchangedPrevious(existing, records.get(i));
+                results.add(BatchPutItemResult.success(request.items().get(i), previous != null ? previous : stored.next()));
+            }
+            return results;
+        }
 
-        long createdAt = existingRecord.map(Record::getCreatedAt).orElse(now);
-        long version = existingRecord.map(Record::getVersion).orElse(0L) + 1;
+        List<CompletableFuture<BatchPutItemResult>> writes = request.items().stream()
+                .map(item -> {
+                    Policy policy = policies.get(item.purpose());
+                    if (policy == null) {
+                        return CompletableFuture.completedFuture(
+                                BatchPutItemResult.failure(item, GdprKvException.invalidPurpose(item.purpose())));
+                    }
+                    Record record = toRecord(item, policy, now);
+                    Record previous = unchangedPrevious(existing, record);
+                    if (previous != null) {
+                        return CompletableFuture.completedFuture(BatchPutItemResult.success(item, previous));
+                    }
+                    return readAsync(() -> recordAccess.upsert(record))
+                            .thenApply(storedRecord -> BatchPutItemResult.success(item, storedRecord))
+                            .exceptionally(ex -> BatchPutItemResult.failure(item,
+                                    ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex));
+                })
+                .toList();
+        return writes.stream().map(CompletableFuture::join).toList();
+    }
 
-        Record.RecordBuilder builder = existingRecord
-                .map(Record::toBuilder)
-                .orElseGet(() -> Record.builder()
-                        .subjectId(request.subjectId())
-                        .recordKey(request.recordKey()));
+    /**
+     * Writes a chunk of bulk-ingested records, possibly across subjects. Subjects and purposes are
+     * looked up concurrently (usually from the caches) and items with an unknown subject or purpose
+     * fail individually. Each subject's items then run in its write lane: existing records are read
+     * with one batch read, unchanged records are skipped as in {@link #putRecord}, and the others
+     * are written concurrently with conditional writes (new records must still be absent, existing
+     * ones at the version read), so an item that lost a race with another write fails with
+     * VERSION_MISMATCH instead of overwriting it.
+     *
+     * @param items the chunk to write; record keys must be distinct per subject
+     * @return one result per item, in request order
+     */
+    public List<BatchPutItemResult> ingestRecords(List<PutRecordServiceRequest> items) {
+        Objects.requireNonNull(items, "items");
 
-        builder.purpose(request.purpose())
-                .value(request.value())
-                .createdAt(createdAt)
-                .updatedAt(now)
-                .version(version)
-                .requestId(request.requestId())
-                .retentionDays(policy.getRetentionDays());
+        Map<String, CompletableFuture<Optional<Subject>>> subjectLookups = new HashMap<>();
+        Map<String, CompletableFuture<Optional<Policy>>> policyLookups = new HashMap<>();
+        items.forEach(item -> {
+            subjectLookups.computeIfAbsent(item.subjectId(), id -> readAsync(() -> subjectAccess.findBySubjectId(id)));
+            policyLookups.computeIfAbsent(item.purpose(), purpose -> readAsync(() -> policyAccess.findByPurpose(purpose)));
+        });
 
-        if (request.tombstoned()) {
-            long tombstonedAt = request.tombstonedAt() != null ? request.tombstonedAt() : now;
-            long purgeDueAt = Record.calculatePurgeDueAt(tombstonedAt, policy.getRetentionDays());
-            builder.tombstoned(true)
-                    .tombstonedAt(tombstonedAt)
-                    .purgeDueAt(purgeDueAt)
-                    .purgeBucket(Record.formatPurgeBucket(purgeDueAt));
-        } else {
-            builder.tombstoned(false)
-                    .tombstonedAt(null)
-                    .purgeDueAt(null)
-                    .purgeBucket(null);
+        long now = clock.millis();
+        BatchPutItemResult[] results = new BatchPutItemResult[items.size()];
+        Map<String, List<Integer>> positionsBySubject = new LinkedHashMap<>();
+        Map<Integer, Record> records = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            PutRecordServiceRequest item = items.get(i);
+            if (join(subjectLookups.get(item.subjectId())).isEmpty()) {
+                results[i] = BatchPutItemResult.failure(item, GdprKvException.subjectNotFound(item.subjectId()));
+                continue;
+            }
+            Optional<Policy> policy = join(policyLookups.get(item.purpose()));
+            if (policy.isEmpty()) {
+                results[i] = BatchPutItemResult.failure(item, GdprKvException.invalidPurpose(item.purpose()));
+                continue;
+            }
+            records.put(i, toRecord(item, policy.get(), now));
+            positionsBySubject.computeIfAbsent(item.subjectId(), id -> new ArrayList<>()).add(i);
         }
 
-        Record toSave = builder.build();
-        recordAccess.save(toSave);
-        return toSave;
+        List<CompletableFuture<Void>> subjects = positionsBySubject.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(() -> writeLanes.run(entry.getKey(),
+                        () -> ingestSubject(items, records, entry.getValue(), results)), readExecutor))
+                .toList();
+        subjects.forEach(subject -> join(subject));
+        return List.of(results);
+    }
+
+    /**
+     * Writes the ingested records of one subject at the given positions and fills in their results.
+     */
+    private void ingestSubject(List<PutRecordServiceRequest> items, Map<Integer, Record> records,
+                               List<Integer> positions, BatchPutItemResult[] results) {
+        Map<List<String>, Record> existing = new HashMap<>();
+        recordAccess.findAllByKeys(positions.stream().map(records::get).toList())
+                .forEach(record -> existing.put(keyOf(record), record));
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int position : positions) {
+            PutRecordServiceRequest item = items.get(position);
+            Record record = records.get(position);
+            Record previous = existing.get(keyOf(record));
+            if (previous != null && RecordAccess.isUnchanged(previous, record)) {
+                results[position] = BatchPutItemResult.success(item, previous);
+                continue;
+            }
+            writes.add(readAsync(() -> previous == null
+                    ? recordAccess.create(record)
+                    : recordAccess.upsert(record, previous.getVersion()))
+                    .handle((stored, ex) -> {
+                        Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        results[position] = error == null
+                                ? BatchPutItemResult.success(item, stored)
+                                : BatchPutItemResult.failure(item, error instanceof ConditionalCheckFailedException
+                                        ? GdprKvException.versionMismatch(item.subjectId(), item.recordKey(),
+                                                previous == null ? 0 : previous.getVersion())
+                                        : error);
+                        return null;
+                    }));
+        }
+        writes.forEach(CompletableFuture::join);
     }
 
     public List<Record> findAllBySubjectId(String subjectId) {
@@ -90,26 +360,64 @@ public class PolicyDrivenRecordService {
         return recordAccess.findAllBySubjectId(subjectId);
     }
 
+    /**
+     * Checks that a subject still exists, e.g. before replaying the outcome of an earlier write.
+     *
+     * @throws GdprKvException SUBJECT_NOT_FOUND if it does not
+     */
+    public void requireSubject(String subjectId) {
+        Objects.requireNonNull(subjectId, "subjectId");
+        subjectAccess.findBySubjectId(subjectId).orElseThrow(() -> GdprKvException.subjectNotFound(subjectId));
+    }
+
+    /**
+     * Reads one live record for a client. The record may come from the record read cache, which is
+     * at most its TTL behind writes made through other instances.
+     *
+     * @throws GdprKvException RECORD_NOT_FOUND if there is no such record, and
+     *         READ_SUPPRESSED_TOMBSTONE if it has been deleted and awaits purging
+     */
+    public Record getRecord(String subjectId, String recordKey) {
+        Objects.requireNonNull(subjectId, "subjectId");
+        Objects.requireNonNull(recordKey, "recordKey");
+        Record record = recordAccess.findCachedBySubjectIdAndRecordKey(subjectId, recordKey)
+                .orElseThrow(() -> GdprKvException.recordNotFound(subjectId, recordKey));
+        if (Boolean.TRUE.equals(record.getTombstoned())) {
+            throw GdprKvException.readSuppressedTombstone(subjectId, recordKey);
+        }
+        return record;
+    }
+
     /**
      * Deletes a record by tombstoning it and scheduling it for purge based on retention policy.
      * If the record is already tombstoned, returns it without changes.
      * If the record doesn't exist, throws a GdprKvException.
+     * If the request carries an expected version that doesn't match, throws VERSION_MISMATCH.
      *
      * @param request the delete request containing subject ID, record key, and request ID
      * @return the tombstoned record
      */
     public Record deleteRecord(DeleteRecordServiceRequest request) {
         Objects.requireNonNull(request, "request");
+        return writeLanes.run(request.subjectId(), () -> doDeleteRecord(request));
+    }
 
-        // Verify subject exists
-        subjectAccess.findBySubjectId(request.subjectId())
-                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+    private Record doDeleteRecord(DeleteRecordServiceRequest request) {
 
-        // Find the existing record
-        Record existingRecord = recordAccess
-                .findBySubjectIdAndRecordKey(request.subjectId(), request.recordKey())
+        // Verify subject exists and find the existing record, reading both concurrently
+        CompletableFuture<Optional<Subject>> subject = readAsync(() -> subjectAccess.findBySubjectId(request.subjectId()));
+        CompletableFuture<Optional<Record>> recordLookup = readAsync(() -> recordAccess
+                .findBySubjectIdAndRecordKey(request.subjectId(), request.recordKey()));
+
+        join(subject, recordLookup)
+                .orElseThrow(() -> GdprKvException.subjectNotFound(request.subjectId()));
+        Record existingRecord = join(recordLookup)
                 .orElseThrow(() -> GdprKvException.recordNotFound(request.subjectId(), request.recordKey()));
 
+        if (request.expectedVersion() != null && !request.expectedVersion().equals(existingRecord.getVersion())) {
+            throw GdprKvException.versionMismatch(request.subjectId(), request.recordKey(), request.expectedVersion());
+        }
+
         // If already tombstoned, return it as-is
         if (existingRecord.getTombstoned() != null && existingRecord.getTombstoned()) {
             return existingRecord;
@@ -133,7 +441,125 @@ public class PolicyDrivenRecordService {
                 .updatedAt(now)
                 .build();
 
-        recordAccess.save(tombstonedRecord);
-        return tombstonedRecord;
+        if (request.expectedVersion() == null) {
+            recordAccess.save(tombstonedRecord);
+            return tombstonedRecord;
+        }
+        try {
+            return recordAccess.save(tombstonedRecord, request.expectedVersion());
+        } catch (ConditionalCheckFailedException ex) {
+            throw GdprKvException.versionMismatch(request.subjectId(), request.recordKey(), request.expectedVersion());
+        }
+    }
+
+    private static List<String> keyOf(Record record) {
+        return List.of(record.getSubjectId(), record.getRecordKey());
+    }
+
+    /**
+     * Returns the stored record when {@code record} would not change it, or null when it must be written.
+     */
+    private static Record unchangedPrevious(Map<List<String>, Record> existing, Record record) {
+        Record previous = existing.get(keyOf(record));
+        return previous != null && RecordAccess.isUnchanged(previous, record) ? previous : null;
+    }
+
+    private static Record toRecord(PutRecordServiceRequest request, Policy policy, long now) {
+        Record.RecordBuilder builder = Record.builder()
+                .subjectId(request.subjectId())
+                .recordKey(request.recordKey())
+                .purpose(request.purpose())
+                .rawValue(request.value())
+                .contentHash(Record.computeContentHash(request.purpose(), request.value()))
+                .createdAt(now)
+                .updatedAt(now)
+                .version(1L)
+                .requestId(request.requestId())
+                .retentionDays(policy.getRetentionDays());
+
+        if (request.tombstoned()) {
+            long tombstonedAt = request.tombstonedAt() != null ? request.tombstonedAt() : now;
+            long purgeDueAt = Record.calculatePurgeDueAt(tombstonedAt, policy.getRetentionDays());
+            builder.tombstoned(true)
+                    .tombstonedAt(tombstonedAt)
+                    .purgeDueAt(purgeDueAt)
+                    .purgeBucket(Record.formatPurgeBucket(purgeDueAt));
+        } else {
+            builder.tombstoned(false)
+                    .tombstonedAt(null)
+                    .purgeDueAt(null)
+                    .purgeBucket(null);
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        readExecutor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> readAsync(Supplier<T> read) {
+        return CompletableFuture.supplyAsync(read, readExecutor);
+    }
+
+    /**
+     * Waits for {@code first}; if it failed, the remaining reads are cancelled. Failures are
+     * rethrown unwrapped so callers see the same exceptions as with a direct call.
+     */
+    private static <T> T join(CompletableFuture<T> first, CompletableFuture<?>... remaining) {
+        try {
+            return first.join();
+        } catch (CompletionException ex) {
+            for (CompletableFuture<?> future : remaining) {
+                future.cancel(true);
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Outcome of a single PUT.
+     *
+     * @param record the stored record
+     * @param coalescedInto the request id that was written instead of this request's, or
+     *                      {@code null} if the request was not coalesced
+     */
+    public record PutOutcome(Record record, String coalescedInto) {
+
+        public boolean coalesced() {
+            return coalescedInto != null;
+        }
+    }
+
+    /**
+     * Outcome of one item of a batch write: the stored record, or the error code and message.
+     */
+    public record BatchPutItemResult(
+            PutRecordServiceRequest item,
+            Record record,
+            String errorCode,
+            String errorMessage
+    ) {
+
+        static BatchPutItemResult success(PutRecordServiceRequest item, Record record) {
+            return new BatchPutItemResult(item, record, null, null);
+        }
+
+        static BatchPutItemResult failure(PutRecordServiceRequest item, Throwable error) {
+            String code = error instanceof GdprKvException gdprKvException
+                    ? gdprKvException.getCode().name()
+                    : GdprKvException.Code.UNKNOWN.name();
+            return new BatchPutItemResult(item, null, code, error.getMessage());
+        }
+
+        public boolean succeeded() {
+            return record != null;
+        }
     }
 }
@@ -0,0 +1,190 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.config.ReadAuditProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Aggregates record reads in memory and writes one {@code GET_SUCCESS} summary event per
+ * (subject, record key, window) instead of chained audit writes on every read. Closed windows are
+ * flushed on a schedule and everything pending is flushed on shutdown, so a crash loses at most
+ * one window plus one flush interval of read accounting.
+ *
+ * <p>When more than {@code maxPendingKeys} windows are pending, an early flush is started in the
+ * background so reads never wait for audit writes. Windows whose write fails are kept for the
+ * next flush only while fewer than {@code maxPendingKeys} windows are pending; beyond that they are
+ * dropped and counted in {@code gdprkv.audit.reads.dropped}.
+ */
+@Service
+@Slf4j
+public class ReadAuditAggregator {
+
+    private final AuditLogService auditLogService;
+    private final ReadAuditProperties properties;
+    private final Clock clock;
+    private final Counter droppedWindows;
+    private final ConcurrentHashMap<WindowKey, ReadAggregate> pending = new ConcurrentHashMap<>();
+    private final ExecutorService flushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean earlyFlushRunning = new AtomicBoolean();
+
+    public ReadAuditAggregator(AuditLogService auditLogService, ReadAuditProperties properties, Clock clock,
+                               MeterRegistry meterRegistry) {
+        this.auditLogService = auditLogService;
+        this.properties = properties;
+        this.clock = clock;
+        this.droppedWindows = Counter.builder("gdprkv.audit.reads.dropped").register(meterRegistry);
+    }
+
+    /**
+     * Counts one successful read of a record.
+     */
+    public void recordRead(String subjectId, String recordKey, String purpose, String requestId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        long windowMillis = properties.getWindowSeconds() * 1000L;
+        WindowKey key = new WindowKey(subjectId, recordKey, now - Math.floorMod(now, windowMillis));
+        pending.compute(key, (k, aggregate) -> aggregate == null
+                ? new ReadAggregate(purpose, now, requestId)
+                : aggregate.add(purpose, now, requestId));
+
+        if (pending.size() > properties.getMaxPendingKeys()) {
+            startEarlyFlush();
+        }
+    }
+
+    /**
+     * Flushes all pending windows on a background thread, unless an early flush is already running.
+     */
+    private void startEarlyFlush() {
+        if (!earlyFlushRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flushExecutor.execute(() -> {
+                try {
+                    flush(Long.MAX_VALUE);
+                } finally {
+                    earlyFlushRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            earlyFlushRunning.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.reads.flush-interval-ms:10000}")
+    public void flushClosedWindows() {
+        long windowMillis = properties.getWindowSeconds() * 1000L;
+        flush(clock.millis() - windowMillis);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushExecutor.shutdown();
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes summaries for all windows that started at or before the given time. A window whose
+     * write fails is merged back so the next flush retries it, unless the pending windows are
+     * already at {@code maxPendingKeys}.
+     */
+    private void flush(long windowStartedBy) {
+        for (WindowKey key : pending.keySet()) {
+            if (key.windowStart() > windowStartedBy) {
+                continue;
+            }
+            ReadAggregate aggregate = pending.remove(key);
+            if (aggregate == null) {
+                continue;
+            }
+            try {
+                auditLogService.recordReadSummary(key.subjectId(), key.recordKey(), aggregate.purpose,
+                        aggregate.lastRequestId, aggregate.details(key.windowStart(), properties.getWindowSeconds()));
+            } catch (RuntimeException ex) {
+                if (pending.containsKey(key) || pending.size() < properties.getMaxPendingKeys()) {
+                    log.warn("Failed to flush read audit summary for subject {} key {}: {}",
+                            key.subjectId(), key.recordKey(), ex.getMessage());
+                    pending.merge(key, aggregate, ReadAggregate::merge);
+                } else {
+                    droppedWindows.increment();
+                    log.warn("Dropped read audit summary for subject {} key {} ({} reads) after a failed flush: {}",
+                            key.subjectId(), key.recordKey(), aggregate.count, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private record WindowKey(String subjectId, String recordKey, long windowStart) { }
+
+    /**
+     * Mutable per-window counters; only touched inside {@link ConcurrentHashMap#compute} or after
+     * removal from the map, so no further locking is needed.
+     */
+    private static final class ReadAggregate {
+        private String purpose;
+        private long count;
+        private long firstReadAt;
+        private long lastReadAt;
+        private String firstRequestId;
+        private String lastRequestId;
+
+        ReadAggregate(String purpose, long readAt, String requestId) {
+            this.purpose = purpose;
+            this.count = 1;
+            this.firstReadAt = readAt;
+            this.lastReadAt = readAt;
+            this.firstRequestId = requestId;
+            this.lastRequestId = requestId;
+        }
+
+        ReadAggregate add(String readPurpose, long readAt, String requestId) {
+            count++;
+            if (readAt >= lastReadAt) {
+                lastReadAt = readAt;
+                lastRequestId = requestId;
+                purpose = readPurpose;
+            }
+            return this;
+        }
+
+        ReadAggregate merge(ReadAggregate other) {
+            count += other.count;
+            if (other.firstReadAt < firstReadAt) {
+                firstReadAt = other.firstReadAt;
+                firstRequestId = other.firstRequestId;
+            }
+            if (other.lastReadAt >= lastReadAt) {
+                lastReadAt = other.lastReadAt;
+                lastRequestId = other.lastRequestId;
+                purpose = other.purpose;
+            }
+            return this;
+        }
+
+        Map<String, Object> details(long windowStart, int windowSeconds) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("read_count", count);
+            details.put("first_read_at", firstReadAt);
+            details.put("last_read_at", lastReadAt);
+            details.put("first_request_id", firstRequestId);
+            details.put("window_start", windowStart);
+            details.put("window_seconds", windowSeconds);
+            return details;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.config.RecordIngestProperties;
+import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.IngestRecordLine;
+import com.example.gdprkv.requests.PutRecordServiceRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams NDJSON lines of {@link IngestRecordLine} into the records table for backfills and
+ * migrations. Lines are grouped into chunks that {@link PolicyDrivenRecordService#ingestRecords}
+ * writes in parallel. At most {@code records.ingest.max-in-flight-chunks} chunks are written at a
+ * time; once that many are pending, reading the input blocks, which pushes back on the sender.
+ *
+ * <p>A record key that is still being written by an earlier chunk waits for the in-flight chunks
+ * to finish, so repeated keys get consecutive versions. Results are handed to the sink one chunk
+ * at a time, as chunks complete.
+ */
+@Service
+@Slf4j
+public class RecordIngestService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final PolicyDrivenRecordService recordService;
+    private final AuditLogService auditLogService;
+    private final RecordIngestProperties properties;
+    private final ExecutorService writeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RecordIngestService(PolicyDrivenRecordService recordService,
+                               AuditLogService auditLogService,
+                               RecordIngestProperties properties) {
+        this.recordService = recordService;
+        this.auditLogService = auditLogService;
+        this.properties = properties;
+    }
+
+    /**
+     * Outcome of one input line: the stored record, or an error code and message.
+     */
+    public record LineResult(
+            long lineNumber,
+            String subjectId,
+            String recordKey,
+            Record record,
+            String errorCode,
+            String errorMessage
+    ) {
+
+        public boolean succeeded() {
+            return record != null;
+        }
+    }
+
+    /**
+     * Totals of one ingest run.
+     */
+    public record Summary(long lines, long succeeded, long failed) { }
+
+    /**
+     * Reads {@code input} to the end and writes every line. {@code sink} is never called
+     * concurrently; an exception from it stops the ingest after the in-flight chunks.
+     *
+     * @param input NDJSON, one {@link IngestRecordLine} per line; blank lines are skipped
+     * @param requestId request id stored on every written record and its audit events
+     * @param sink receives the results of each completed chunk
+     * @return totals for the run
+     */
+    public Summary ingest(InputStream input, String requestId, Consumer<List<LineResult>> sink) throws IOException {
+        Run run = new Run(requestId, sink);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Chunk chunk = new Chunk();
+        long lineNumber = 0;
+        String line;
+        while (run.sinkFailure.get() == null && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            PutRecordServiceRequest item;
+            try {
+                item = parse(line, requestId);
+            } catch (JsonProcessingException | IllegalArgumentException | NullPointerException ex) {
+                run.failed.incrementAndGet();
+                run.emit(List.of(new LineResult(lineNumber, null, null, null, "INVALID_LINE", ex.getMessage())));
+                continue;
+            }
+
+            List<String> key = List.of(item.subjectId(), item.recordKey());
+            if (chunk.keys.contains(key)) {
+                run.submit(chunk);
+                chunk = new Chunk();
+            }
+            if (run.inFlightKeys.contains(key)) {
+                run.awaitInFlight();
+            }
+            chunk.add(lineNumber, item, key);
+            if (chunk.items.size() >= properties.getChunkSize()) {
+                run.submit(chunk);
+                chunk = new Chunk();
+            }
+        }
+        if (!chunk.items.isEmpty()) {
+            run.submit(chunk);
+        }
+        run.awaitInFlight();
+        run.throwIfSinkFailed();
+
+        Summary summary = new Summary(run.succeeded.get() + run.failed.get(), run.succeeded.get(), run.failed.get());
+        log.info("Completed record ingest {}: lines={}, succeeded={}, failed={}",
+                requestId, summary.lines(), summary.succeeded(), summary.failed());
+        return summary;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writeExecutor.shutdown();
+    }
+
+    private static PutRecordServiceRequest parse(String line, String requestId) throws JsonProcessingException {
+        IngestRecordLine parsed = MAPPER.readValue(line, IngestRecordLine.class);
+        if (Record.isReservedKey(parsed.recordKey())) {
+            throw new IllegalArgumentException("record_key must not contain " + Record.CHUNK_KEY_MARKER);
+        }
+        return new PutRecordServiceRequest(
+                parsed.subjectId(), parsed.recordKey(), parsed.purpose(), parsed.value(), false, null, requestId);
+    }
+
+    /**
+     * Lines buffered for one {@link PolicyDrivenRecordService#ingestRecords} call.
+     */
+    private static final class Chunk {
+        private final List<Long> lineNumbers = new ArrayList<>();
+        private final List<PutRecordServiceRequest> items = new ArrayList<>();
+        private final Set<List<String>> keys = new HashSet<>();
+
+        void add(long lineNumber, PutRecordServiceRequest item, List<String> key) {
+            lineNumbers.add(lineNumber);
+            items.add(item);
+            keys.add(key);
+        }
+    }
+
+    /**
+     * State of one ingest call shared with its chunk writers.
+     */
+    private final class Run {
+        private final String requestId;
+        private final Consumer<List<LineResult>> sink;
+        private final Semaphore permits = new Semaphore(properties.getMaxInFlightChunks());
+        private final Set<List<String>> inFlightKeys = ConcurrentHashMap.newKeySet();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicReference<RuntimeException> sinkFailure = new AtomicReference<>();
+
+        Run(String requestId, Consumer<List<LineResult>> sink) {
+            this.requestId = requestId;
+            this.sink = sink;
+        }
+
+        void submit(Chunk chunk) throws InterruptedIOException {
+            acquire(1);
+            inFlightKeys.addAll(chunk.keys);
+            writeExecutor.execute(() -> {
+                try {
+                    write(chunk);
+                } finally {
+                    inFlightKeys.removeAll(chunk.keys);
+                    permits.release();
+                }
+            });
+        }
+
+        /**
+         * Blocks until every submitted chunk has completed.
+         */
+        void awaitInFlight() throws InterruptedIOException {
+            int all = properties.getMaxInFlightChunks();
+            acquire(all);
+            permits.release(all);
+        }
+
+        private void acquire(int count) throws InterruptedIOException {
+            try {
+                permits.acquire(count);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for record ingest writes");
+            }
+        }
+
+        private void write(Chunk chunk) {
+            List<PolicyDrivenRecordService.BatchPutItemResult> outcomes;
+            try {
+                outcomes = recordService.ingestRecords(chunk.items);
+            } catch (RuntimeException ex) {
+                log.warn("Record ingest {} failed to write a chunk of {} lines: {}",
+                        requestId, chunk.items.size(), ex.getMessage());
+                outcomes = chunk.items.stream()
+                        .map(item -> PolicyDrivenRecordService.BatchPutItemResult.failure(item, ex))
+                        .toList();
+            }
+
+            audit(outcomes);
+
+            List<LineResult> results = new ArrayList<>(outcomes.size());
+            for (int i = 0; i < outcomes.size(); i++) {
+                PolicyDrivenRecordService.BatchPutItemResult outcome = outcomes.get(i);
+                (outcome.succeeded() ? succeeded : failed).incrementAndGet();
+                results.add(new LineResult(chunk.lineNumbers.get(i), outcome.item().subjectId(),
+                        outcome.item().recordKey(), outcome.record(), outcome.errorCode(), outcome.errorMessage()));
+            }
+            emit(results);
+        }
+
+        /**
+         * Appends the outcomes to each subject's audit chain. Lines for unknown subjects are not
+         * audited so malformed input cannot create audit chains for subjects that do not exist.
+         */
+        private void audit(List<PolicyDrivenRecordService.BatchPutItemResult> outcomes) {
+            Map<String, List<PolicyDrivenRecordService.BatchPutItemResult>> bySubject = outcomes.stream()
+                    .filter(outcome -> !GdprKvException.Code.SUBJECT_NOT_FOUND.name().equals(outcome.errorCode()))
+                    .collect(Collectors.groupingBy(outcome -> outcome.item().subjectId()));
+            bySubject.forEach((subjectId, subjectOutcomes) -> {
+                try {
+                    auditLogService.recordBatchPutResults(subjectOutcomes);
+                } catch (RuntimeException ex) {
+                    log.warn("Record ingest {} failed to audit {} lines for subject {}: {}",
+                            requestId, subjectOutcomes.size(), subjectId, ex.getMessage());
+                }
+            });
+        }
+
+        void emit(List<LineResult> results) {
+            synchronized (this) {
+                if (sinkFailure.get() != null) {
+                    return;
+                }
+                try {
+                    sink.accept(results);
+                } catch (RuntimeException ex) {
+                    sinkFailure.compareAndSet(null, ex);
+                }
+            }
+        }
+
+        void throwIfSinkFailed() {
+            RuntimeException failure = sinkFailure.get();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.config.RecordCoalescingProperties;
+import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.PutRecordServiceRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merges concurrent PUTs to the same record into one write, last writer wins. The first PUT to a
+ * record opens a group and waits {@code window} for others to join; the group is then closed and
+ * only its last request is written. Every member gets the stored record; members other than the
+ * last are told which request they were coalesced into.
+ *
+ * <p>Only PUTs of the configured purposes are coalesced, and never ones that carry an expected
+ * version (If-Match) or a tombstone, since those must be checked one by one.
+ */
+@Component
+public class RecordWriteCoalescer {
+
+    private final Set<String> purposes;
+    private final long windowMillis;
+    private final ConcurrentHashMap<List<String>, Group> open = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RecordWriteCoalescer(RecordCoalescingProperties properties) {
+        this(properties.getPurposes(), properties.getWindowMs());
+    }
+
+    public RecordWriteCoalescer(Set<String> purposes, long windowMillis) {
+        this.purposes = Set.copyOf(purposes);
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * A coalescer that accepts nothing (e.g., tests).
+     */
+    public static RecordWriteCoalescer disabled() {
+        return new RecordWriteCoalescer(Set.of(), 0);
+    }
+
+    public boolean accepts(PutRecordServiceRequest request) {
+        return windowMillis > 0
+                && request.expectedVersion() == null
+                && !request.tombstoned()
+                && purposes.contains(request.purpose());
+    }
+
+    /**
+     * Joins or opens the group for the request's record and returns once the group's write is
+     * done. Failures of the write are rethrown to every member.
+     *
+     * @param write performs the actual PUT of the winning request
+     */
+    public PolicyDrivenRecordService.PutOutcome put(PutRecordServiceRequest request,
+                                                    Function<PutRecordServiceRequest, Record> write) {
+        List<String> key = List.of(request.subjectId(), request.recordKey());
+        Group[] joined = new Group[1];
+        boolean[] leader = new boolean[1];
+        // Joining and closing both happen under the map's lock for the key, so no request can
+        // join a group after its leader has taken the last one.
+        open.compute(key, (k, group) -> {
+            if (group == null) {
+                group = new Group();
+                leader[0] = true;
+            }
+            group.requests.add(request);
+            joined[0] = group;
+            return group;
+        });
+        Group group = joined[0];
+
+        if (leader[0]) {
+            try {
+                Thread.sleep(windowMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            open.remove(key, group);
+            PutRecordServiceRequest winner = group.requests.getLast();
+            group.winner = winner;
+            try {
+                group.result.complete(write.apply(winner));
+            } catch (RuntimeException ex) {
+                group.result.completeExceptionally(ex);
+            }
+        }
+
+        Record stored;
+        try {
+            stored = group.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        // The winner is set before the result completes, so it is visible to every member here.
+        PutRecordServiceRequest winner = group.winner;
+        return new PolicyDrivenRecordService.PutOutcome(stored, winner == request ? null : winner.requestId());
+    }
+
+    private static final class Group {
+        private final List<PutRecordServiceRequest> requests = new ArrayList<>();  // guarded by the map's key lock
+        private final CompletableFuture<Record> result = new CompletableFuture<>();
+        private PutRecordServiceRequest winner;
+    }
+}
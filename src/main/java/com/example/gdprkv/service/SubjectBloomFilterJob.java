@@ -0,0 +1,24 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.access.CachingSubjectAccess;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically rebuilds the Bloom filter of known subject IDs used by {@link CachingSubjectAccess}.
+ * The first run happens at startup; until it completes every lookup reads through.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnExpression("${subjects.cache.enabled:true} and ${subjects.cache.bloom-filter-enabled:false}")
+public class SubjectBloomFilterJob {
+
+    private final CachingSubjectAccess cachingSubjectAccess;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${subjects.cache.bloom-rebuild-interval-ms:300000}")
+    public void rebuild() {
+        cachingSubjectAccess.rebuildBloomFilter();
+    }
+}
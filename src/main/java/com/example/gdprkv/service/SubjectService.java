@@ -25,23 +25,36 @@ public class SubjectService {
     private final RecordAccess recordAccess;
     private final PolicyDrivenRecordService recordService;
     private final Clock clock;
+    private final SubjectWriteLanes writeLanes;
 
     @Autowired
     public SubjectService(SubjectAccess subjectAccess,
                          RecordAccess recordAccess,
                          PolicyDrivenRecordService recordService,
-                         Clock clock) {
+                         Clock clock,
+                         SubjectWriteLanes writeLanes) {
         this.subjectAccess = subjectAccess;
         this.recordAccess = recordAccess;
         this.recordService = recordService;
         this.clock = clock;
+        this.writeLanes = writeLanes;
+    }
+
+    /**
+     * Constructor without write lanes (e.g., tests).
+     */
+    public SubjectService(SubjectAccess subjectAccess,
+                         RecordAccess recordAccess,
+                         PolicyDrivenRecordService recordService,
+                         Clock clock) {
+        this(subjectAccess, recordAccess, recordService, clock, SubjectWriteLanes.direct());
     }
 
     /**
      * Constructor for cases where only subject operations are needed (e.g., tests).
      */
     public SubjectService(SubjectAccess subjectAccess, Clock clock) {
-        this(subjectAccess, null, null, clock);
+        this(subjectAccess, null, null, clock, SubjectWriteLanes.direct());
     }
 
     public Subject putSubject(PutSubjectServiceRequest request) {
@@ -73,12 +86,18 @@ public class SubjectService {
      * 1. Marking the subject with erasureInProgress=true and erasureRequestedAt timestamp
      * 2. Finding all records for the subject
      * 3. Tombstoning each record for eventual purging
+     * The whole deletion runs in the subject's write lane, so no record write of the subject is
+     * interleaved with it on this node.
      *
      * @param request the delete request containing subject ID and request ID
      * @return the updated subject with erasure metadata and count of records tombstoned
      */
     public SubjectDeletionResult deleteSubject(DeleteSubjectServiceRequest request) {
         Objects.requireNonNull(request, "request");
+        return writeLanes.run(request.subjectId(), () -> doDeleteSubject(request));
+    }
+
+    private SubjectDeletionResult doDeleteSubject(DeleteSubjectServiceRequest request) {
 
         // Find the subject or throw if it doesn't exist
         Subject subject = subjectAccess.findBySubjectId(request.subjectId())
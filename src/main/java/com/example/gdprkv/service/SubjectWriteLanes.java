@@ -0,0 +1,122 @@
+package com.example.gdprkv.service;
+
+import com.example.gdprkv.config.SubjectWriteLaneProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Linearizes mutating operations per subject within this node. Each subject is assigned to one
+ * of a fixed set of lanes by hashing its ID, and each lane is a single thread that runs its
+ * operations in submission order, so a subject's record writes and audit appends never race each
+ * other on {@code version} or {@code prev_hash} and no per-request locks are taken. Different
+ * subjects in different lanes run in parallel.
+ *
+ * <p>The caller blocks until its operation has run and sees its result or exception as if it had
+ * called it directly. An operation that is already running in the subject's lane (e.g. a record
+ * delete issued by a subject deletion) runs inline. Operations must not wait on another lane that
+ * could in turn wait on theirs. Other nodes are not coordinated; the conditional writes in
+ * DynamoDB still guard against them.
+ */
+@Component
+public class SubjectWriteLanes {
+
+    private final ExecutorService[] lanes;
+    private final ThreadLocal<Integer> currentLane = new ThreadLocal<>();
+
+    @Autowired
+    public SubjectWriteLanes(SubjectWriteLaneProperties properties) {
+        this(properties.isEnabled() ? properties.getLaneCount() : 0);
+    }
+
+    /**
+     * Creates {@code laneCount} lanes; with zero, operations run directly on the caller's thread.
+     */
+    public SubjectWriteLanes(int laneCount) {
+        if (laneCount < 0) {
+            throw new IllegalArgumentException("laneCount must be >= 0");
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> Thread.ofVirtual()
+                    .name("subject-lane-" + lane)
+                    .unstarted(() -> {
+                        currentLane.set(lane);
+                        runnable.run();
+                    }));
+        }
+    }
+
+    /**
+     * Lanes that run every operation directly on the caller's thread (e.g., tests).
+     */
+    public static SubjectWriteLanes direct() {
+        return new SubjectWriteLanes(0);
+    }
+
+    /**
+     * Runs {@code operation} in the subject's lane and returns its result.
+     */
+    public <T> T run(String subjectId, Supplier<T> operation) {
+        if (lanes.length == 0) {
+            return operation.get();
+        }
+        int lane = Math.floorMod(subjectId.hashCode(), lanes.length);
+        Integer current = currentLane.get();
+        if (current != null && current == lane) {
+            return operation.get();
+        }
+
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Future<T> result = lanes[lane].submit(() -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                return operation.get();
+            } finally {
+                MDC.clear();
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for the write lane of subject " + subjectId, ex);
+        }
+    }
+
+    /**
+     * Runs {@code operation} in the subject's lane.
+     */
+    public void run(String subjectId, Runnable operation) {
+        run(subjectId, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.gdprkv.models.AuditEvent;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditArchiveTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileBlobStore blobStore;
+    private AuditArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalFileBlobStore(root);
+        archive = new AuditArchive(blobStore, 3);
+    }
+
+    @Test
+    @DisplayName("append then read round-trips events across blocks with hashes intact")
+    void roundTrip() {
+        List<AuditEvent> events = chain("sub", 1000L, 7);
+
+        archive.append("sub", events);
+
+        List<AuditEvent> read = archive.read("sub");
+        assertEquals(7, read.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getTsUlid(), read.get(i).getTsUlid());
+            assertEquals(events.get(i).getHash(), read.get(i).getHash());
+            assertEquals(AuditEvent.computeHash(read.get(i)), read.get(i).getHash());
+        }
+        assertEquals(events.getLast().getTsUlid(), archive.findLatest("sub").orElseThrow().getTsUlid());
+        assertEquals(List.of("sub"), archive.subjectIds());
+    }
+
+    @Test
+    @DisplayName("append skips events that are already archived")
+    void appendIsIdempotent() {
+        List<AuditEvent> events = chain("sub", 1000L, 4);
+        archive.append("sub", events);
+        archive.append("sub", events);
+
+        assertEquals(4, archive.read("sub").size());
+        long segments = blobStore.list("audit/").stream().filter(n -> n.endsWith(".seg")).count();
+        assertEquals(1, segments);
+    }
+
+    @Test
+    @DisplayName("findEventsOlderThan only returns events before the cutoff")
+    void findEventsOlderThan() {
+        archive.append("a", chain("a", 1000L, 5));
+        archive.append("b", chain("b", 5000L, 2));
+
+        List<AuditEvent> old = archive.findEventsOlderThan(1003L);
+
+        assertEquals(3, old.size());
+        assertTrue(old.stream().allMatch(e -> e.getSubjectId().equals("a") && e.getTimestamp() < 1003L));
+    }
+
+    @Test
+    @DisplayName("remove rewrites partially covered segments and drops empty ones")
+    void remove() {
+        List<AuditEvent> events = chain("sub", 1000L, 5);
+        archive.append("sub", events);
+
+        archive.remove("sub", List.of(events.get(0).getTsUlid(), events.get(1).getTsUlid()));
+
+        List<AuditEvent> remaining = archive.read("sub");
+        assertEquals(3, remaining.size());
+        assertEquals(events.get(2).getTsUlid(), remaining.getFirst().getTsUlid());
+        assertFalse(archive.contains("sub", events.get(0).getTsUlid()));
+
+        archive.remove("sub", remaining.stream().map(AuditEvent::getTsUlid).toList());
+
+        assertTrue(archive.read("sub").isEmpty());
+        assertTrue(archive.subjectIds().isEmpty());
+        assertTrue(blobStore.list("audit/").isEmpty());
+    }
+
+    @Test
+    @DisplayName("corrupted block is rejected by its hash")
+    void corruptedBlock() throws Exception {
+        archive.append("sub", chain("sub", 1000L, 2));
+        String segment = blobStore.list("audit/").stream().filter(n -> n.endsWith(".seg")).findFirst().orElseThrow();
+        Path file = root.resolve(segment);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[0] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThrows(IllegalStateException.class, () -> archive.read("sub"));
+    }
+
+    private static List<AuditEvent> chain(String subjectId, long start, int count) {
+        List<AuditEvent> events = new ArrayList<>();
+        String prevHash = "0".repeat(64);
+        for (int i = 0; i < count; i++) {
+            long ts = start + i;
+            AuditEvent event = AuditEvent.builder()
+                    .subjectId(subjectId)
+                    .tsUlid(ts + "_" + String.format("%026d", i))
+                    .eventType(AuditEvent.EventType.PUT_REQUESTED)
+                    .requestId("req-" + i)
+                    .timestamp(ts)
+                    .prevHash(prevHash)
+                    .itemKey("pref:email")
+                    .details(Map.of("version", i))
+                    .build();
+            events.add(event);
+            prevHash = event.getHash();
+        }
+        return events;
+    }
+}
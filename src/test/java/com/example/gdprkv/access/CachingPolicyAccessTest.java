@@ -0,0 +1,109 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.models.Policy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class CachingPolicyAccessTest {
+
+    private static final long START = 1_727_785_200_000L;
+
+    private PolicyAccess delegate;
+    private Clock clock;
+    private List<Runnable> refreshTasks;
+    private CachingPolicyAccess cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(PolicyAccess.class);
+        clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(START);
+        refreshTasks = new ArrayList<>();
+        cache = new CachingPolicyAccess(delegate, clock,
+                Duration.ofSeconds(300), Duration.ofSeconds(60), Duration.ofSeconds(10), refreshTasks::add);
+    }
+
+    @Test
+    @DisplayName("serves cached policy until TTL and reloads after expiry")
+    void cachesUntilTtl() {
+        when(delegate.findByPurpose("MARKETING")).thenReturn(Optional.of(policy(30)), Optional.of(policy(60)));
+
+        assertEquals(30, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        when(clock.millis()).thenReturn(START + 200_000L);
+        assertEquals(30, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        verify(delegate, times(1)).findByPurpose("MARKETING");
+        assertTrue(refreshTasks.isEmpty());
+
+        when(clock.millis()).thenReturn(START + 300_000L);
+        assertEquals(60, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        verify(delegate, times(2)).findByPurpose("MARKETING");
+    }
+
+    @Test
+    @DisplayName("refreshes ahead of expiry in the background and schedules only one refresh")
+    void refreshesAhead() {
+        when(delegate.findByPurpose("MARKETING")).thenReturn(Optional.of(policy(30)), Optional.of(policy(60)));
+        cache.findByPurpose("MARKETING");
+
+        when(clock.millis()).thenReturn(START + 250_000L);
+        assertEquals(30, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        assertEquals(30, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        assertEquals(1, refreshTasks.size());
+
+        refreshTasks.getFirst().run();
+        assertEquals(60, cache.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        verify(delegate, times(2)).findByPurpose("MARKETING");
+    }
+
+    @Test
+    @DisplayName("caches unknown purposes for the negative TTL")
+    void negativeCaching() {
+        when(delegate.findByPurpose("UNKNOWN")).thenReturn(Optional.empty());
+
+        assertTrue(cache.findByPurpose("UNKNOWN").isEmpty());
+        when(clock.millis()).thenReturn(START + 9_000L);
+        assertTrue(cache.findByPurpose("UNKNOWN").isEmpty());
+        verify(delegate, times(1)).findByPurpose("UNKNOWN");
+
+        when(clock.millis()).thenReturn(START + 10_000L);
+        assertTrue(cache.findByPurpose("UNKNOWN").isEmpty());
+        verify(delegate, times(2)).findByPurpose("UNKNOWN");
+        assertTrue(refreshTasks.isEmpty());
+    }
+
+    @Test
+    @DisplayName("invalidate forces the next lookup to read through")
+    void invalidate() {
+        when(delegate.findByPurpose("MARKETING")).thenReturn(Optional.of(policy(30)));
+
+        cache.findByPurpose("MARKETING");
+        cache.invalidate("MARKETING");
+        cache.findByPurpose("MARKETING");
+        cache.invalidateAll();
+        cache.findByPurpose("MARKETING");
+
+        verify(delegate, times(3)).findByPurpose("MARKETING");
+    }
+
+    private Policy policy(int retentionDays) {
+        return Policy.builder()
+                .purpose("MARKETING")
+                .retentionDays(retentionDays)
+                .description("demo")
+                .lastUpdatedAt(START)
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.models.RawJsonValue;
+import com.example.gdprkv.models.Record;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class CachingRecordAccessTest {
+
+    private static final long START = 1_727_785_200_000L;
+
+    private RecordAccess delegate;
+    private AtomicReference<Record> stored;
+    private Clock clock;
+    private CachingRecordAccess cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(RecordAccess.class);
+        stored = new AtomicReference<>();
+        when(delegate.findBySubjectIdAndRecordKey("sub_1", "k")).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(START);
+        cache = new CachingRecordAccess(delegate, clock, Duration.ofSeconds(5), 100);
+    }
+
+    @Test
+    @DisplayName("a cached record is served without reading DynamoDB until the TTL, then reloaded")
+    void servesEntriesUntilTtl() {
+        stored.set(record(1, false, START));
+
+        assertEquals(1L, cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").orElseThrow().getVersion());
+        stored.set(record(2, false, START + 1));  // rewritten through another instance
+        assertEquals(1L, cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").orElseThrow().getVersion());
+        verify(delegate, times(1)).findBySubjectIdAndRecordKey("sub_1", "k");
+
+        when(clock.millis()).thenReturn(START + 5_000L);
+        assertEquals(2L, cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").orElseThrow().getVersion());
+        verify(delegate, times(2)).findBySubjectIdAndRecordKey("sub_1", "k");
+    }
+
+    @Test
+    @DisplayName("records tombstoned or purged through this instance are never served from memory")
+    void writesReplaceAndEvictEntries() {
+        stored.set(record(1, false, START));
+        cache.findCachedBySubjectIdAndRecordKey("sub_1", "k");
+
+        when(delegate.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        cache.save(record(2, true, START + 1));
+        assertTrue(cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").orElseThrow().getTombstoned());
+
+        stored.set(null);
+        cache.delete(record(2, true, START + 1));
+        assertTrue(cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").isEmpty());
+    }
+
+    @Test
+    @DisplayName("writes replace the entry and an older loaded version does not overwrite a newer one")
+    void isVersionAware() {
+        when(delegate.upsert(any(), isNull())).thenAnswer(invocation -> {
+            stored.set(record(5, false, START));
+            return stored.get();
+        });
+
+        cache.upsert(record(0, false, START));
+        stored.set(record(4, false, START));
+        cache.findBySubjectIdAndRecordKey("sub_1", "k");  // a read that started before the write
+        stored.set(record(5, false, START));
+
+        assertEquals(5L, cache.findCachedBySubjectIdAndRecordKey("sub_1", "k").orElseThrow().getVersion());
+        verify(delegate, times(1)).findBySubjectIdAndRecordKey("sub_1", "k");
+    }
+
+    private static Record record(long version, boolean tombstoned, long updatedAt) {
+        return Record.builder()
+                .subjectId("sub_1")
+                .recordKey("k")
+                .purpose("FULFILLMENT")
+                .rawValue(RawJsonValue.parse("{}"))
+                .createdAt(START)
+                .updatedAt(updatedAt)
+                .version(version)
+                .retentionDays(30)
+                .tombstoned(tombstoned)
+                .requestId("req-" + version)
+                .build();
+    }
+}
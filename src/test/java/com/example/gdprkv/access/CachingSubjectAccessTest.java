@@ -0,0 +1,101 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.models.Subject;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class CachingSubjectAccessTest {
+
+    private static final long START = 1_727_785_200_000L;
+
+    private SubjectAccess delegate;
+    private Clock clock;
+    private CachingSubjectAccess cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(SubjectAccess.class);
+        clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(START);
+        cache = new CachingSubjectAccess(delegate, clock, Duration.ofSeconds(30), 1000, 0.01);
+    }
+
+    @Test
+    @DisplayName("serves found subjects from cache until TTL")
+    void cachesFoundSubjects() {
+        when(delegate.findBySubjectId("sub")).thenReturn(Optional.of(subject("sub", false)));
+
+        cache.findBySubjectId("sub");
+        cache.findBySubjectId("sub");
+        verify(delegate, times(1)).findBySubjectId("sub");
+
+        when(clock.millis()).thenReturn(START + 30_000L);
+        cache.findBySubjectId("sub");
+        verify(delegate, times(2)).findBySubjectId("sub");
+    }
+
+    @Test
+    @DisplayName("update evicts the subject so erasure is visible on the next lookup")
+    void updateEvicts() {
+        when(delegate.findBySubjectId("sub"))
+                .thenReturn(Optional.of(subject("sub", false)), Optional.of(subject("sub", true)));
+        when(delegate.update(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertFalse(Boolean.TRUE.equals(cache.findBySubjectId("sub").orElseThrow().getErasureInProgress()));
+        cache.update(subject("sub", true));
+
+        assertTrue(cache.findBySubjectId("sub").orElseThrow().getErasureInProgress());
+    }
+
+    @Test
+    @DisplayName("a lookup racing with a write does not cache its stale result")
+    void fenceDropsStaleLoad() {
+        when(delegate.findBySubjectId("sub")).thenAnswer(invocation -> {
+            cache.evict("sub");
+            return Optional.of(subject("sub", false));
+        });
+
+        cache.findBySubjectId("sub");
+        cache.findBySubjectId("sub");
+
+        verify(delegate, times(2)).findBySubjectId("sub");
+    }
+
+    @Test
+    @DisplayName("Bloom filter answers unknown subjects without a read and keeps subjects saved here")
+    void bloomFilterAnswersMissing() {
+        when(delegate.findAllSubjectIds()).thenReturn(List.of("known"));
+        when(delegate.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(delegate.findBySubjectId("fresh")).thenReturn(Optional.of(subject("fresh", false)));
+        cache.rebuildBloomFilter();
+
+        assertTrue(cache.findBySubjectId("ghost").isEmpty());
+        verify(delegate, never()).findBySubjectId("ghost");
+
+        cache.save(subject("fresh", false));
+        assertTrue(cache.findBySubjectId("fresh").isPresent());
+    }
+
+    private Subject subject(String subjectId, boolean erasureInProgress) {
+        return Subject.builder()
+                .subjectId(subjectId)
+                .createdAt(START)
+                .requestId("req")
+                .erasureInProgress(erasureInProgress)
+                .build();
+    }
+}
@@ -3,11 +3,14 @@ package com.example.gdprkv.access;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,6 +27,7 @@ import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
@@ -44,6 +48,7 @@ class DynamoAuditEventAccessTest {
     private DynamoDbClient dynamo;
     private DynamoDbEnhancedClient enhancedClient;
     private AuditEventAccess auditEventAccess;
+    private AuditEventAccess pagedAccess;
 
     @BeforeAll
     void init() {
@@ -56,8 +61,12 @@ class DynamoAuditEventAccessTest {
                 .build();
         enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamo).build();
         ensureAuditEventsTable();
+        ensurePagesTable();
+        ensureAnchorsTable();
 
         auditEventAccess = new DynamoAuditEventAccess(enhancedClient);
+        // Small pages so a handful of events spans several of them.
+        pagedAccess = new DynamoAuditEventAccess(enhancedClient, new AuditPageStore(dynamo, 1500));
     }
 
     @BeforeEach
@@ -66,6 +75,12 @@ class DynamoAuditEventAccessTest {
                 .scan().items()
                 .forEach(item -> enhancedClient.table("audit_events", TableSchema.fromBean(AuditEvent.class))
                         .deleteItem(item));
+        dynamo.scanPaginator(b -> b.tableName(AuditPageStore.TABLE)).items()
+                .forEach(item -> dynamo.deleteItem(b -> b.tableName(AuditPageStore.TABLE)
+                        .key(Map.of("subject_id", item.get("subject_id"), "page_no", item.get("page_no")))));
+        dynamo.scanPaginator(b -> b.tableName("audit_chain_anchors")).items()
+                .forEach(item -> dynamo.deleteItem(b -> b.tableName("audit_chain_anchors")
+                        .key(Map.of("subject_id", item.get("subject_id")))));
     }
 
     @Test
@@ -153,6 +168,63 @@ class DynamoAuditEventAccessTest {
         assertEquals(event3.getTsUlid(), events.get(2).getTsUlid());
     }
 
+    @Test
+    @DisplayName("paged layout packs events into pages, opening a new page when one fills")
+    void pagedLayoutRoundTrip() {
+        List<AuditEvent> chain = chain("sub-paged", CLOCK.millis(), 12);
+        chain.forEach(pagedAccess::put);
+
+        List<AuditEvent> events = pagedAccess.findAllBySubjectId("sub-paged");
+        assertEquals(12, events.size());
+        for (int i = 0; i < chain.size(); i++) {
+            assertEquals(chain.get(i).getTsUlid(), events.get(i).getTsUlid());
+            assertEquals(chain.get(i).getHash(), events.get(i).getHash());
+        }
+        assertEquals(chain.getLast().getHash(), pagedAccess.findLatest("sub-paged").orElseThrow().getHash());
+
+        int pageCount = dynamo.query(b -> b.tableName(AuditPageStore.TABLE)
+                .keyConditionExpression("subject_id = :s")
+                .expressionAttributeValues(Map.of(":s", AttributeValue.builder().s("sub-paged").build())))
+                .count();
+        assertTrue(pageCount > 1, "Expected events to span several pages");
+    }
+
+    @Test
+    @DisplayName("paged layout truncation rewrites pages and advances the anchor")
+    void pagedLayoutTruncate() {
+        List<AuditEvent> chain = chain("sub-paged", CLOCK.millis(), 10);
+        chain.forEach(pagedAccess::put);
+
+        AuditChainAnchor anchor = pagedAccess.truncate("sub-paged", chain.subList(0, 7));
+
+        assertEquals(chain.get(6).getHash(), anchor.getAnchorHash());
+        assertEquals(7L, anchor.getTruncatedCount());
+        List<AuditEvent> remaining = pagedAccess.findAllBySubjectId("sub-paged");
+        assertEquals(3, remaining.size());
+        assertEquals(chain.get(7).getTsUlid(), remaining.getFirst().getTsUlid());
+        assertEquals(chain.getLast().getHash(), pagedAccess.findLatest("sub-paged").orElseThrow().getHash());
+    }
+
+    private List<AuditEvent> chain(String subjectId, long start, int count) {
+        List<AuditEvent> events = new ArrayList<>();
+        String prevHash = "0".repeat(64);
+        for (int i = 0; i < count; i++) {
+            AuditEvent event = AuditEvent.builder()
+                    .subjectId(subjectId)
+                    .tsUlid((start + i) + "_" + String.format("%04d", i))
+                    .eventType(AuditEvent.EventType.PUT_REQUESTED)
+                    .requestId("req-" + i)
+                    .timestamp(start + i)
+                    .prevHash(prevHash)
+                    .itemKey("pref:email")
+                    .purpose("preferences")
+                    .build();
+            events.add(event);
+            prevHash = event.getHash();
+        }
+        return events;
+    }
+
     private AuditEvent createEvent(long timestamp, String suffix) {
         return AuditEvent.builder()
                 .subjectId("sub1")
@@ -182,4 +254,36 @@ class DynamoAuditEventAccessTest {
                     .build());
         }
     }
+
+    private void ensurePagesTable() {
+        try {
+            dynamo.describeTable(b -> b.tableName(AuditPageStore.TABLE));
+        } catch (ResourceNotFoundException ex) {
+            dynamo.createTable(CreateTableRequest.builder()
+                    .tableName(AuditPageStore.TABLE)
+                    .attributeDefinitions(
+                            AttributeDefinition.builder().attributeName("subject_id").attributeType(ScalarAttributeType.S).build(),
+                            AttributeDefinition.builder().attributeName("page_no").attributeType(ScalarAttributeType.N).build())
+                    .keySchema(
+                            KeySchemaElement.builder().attributeName("subject_id").keyType(KeyType.HASH).build(),
+                            KeySchemaElement.builder().attributeName("page_no").keyType(KeyType.RANGE).build())
+                    .billingMode("PAY_PER_REQUEST")
+                    .build());
+        }
+    }
+
+    private void ensureAnchorsTable() {
+        try {
+            dynamo.describeTable(b -> b.tableName("audit_chain_anchors"));
+        } catch (ResourceNotFoundException ex) {
+            dynamo.createTable(CreateTableRequest.builder()
+                    .tableName("audit_chain_anchors")
+                    .attributeDefinitions(
+                            AttributeDefinition.builder().attributeName("subject_id").attributeType(ScalarAttributeType.S).build())
+                    .keySchema(
+                            KeySchemaElement.builder().attributeName("subject_id").keyType(KeyType.HASH).build())
+                    .billingMode("PAY_PER_REQUEST")
+                    .build());
+        }
+    }
 }
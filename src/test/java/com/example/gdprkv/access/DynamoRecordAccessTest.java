@@ -1,15 +1,25 @@
 package com.example.gdprkv.access;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.gdprkv.models.JsonMergePatch;
+import com.example.gdprkv.models.RawJsonValueAttributeConverter;
 import com.example.gdprkv.models.Record;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,6 +36,8 @@ import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
 import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
@@ -62,7 +74,7 @@ class DynamoRecordAccessTest {
         enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamo).build();
         ensureRecordsTable();
 
-        recordAccess = new DynamoRecordAccess(enhancedClient);
+        recordAccess = new DynamoRecordAccess(enhancedClient, dynamo);
     }
 
     @BeforeEach
@@ -125,6 +137,213 @@ class DynamoRecordAccessTest {
         assertEquals("z:last", records.get(2).getRecordKey());
     }
 
+    @Test
+    @DisplayName("upsert creates a new record at version 1")
+    void upsertCreatesRecord() {
+        long now = CLOCK.millis();
+
+        Record stored = recordAccess.upsert(createRecord("sub1", "pref:email", now));
+
+        assertEquals(1L, stored.getVersion());
+        assertEquals(now, stored.getCreatedAt());
+        assertEquals("test-value-pref:email", stored.getValue().get("data").asText());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey("sub1", "pref:email").orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("upsert keeps createdAt, increments version and removes cleared attributes")
+    void upsertUpdatesRecord() {
+        long now = CLOCK.millis();
+        recordAccess.save(createRecord("sub1", "pref:email", now).toBuilder()
+                .version(3L)
+                .build()
+                .markTombstoned(now, 30));
+
+        Record stored = recordAccess.upsert(createRecord("sub1", "pref:email", now + 5000).toBuilder()
+                .requestId("req-update")
+                .build());
+
+        assertEquals(4L, stored.getVersion());
+        assertEquals(now, stored.getCreatedAt());
+        assertEquals(now + 5000, stored.getUpdatedAt());
+        assertEquals("req-update", stored.getRequestId());
+        assertEquals(Boolean.FALSE, stored.getTombstoned());
+        assertNull(stored.getPurgeDueAt());
+        assertNull(stored.getPurgeBucket());
+    }
+
+    @Test
+    @DisplayName("upsertIfChanged leaves an unchanged record alone and still checks the expected version")
+    void upsertIfChangedSkipsUnchanged() {
+        long now = CLOCK.millis();
+        Record record = withHash(createRecord("sub1", "pref:email", now));
+        assertTrue(recordAccess.upsertIfChanged(record, null).written());
+
+        RecordAccess.Upsert again = recordAccess.upsertIfChanged(record.toBuilder().requestId("req-again").build(), null);
+        assertFalse(again.written());
+        assertEquals(1L, again.record().getVersion());
+        assertEquals("req-test", again.record().getRequestId());
+        assertThrows(ConditionalCheckFailedException.class, () -> recordAccess.upsertIfChanged(record, 7L));
+
+        Record changed = withHash(record.toBuilder().retentionDays(30).build());
+        RecordAccess.Upsert written = recordAccess.upsertIfChanged(changed, 1L);
+        assertTrue(written.written());
+        assertEquals(2L, written.record().getVersion());
+    }
+
+    @Test
+    @DisplayName("upsertAll writes every record in one transaction and returns them in request order")
+    void upsertAllWritesRecords() {
+        long now = CLOCK.millis();
+        recordAccess.save(createRecord("sub1", "pref:sms", now).toBuilder()
+                .version(2L)
+                .build());
+
+        List<Record> stored = recordAccess.upsertAll(List.of(
+                createRecord("sub1", "pref:sms", now + 1000),
+                createRecord("sub1", "pref:email", now + 1000)));
+
+        assertEquals(2, stored.size());
+        assertEquals("pref:sms", stored.get(0).getRecordKey());
+        assertEquals(3L, stored.get(0).getVersion());
+        assertEquals(now, stored.get(0).getCreatedAt());
+        assertEquals("pref:email", stored.get(1).getRecordKey());
+        assertEquals(1L, stored.get(1).getVersion());
+    }
+
+    @Test
+    @DisplayName("create only writes absent records and findAllByKeys reads back the existing ones")
+    void createAndFindAllByKeys() {
+        long now = CLOCK.millis();
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            records.add(createRecord("sub" + (i % 3), "key:" + i, now));
+        }
+
+        records.forEach(recordAccess::create);
+        assertThrows(ConditionalCheckFailedException.class, () -> recordAccess.create(records.get(0)));
+
+        List<Record> found = recordAccess.findAllByKeys(List.of(
+                createRecord("sub0", "key:0", now),
+                createRecord("sub2", "key:29", now),
+                createRecord("sub1", "missing", now)));
+        assertEquals(2, found.size());
+        assertEquals(10, recordAccess.findAllBySubjectId("sub1").size());
+    }
+
+    @Test
+    @DisplayName("large values round-trip through compressed storage on save and upsert")
+    void largeValueRoundTrip() {
+        long now = CLOCK.millis();
+        ObjectNode value = MAPPER.createObjectNode();
+        for (int i = 0; i < 2000; i++) {
+            value.put("field" + i, "consented-to-weekly-newsletter");
+        }
+
+        recordAccess.save(createRecord("sub1", "doc:saved", now).toBuilder().value(value).build());
+        Record upserted = recordAccess.upsert(createRecord("sub1", "doc:upserted", now).toBuilder().value(value).build());
+
+        assertEquals(value, upserted.getValue());
+        assertEquals(value, recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:saved").orElseThrow().getValue());
+        assertEquals(value, recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:upserted").orElseThrow().getValue());
+    }
+
+    @Test
+    @DisplayName("values over the item limit are stored in chunk items, cleaned up when shrunk or tombstoned, and purged")
+    void chunkedValueLifecycle() {
+        long now = CLOCK.millis();
+        ObjectNode value = MAPPER.createObjectNode();
+        byte[] scan = new byte[900_000];
+        new Random(42).nextBytes(scan);
+        value.put("scan", Base64.getEncoder().encodeToString(scan));
+
+        recordAccess.save(createRecord("sub1", "doc:scan", now).toBuilder().value(value).build());
+        recordAccess.save(createRecord("sub1", "pref:email", now));
+
+        Record stored = recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:scan").orElseThrow();
+        assertEquals(value, stored.getValue());
+        assertTrue(stored.getValueChunks() > 1);
+        assertTrue(recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:scan#chunk#0000").isEmpty());
+        RecordAccess.WriteSize size = recordAccess.writeSize(stored);
+        assertEquals(1 + stored.getValueChunks(), size.actions());
+        assertTrue(size.bytes() > 900_000);
+        assertEquals(List.of("doc:scan", "pref:email"),
+                recordAccess.findAllBySubjectId("sub1").stream().map(Record::getRecordKey).toList());
+        assertEquals(value, recordAccess.findAllBySubjectId("sub1").get(0).getValue());
+
+        Record upserted = recordAccess.upsert(createRecord("sub1", "doc:scan", now + 1000).toBuilder().value(value).build());
+        assertEquals(value, upserted.getValue());
+        assertEquals(2L, upserted.getVersion());
+
+        Record shrunk = recordAccess.upsert(createRecord("sub1", "doc:scan", now + 2000));
+        assertNull(shrunk.getValueChunks());
+        assertEquals("test-value-doc:scan", recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:scan")
+                .orElseThrow().getValue().get("data").asText());
+        assertEquals(2, dynamo.scan(r -> r.tableName("records")).count());
+
+        Record chunkedAgain = recordAccess.save(createRecord("sub1", "doc:scan", now + 3000).toBuilder().value(value).build());
+        recordAccess.save(chunkedAgain.toBuilder().tombstoned(true).tombstonedAt(now + 4000).build());
+        Record tombstoned = recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:scan").orElseThrow();
+        assertTrue(tombstoned.getTombstoned());
+        assertNull(tombstoned.getValueChunks());
+        assertNull(tombstoned.getRawValue());
+        assertEquals(2, dynamo.scan(r -> r.tableName("records")).count());
+
+        recordAccess.delete(stored);
+        assertTrue(recordAccess.findBySubjectIdAndRecordKey("sub1", "doc:scan").isEmpty());
+        assertEquals(1, dynamo.scan(r -> r.tableName("records")).count());
+    }
+
+    @Test
+    @DisplayName("with native map values a patch updates document paths, and string values are rewritten whole")
+    void nativeMapPatch() throws Exception {
+        long now = CLOCK.millis();
+        JsonNode initial = MAPPER.readTree("{\"name\":\"Ada\",\"prefs\":{\"sms\":true,\"email\":false}}");
+        JsonNode patch = MAPPER.readTree("{\"prefs\":{\"email\":true,\"sms\":null},\"city\":\"Oslo\"}");
+        JsonNode merged = JsonMergePatch.apply(initial, patch);
+        Record legacy = recordAccess.save(createRecord("sub1", "legacy", now).toBuilder().value(initial).build());
+
+        RecordAccess mapAccess = new DynamoRecordAccess(enhancedClient, dynamo, new RawJsonValueAttributeConverter(4096, true));
+        Record current = mapAccess.save(createRecord("sub1", "profile", now).toBuilder().value(initial).build());
+        assertTrue(storedValue("profile").hasM());
+        assertTrue(storedValue("legacy").s() != null);
+
+        Record patched = mapAccess.patch(current, patchedRecord(current, merged), patch);
+        assertEquals(merged, patched.getValue());
+        assertEquals(2L, patched.getVersion());
+        assertEquals("req-patch", patched.getRequestId());
+        assertEquals(merged, mapAccess.findBySubjectIdAndRecordKey("sub1", "profile").orElseThrow().getValue());
+        assertThrows(ConditionalCheckFailedException.class,
+                () -> mapAccess.patch(current, patchedRecord(current, merged), patch));
+
+        Record rewritten = mapAccess.patch(legacy, patchedRecord(legacy, merged), patch);
+        assertEquals(merged, rewritten.getValue());
+        assertTrue(storedValue("legacy").hasM());
+        assertEquals(merged, recordAccess.findBySubjectIdAndRecordKey("sub1", "legacy").orElseThrow().getValue());
+    }
+
+    private static Record patchedRecord(Record current, JsonNode value) {
+        return current.toBuilder()
+                .value(value)
+                .contentHash(Record.computeContentHash(current.getPurpose(), value))
+                .version(current.getVersion() + 1)
+                .updatedAt(current.getUpdatedAt() + 1)
+                .requestId("req-patch")
+                .build();
+    }
+
+    private static Record withHash(Record record) {
+        return record.toBuilder()
+                .contentHash(Record.computeContentHash(record.getPurpose(), record.getRawValue()))
+                .build();
+    }
+
+    private AttributeValue storedValue(String recordKey) {
+        return dynamo.getItem(r -> r.tableName("records").key(Map.of(
+                "subject_id", AttributeValue.fromS("sub1"),
+                "record_key", AttributeValue.fromS(recordKey)))).item().get("value");
+    }
+
     private Record createRecord(String subjectId, String recordKey, long timestamp) {
         ObjectNode value = MAPPER.createObjectNode();
         value.put("data", "test-value-" + recordKey);
@@ -0,0 +1,110 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.gdprkv.config.DynamoHedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HedgedReadsTest {
+
+    private static final String OPERATION = "RecordAccess.findBySubjectIdAndRecordKey";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedReads hedgedReads;
+
+    @AfterEach
+    void tearDown() {
+        hedgedReads.shutdown();
+    }
+
+    @Test
+    @DisplayName("a read slower than recent reads is hedged and the faster answer wins")
+    void hedgesSlowRead() {
+        hedgedReads = new HedgedReads(properties(100), meterRegistry);
+        warmUp();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedgedReads.read(OPERATION, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(release);  // The first read hangs until the test ends
+                return "slow";
+            }
+            return "fast";
+        });
+        release.countDown();
+
+        assertEquals("fast", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("gdprkv.dynamo.hedges", "operation", OPERATION).count());
+        assertEquals(1.0, meterRegistry.counter("gdprkv.dynamo.hedge.wins", "operation", OPERATION).count());
+    }
+
+    @Test
+    @DisplayName("without budget the slow read is awaited and not hedged")
+    void respectsBudget() {
+        hedgedReads = new HedgedReads(properties(0), meterRegistry);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedgedReads.read(OPERATION, () -> {
+            attempts.incrementAndGet();
+            sleep(50);
+            return "slow";
+        });
+
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.counter("gdprkv.dynamo.hedges", "operation", OPERATION).count());
+    }
+
+    @Test
+    @DisplayName("failures reach the caller unchanged")
+    void propagatesFailures() {
+        hedgedReads = new HedgedReads(properties(100), meterRegistry);
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> hedgedReads.read(OPERATION, () -> {
+                    throw failure;
+                })));
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 10; i++) {
+            hedgedReads.read(OPERATION, () -> "warm");
+        }
+    }
+
+    private static DynamoHedgingProperties properties(int budgetPercent) {
+        DynamoHedgingProperties properties = new DynamoHedgingProperties();
+        properties.setEnabled(true);
+        properties.setBudgetPercent(budgetPercent);
+        properties.setMinSamples(10);
+        properties.setMinDelayMs(10);
+        return properties;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
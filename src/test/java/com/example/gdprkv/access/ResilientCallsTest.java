@@ -0,0 +1,135 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.config.DynamoResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+class ResilientCallsTest {
+
+    private static final long START = 1_727_785_200_000L;
+
+    private Clock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private DynamoResilienceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(START);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new DynamoResilienceProperties();
+        properties.setBaseBackoffMs(0);
+        properties.setBreakerWindowSize(4);
+        properties.setBreakerMinimumCalls(4);
+    }
+
+    @Test
+    @DisplayName("transient failures are retried, failed conditions are not")
+    void retriesOnlyTransientFailures() {
+        ResilientCalls calls = new ResilientCalls(properties, clock, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = calls.call("RecordAccess.upsert", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw DynamoDbException.builder().statusCode(503).message("unavailable").build();
+            }
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("gdprkv.dynamo.retries", "operation", "RecordAccess.upsert").count());
+
+        attempts.set(0);
+        assertThrows(ConditionalCheckFailedException.class, () -> calls.call("RecordAccess.upsert", () -> {
+            attempts.incrementAndGet();
+            throw ConditionalCheckFailedException.builder().message("version").build();
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("an empty retry token bucket stops retries until successful calls refill it")
+    void retryBudgetStopsRetryStorms() {
+        properties.setRetryTokenCapacity(10);
+        ResilientCalls calls = new ResilientCalls(properties, clock, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SdkClientException.class, () -> calls.call("SubjectAccess.findBySubjectId", () -> {
+            attempts.incrementAndGet();
+            throw SdkClientException.create("timeout");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(0, calls.retryTokens());
+
+        attempts.set(0);
+        assertThrows(SdkClientException.class, () -> calls.call("SubjectAccess.findBySubjectId", () -> {
+            attempts.incrementAndGet();
+            throw SdkClientException.create("timeout");
+        }));
+        assertEquals(1, attempts.get());
+
+        calls.call("SubjectAccess.findBySubjectId", () -> "ok");
+        assertEquals(1, calls.retryTokens());
+    }
+
+    @Test
+    @DisplayName("the breaker opens on repeated transient failures, fails fast, then closes after a successful trial")
+    void breakerOpensAndRecovers() {
+        properties.setMaxAttempts(1);
+        properties.setBreakerOpenMs(5000);
+        ResilientCalls calls = new ResilientCalls(properties, clock, meterRegistry);
+        String operation = "AuditEventAccess.put";
+
+        calls.run(operation, () -> { });
+        calls.run(operation, () -> { });
+        for (int i = 0; i < 2; i++) {
+            assertThrows(SdkClientException.class, () -> calls.run(operation, () -> {
+                throw SdkClientException.create("timeout");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, calls.state(operation));
+        assertEquals(1.0, meterRegistry.get("gdprkv.dynamo.circuit.state").tag("operation", operation).gauge().value());
+
+        AtomicInteger attempts = new AtomicInteger();
+        DynamoUnavailableException rejected = assertThrows(DynamoUnavailableException.class,
+                () -> calls.run(operation, attempts::incrementAndGet));
+        assertEquals(0, attempts.get());
+        assertEquals(5000, rejected.getRetryAfterMillis());
+        assertTrue(rejected.getMessage().contains(operation));
+
+        when(clock.millis()).thenReturn(START + 5000);
+        calls.run(operation, attempts::incrementAndGet);
+        assertEquals(1, attempts.get());
+        assertEquals(CircuitBreaker.State.CLOSED, calls.state(operation));
+        assertEquals(CircuitBreaker.State.CLOSED, calls.state("AuditEventAccess.findLatest"));
+    }
+
+    @Test
+    @DisplayName("disabled calls run once without breaker or retries")
+    void disabledPassesThrough() {
+        properties.setEnabled(false);
+        ResilientCalls calls = new ResilientCalls(properties, clock, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SdkClientException.class, () -> calls.run("PolicyAccess.findAll", () -> {
+            attempts.incrementAndGet();
+            throw SdkClientException.create("timeout");
+        }));
+        assertEquals(1, attempts.get());
+        assertFalse(ResilientCalls.isTransient(new IllegalStateException()));
+    }
+}
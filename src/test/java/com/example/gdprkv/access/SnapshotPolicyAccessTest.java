@@ -0,0 +1,75 @@
+package com.example.gdprkv.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.models.Policy;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class SnapshotPolicyAccessTest {
+
+    @Test
+    @DisplayName("serves lookups from the startup snapshot without touching the source")
+    void servesFromSnapshot() {
+        PolicyAccess source = Mockito.mock(PolicyAccess.class);
+        when(source.findAll()).thenReturn(List.of(policy("MARKETING", 30, 100L)));
+
+        SnapshotPolicyAccess access = new SnapshotPolicyAccess(source);
+
+        assertEquals(30, access.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+        assertTrue(access.findByPurpose("UNKNOWN").isEmpty());
+        verify(source, times(1)).findAll();
+        verify(source, Mockito.never()).findByPurpose(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("poll swaps the snapshot only when the high-water mark or row count changes")
+    void pollSwapsOnChange() {
+        PolicyAccess source = Mockito.mock(PolicyAccess.class);
+        when(source.findAll()).thenReturn(
+                List.of(policy("MARKETING", 30, 100L)),
+                List.of(policy("MARKETING", 45, 100L)),
+                List.of(policy("MARKETING", 60, 200L)),
+                List.of(policy("MARKETING", 60, 200L), policy("BILLING", 365, 150L)));
+
+        SnapshotPolicyAccess access = new SnapshotPolicyAccess(source);
+
+        access.poll();
+        assertEquals(30, access.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+
+        access.poll();
+        assertEquals(60, access.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+
+        access.poll();
+        assertEquals(365, access.findByPurpose("BILLING").orElseThrow().getRetentionDays());
+    }
+
+    @Test
+    @DisplayName("poll keeps the current snapshot when the scan fails")
+    void pollKeepsSnapshotOnFailure() {
+        PolicyAccess source = Mockito.mock(PolicyAccess.class);
+        when(source.findAll())
+                .thenReturn(List.of(policy("MARKETING", 30, 100L)))
+                .thenThrow(new RuntimeException("boom"));
+
+        SnapshotPolicyAccess access = new SnapshotPolicyAccess(source);
+        access.poll();
+
+        assertEquals(30, access.findByPurpose("MARKETING").orElseThrow().getRetentionDays());
+    }
+
+    private Policy policy(String purpose, int retentionDays, long lastUpdatedAt) {
+        return Policy.builder()
+                .purpose(purpose)
+                .retentionDays(retentionDays)
+                .description("demo")
+                .lastUpdatedAt(lastUpdatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.gdprkv.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.config.AdmissionControlProperties;
+import com.example.gdprkv.http.AdmissionControlFilter.EndpointClass;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AdmissionControlFilterTest {
+
+    private static final long START = 1_727_785_200_000L;
+
+    @Test
+    @DisplayName("requests are classified per endpoint class and /health is never limited")
+    void classifiesEndpoints() {
+        assertEquals(EndpointClass.RECORD_WRITES, AdmissionControlFilter.classify("PUT", "/subjects/s1/records/k"));
+        assertEquals(EndpointClass.RECORD_WRITES, AdmissionControlFilter.classify("POST", "/subjects/s1/records:batchPut"));
+        assertEquals(EndpointClass.READS, AdmissionControlFilter.classify("GET", "/subjects/s1/records"));
+        assertEquals(EndpointClass.READS, AdmissionControlFilter.classify("GET", "/subjects/s1/audit-events"));
+        assertEquals(EndpointClass.SUBJECTS, AdmissionControlFilter.classify("DELETE", "/subjects/s1"));
+        assertEquals(EndpointClass.INGEST, AdmissionControlFilter.classify("POST", "/records:ingest"));
+        assertNull(AdmissionControlFilter.classify("GET", "/health"));
+        assertNull(AdmissionControlFilter.classify("DELETE", "/policies/cache"));
+    }
+
+    @Test
+    @DisplayName("a request over its class's limit gets 429 with Retry-After while other classes are admitted")
+    void rejectsOverLimit() throws Exception {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setRetryAfterSeconds(2);
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, Clock.systemUTC());
+        assertTrue(filter.limit(EndpointClass.RECORD_WRITES).tryAcquire());  // one write already in flight
+
+        MockHttpServletResponse rejected = perform(filter, "/api", "PUT", "/subjects/s1/records/k");
+        MockHttpServletResponse read = perform(filter, "", "GET", "/subjects/s1/records");
+        MockHttpServletResponse health = perform(filter, "/api", "GET", "/health");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("OVERLOADED"));
+        assertEquals(200, read.getStatus());
+        assertEquals(200, health.getStatus());
+        assertEquals(0, filter.limit(EndpointClass.READS).inFlight());
+    }
+
+    @Test
+    @DisplayName("limits grow while their class's latency is under the target and shrink at most once per interval")
+    void adaptsToLatency() {
+        Clock clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(START);
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(10, 2, 20, 0.5, 100, 1_000, clock);
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        limit.release(TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(11, limit.limit());
+
+        limit.release(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(5, limit.limit());
+        for (int i = 0; i < 3; i++) {
+            limit.release(TimeUnit.SECONDS.toNanos(5));
+        }
+        assertEquals(5, limit.limit());  // a burst of slow completions shrinks the limit once
+
+        when(clock.millis()).thenReturn(START + 1_000L);
+        limit.release(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(2, limit.limit());
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        assertFalse(limit.tryAcquire());
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, String contextPath, String method,
+                                                   String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, contextPath + path);
+        request.setContextPath(contextPath);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -14,6 +14,7 @@ import com.example.gdprkv.access.RecordAccess;
 import com.example.gdprkv.access.SubjectAccess;
 import com.example.gdprkv.models.AuditEvent;
 import com.example.gdprkv.models.Policy;
+import com.example.gdprkv.models.RawJsonValue;
 import com.example.gdprkv.models.Record;
 import com.example.gdprkv.models.Subject;
 import com.example.gdprkv.requests.PutRecordHttpRequest;
@@ -21,7 +22,6 @@ import com.example.gdprkv.service.AuditLogService;
 import com.example.gdprkv.service.PolicyDrivenRecordService;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import java.nio.file.Files;
@@ -100,7 +100,7 @@ class AuditEventControllerDynamoIntegrationTest {
         ensureTables();
 
         policyAccess = new DynamoPolicyAccess(enhancedClient);
-        recordAccess = new DynamoRecordAccess(enhancedClient);
+        recordAccess = new DynamoRecordAccess(enhancedClient, dynamo);
         auditAccess = new DynamoAuditEventAccess(enhancedClient);
         subjectAccess = new DynamoSubjectAccess(enhancedClient);
         auditLogService = new AuditLogService(auditAccess, clock);
@@ -145,15 +145,15 @@ class AuditEventControllerDynamoIntegrationTest {
 
         // Create three record operations to generate audit events
         PutRecordHttpRequest request1 = new PutRecordHttpRequest(fixture.purpose(), fixture.value());
-        recordController.putRecord(subjectId, fixture.recordKey(), request1);
+        recordController.putRecord(subjectId, fixture.recordKey(), null, null, request1);
 
-        JsonNode value2 = mapper.createObjectNode().put("email", "updated@example.com");
+        RawJsonValue value2 = RawJsonValue.of(mapper.createObjectNode().put("email", "updated@example.com"));
         PutRecordHttpRequest request2 = new PutRecordHttpRequest(fixture.purpose(), value2);
-        recordController.putRecord(subjectId, fixture.recordKey(), request2);
+        recordController.putRecord(subjectId, fixture.recordKey(), null, null, request2);
 
-        JsonNode value3 = mapper.createObjectNode().put("theme", "dark");
+        RawJsonValue value3 = RawJsonValue.of(mapper.createObjectNode().put("theme", "dark"));
         PutRecordHttpRequest request3 = new PutRecordHttpRequest(fixture.purpose(), value3);
-        recordController.putRecord(subjectId, "pref:theme", request3);
+        recordController.putRecord(subjectId, "pref:theme", null, null, request3);
 
         // Retrieve audit events via API
         ResponseEntity<List<AuditEventResponse>> response = auditEventController.getAllAuditEvents(subjectId);
@@ -304,7 +304,7 @@ class AuditEventControllerDynamoIntegrationTest {
             @JsonProperty("subject_id") String subjectId,
             @JsonProperty("record_key") String recordKey,
             @JsonProperty("purpose") String purpose,
-            @JsonProperty("value") JsonNode value
+            @JsonProperty("value") RawJsonValue value
     ) {
     }
 }
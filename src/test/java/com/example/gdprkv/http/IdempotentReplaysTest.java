@@ -0,0 +1,91 @@
+package com.example.gdprkv.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.access.IdempotencyAccess;
+import com.example.gdprkv.models.IdempotencyEntry;
+import com.example.gdprkv.service.GdprKvException;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+class IdempotentReplaysTest {
+
+    private AtomicReference<IdempotencyEntry> stored;
+    private IdempotentReplays replays;
+
+    @BeforeEach
+    void setUp() {
+        stored = new AtomicReference<>();
+        IdempotencyAccess access = Mockito.mock(IdempotencyAccess.class);
+        when(access.find(anyString())).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        doAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return null;
+        }).when(access).save(any());
+        Clock clock = Mockito.mock(Clock.class);
+        when(clock.millis()).thenReturn(1_727_785_200_000L);
+        replays = new IdempotentReplays(access, clock, true, 900);
+    }
+
+    @Test
+    @DisplayName("a retry with the same body and If-Match gets the stored status and ETag, and no record data")
+    void replaysSameRequest() {
+        String hash = IdempotentReplays.fingerprint("content-hash", 1L);
+        replays.remember("PUT", "sub_1", "k", "client-req-1", hash, 200, 2L);
+
+        ResponseEntity<RecordResponse> replay = replays.find("PUT", "sub_1", "k", "client-req-1",
+                IdempotentReplays.fingerprint("content-hash", 1L)).orElseThrow();
+
+        assertEquals(200, replay.getStatusCode().value());
+        assertEquals("2", replay.getHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals("true", replay.getHeaders().getFirst(IdempotentReplays.REPLAYED_HEADER));
+        assertNull(replay.getBody());
+        assertEquals(2L, stored.get().getVersion());
+    }
+
+    @Test
+    @DisplayName("reusing an X-Request-Id with a different body or If-Match is rejected instead of replayed")
+    void rejectsDifferentRequest() {
+        replays.remember("PUT", "sub_1", "k", "client-req-1", IdempotentReplays.fingerprint("content-hash", 1L), 200, 2L);
+
+        GdprKvException otherBody = assertThrows(GdprKvException.class, () -> replays.find("PUT", "sub_1", "k",
+                "client-req-1", IdempotentReplays.fingerprint("other-content-hash", 1L)));
+        assertEquals(GdprKvException.Code.IDEMPOTENCY_KEY_REUSED, otherBody.getCode());
+        assertThrows(GdprKvException.class, () -> replays.find("PUT", "sub_1", "k", "client-req-1",
+                IdempotentReplays.fingerprint("content-hash", null)));
+    }
+
+    @Test
+    @DisplayName("entries stored without a fingerprint are still replayed")
+    void replaysEntriesWithoutFingerprint() {
+        replays.remember("DELETE", "sub_1", "k", "client-req-1", null, 200, 3L);
+
+        assertTrue(replays.find("DELETE", "sub_1", "k", "client-req-1", IdempotentReplays.fingerprint((Object) null))
+                .isPresent());
+    }
+
+    @Test
+    @DisplayName("requests without a client request ID, or with replays disabled, are not replayable")
+    void appliesOnlyToClientRequestIds() {
+        assertTrue(replays.applies("client-req-1"));
+        assertFalse(replays.applies(null));
+        assertFalse(replays.applies(" "));
+        assertFalse(new IdempotentReplays(Mockito.mock(IdempotencyAccess.class), Clock.systemUTC(), false, 900)
+                .applies("client-req-1"));
+    }
+}
@@ -2,10 +2,13 @@ package com.example.gdprkv.http;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.gdprkv.access.AuditEventAccess;
+import com.example.gdprkv.access.CachingIdempotencyAccess;
 import com.example.gdprkv.access.DynamoAuditEventAccess;
+import com.example.gdprkv.access.DynamoIdempotencyAccess;
 import com.example.gdprkv.access.DynamoPolicyAccess;
 import com.example.gdprkv.access.DynamoRecordAccess;
 import com.example.gdprkv.access.DynamoSubjectAccess;
@@ -13,7 +16,9 @@ import com.example.gdprkv.access.PolicyAccess;
 import com.example.gdprkv.access.RecordAccess;
 import com.example.gdprkv.access.SubjectAccess;
 import com.example.gdprkv.models.AuditEvent;
+import com.example.gdprkv.models.IdempotencyEntry;
 import com.example.gdprkv.models.Policy;
+import com.example.gdprkv.models.RawJsonValue;
 import com.example.gdprkv.models.Record;
 import com.example.gdprkv.models.Subject;
 import com.example.gdprkv.requests.PutRecordHttpRequest;
@@ -21,7 +26,6 @@ import com.example.gdprkv.service.AuditLogService;
 import com.example.gdprkv.service.PolicyDrivenRecordService;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import java.nio.file.Files;
@@ -101,7 +105,7 @@ class RecordControllerDynamoIntegrationTest {
         ensureTables();
 
         policyAccess = new DynamoPolicyAccess(enhancedClient);
-        recordAccess = new DynamoRecordAccess(enhancedClient);
+        recordAccess = new DynamoRecordAccess(enhancedClient, dynamo);
         auditAccess = new DynamoAuditEventAccess(enhancedClient);
         subjectAccess = new DynamoSubjectAccess(enhancedClient);
         auditLogService = new AuditLogService(auditAccess, clock);
@@ -144,7 +148,7 @@ class RecordControllerDynamoIntegrationTest {
 
         PutRecordHttpRequest request = new PutRecordHttpRequest(fixture.purpose(), fixture.value());
 
-        ResponseEntity<RecordResponse> response = controller.putRecord(fixture.subjectId(), fixture.recordKey(), request);
+        ResponseEntity<RecordResponse> response = controller.putRecord(fixture.subjectId(), fixture.recordKey(), null, null, request);
 
         assertEquals(200, response.getStatusCode().value());
         RecordResponse body = response.getBody();
@@ -216,17 +220,17 @@ class RecordControllerDynamoIntegrationTest {
 
         // Put first record
         PutRecordHttpRequest request1 = new PutRecordHttpRequest(fixture.purpose(), fixture.value());
-        controller.putRecord(subjectId, fixture.recordKey(), request1);
+        controller.putRecord(subjectId, fixture.recordKey(), null, null, request1);
 
         // Put second record with different key
-        JsonNode value2 = mapper.createObjectNode().put("phone", "555-1234");
+        RawJsonValue value2 = RawJsonValue.of(mapper.createObjectNode().put("phone", "555-1234"));
         PutRecordHttpRequest request2 = new PutRecordHttpRequest("contact", value2);
-        controller.putRecord(subjectId, "contact:phone", request2);
+        controller.putRecord(subjectId, "contact:phone", null, null, request2);
 
         // Put third record with different key
-        JsonNode value3 = mapper.createObjectNode().put("theme", "dark");
+        RawJsonValue value3 = RawJsonValue.of(mapper.createObjectNode().put("theme", "dark"));
         PutRecordHttpRequest request3 = new PutRecordHttpRequest(fixture.purpose(), value3);
-        controller.putRecord(subjectId, "pref:theme", request3);
+        controller.putRecord(subjectId, "pref:theme", null, null, request3);
 
         List<Record> allRecords = recordAccess.findAllBySubjectId(subjectId);
 
@@ -252,15 +256,15 @@ class RecordControllerDynamoIntegrationTest {
 
         // Put three records
         PutRecordHttpRequest request1 = new PutRecordHttpRequest(fixture.purpose(), fixture.value());
-        controller.putRecord(subjectId, fixture.recordKey(), request1);
+        controller.putRecord(subjectId, fixture.recordKey(), null, null, request1);
 
-        JsonNode value2 = mapper.createObjectNode().put("phone", "555-1234");
+        RawJsonValue value2 = RawJsonValue.of(mapper.createObjectNode().put("phone", "555-1234"));
         PutRecordHttpRequest request2 = new PutRecordHttpRequest("contact", value2);
-        controller.putRecord(subjectId, "contact:phone", request2);
+        controller.putRecord(subjectId, "contact:phone", null, null, request2);
 
-        JsonNode value3 = mapper.createObjectNode().put("theme", "dark");
+        RawJsonValue value3 = RawJsonValue.of(mapper.createObjectNode().put("theme", "dark"));
         PutRecordHttpRequest request3 = new PutRecordHttpRequest(fixture.purpose(), value3);
-        controller.putRecord(subjectId, "pref:theme", request3);
+        controller.putRecord(subjectId, "pref:theme", null, null, request3);
 
         // Retrieve via API
         ResponseEntity<List<RecordResponse>> response = controller.getAllRecords(subjectId);
@@ -278,7 +282,37 @@ class RecordControllerDynamoIntegrationTest {
         // Verify record details
         assertEquals(subjectId, records.get(0).subjectId());
         assertEquals("contact", records.get(0).purpose());
-        assertEquals("555-1234", records.getFirst().value().get("phone").asText());
+        assertEquals("555-1234", records.getFirst().value().toJsonNode().get("phone").asText());
+    }
+
+    @Test
+    @DisplayName("PUT retried with the same X-Request-Id is replayed from the idempotency table")
+    void putRecordRetryReplayed() throws Exception {
+        PutRecordFixture fixture = mapper.convertValue(readFixture("fixtures/put_record_request.json"), PutRecordFixture.class);
+        PutRecordHttpRequest request = new PutRecordHttpRequest(fixture.purpose(), fixture.value());
+        DynamoIdempotencyAccess idempotencyTable = new DynamoIdempotencyAccess(enhancedClient, clock);
+        RecordController first = new RecordController(recordService, auditLogService, null,
+                new IdempotentReplays(new CachingIdempotencyAccess(idempotencyTable, clock, 100), clock, true, 900));
+        // A second instance with an empty local cache, as if the retry reached another node.
+        RecordController second = new RecordController(recordService, auditLogService, null,
+                new IdempotentReplays(new CachingIdempotencyAccess(idempotencyTable, clock, 100), clock, true, 900));
+        String clientRequestId = "retry-" + System.nanoTime();
+
+        ResponseEntity<RecordResponse> original = first.putRecord(
+                fixture.subjectId(), fixture.recordKey(), null, clientRequestId, request);
+        ResponseEntity<RecordResponse> replayed = second.putRecord(
+                fixture.subjectId(), fixture.recordKey(), null, clientRequestId, request);
+
+        assertEquals(original.getHeaders().getETag(), replayed.getHeaders().getETag());
+        assertEquals("1", replayed.getHeaders().getETag());
+        assertNull(replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotentReplays.REPLAYED_HEADER));
+        assertTrue(idempotencyTable.find(
+                IdempotencyEntry.key(clientRequestId, "PUT", fixture.subjectId(), fixture.recordKey())).isPresent());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey(fixture.subjectId(), fixture.recordKey())
+                .orElseThrow().getVersion());
+        assertEquals(2, enhancedClient.table("audit_events", TableSchema.fromBean(AuditEvent.class))
+                .scan().items().stream().count());
     }
 
     private void ensureTables() {
@@ -286,6 +320,7 @@ class RecordControllerDynamoIntegrationTest {
         createPoliciesTable();
         createRecordsTable();
         createAuditEventsTable();
+        createIdempotencyKeysTable();
     }
 
     private void createSubjectTable() {
@@ -370,6 +405,25 @@ class RecordControllerDynamoIntegrationTest {
         }
     }
 
+    private void createIdempotencyKeysTable() {
+        try {
+            dynamo.describeTable(b -> b.tableName("idempotency_keys"));
+        } catch (ResourceNotFoundException ex) {
+            dynamo.createTable(CreateTableRequest.builder()
+                    .tableName("idempotency_keys")
+                    .attributeDefinitions(AttributeDefinition.builder()
+                            .attributeName("idempotency_key")
+                            .attributeType(ScalarAttributeType.S)
+                            .build())
+                    .keySchema(KeySchemaElement.builder()
+                            .attributeName("idempotency_key")
+                            .keyType(KeyType.HASH)
+                            .build())
+                    .billingMode("PAY_PER_REQUEST")
+                    .build());
+        }
+    }
+
     private Map<String, Object> readFixture(String resourcePath) throws Exception {
         Path path = Path.of("src/test/resources", resourcePath);
         String json = Files.readString(path);
@@ -381,7 +435,7 @@ class RecordControllerDynamoIntegrationTest {
             @JsonProperty("subject_id") String subjectId,
             @JsonProperty("record_key") String recordKey,
             @JsonProperty("purpose") String purpose,
-            @JsonProperty("value") JsonNode value
+            @JsonProperty("value") RawJsonValue value
     ) {
     }
 }
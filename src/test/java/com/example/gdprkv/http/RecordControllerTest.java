@@ -4,19 +4,27 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.BatchPutRecordsServiceRequest;
 import com.example.gdprkv.requests.DeleteRecordServiceRequest;
+import com.example.gdprkv.requests.PatchRecordServiceRequest;
 import com.example.gdprkv.requests.PutRecordServiceRequest;
 import com.example.gdprkv.service.AuditLogService;
 import com.example.gdprkv.service.GdprKvException;
 import com.example.gdprkv.service.PolicyDrivenRecordService;
+import com.example.gdprkv.service.ReadAuditAggregator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -24,7 +32,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -45,6 +55,19 @@ class RecordControllerTest {
     @MockBean
     private AuditLogService auditLogService;
 
+    @MockBean
+    private ReadAuditAggregator readAuditAggregator;
+
+    @MockBean
+    private IdempotentReplays idempotentReplays;
+
+    @BeforeEach
+    void routePutOutcomesThroughPutRecord() {
+        // The controller asks for the outcome; tests stub putRecord and get an uncoalesced outcome.
+        when(recordService.putRecordWithOutcome(any())).thenAnswer(invocation ->
+                new PolicyDrivenRecordService.PutOutcome(recordService.putRecord(invocation.getArgument(0)), null));
+    }
+
     @Test
     @DisplayName("PUT record returns 200 and response body")
     void putRecordSuccess() throws Exception {
@@ -93,6 +116,20 @@ class RecordControllerTest {
 
     }
 
+    @Test
+    @DisplayName("PUT to a key reserved for value chunks returns 400 without auditing or writing")
+    void putRecordReservedKey() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/{subjectId}/records/{recordKey}",
+                        "sub_123", "doc:scan#chunk#0000")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purpose\":\"FULFILLMENT\",\"value\":{}}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("INVALID_RECORD_KEY")));
+
+        verify(recordService, never()).putRecordWithOutcome(any());
+        verify(auditLogService, never()).recordPutRequested(any(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("PUT record returns 400 when invalid purpose")
     void putRecordInvalidPurpose() throws Exception {
@@ -238,6 +275,258 @@ class RecordControllerTest {
         verify(auditLogService, never()).recordDeleteAlreadyTombstoned(any(), any(), any());
     }
 
+    @Test
+    @DisplayName("GET record returns the record with its ETag, and 304 when If-None-Match names that version")
+    void getRecordConditional() throws Exception {
+        when(recordService.getRecord("sub_123", "pref:email")).thenReturn(Record.builder()
+                .subjectId("sub_123")
+                .recordKey("pref:email")
+                .purpose("FULFILLMENT")
+                .value(objectMapper.readTree("{\"email\":\"demo@example.com\"}"))
+                .version(3L)
+                .retentionDays(30)
+                .tombstoned(false)
+                .requestId("req-1")
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/subjects/sub_123/records/pref:email"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("3")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.value.email", equalTo("demo@example.com")));
+        verify(readAuditAggregator).recordRead(eq("sub_123"), eq("pref:email"), eq("FULFILLMENT"), any());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/subjects/sub_123/records/pref:email")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\", \"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("3")))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        verify(readAuditAggregator, times(1)).recordRead(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET record returns 410 for a tombstoned record")
+    void getRecordTombstoned() throws Exception {
+        when(recordService.getRecord("sub_123", "pref:email"))
+                .thenThrow(GdprKvException.readSuppressedTombstone("sub_123", "pref:email"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/subjects/sub_123/records/pref:email"))
+                .andExpect(MockMvcResultMatchers.status().isGone())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("READ_SUPPRESSED_TOMBSTONE")));
+        verify(readAuditAggregator, never()).recordRead(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("PUT record with an unchanged value audits PUT_NOOP instead of a success event")
+    void putRecordNoop() throws Exception {
+        when(recordService.putRecord(any())).thenReturn(Record.builder()
+                .subjectId("sub_123")
+                .recordKey("pref:email")
+                .purpose("FULFILLMENT")
+                .createdAt(1L)
+                .updatedAt(1L)
+                .version(4L)
+                .retentionDays(30)
+                .requestId("earlier-request")
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/sub_123/records/pref:email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purpose\":\"FULFILLMENT\",\"value\":{}}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("4")));
+
+        ArgumentCaptor<PutRecordServiceRequest> captor = ArgumentCaptor.forClass(PutRecordServiceRequest.class);
+        verify(recordService).putRecord(captor.capture());
+        verify(auditLogService).recordPutNoop(any(Record.class), eq(captor.getValue().requestId()));
+        verify(auditLogService, never()).recordPutSuccess(any());
+    }
+
+    @Test
+    @DisplayName("PUT record merged into a concurrent PUT audits PUT_COALESCED with the resulting version")
+    void putRecordCoalesced() throws Exception {
+        Record stored = Record.builder()
+                .subjectId("sub_123")
+                .recordKey("presence")
+                .purpose("PRESENCE")
+                .createdAt(1L)
+                .updatedAt(2L)
+                .version(7L)
+                .retentionDays(1)
+                .requestId("winning-request")
+                .build();
+        when(recordService.putRecordWithOutcome(any()))
+                .thenReturn(new PolicyDrivenRecordService.PutOutcome(stored, "winning-request"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/sub_123/records/presence")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purpose\":\"PRESENCE\",\"value\":{\"online\":true}}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("7")));
+
+        ArgumentCaptor<PutRecordServiceRequest> captor = ArgumentCaptor.forClass(PutRecordServiceRequest.class);
+        verify(recordService).putRecordWithOutcome(captor.capture());
+        verify(auditLogService).recordPutCoalesced(stored, captor.getValue().requestId(), "winning-request");
+        verify(auditLogService, never()).recordPutSuccess(any());
+        verify(auditLogService, never()).recordPutNoop(any(), any());
+    }
+
+    @Test
+    @DisplayName("PUT record passes If-Match version and returns 412 on mismatch")
+    void putRecordIfMatchMismatch() throws Exception {
+        when(recordService.putRecord(any())).thenThrow(GdprKvException.versionMismatch("sub_123", "pref:email", 3L));
+
+        String body = "{" +
+                "\"purpose\":\"FULFILLMENT\"," +
+                "\"value\":{}" +
+                "}";
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/sub_123/records/pref:email")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("VERSION_MISMATCH")));
+
+        ArgumentCaptor<PutRecordServiceRequest> captor = ArgumentCaptor.forClass(PutRecordServiceRequest.class);
+        verify(recordService).putRecord(captor.capture());
+        assertEquals(3L, captor.getValue().expectedVersion());
+        verify(auditLogService).recordPutFailure(any(), any(), any(), any(), any());
+        verify(auditLogService, never()).recordPutSuccess(any());
+    }
+
+    @Test
+    @DisplayName("PATCH record passes the merge patch and If-Match version and returns the patched record")
+    void patchRecord() throws Exception {
+        when(recordService.patchRecord(any())).thenAnswer(invocation -> {
+            PatchRecordServiceRequest req = invocation.getArgument(0);
+            return Record.builder()
+                    .subjectId(req.subjectId())
+                    .recordKey(req.recordKey())
+                    .purpose("FULFILLMENT")
+                    .value(objectMapper.readTree("{\"email\":\"new@example.com\",\"sms\":true}"))
+                    .createdAt(1L)
+                    .updatedAt(2L)
+                    .version(4L)
+                    .retentionDays(30)
+                    .requestId(req.requestId())
+                    .build();
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/subjects/sub_123/records/pref:email")
+                        .header(HttpHeaders.IF_MATCH, "3")
+                        .contentType(RecordController.MERGE_PATCH_JSON)
+                        .content("{\"email\":\"new@example.com\",\"fax\":null}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("4")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.value.email", equalTo("new@example.com")));
+
+        ArgumentCaptor<PatchRecordServiceRequest> captor = ArgumentCaptor.forClass(PatchRecordServiceRequest.class);
+        verify(recordService).patchRecord(captor.capture());
+        assertEquals(3L, captor.getValue().expectedVersion());
+        assertEquals(objectMapper.readTree("{\"email\":\"new@example.com\",\"fax\":null}"), captor.getValue().patch());
+        verify(auditLogService).recordPutRequested("sub_123", "pref:email", null, captor.getValue().requestId());
+        verify(auditLogService).recordPutSuccess(any(Record.class));
+    }
+
+    @Test
+    @DisplayName("DELETE record passes If-Match version and returns 412 on mismatch")
+    void deleteRecordIfMatchMismatch() throws Exception {
+        when(recordService.deleteRecord(any())).thenThrow(GdprKvException.versionMismatch("sub_123", "pref:email", 5L));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/subjects/sub_123/records/pref:email")
+                        .header(HttpHeaders.IF_MATCH, "5"))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("VERSION_MISMATCH")));
+
+        ArgumentCaptor<DeleteRecordServiceRequest> captor = ArgumentCaptor.forClass(DeleteRecordServiceRequest.class);
+        verify(recordService).deleteRecord(captor.capture());
+        assertEquals(5L, captor.getValue().expectedVersion());
+        verify(auditLogService).recordDeleteFailure(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("DELETE record retried with the same X-Request-Id replays the stored outcome without writing")
+    void deleteRecordReplayed() throws Exception {
+        when(idempotentReplays.applies("retry-1")).thenReturn(true);
+        when(idempotentReplays.find(eq("DELETE"), eq("sub_123"), eq("pref:email"), eq("retry-1"), any())).thenReturn(Optional.of(
+                ResponseEntity.ok()
+                        .header(HttpHeaders.ETAG, "3")
+                        .header(IdempotentReplays.REPLAYED_HEADER, "true")
+                        .build()));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/subjects/sub_123/records/pref:email")
+                        .header("X-Request-Id", "retry-1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", equalTo("3")))
+                .andExpect(MockMvcResultMatchers.header().string(IdempotentReplays.REPLAYED_HEADER, equalTo("true")));
+
+        verify(recordService).requireSubject("sub_123");
+        verify(recordService, never()).deleteRecord(any());
+        verify(auditLogService, never()).recordDeleteRequested(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("a retry for a subject erased since the original write answers 404 instead of replaying")
+    void replayForErasedSubject() throws Exception {
+        when(idempotentReplays.applies("retry-1")).thenReturn(true);
+        when(idempotentReplays.find(eq("DELETE"), eq("sub_123"), eq("pref:email"), eq("retry-1"), any())).thenReturn(Optional.of(
+                ResponseEntity.ok().header(HttpHeaders.ETAG, "3").build()));
+        doThrow(GdprKvException.subjectNotFound("sub_123")).when(recordService).requireSubject("sub_123");
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/subjects/sub_123/records/pref:email")
+                        .header("X-Request-Id", "retry-1"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("SUBJECT_NOT_FOUND")));
+
+        verify(recordService, never()).deleteRecord(any());
+    }
+
+    @Test
+    @DisplayName("PUT record stores its status and version for replay under the client's X-Request-Id")
+    void putRecordRemembersResponse() throws Exception {
+        when(idempotentReplays.applies("client-req-1")).thenReturn(true);
+        when(recordService.putRecord(any())).thenAnswer(invocation -> {
+            PutRecordServiceRequest req = invocation.getArgument(0);
+            return Record.builder()
+                    .subjectId(req.subjectId())
+                    .recordKey(req.recordKey())
+                    .purpose(req.purpose())
+                    .value(objectMapper.readTree("{\"email\":\"demo@example.com\"}"))
+                    .createdAt(1L)
+                    .updatedAt(1L)
+                    .version(1L)
+                    .retentionDays(30)
+                    .requestId(req.requestId())
+                    .build();
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/sub_123/records/pref:email")
+                        .header("X-Request-Id", "client-req-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purpose\":\"FULFILLMENT\",\"value\":{\"email\":\"demo@example.com\"}}"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(idempotentReplays).remember(eq("PUT"), eq("sub_123"), eq("pref:email"), eq("client-req-1"), any(),
+                eq(200), eq(1L));
+    }
+
+    @Test
+    @DisplayName("PUT record reusing an X-Request-Id for a different body returns 422 without writing")
+    void putRecordRequestIdReused() throws Exception {
+        when(idempotentReplays.applies("client-req-1")).thenReturn(true);
+        when(idempotentReplays.find(eq("PUT"), eq("sub_123"), eq("pref:email"), eq("client-req-1"), any()))
+                .thenThrow(GdprKvException.idempotencyKeyReused("client-req-1"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/subjects/sub_123/records/pref:email")
+                        .header("X-Request-Id", "client-req-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purpose\":\"FULFILLMENT\",\"value\":{\"email\":\"other@example.com\"}}"))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code", equalTo("IDEMPOTENCY_KEY_REUSED")));
+
+        verify(recordService, never()).putRecordWithOutcome(any());
+    }
+
     @Test
     @DisplayName("DELETE record returns 404 when subject not found")
     void deleteRecordSubjectNotFound() throws Exception {
@@ -251,4 +540,47 @@ class RecordControllerTest {
         verify(auditLogService).recordDeleteFailure(any(), any(), any(), any());
         verify(auditLogService, never()).recordDeleteSuccess(any());
     }
+
+    @Test
+    @DisplayName("Batch PUT returns per-item results and audits the batch")
+    void batchPutRecords() throws Exception {
+        when(recordService.putRecords(any())).thenAnswer(invocation -> {
+            BatchPutRecordsServiceRequest req = invocation.getArgument(0);
+            PutRecordServiceRequest first = req.items().get(0);
+            PutRecordServiceRequest second = req.items().get(1);
+            return List.of(
+                    new PolicyDrivenRecordService.BatchPutItemResult(first, Record.builder()
+                            .subjectId(first.subjectId())
+                            .recordKey(first.recordKey())
+                            .purpose(first.purpose())
+                            .rawValue(first.value())
+                            .version(1L)
+                            .retentionDays(30)
+                            .requestId(first.requestId())
+                            .build(), null, null),
+                    new PolicyDrivenRecordService.BatchPutItemResult(second, null, "INVALID_PURPOSE", "Unknown purpose: NOPE"));
+        });
+
+        String body = "{\"atomic\":false,\"items\":[" +
+                "{\"record_key\":\"pref:email\",\"purpose\":\"FULFILLMENT\",\"value\":{}}," +
+                "{\"record_key\":\"pref:fax\",\"purpose\":\"NOPE\",\"value\":{}}" +
+                "]}";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/subjects/sub_123/records:batchPut")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].status", equalTo("OK")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].record.version", equalTo(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].status", equalTo("FAILED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].code", equalTo("INVALID_PURPOSE")));
+
+        ArgumentCaptor<BatchPutRecordsServiceRequest> captor = ArgumentCaptor.forClass(BatchPutRecordsServiceRequest.class);
+        verify(recordService).putRecords(captor.capture());
+        assertFalse(captor.getValue().atomic());
+        assertEquals(captor.getValue().requestId(), captor.getValue().items().get(1).requestId());
+        verify(auditLogService).recordBatchPutRequested(captor.getValue().items());
+        verify(auditLogService).recordBatchPutResults(any());
+        verify(auditLogService, never()).recordBatchPutFailure(any(), any());
+    }
 }
@@ -98,7 +98,7 @@ class SubjectControllerDynamoIntegrationTest {
         ensureAuditEventsTable();
 
         subjectAccess = new DynamoSubjectAccess(enhancedClient);
-        recordAccess = new DynamoRecordAccess(enhancedClient);
+        recordAccess = new DynamoRecordAccess(enhancedClient, dynamo);
         auditAccess = new DynamoAuditEventAccess(enhancedClient);
 
         // Set up policy access with a test policy
@@ -485,5 +485,10 @@ class SubjectControllerDynamoIntegrationTest {
         public Optional<Policy> findByPurpose(String purpose) {
             return Optional.ofNullable(store.get(purpose));
         }
+
+        @Override
+        public List<Policy> findAll() {
+            return List.copyOf(store.values());
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.example.gdprkv.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+class JsonMergePatchTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    @DisplayName("merge patches follow the RFC 7396 examples and leave the target unchanged")
+    void appliesRfcExamples() throws Exception {
+        assertMerge("{'a':'b'}", "{'a':'c'}", "{'a':'c'}");
+        assertMerge("{'a':'b'}", "{'b':'c'}", "{'a':'b','b':'c'}");
+        assertMerge("{'a':'b','b':'c'}", "{'a':null}", "{'b':'c'}");
+        assertMerge("{'a':['b']}", "{'a':'c'}", "{'a':'c'}");
+        assertMerge("{'a':{'b':'c'}}", "{'a':{'b':'d','c':null}}", "{'a':{'b':'d'}}");
+        assertMerge("{'a':[{'b':'c'}]}", "{'a':[1]}", "{'a':[1]}");
+        assertMerge("{'a':'b'}", "['c']", "['c']");
+        assertMerge("{'a':'foo'}", "null", "null");
+        assertMerge("{'e':null}", "{'a':1}", "{'e':null,'a':1}");
+        assertMerge("[1,2]", "{'a':'b','c':null}", "{'a':'b'}");
+        assertMerge("{}", "{'a':{'bb':{'ccc':null}}}", "{'a':{'bb':{}}}");
+    }
+
+    @Test
+    @DisplayName("JSON objects convert to native map attributes and back")
+    void nativeMapRoundTrip() throws Exception {
+        String json = "{\"s\":\"x\",\"n\":12.50,\"b\":true,\"z\":null,\"l\":[1,{\"k\":\"v\"}],\"m\":{}}";
+
+        AttributeValue map = JsonAttributeValues.toMap(json).orElseThrow();
+
+        assertEquals("12.50", map.m().get("n").n());
+        assertEquals(MAPPER.readTree(json), MAPPER.readTree(JsonAttributeValues.toJson(map)));
+        assertEquals(Optional.empty(), JsonAttributeValues.toMap("[1]"));
+        assertEquals(Optional.empty(), JsonAttributeValues.toMap("{\"\":1}"));
+        assertEquals(Optional.empty(), JsonAttributeValues.toMap("{\"a\":" + "[".repeat(40) + "]".repeat(40) + "}"));
+    }
+
+    private static void assertMerge(String target, String patch, String expected) throws Exception {
+        JsonNode targetNode = json(target);
+
+        assertEquals(json(expected), JsonMergePatch.apply(targetNode, json(patch)));
+        assertEquals(json(target), targetNode);
+    }
+
+    private static JsonNode json(String singleQuoted) throws Exception {
+        return MAPPER.readTree(singleQuoted.replace('\'', '"'));
+    }
+}
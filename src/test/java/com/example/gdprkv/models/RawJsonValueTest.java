@@ -0,0 +1,106 @@
+package com.example.gdprkv.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.gdprkv.requests.PutRecordHttpRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+class RawJsonValueTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    @DisplayName("request values are kept as compact JSON text and written back verbatim")
+    void requestRoundTrip() throws Exception {
+        PutRecordHttpRequest request = MAPPER.readValue(
+                "{\"purpose\":\"FULFILLMENT\",\"value\":{ \"b\" : [1, 2.5, \"x\"], \"a\" : null }}",
+                PutRecordHttpRequest.class);
+
+        assertEquals("{\"b\":[1,2.5,\"x\"],\"a\":null}", request.value().json());
+        assertEquals("{\"purpose\":\"FULFILLMENT\",\"value\":{\"b\":[1,2.5,\"x\"],\"a\":null}}",
+                MAPPER.writeValueAsString(request));
+        assertEquals("[0.10000000000000001,12345678901234567890123]",
+                RawJsonValue.parse("[0.10000000000000001, 12345678901234567890123]").json());
+    }
+
+    @Test
+    @DisplayName("JSON null maps to a null value and malformed values are rejected")
+    void nullAndMalformed() throws Exception {
+        assertNull(MAPPER.readValue("{\"purpose\":\"p\",\"value\":null}", PutRecordHttpRequest.class).value());
+        assertNull(RawJsonValue.parse("null"));
+        assertThrows(IllegalArgumentException.class, () -> RawJsonValue.parse("{\"a\":"));
+        assertThrows(IllegalArgumentException.class, () -> RawJsonValue.parse("{} {}"));
+    }
+
+    @Test
+    @DisplayName("the attribute converter stores the text as-is and inflates compressed values")
+    void attributeRoundTrip() {
+        RawJsonValueAttributeConverter converter = new RawJsonValueAttributeConverter();
+        RawJsonValue small = RawJsonValue.parse("{\"email\":\"demo@example.com\"}");
+        RawJsonValue large = RawJsonValue.parse("[" + "\"newsletter-weekly\",".repeat(500) + "0]");
+
+        AttributeValue smallStored = converter.transformFrom(small);
+        AttributeValue largeStored = converter.transformFrom(large);
+
+        assertEquals(small.json(), smallStored.s());
+        assertNotNull(largeStored.b());
+        assertEquals(small, converter.transformTo(smallStored));
+        assertEquals(RawJsonValueAttributeConverter.FORMAT_DEFLATE_JSON, largeStored.b().asByteArray()[0]);
+        assertEquals(large, converter.transformTo(largeStored));
+    }
+
+    @Test
+    @DisplayName("the compression threshold is compared with the UTF-8 size, not the character count")
+    void thresholdCountsUtf8Bytes() {
+        // 1500 characters, but 4500 bytes in UTF-8
+        RawJsonValue value = RawJsonValue.parse("\"" + "\u20ac".repeat(1498) + "\"");
+
+        AttributeValue stored = new RawJsonValueAttributeConverter().transformFrom(value);
+
+        assertNotNull(stored.b());
+        assertEquals(value, new RawJsonValueAttributeConverter().transformTo(stored));
+    }
+
+    @Test
+    @DisplayName("converter instances apply their own settings and read every stored form")
+    void instanceSettings() {
+        RawJsonValueAttributeConverter plain = new RawJsonValueAttributeConverter(Integer.MAX_VALUE, false);
+        RawJsonValueAttributeConverter maps = new RawJsonValueAttributeConverter(4096, true);
+        RawJsonValue large = RawJsonValue.parse("{\"topics\":[" + "\"newsletter-weekly\",".repeat(500) + "0]}");
+
+        AttributeValue plainStored = plain.transformFrom(large);
+        AttributeValue mapStored = maps.transformFrom(large);
+
+        assertNotNull(plainStored.s());
+        assertTrue(mapStored.hasM());
+        assertEquals(large, maps.transformTo(plainStored));
+        assertEquals(large.toJsonNode(), plain.transformTo(mapStored).toJsonNode());
+    }
+
+    @Test
+    @DisplayName("binary values with an unknown format marker are rejected")
+    void unknownMarkerRejected() {
+        AttributeValue stored = AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[] {0x7f, 1, 2})).build();
+
+        assertThrows(IllegalArgumentException.class, () -> new RawJsonValueAttributeConverter().transformTo(stored));
+    }
+
+    @Test
+    @DisplayName("content hashes match the tree-based hash and ignore key order")
+    void contentHash() throws Exception {
+        String json = "{\"a\":1,\"b\":{\"c\":[true,1.5]}}";
+
+        assertEquals(Record.computeContentHash("P", MAPPER.readTree(json)),
+                Record.computeContentHash("P", RawJsonValue.parse(json)));
+        assertEquals(Record.computeContentHash("P", RawJsonValue.parse(json)),
+                Record.computeContentHash("P", RawJsonValue.parse("{\"b\":{\"c\":[true,1.5]},\"a\":1}")));
+    }
+}
@@ -107,6 +107,30 @@ class RecordTest {
         assertEquals("opaque:value", tree.get("value").asText());
     }
 
+    @Test
+    @DisplayName("computeContentHash ignores key order and covers purpose and value")
+    void computeContentHash() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode value = mapper.readTree("{\"a\":1,\"nested\":{\"x\":true,\"y\":[1,2]}}");
+        JsonNode reordered = mapper.readTree("{\"nested\":{\"y\":[1,2],\"x\":true},\"a\":1}");
+
+        String hash = Record.computeContentHash("FULFILLMENT", value);
+        assertEquals(64, hash.length());
+        assertEquals(hash, Record.computeContentHash("FULFILLMENT", reordered));
+        assertFalse(hash.equals(Record.computeContentHash("MARKETING", value)));
+        assertFalse(hash.equals(Record.computeContentHash("FULFILLMENT", mapper.readTree("{\"a\":2}"))));
+        assertFalse(hash.equals(Record.computeContentHash("FULFILLMENT", mapper.readTree("{\"nested\":{\"y\":[2,1]}}"))));
+    }
+
+    @Test
+    @DisplayName("computeContentHash tells apart numbers that differ beyond double and long precision")
+    void computeContentHashKeepsNumbersExact() {
+        assertFalse(Record.computeContentHash("P", RawJsonValue.parse("{\"a\":0.1}"))
+                .equals(Record.computeContentHash("P", RawJsonValue.parse("{\"a\":0.10000000000000001}"))));
+        assertFalse(Record.computeContentHash("P", RawJsonValue.parse("[12345678901234567890123]"))
+                .equals(Record.computeContentHash("P", RawJsonValue.parse("[12345678901234567890124]"))));
+    }
+
     @Test
     @DisplayName("calculatePurgeDueAt rejects negative retention")
     void calculatePurgeDueAtRejectsNegativeRetention() {
@@ -3,6 +3,7 @@ package com.example.gdprkv.requests;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.gdprkv.models.RawJsonValue;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
@@ -36,7 +37,7 @@ class PutRecordHttpRequestTest {
     void validRequest() {
         PutRecordHttpRequest request = new PutRecordHttpRequest(
                 fixture.get("purpose").asText(),
-                fixture.get("value")
+                RawJsonValue.of(fixture.get("value"))
         );
 
         Set<ConstraintViolation<PutRecordHttpRequest>> violations = validator.validate(request);
@@ -47,7 +48,7 @@ class PutRecordHttpRequestTest {
     @Test
     @DisplayName("blank purpose fails bean validation")
     void blankPurposeFailsValidation() {
-        PutRecordHttpRequest request = new PutRecordHttpRequest("  ", MAPPER.createObjectNode());
+        PutRecordHttpRequest request = new PutRecordHttpRequest("  ", RawJsonValue.parse("{}"));
 
         Set<ConstraintViolation<PutRecordHttpRequest>> violations = validator.validate(request);
 
@@ -60,7 +61,7 @@ class PutRecordHttpRequestTest {
     void jsonSerializationUsesExpectedFields() throws Exception {
         PutRecordHttpRequest request = new PutRecordHttpRequest(
                 fixture.get("purpose").asText(),
-                fixture.get("value")
+                RawJsonValue.of(fixture.get("value"))
         );
 
         String json = MAPPER.writeValueAsString(request);
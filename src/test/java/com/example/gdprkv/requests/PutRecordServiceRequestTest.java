@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.example.gdprkv.models.RawJsonValue;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
@@ -78,7 +79,7 @@ class PutRecordServiceRequestTest {
     private record RequestFixture(String subjectId,
                                   String recordKey,
                                   String purpose,
-                                  JsonNode value) {
+                                  RawJsonValue value) {
 
         private static RequestFixture load() throws IOException {
             try (InputStream stream = PutRecordServiceRequestTest.class.getClassLoader()
@@ -88,7 +89,7 @@ class PutRecordServiceRequestTest {
                         node.get("subject_id").asText(),
                         node.get("record_key").asText(),
                         node.get("purpose").asText(),
-                        node.get("value")
+                        RawJsonValue.of(node.get("value"))
                 );
             }
         }
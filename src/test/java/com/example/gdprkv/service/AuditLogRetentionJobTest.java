@@ -2,10 +2,13 @@ package com.example.gdprkv.service;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.gdprkv.access.AuditEventAccess;
 import com.example.gdprkv.access.DynamoAuditEventAccess;
 import com.example.gdprkv.config.AuditRetentionProperties;
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
 import java.time.Clock;
 import java.time.Instant;
@@ -27,8 +30,11 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
 
@@ -58,6 +64,7 @@ class AuditLogRetentionJobTest {
                 .build();
         enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamo).build();
         ensureAuditEventsTable();
+        ensureAnchorsTable();
 
         auditEventAccess = new DynamoAuditEventAccess(enhancedClient);
     }
@@ -68,6 +75,10 @@ class AuditLogRetentionJobTest {
                 .scan().items()
                 .forEach(item -> enhancedClient.table("audit_events", TableSchema.fromBean(AuditEvent.class))
                         .deleteItem(item));
+        enhancedClient.table("audit_chain_anchors", TableSchema.fromBean(AuditChainAnchor.class))
+                .scan().items()
+                .forEach(item -> enhancedClient.table("audit_chain_anchors", TableSchema.fromBean(AuditChainAnchor.class))
+                        .deleteItem(item));
     }
 
     @Test
@@ -86,6 +97,7 @@ class AuditLogRetentionJobTest {
     void deletesOldEvents() {
         AuditRetentionProperties props = new AuditRetentionProperties();
         props.setRetentionDays(30);
+        props.setLegacyScanEnabled(true);  // these events carry no expiry bucket
 
         long now = CLOCK.millis();
         long oldTimestamp = now - (60L * 86400000L); // 60 days old
@@ -124,6 +136,90 @@ class AuditLogRetentionJobTest {
                 "Recent event should be preserved");
     }
 
+    @Test
+    @DisplayName("Job anchors the truncated chain so retained events still verify")
+    void anchorsTruncatedChain() {
+        AuditRetentionProperties props = new AuditRetentionProperties();
+        props.setRetentionDays(30);
+        props.setLegacyScanEnabled(true);  // these events carry no expiry bucket
+
+        long now = CLOCK.millis();
+        AuditEvent first = chainedEvent("sub-anchor", now - (90L * 86400000L), "0".repeat(64), "_A");
+        AuditEvent second = chainedEvent("sub-anchor", now - (60L * 86400000L), first.getHash(), "_B");
+        AuditEvent retained = chainedEvent("sub-anchor", now - (5L * 86400000L), second.getHash(), "_C");
+        auditEventAccess.put(first);
+        auditEventAccess.put(second);
+        auditEventAccess.put(retained);
+
+        new AuditLogRetentionJob(CLOCK, props, auditEventAccess).enforceRetentionPolicy();
+
+        AuditChainAnchor anchor = auditEventAccess.findAnchor("sub-anchor").orElseThrow();
+        assertEquals(second.getHash(), anchor.getAnchorHash());
+        assertEquals(second.getTsUlid(), anchor.getAnchorTsUlid());
+        assertEquals(2L, anchor.getTruncatedCount());
+        assertEquals(1, auditEventAccess.findAllBySubjectId("sub-anchor").size());
+        assertTrue(new AuditLogService(auditEventAccess, CLOCK).verifyChain("sub-anchor"),
+                "Retained chain should verify from the anchor");
+    }
+
+    @Test
+    @DisplayName("Job applies per-event-type retention classes and prunes expired events mid-chain")
+    void perEventTypeRetentionClasses() {
+        AuditRetentionProperties props = new AuditRetentionProperties();
+        props.setRetentionDays(730);
+        props.getEventTypeRetentionDays().put(AuditEvent.EventType.PUT_REQUESTED, 30);
+
+        long now = CLOCK.millis();
+        AuditEvent expiredHead = classifiedEvent("sub-class", now - (33L * 86400000L), "0".repeat(64), "_A",
+                AuditEvent.EventType.PUT_REQUESTED, 30);
+        AuditEvent kept = classifiedEvent("sub-class", now - (32L * 86400000L), expiredHead.getHash(), "_B",
+                AuditEvent.EventType.SUBJECT_ERASURE_COMPLETED, 730);
+        AuditEvent expiredTail = classifiedEvent("sub-class", now - (31L * 86400000L), kept.getHash(), "_C",
+                AuditEvent.EventType.PUT_REQUESTED, 30);
+        auditEventAccess.put(expiredHead);
+        auditEventAccess.put(kept);
+        auditEventAccess.put(expiredTail);
+
+        new AuditLogRetentionJob(CLOCK, props, auditEventAccess).enforceRetentionPolicy();
+
+        var remaining = auditEventAccess.findAllBySubjectId("sub-class");
+        assertEquals(2, remaining.size());
+        assertEquals(kept.getTsUlid(), remaining.get(0).getTsUlid());
+        AuditEvent stub = remaining.get(1);
+        assertEquals(expiredTail.getTsUlid(), stub.getTsUlid());
+        assertEquals(Boolean.TRUE, stub.getPruned());
+        assertNull(stub.getItemKey());
+        assertNull(stub.getExpiryBucket());
+        assertEquals(expiredTail.getHash(), stub.getHash());
+        assertEquals(expiredHead.getHash(), auditEventAccess.findAnchor("sub-class").orElseThrow().getAnchorHash());
+        assertTrue(new AuditLogService(auditEventAccess, CLOCK, props).verifyChain("sub-class"),
+                "Chain with a pruned stub should verify");
+    }
+
+    @Test
+    @DisplayName("Job deletes expired events of removed retention classes and from before the lookback window")
+    void deletesEventsOutsideQueriedBuckets() {
+        AuditRetentionProperties props = new AuditRetentionProperties();
+        props.setRetentionDays(730);  // the 30-day class these events were written under is gone
+
+        long now = CLOCK.millis();
+        AuditEvent removedClass = classifiedEvent("sub-removed", now - (33L * 86400000L), "0".repeat(64), "_A",
+                AuditEvent.EventType.PUT_REQUESTED, 30);
+        AuditEvent pastLookback = classifiedEvent("sub-lookback", now - (760L * 86400000L), "0".repeat(64), "_B",
+                AuditEvent.EventType.PUT_REQUESTED, 730);
+        auditEventAccess.put(removedClass);
+        auditEventAccess.put(pastLookback);
+
+        new AuditLogRetentionJob(CLOCK, props, auditEventAccess).enforceRetentionPolicy();
+        assertEquals(1, auditEventAccess.findAllBySubjectId("sub-removed").size());
+        assertEquals(1, auditEventAccess.findAllBySubjectId("sub-lookback").size());
+
+        props.setExpiredScanEnabled(true);
+        new AuditLogRetentionJob(CLOCK, props, auditEventAccess).enforceRetentionPolicy();
+        assertTrue(auditEventAccess.findAllBySubjectId("sub-removed").isEmpty());
+        assertTrue(auditEventAccess.findAllBySubjectId("sub-lookback").isEmpty());
+    }
+
     @Test
     @DisplayName("Job preserves all events when none are older than retention period")
     void preservesRecentEvents() {
@@ -177,6 +273,51 @@ class AuditLogRetentionJobTest {
                 "Job should handle empty audit log without errors");
     }
 
+    private AuditEvent chainedEvent(String subjectId, long timestamp, String prevHash, String suffix) {
+        return AuditEvent.builder()
+                .subjectId(subjectId)
+                .tsUlid(timestamp + suffix)
+                .eventType(AuditEvent.EventType.PUT_REQUESTED)
+                .requestId("req" + suffix)
+                .timestamp(timestamp)
+                .prevHash(prevHash)
+                .itemKey("key")
+                .purpose("purpose")
+                .build();
+    }
+
+    private AuditEvent classifiedEvent(String subjectId, long timestamp, String prevHash, String suffix,
+                                       AuditEvent.EventType type, int retentionDays) {
+        long expiresAt = AuditEvent.calculateExpiresAt(timestamp, retentionDays);
+        return AuditEvent.builder()
+                .subjectId(subjectId)
+                .tsUlid(timestamp + suffix)
+                .eventType(type)
+                .requestId("req" + suffix)
+                .timestamp(timestamp)
+                .prevHash(prevHash)
+                .itemKey("key")
+                .purpose("purpose")
+                .expiresAt(expiresAt)
+                .expiryBucket(AuditEvent.formatExpiryBucket(retentionDays, expiresAt))
+                .build();
+    }
+
+    private void ensureAnchorsTable() {
+        try {
+            dynamo.describeTable(b -> b.tableName("audit_chain_anchors"));
+        } catch (ResourceNotFoundException ex) {
+            dynamo.createTable(CreateTableRequest.builder()
+                    .tableName("audit_chain_anchors")
+                    .attributeDefinitions(
+                            AttributeDefinition.builder().attributeName("subject_id").attributeType(ScalarAttributeType.S).build())
+                    .keySchema(
+                            KeySchemaElement.builder().attributeName("subject_id").keyType(KeyType.HASH).build())
+                    .billingMode("PAY_PER_REQUEST")
+                    .build());
+        }
+    }
+
     private void ensureAuditEventsTable() {
         try {
             dynamo.describeTable(b -> b.tableName("audit_events"));
@@ -185,10 +326,19 @@ class AuditLogRetentionJobTest {
                     .tableName("audit_events")
                     .attributeDefinitions(
                             AttributeDefinition.builder().attributeName("subject_id").attributeType(ScalarAttributeType.S).build(),
-                            AttributeDefinition.builder().attributeName("ts_ulid").attributeType(ScalarAttributeType.S).build())
+                            AttributeDefinition.builder().attributeName("ts_ulid").attributeType(ScalarAttributeType.S).build(),
+                            AttributeDefinition.builder().attributeName("expiry_bucket").attributeType(ScalarAttributeType.S).build(),
+                            AttributeDefinition.builder().attributeName("expires_at").attributeType(ScalarAttributeType.N).build())
                     .keySchema(
                             KeySchemaElement.builder().attributeName("subject_id").keyType(KeyType.HASH).build(),
                             KeySchemaElement.builder().attributeName("ts_ulid").keyType(KeyType.RANGE).build())
+                    .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                            .indexName("audit_events_by_expiry")
+                            .keySchema(
+                                    KeySchemaElement.builder().attributeName("expiry_bucket").keyType(KeyType.HASH).build(),
+                                    KeySchemaElement.builder().attributeName("expires_at").keyType(KeyType.RANGE).build())
+                            .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                            .build())
                     .billingMode("PAY_PER_REQUEST")
                     .build());
         }
@@ -1,17 +1,22 @@
 package com.example.gdprkv.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.gdprkv.access.AuditEventAccess;
+import com.example.gdprkv.config.AuditRetentionProperties;
+import com.example.gdprkv.models.AuditChainAnchor;
 import com.example.gdprkv.models.AuditEvent;
 import com.example.gdprkv.models.Record;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -97,6 +102,95 @@ class AuditLogServiceTest {
         assertEquals("boom", event.getDetails().get("error"));
     }
 
+    @Test
+    @DisplayName("appends chain from the truncation anchor once all events were deleted")
+    void appendChainsFromAnchor() {
+        when(access.findLatest("sub")).thenReturn(Optional.empty());
+        when(access.findAnchor("sub")).thenReturn(Optional.of(anchor("f".repeat(64))));
+
+        auditLogService.recordPutRequested("sub", "k", "P", "req");
+
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(access).put(captor.capture());
+        assertEquals("f".repeat(64), captor.getValue().getPrevHash());
+    }
+
+    @Test
+    @DisplayName("verifyChain starts from the anchor and detects broken links")
+    void verifyChainFromAnchor() {
+        AuditEvent first = sampleEvent(AuditEvent.EventType.PUT_REQUESTED).toBuilder()
+                .prevHash("a".repeat(64))
+                .build();
+        AuditEvent second = sampleEvent(AuditEvent.EventType.PUT_NEW_ITEM_SUCCESS).toBuilder()
+                .tsUlid("1_MOCK")
+                .prevHash(first.getHash())
+                .build();
+        when(access.findAllBySubjectId("sub")).thenReturn(List.of(first, second));
+
+        when(access.findAnchor("sub")).thenReturn(Optional.of(anchor("a".repeat(64))));
+        assertTrue(auditLogService.verifyChain("sub"));
+
+        when(access.findAnchor("sub")).thenReturn(Optional.empty());
+        assertFalse(auditLogService.verifyChain("sub"));
+    }
+
+    @Test
+    @DisplayName("appended events carry the expiry of their event type's retention class")
+    void appendStampsRetentionClass() {
+        AuditRetentionProperties props = new AuditRetentionProperties();
+        props.getEventTypeRetentionDays().put(AuditEvent.EventType.PUT_REQUESTED, 90);
+        AuditLogService service = new AuditLogService(access, CLOCK, props);
+        when(access.findLatest("sub")).thenReturn(Optional.empty());
+
+        service.recordPutRequested("sub", "pref:email", "PURPOSE", "req-1");
+        service.recordCreateSubjectRequested("sub", "req-2");
+
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(access, times(2)).put(captor.capture());
+        long now = CLOCK.millis();
+        AuditEvent put = captor.getAllValues().get(0);
+        assertEquals(now + 90L * 86400000L, put.getExpiresAt());
+        assertEquals("90d#20241230", put.getExpiryBucket());
+        AuditEvent create = captor.getAllValues().get(1);
+        assertEquals(now + 730L * 86400000L, create.getExpiresAt());
+        assertTrue(create.getExpiryBucket().startsWith("730d#"));
+    }
+
+    @Test
+    @DisplayName("verifyChain checks a pruned stub's hash against the next event's prev_hash and its expiry")
+    void verifyChainWithPrunedStub() {
+        AuditEvent first = sampleEvent(AuditEvent.EventType.PUT_REQUESTED).toBuilder()
+                .prevHash("0".repeat(64))
+                .expiresAt(Instant.now(CLOCK).toEpochMilli() - 1)
+                .build();
+        AuditEvent second = sampleEvent(AuditEvent.EventType.PUT_NEW_ITEM_SUCCESS).toBuilder()
+                .tsUlid("1_MOCK")
+                .prevHash(first.getHash())
+                .build();
+        when(access.findAnchor("sub")).thenReturn(Optional.empty());
+
+        when(access.findAllBySubjectId("sub")).thenReturn(List.of(first.toPrunedStub(), second));
+        assertTrue(auditLogService.verifyChain("sub"));
+
+        AuditEvent broken = second.toBuilder().prevHash("b".repeat(64)).build();
+        when(access.findAllBySubjectId("sub")).thenReturn(List.of(first.toPrunedStub(), broken));
+        assertFalse(auditLogService.verifyChain("sub"));
+
+        AuditEvent unexpired = first.toBuilder().expiresAt(Instant.now(CLOCK).toEpochMilli() + 1).build();
+        when(access.findAllBySubjectId("sub")).thenReturn(List.of(unexpired.toPrunedStub(), second));
+        assertFalse(auditLogService.verifyChain("sub"));
+    }
+
+    private AuditChainAnchor anchor(String hash) {
+        return AuditChainAnchor.builder()
+                .subjectId("sub")
+                .anchorTsUlid("0_ANCHOR")
+                .anchorHash(hash)
+                .anchorTimestamp(0L)
+                .truncatedCount(1L)
+                .build();
+    }
+
     private AuditEvent sampleEvent(AuditEvent.EventType type) {
         return AuditEvent.builder()
                 .subjectId("sub")
@@ -10,13 +10,18 @@ import com.example.gdprkv.access.PolicyAccess;
 import com.example.gdprkv.access.RecordAccess;
 import com.example.gdprkv.access.SubjectAccess;
 import com.example.gdprkv.models.Policy;
+import com.example.gdprkv.models.RawJsonValue;
 import com.example.gdprkv.models.Record;
 import com.example.gdprkv.models.Subject;
+import com.example.gdprkv.requests.BatchPutRecordsServiceRequest;
+import com.example.gdprkv.requests.DeleteRecordServiceRequest;
+import com.example.gdprkv.requests.PatchRecordServiceRequest;
 import com.example.gdprkv.requests.PutRecordServiceRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +29,7 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 class PolicyDrivenRecordServiceTest {
 
@@ -54,7 +60,7 @@ class PolicyDrivenRecordServiceTest {
                 "sub_1",
                 "pref:email",
                 "FULFILLMENT",
-                MAPPER.readTree("{\"email\":\"demo@example.com\"}")
+                RawJsonValue.parse("{\"email\":\"demo@example.com\"}")
         );
 
         Record saved = service.putRecord(request);
@@ -95,7 +101,7 @@ class PolicyDrivenRecordServiceTest {
                 "sub_2",
                 "pref:sms",
                 "DELETION",
-                MAPPER.readTree("{\"enabled\":false}"),
+                RawJsonValue.parse("{\"enabled\":false}"),
                 true,
                 null,
                 null
@@ -120,7 +126,7 @@ class PolicyDrivenRecordServiceTest {
                 "sub_3",
                 "pref:email",
                 "UNKNOWN",
-                MAPPER.readTree("{}")
+                RawJsonValue.parse("{}")
         );
 
         GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecord(request));
@@ -136,13 +142,308 @@ class PolicyDrivenRecordServiceTest {
                 "absent",
                 "pref:email",
                 "FULFILLMENT",
-                MAPPER.readTree("{}")
+                RawJsonValue.parse("{}")
         );
 
         GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecord(request));
         assertEquals(GdprKvException.Code.SUBJECT_NOT_FOUND, ex.getCode());
     }
 
+    @Test
+    @DisplayName("Subject not found takes precedence over invalid purpose")
+    void putRecordMissingSubjectAndPolicy() throws Exception {
+        PutRecordServiceRequest request = new PutRecordServiceRequest(
+                "absent",
+                "pref:email",
+                "UNKNOWN",
+                RawJsonValue.parse("{}")
+        );
+
+        GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecord(request));
+        assertEquals(GdprKvException.Code.SUBJECT_NOT_FOUND, ex.getCode());
+    }
+
+    @Test
+    @DisplayName("Atomic batch put writes all items and rejects the batch on an invalid purpose")
+    void putRecordsAtomic() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_5"));
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.putRecords(batch("sub_5", true,
+                item("sub_5", "pref:email", "FULFILLMENT"), item("sub_5", "pref:sms", "FULFILLMENT")));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(PolicyDrivenRecordService.BatchPutItemResult::succeeded));
+        assertEquals(1L, results.get(1).record().getVersion());
+
+        GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecords(batch("sub_5", true,
+                item("sub_5", "pref:email", "FULFILLMENT"), item("sub_5", "pref:fax", "UNKNOWN"))));
+        assertEquals(GdprKvException.Code.INVALID_PURPOSE, ex.getCode());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey("sub_5", "pref:email").orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Atomic batch put rejects batches beyond the transaction size limit before writing")
+    void putRecordsAtomicOverTransactionLimit() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_10"));
+        RawJsonValue large = RawJsonValue.parse("\"" + "x".repeat(1_000_000) + "\"");
+        PutRecordServiceRequest[] items = new PutRecordServiceRequest[5];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new PutRecordServiceRequest("sub_10", "doc:" + i, "FULFILLMENT", large, false, null, "req-batch");
+        }
+
+        GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecords(batch("sub_10", true, items)));
+
+        assertEquals(GdprKvException.Code.BATCH_TOO_LARGE, ex.getCode());
+        assertTrue(recordAccess.findAllBySubjectId("sub_10").isEmpty());
+        assertEquals(4, service.putRecords(batch("sub_10", true, Arrays.copyOf(items, 4))).size());
+    }
+
+    @Test
+    @DisplayName("Atomic batch put skips unchanged values and leaves them out of the transaction limits")
+    void putRecordsAtomicSkipsUnchanged() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_13"));
+        RawJsonValue large = RawJsonValue.parse("\"" + "x".repeat(1_000_000) + "\"");
+        PutRecordServiceRequest[] items = new PutRecordServiceRequest[5];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new PutRecordServiceRequest("sub_13", "doc:" + i, "FULFILLMENT", large, false, null, "req-first");
+        }
+        service.putRecords(batch("sub_13", true, Arrays.copyOf(items, 4)));
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new PutRecordServiceRequest("sub_13", "doc:" + i, "FULFILLMENT", large, false, null, "req-batch");
+        }
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.putRecords(batch("sub_13", true, items));
+
+        assertEquals(5, results.size());
+        assertEquals(1L, results.get(0).record().getVersion());
+        assertEquals("req-first", results.get(0).record().getRequestId());
+        assertEquals("req-batch", results.get(4).record().getRequestId());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey("sub_13", "doc:0").orElseThrow().getVersion());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey("sub_13", "doc:4").orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Best-effort batch put reports invalid purposes per item and writes the rest")
+    void putRecordsBestEffort() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_6"));
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.putRecords(batch("sub_6", false,
+                item("sub_6", "pref:email", "FULFILLMENT"), item("sub_6", "pref:fax", "UNKNOWN")));
+
+        assertTrue(results.get(0).succeeded());
+        assertFalse(results.get(1).succeeded());
+        assertEquals("INVALID_PURPOSE", results.get(1).errorCode());
+        assertTrue(recordAccess.findBySubjectIdAndRecordKey("sub_6", "pref:fax").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Best-effort batch put skips unchanged values and returns the stored record")
+    void putRecordsBestEffortSkipsUnchanged() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_12"));
+        putValue("sub_12", "pref:email", "{}");
+        putValue("sub_12", "pref:sms", "{\"v\":1}");
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.putRecords(batch("sub_12", false,
+                item("sub_12", "pref:email", "FULFILLMENT"), item("sub_12", "pref:sms", "FULFILLMENT")));
+
+        assertEquals(1L, results.get(0).record().getVersion());
+        assertFalse(results.get(0).record().getRequestId().equals("req-batch"));
+        assertEquals(2L, results.get(1).record().getVersion());
+        assertEquals(1L, recordAccess.findBySubjectIdAndRecordKey("sub_12", "pref:email").orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Batch put checks the subject before purposes and enforces the item limit")
+    void putRecordsValidation() throws Exception {
+        GdprKvException ex = assertThrows(GdprKvException.class, () -> service.putRecords(batch("absent", true,
+                item("absent", "pref:email", "UNKNOWN"))));
+        assertEquals(GdprKvException.Code.SUBJECT_NOT_FOUND, ex.getCode());
+
+        PutRecordServiceRequest[] tooMany = new PutRecordServiceRequest[26];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = item("absent", "key:" + i, "FULFILLMENT");
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.putRecords(batch("absent", true, tooMany)));
+    }
+
+    @Test
+    @DisplayName("Ingest writes across subjects, carries versions forward and fails unknown subjects per item")
+    void ingestRecords() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_7"));
+        subjectAccess.save(subject("sub_8"));
+        service.putRecord(new PutRecordServiceRequest("sub_7", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"v\":1}")));
+        service.putRecord(new PutRecordServiceRequest("sub_8", "pref:sms", "FULFILLMENT", RawJsonValue.parse("{}")));
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.ingestRecords(List.of(
+                item("sub_7", "pref:email", "FULFILLMENT"),
+                item("sub_8", "pref:email", "FULFILLMENT"),
+                item("ghost", "pref:email", "FULFILLMENT"),
+                item("sub_8", "pref:fax", "UNKNOWN"),
+                item("sub_8", "pref:sms", "FULFILLMENT")));
+
+        assertEquals(2L, results.get(0).record().getVersion());
+        assertEquals(1L, results.get(1).record().getVersion());
+        assertEquals("SUBJECT_NOT_FOUND", results.get(2).errorCode());
+        assertEquals("INVALID_PURPOSE", results.get(3).errorCode());
+        assertEquals(2L, recordAccess.findBySubjectIdAndRecordKey("sub_7", "pref:email").orElseThrow().getVersion());
+        assertTrue(recordAccess.findBySubjectIdAndRecordKey("ghost", "pref:email").isEmpty());
+        assertEquals(1L, results.get(4).record().getVersion());
+        assertFalse(results.get(4).record().getRequestId().equals("req-batch"));
+    }
+
+    @Test
+    @DisplayName("Ingest items that lose a race with a concurrent PUT fail instead of overwriting it")
+    void ingestRecordsLosingRaceWithPut() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_9"));
+        service.putRecord(new PutRecordServiceRequest("sub_9", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"v\":1}")));
+        recordAccess.afterBatchRead = () -> {
+            putValue("sub_9", "pref:email", "{\"v\":2}");
+            putValue("sub_9", "pref:sms", "{\"v\":2}");
+        };
+
+        List<PolicyDrivenRecordService.BatchPutItemResult> results = service.ingestRecords(List.of(
+                item("sub_9", "pref:email", "FULFILLMENT"),
+                item("sub_9", "pref:sms", "FULFILLMENT"),
+                item("sub_9", "pref:fax", "FULFILLMENT")));
+
+        assertEquals("VERSION_MISMATCH", results.get(0).errorCode());
+        assertEquals("VERSION_MISMATCH", results.get(1).errorCode());
+        assertTrue(results.get(2).succeeded());
+        Record email = recordAccess.findBySubjectIdAndRecordKey("sub_9", "pref:email").orElseThrow();
+        assertEquals(2L, email.getVersion());
+        assertEquals("{\"v\":2}", email.getRawValue().json());
+        assertEquals("{\"v\":2}", recordAccess.findBySubjectIdAndRecordKey("sub_9", "pref:sms").orElseThrow().getRawValue().json());
+    }
+
+    @Test
+    @DisplayName("Re-putting an unchanged value skips the write and returns the stored record")
+    void putRecordUnchangedValueIsNoop() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_9"));
+        Record first = service.putRecord(new PutRecordServiceRequest(
+                "sub_9", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"a\":1,\"b\":2}"), false, null, "req-1"));
+
+        Record second = service.putRecord(new PutRecordServiceRequest(
+                "sub_9", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"b\":2,\"a\":1}"), false, null, "req-2"));
+
+        assertEquals(1L, second.getVersion());
+        assertEquals("req-1", second.getRequestId());
+        assertEquals(first.getContentHash(), second.getContentHash());
+
+        Record changed = service.putRecord(new PutRecordServiceRequest(
+                "sub_9", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"a\":1,\"b\":3}"), false, null, "req-3"));
+        assertEquals(2L, changed.getVersion());
+        assertEquals("req-3", changed.getRequestId());
+    }
+
+    @Test
+    @DisplayName("Re-putting a value that differs only beyond double precision is stored, not skipped")
+    void putRecordPreciseNumberChangeIsWritten() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_13"));
+        putValue("sub_13", "balance", "{\"amount\":0.1}");
+
+        Record second = service.putRecord(new PutRecordServiceRequest(
+                "sub_13", "balance", "FULFILLMENT", RawJsonValue.parse("{\"amount\":0.10000000000000001}")));
+
+        assertEquals(2L, second.getVersion());
+        assertEquals("{\"amount\":0.10000000000000001}",
+                recordAccess.findBySubjectIdAndRecordKey("sub_13", "balance").orElseThrow().getRawValue().json());
+    }
+
+    @Test
+    @DisplayName("Rejects put and delete when expected version does not match")
+    void expectedVersionMismatch() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_4"));
+        service.putRecord(new PutRecordServiceRequest("sub_4", "pref:email", "FULFILLMENT", RawJsonValue.parse("{}")));
+
+        PutRecordServiceRequest stalePut = new PutRecordServiceRequest(
+                "sub_4", "pref:email", "FULFILLMENT", RawJsonValue.parse("{}"), false, null, null, 7L);
+        GdprKvException putEx = assertThrows(GdprKvException.class, () -> service.putRecord(stalePut));
+        assertEquals(GdprKvException.Code.VERSION_MISMATCH, putEx.getCode());
+
+        DeleteRecordServiceRequest staleDelete = new DeleteRecordServiceRequest("sub_4", "pref:email", null, 7L);
+        GdprKvException deleteEx = assertThrows(GdprKvException.class, () -> service.deleteRecord(staleDelete));
+        assertEquals(GdprKvException.Code.VERSION_MISMATCH, deleteEx.getCode());
+
+        PutRecordServiceRequest currentPut = new PutRecordServiceRequest(
+                "sub_4", "pref:email", "FULFILLMENT", RawJsonValue.parse("{\"email\":\"new\"}"), false, null, null, 1L);
+        assertEquals(2L, service.putRecord(currentPut).getVersion());
+
+        Record deleted = service.deleteRecord(new DeleteRecordServiceRequest("sub_4", "pref:email", null, 2L));
+        assertEquals(3L, deleted.getVersion());
+        assertTrue(deleted.getTombstoned());
+    }
+
+    @Test
+    @DisplayName("Patches merge into the stored value and bump the version; no-op and missing records are handled")
+    void patchRecord() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_10"));
+        service.putRecord(new PutRecordServiceRequest("sub_10", "profile", "FULFILLMENT",
+                RawJsonValue.parse("{\"name\":\"Ada\",\"prefs\":{\"sms\":true,\"email\":false}}"), false, null, "req-1"));
+
+        Record patched = service.patchRecord(new PatchRecordServiceRequest("sub_10", "profile",
+                MAPPER.readTree("{\"prefs\":{\"email\":true,\"sms\":null},\"city\":\"Oslo\"}"), "req-2", 1L));
+
+        assertEquals(2L, patched.getVersion());
+        assertEquals("req-2", patched.getRequestId());
+        assertEquals(MAPPER.readTree("{\"name\":\"Ada\",\"prefs\":{\"email\":true},\"city\":\"Oslo\"}"),
+                recordAccess.findBySubjectIdAndRecordKey("sub_10", "profile").orElseThrow().getValue());
+        assertEquals(Record.computeContentHash("FULFILLMENT", patched.getValue()), patched.getContentHash());
+
+        Record unchanged = service.patchRecord(new PatchRecordServiceRequest("sub_10", "profile",
+                MAPPER.readTree("{\"city\":\"Oslo\"}"), "req-3", null));
+        assertEquals(2L, unchanged.getVersion());
+        assertEquals("req-2", unchanged.getRequestId());
+
+        GdprKvException stale = assertThrows(GdprKvException.class, () -> service.patchRecord(
+                new PatchRecordServiceRequest("sub_10", "profile", MAPPER.readTree("{\"city\":\"Rome\"}"), null, 1L)));
+        assertEquals(GdprKvException.Code.VERSION_MISMATCH, stale.getCode());
+
+        GdprKvException missing = assertThrows(GdprKvException.class, () -> service.patchRecord(
+                new PatchRecordServiceRequest("sub_10", "absent", MAPPER.readTree("{}"))));
+        assertEquals(GdprKvException.Code.RECORD_NOT_FOUND, missing.getCode());
+    }
+
+    @Test
+    @DisplayName("Single-record reads return live records and suppress tombstones")
+    void getRecordSuppressesTombstones() throws Exception {
+        policyAccess.save(policy("FULFILLMENT", 30));
+        subjectAccess.save(subject("sub_11"));
+        service.putRecord(new PutRecordServiceRequest("sub_11", "pref:email", "FULFILLMENT",
+                RawJsonValue.parse("{\"email\":\"demo@example.com\"}")));
+
+        assertEquals(1L, service.getRecord("sub_11", "pref:email").getVersion());
+
+        service.deleteRecord(new DeleteRecordServiceRequest("sub_11", "pref:email"));
+        GdprKvException gone = assertThrows(GdprKvException.class, () -> service.getRecord("sub_11", "pref:email"));
+        assertEquals(GdprKvException.Code.READ_SUPPRESSED_TOMBSTONE, gone.getCode());
+
+        GdprKvException missing = assertThrows(GdprKvException.class, () -> service.getRecord("sub_11", "absent"));
+        assertEquals(GdprKvException.Code.RECORD_NOT_FOUND, missing.getCode());
+    }
+
+    private void putValue(String subjectId, String recordKey, String json) {
+        service.putRecord(new PutRecordServiceRequest(subjectId, recordKey, "FULFILLMENT", RawJsonValue.parse(json)));
+    }
+
+    private BatchPutRecordsServiceRequest batch(String subjectId, boolean atomic, PutRecordServiceRequest... items) {
+        return new BatchPutRecordsServiceRequest(subjectId, List.of(items), atomic, "req-batch");
+    }
+
+    private PutRecordServiceRequest item(String subjectId, String recordKey, String purpose) throws Exception {
+        return new PutRecordServiceRequest(subjectId, recordKey, purpose, RawJsonValue.parse("{}"), false, null, "req-batch");
+    }
+
     private Policy policy(String purpose, int retentionDays) {
         return Policy.builder()
                 .purpose(purpose)
@@ -171,10 +472,16 @@ class PolicyDrivenRecordServiceTest {
         public Optional<Policy> findByPurpose(String purpose) {
             return Optional.ofNullable(store.get(purpose));
         }
+
+        @Override
+        public List<Policy> findAll() {
+            return List.copyOf(store.values());
+        }
     }
 
     private static class InMemoryRecordAccess implements RecordAccess {
         private final Map<String, Record> store = new HashMap<>();
+        private Runnable afterBatchRead = () -> { };  // Runs once, e.g. to simulate a write racing an ingest
 
         @Override
         public Optional<Record> findBySubjectIdAndRecordKey(String subjectId, String recordKey) {
@@ -203,6 +510,53 @@ class PolicyDrivenRecordServiceTest {
             return record;
         }
 
+        @Override
+        public Record save(Record record, long expectedVersion) {
+            Record existing = store.get(key(record.getSubjectId(), record.getRecordKey()));
+            if (existing == null || existing.getVersion() != expectedVersion) {
+                throw ConditionalCheckFailedException.builder().message("version mismatch").build();
+            }
+            return save(record);
+        }
+
+        @Override
+        public List<Record> findAllByKeys(List<Record> keys) {
+            List<Record> found = keys.stream()
+                    .map(k -> store.get(key(k.getSubjectId(), k.getRecordKey())))
+                    .filter(java.util.Objects::nonNull)
+                    .toList();
+            Runnable hook = afterBatchRead;
+            afterBatchRead = () -> { };
+            hook.run();
+            return found;
+        }
+
+        @Override
+        public Record create(Record record) {
+            if (store.containsKey(key(record.getSubjectId(), record.getRecordKey()))) {
+                throw ConditionalCheckFailedException.builder().message("record exists").build();
+            }
+            return save(record);
+        }
+
+        @Override
+        public List<Record> upsertAll(List<Record> records) {
+            return records.stream().map(this::upsert).toList();
+        }
+
+        @Override
+        public Record upsert(Record record, Long expectedVersion) {
+            Record existing = store.get(key(record.getSubjectId(), record.getRecordKey()));
+            if (expectedVersion != null && (existing == null || !expectedVersion.equals(existing.getVersion()))) {
+                throw ConditionalCheckFailedException.builder().message("version mismatch").build();
+            }
+            Record stored = record.toBuilder()
+                    .createdAt(existing == null ? record.getCreatedAt() : existing.getCreatedAt())
+                    .version(existing == null ? 1L : existing.getVersion() + 1)
+                    .build();
+            return save(stored);
+        }
+
         @Override
         public void delete(Record record) {
             store.remove(key(record.getSubjectId(), record.getRecordKey()));
@@ -232,5 +586,10 @@ class PolicyDrivenRecordServiceTest {
             store.put(subject.getSubjectId(), subject);
             return subject;
         }
+
+        @Override
+        public List<String> findAllSubjectIds() {
+            return List.copyOf(store.keySet());
+        }
     }
 }
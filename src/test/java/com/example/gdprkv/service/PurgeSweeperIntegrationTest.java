@@ -78,7 +78,7 @@ class PurgeSweeperIntegrationTest {
         ensureRecordsTable();
         ensureAuditEventsTable();
 
-        recordAccess = new DynamoRecordAccess(enhancedClient);
+        recordAccess = new DynamoRecordAccess(enhancedClient, dynamo);
         auditEventAccess = new DynamoAuditEventAccess(enhancedClient);
         auditLogService = new AuditLogService(auditEventAccess, clock);
 
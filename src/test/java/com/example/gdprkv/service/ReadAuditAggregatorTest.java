@@ -0,0 +1,149 @@
+package com.example.gdprkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.config.ReadAuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class ReadAuditAggregatorTest {
+
+    private static final long WINDOW_START = 1_727_785_200_000L;
+
+    private AuditLogService auditLogService;
+    private Clock clock;
+    private ReadAuditProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadAuditAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        auditLogService = Mockito.mock(AuditLogService.class);
+        clock = Mockito.mock(Clock.class);
+        properties = new ReadAuditProperties();
+        properties.setWindowSeconds(60);
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new ReadAuditAggregator(auditLogService, properties, clock, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("reads within a window are written as one summary once the window closes")
+    void summarisesWindowAfterItCloses() {
+        when(clock.millis()).thenReturn(WINDOW_START + 1_000L, WINDOW_START + 2_000L, WINDOW_START + 3_000L);
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-2");
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-3");
+
+        when(clock.millis()).thenReturn(WINDOW_START + 30_000L);
+        aggregator.flushClosedWindows();
+        verify(auditLogService, never()).recordReadSummary(anyString(), anyString(), anyString(), anyString(), anyMap());
+
+        when(clock.millis()).thenReturn(WINDOW_START + 60_000L);
+        aggregator.flushClosedWindows();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> details = ArgumentCaptor.forClass(Map.class);
+        verify(auditLogService).recordReadSummary(eq("sub"), eq("pref:email"), eq("PURPOSE"), eq("req-3"), details.capture());
+        assertEquals(3L, details.getValue().get("read_count"));
+        assertEquals(WINDOW_START + 1_000L, details.getValue().get("first_read_at"));
+        assertEquals(WINDOW_START + 3_000L, details.getValue().get("last_read_at"));
+        assertEquals("req-1", details.getValue().get("first_request_id"));
+        assertEquals(WINDOW_START, details.getValue().get("window_start"));
+
+        aggregator.flushClosedWindows();
+        verify(auditLogService, times(1)).recordReadSummary(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("flushAll writes open windows and keys are summarised separately")
+    void flushAllWritesOpenWindows() {
+        when(clock.millis()).thenReturn(WINDOW_START + 1_000L);
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        aggregator.recordRead("sub", "pref:phone", "PURPOSE", "req-1");
+
+        aggregator.flushAll();
+
+        verify(auditLogService).recordReadSummary(eq("sub"), eq("pref:email"), eq("PURPOSE"), eq("req-1"), anyMap());
+        verify(auditLogService).recordReadSummary(eq("sub"), eq("pref:phone"), eq("PURPOSE"), eq("req-1"), anyMap());
+    }
+
+    @Test
+    @DisplayName("failed flush keeps the window pending for the next flush")
+    void failedFlushIsRetried() {
+        when(clock.millis()).thenReturn(WINDOW_START + 1_000L);
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        doThrow(new RuntimeException("boom")).doNothing()
+                .when(auditLogService).recordReadSummary(any(), any(), any(), any(), any());
+
+        aggregator.flushAll();
+        aggregator.flushAll();
+
+        verify(auditLogService, times(2)).recordReadSummary(eq("sub"), eq("pref:email"), eq("PURPOSE"), eq("req-1"), anyMap());
+    }
+
+    @Test
+    @DisplayName("too many pending windows are flushed early on a background thread, not the reading one")
+    void earlyFlushRunsInBackground() {
+        properties.setMaxPendingKeys(1);
+        AtomicReference<Thread> flushThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            flushThread.set(Thread.currentThread());
+            return null;
+        }).when(auditLogService).recordReadSummary(any(), any(), any(), any(), any());
+        when(clock.millis()).thenReturn(WINDOW_START + 1_000L);
+
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        aggregator.recordRead("sub", "pref:phone", "PURPOSE", "req-2");
+
+        verify(auditLogService, timeout(5_000).times(2)).recordReadSummary(any(), any(), any(), any(), any());
+        assertNotEquals(Thread.currentThread(), flushThread.get());
+    }
+
+    @Test
+    @DisplayName("failed windows beyond max-pending-keys are dropped and counted instead of requeued")
+    void failedFlushRequeuesUpToCap() {
+        properties.setMaxPendingKeys(2);
+        when(clock.millis()).thenReturn(WINDOW_START + 1_000L);
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        aggregator.recordRead("sub", "pref:phone", "PURPOSE", "req-1");
+        doThrow(new RuntimeException("boom")).when(auditLogService).recordReadSummary(any(), any(), any(), any(), any());
+        properties.setMaxPendingKeys(1);
+
+        when(clock.millis()).thenReturn(WINDOW_START + 60_000L);
+        aggregator.flushClosedWindows();
+        aggregator.flushClosedWindows();
+
+        verify(auditLogService, times(3)).recordReadSummary(any(), any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("gdprkv.audit.reads.dropped").count());
+    }
+
+    @Test
+    @DisplayName("disabled read auditing records nothing")
+    void disabledRecordsNothing() {
+        properties.setEnabled(false);
+
+        aggregator.recordRead("sub", "pref:email", "PURPOSE", "req-1");
+        aggregator.flushAll();
+
+        verify(auditLogService, never()).recordReadSummary(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.gdprkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.gdprkv.config.RecordIngestProperties;
+import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.PutRecordServiceRequest;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class RecordIngestServiceTest {
+
+    private PolicyDrivenRecordService recordService;
+    private AuditLogService auditLogService;
+    private RecordIngestProperties properties;
+    private RecordIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        recordService = Mockito.mock(PolicyDrivenRecordService.class);
+        auditLogService = Mockito.mock(AuditLogService.class);
+        properties = new RecordIngestProperties();
+        properties.setChunkSize(2);
+        properties.setMaxInFlightChunks(2);
+        ingestService = new RecordIngestService(recordService, auditLogService, properties);
+
+        when(recordService.ingestRecords(anyList())).thenAnswer(invocation -> {
+            List<PutRecordServiceRequest> items = invocation.getArgument(0);
+            return items.stream()
+                    .map(item -> PolicyDrivenRecordService.BatchPutItemResult.success(item, Record.builder()
+                            .subjectId(item.subjectId())
+                            .recordKey(item.recordKey())
+                            .purpose(item.purpose())
+                            .version(1L)
+                            .requestId(item.requestId())
+                            .build()))
+                    .toList();
+        });
+    }
+
+    @Test
+    @DisplayName("lines are written in chunks and every line gets a result")
+    void writesChunks() throws Exception {
+        List<RecordIngestService.LineResult> results = new ArrayList<>();
+        RecordIngestService.Summary summary = ingestService.ingest(ndjson(
+                line("sub_1", "k1"),
+                line("sub_2", "k1"),
+                "",
+                line("sub_1", "k2"),
+                "{not json",
+                line("sub_2", "k2"),
+                line("sub_3", "k1")), "req-ingest", results::addAll);
+
+        assertEquals(6, summary.lines());
+        assertEquals(5, summary.succeeded());
+        assertEquals(1, summary.failed());
+        verify(recordService, times(3)).ingestRecords(anyList());
+
+        results.sort(Comparator.comparingLong(RecordIngestService.LineResult::lineNumber));
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L, 7L),
+                results.stream().map(RecordIngestService.LineResult::lineNumber).toList());
+        assertEquals("INVALID_LINE", results.get(3).errorCode());
+        assertNull(results.get(3).subjectId());
+        assertEquals("req-ingest", results.get(0).record().getRequestId());
+        verify(auditLogService, times(5)).recordBatchPutResults(anyList());
+    }
+
+    @Test
+    @DisplayName("a repeated record key starts a new chunk after the earlier write")
+    void repeatedKeyStartsNewChunk() throws Exception {
+        properties.setChunkSize(25);
+
+        ingestService.ingest(ndjson(line("sub_1", "k1"), line("sub_1", "k2"), line("sub_1", "k1")),
+                "req-ingest", results -> { });
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PutRecordServiceRequest>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(recordService, times(2)).ingestRecords(chunks.capture());
+        assertEquals(2, chunks.getAllValues().get(0).size());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+    }
+
+    @Test
+    @DisplayName("a failed chunk is reported per line and unknown subjects are not audited")
+    void failedChunkAndUnknownSubject() throws Exception {
+        when(recordService.ingestRecords(anyList()))
+                .thenAnswer(invocation -> {
+                    List<PutRecordServiceRequest> items = invocation.getArgument(0);
+                    return items.stream()
+                            .map(item -> PolicyDrivenRecordService.BatchPutItemResult.failure(item,
+                                    GdprKvException.subjectNotFound(item.subjectId())))
+                            .toList();
+                })
+                .thenThrow(new IllegalStateException("boom"));
+
+        List<RecordIngestService.LineResult> results = new ArrayList<>();
+        properties.setMaxInFlightChunks(1);
+        RecordIngestService.Summary summary = ingestService.ingest(ndjson(
+                line("ghost", "k1"), line("ghost", "k2"), line("sub_1", "k1")), "req-ingest", results::addAll);
+
+        assertEquals(3, summary.failed());
+        results.sort(Comparator.comparingLong(RecordIngestService.LineResult::lineNumber));
+        assertEquals("SUBJECT_NOT_FOUND", results.get(0).errorCode());
+        assertEquals("UNKNOWN", results.get(2).errorCode());
+        assertEquals("boom", results.get(2).errorMessage());
+        verify(auditLogService, times(1)).recordBatchPutResults(anyList());
+        verify(auditLogService, never()).recordBatchPutFailure(any(), any());
+    }
+
+    private static String line(String subjectId, String recordKey) {
+        return "{\"subject_id\":\"" + subjectId + "\",\"record_key\":\"" + recordKey
+                + "\",\"purpose\":\"FULFILLMENT\",\"value\":{\"n\":1}}";
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.gdprkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.gdprkv.models.RawJsonValue;
+import com.example.gdprkv.models.Record;
+import com.example.gdprkv.requests.PutRecordServiceRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RecordWriteCoalescerTest {
+
+    @Test
+    @DisplayName("concurrent PUTs to one record within the window are written once, last writer wins")
+    void coalescesConcurrentPuts() {
+        RecordWriteCoalescer coalescer = new RecordWriteCoalescer(Set.of("PRESENCE"), 500);
+        List<PutRecordServiceRequest> written = new CopyOnWriteArrayList<>();
+        List<PolicyDrivenRecordService.PutOutcome> outcomes;
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<PolicyDrivenRecordService.PutOutcome>> calls = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                PutRecordServiceRequest request = request("PRESENCE", "req-" + i);
+                calls.add(CompletableFuture.supplyAsync(() -> coalescer.put(request, winner -> {
+                    written.add(winner);
+                    return stored(winner);
+                }), callers));
+            }
+            outcomes = calls.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertEquals(1, written.size());
+        String winner = written.getFirst().requestId();
+        assertEquals(4, outcomes.stream().filter(PolicyDrivenRecordService.PutOutcome::coalesced).count());
+        outcomes.forEach(outcome -> {
+            assertEquals(winner, outcome.record().getRequestId());
+            if (outcome.coalesced()) {
+                assertEquals(winner, outcome.coalescedInto());
+            }
+        });
+        assertSame(outcomes.get(0).record(), outcomes.get(4).record());
+    }
+
+    @Test
+    @DisplayName("only PUTs of configured purposes without If-Match or tombstones are accepted")
+    void acceptsOnlyOptedInPuts() {
+        RecordWriteCoalescer coalescer = new RecordWriteCoalescer(Set.of("PRESENCE"), 20);
+
+        assertTrue(coalescer.accepts(request("PRESENCE", "a")));
+        assertFalse(coalescer.accepts(request("FULFILLMENT", "b")));
+        assertFalse(coalescer.accepts(new PutRecordServiceRequest("sub_1", "presence", "PRESENCE",
+                RawJsonValue.parse("{}"), false, null, "c", 3L)));
+        assertFalse(RecordWriteCoalescer.disabled().accepts(request("PRESENCE", "d")));
+    }
+
+    private static PutRecordServiceRequest request(String purpose, String requestId) {
+        return new PutRecordServiceRequest("sub_1", "presence", purpose,
+                RawJsonValue.parse("{\"seen\":\"" + requestId + "\"}"), false, null, requestId);
+    }
+
+    private static Record stored(PutRecordServiceRequest request) {
+        return Record.builder()
+                .subjectId(request.subjectId())
+                .recordKey(request.recordKey())
+                .purpose(request.purpose())
+                .rawValue(request.value())
+                .createdAt(1L)
+                .updatedAt(1L)
+                .version(1L)
+                .retentionDays(1)
+                .requestId(request.requestId())
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -88,5 +89,10 @@ class SubjectServiceTest {
             store.put(subject.getSubjectId(), subject);
             return subject;
         }
+
+        @Override
+        public List<String> findAllSubjectIds() {
+            return List.copyOf(store.keySet());
+        }
     }
 }
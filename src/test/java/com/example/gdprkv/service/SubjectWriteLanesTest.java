@@ -0,0 +1,72 @@
+package com.example.gdprkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SubjectWriteLanesTest {
+
+    private final SubjectWriteLanes lanes = new SubjectWriteLanes(4);
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    @DisplayName("operations of one subject never overlap")
+    void linearizesOneSubject() {
+        int[] counter = {0};
+        List<Integer> seen = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> calls = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                calls.add(CompletableFuture.runAsync(() -> lanes.run("sub-1", () -> {
+                    // Unsynchronised read-modify-write: only safe if the lane runs one at a time.
+                    int read = counter[0];
+                    Thread.yield();
+                    counter[0] = read + 1;
+                    seen.add(read);
+                }), callers));
+            }
+            calls.forEach(CompletableFuture::join);
+        }
+
+        assertEquals(200, counter[0]);
+        assertEquals(200, seen.size());
+    }
+
+    @Test
+    @DisplayName("results and exceptions reach the caller, and nested calls for the same subject run inline")
+    void propagatesResultsAndRunsNestedCallsInline() {
+        IllegalArgumentException failure = new IllegalArgumentException("boom");
+
+        assertEquals("ok", lanes.run("sub-1", () -> "ok"));
+        assertSame(failure, assertThrows(IllegalArgumentException.class,
+                () -> lanes.run("sub-1", () -> {
+                    throw failure;
+                })));
+        Thread outer = lanes.run("sub-1", () -> {
+            Thread lane = Thread.currentThread();
+            assertSame(lane, lanes.run("sub-1", Thread::currentThread));
+            return lane;
+        });
+        assertNotEquals(Thread.currentThread(), outer);
+    }
+
+    @Test
+    @DisplayName("direct lanes run on the caller's thread")
+    void directRunsOnCaller() {
+        assertSame(Thread.currentThread(), SubjectWriteLanes.direct().run("sub-1", Thread::currentThread));
+    }
+}